@@ -138,11 +138,12 @@ public class LogAspect {
             // 过滤掉敏感参数
             for (int i = 0; i < args.length; i++) {
                 if (args[i] != null) {
-                    if (args[i].toString().contains("password") || 
-                        args[i].toString().contains("token")) {
+                    // 每个参数只调用一次toString
+                    String arg = args[i].toString();
+                    if (arg.contains("password") || arg.contains("token")) {
                         details.append("[敏感信息已过滤]");
                     } else {
-                        details.append(args[i].toString());
+                        details.append(arg);
                     }
                     if (i < args.length - 1) {
                         details.append(", ");
@@ -149,6 +149,12 @@ public class CacheConstants {
     // 所有分类缓存键
     public static final String ALL_CATEGORIES_CACHE_KEY = "community:category:all";
 
+    /**
+     * 缓存失效索引相关常量
+     */
+    // 命名空间成员索引键前缀
+    public static final String CACHE_INDEX_KEY_PREFIX = "cache:index:";
+
     /**
      * 缓存过期时间常量（单位：秒）
      */
@@ -178,4 +184,17 @@ public class CacheConstants {
     public static final long CATEGORY_CACHE_EXPIRE_TIME = 6 * 60 * 60;
     // 用户相关缓存过期时间：15分钟
     public static final long USER_CACHE_EXPIRE_TIME = 15 * 60;
-} 
\ No newline at end of file
+    // 命名空间成员索引过期时间：不短于上面最长的缓存过期时间
+    public static final long CACHE_INDEX_EXPIRE_TIME = 7 * 60 * 60;
+
+    /**
+     * 本地缓存（L1）过期时间常量（单位：秒）
+     * 本地缓存感知不到其他实例的写入，过期时间就是跨实例数据不一致的最长时间
+     */
+    // 分类数据本地缓存过期时间：5分钟
+    public static final long LOCAL_CATEGORY_CACHE_EXPIRE_TIME = 5 * 60;
+    // 热门/最新列表本地缓存过期时间：1分钟
+    public static final long LOCAL_LIST_CACHE_EXPIRE_TIME = 60;
+    // 内容详情本地缓存过期时间：30秒
+    public static final long LOCAL_DETAIL_CACHE_EXPIRE_TIME = 30;
+}
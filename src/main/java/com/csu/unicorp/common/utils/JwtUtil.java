@@ -1,9 +1,11 @@
 package com.csu.unicorp.common.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -31,6 +33,20 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:604800000}")
     private long refreshExpiration; // 默认7天
 
+    /**
+     * 签名密钥和解析器只在启动时构建一次，解析器是线程安全的
+     */
+    private SecretKey key;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
     /**
      * 从token中获取用户名
      */
@@ -54,23 +70,18 @@ public class JwtUtil {
     }
 
     /**
-     * 从token中获取所有数据
+     * 解析并校验token，返回其中的所有数据
+     * 签名无效或已过期时抛出JwtException，调用方可以复用返回的Claims，避免重复解析
      */
-    private Claims extractAllClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
     }
 
     /**
-     * 检查token是否过期
+     * 从token中获取所有数据
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = extractExpiration(token);
-        return expiration.before(new Date());
+    private Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -92,7 +103,6 @@ public class JwtUtil {
      * 创建token
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
@@ -116,7 +126,6 @@ public class JwtUtil {
      * 创建刷新令牌
      */
     private String createRefreshToken(Map<String, Object> claims, String subject) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
@@ -156,7 +165,15 @@ public class JwtUtil {
      * 验证token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * 使用已解析的数据验证token
+     */
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username != null && username.equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date()));
     }
 } 
\ No newline at end of file
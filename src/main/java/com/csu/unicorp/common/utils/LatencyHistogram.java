@@ -0,0 +1,122 @@
+package com.csu.unicorp.common.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * 使用固定的对数刻度分桶，记录操作只做几次无锁累加，可以在请求线程中直接调用。
+ * 分位数按桶上界估算，精度取决于分桶粒度。
+ */
+public class LatencyHistogram {
+
+    /**
+     * 分桶上界（毫秒），最后还有一个溢出桶
+     */
+    private static final long[] BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次操作
+     *
+     * @param nanos 耗时（纳秒）
+     * @param error 是否失败
+     */
+    public void record(long nanos, boolean error) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets[bucketOf(micros)].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        if (error) {
+            errorCount.increment();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * 估算分位数
+     *
+     * @param quantile 分位（0~1）
+     * @return 分位数所在桶的上界（毫秒），落在溢出桶时返回最大值
+     */
+    public double percentileMillis(double quantile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MS.length ? Math.min(BOUNDS_MS[i], getMaxMillis()) : getMaxMillis();
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * 各桶的计数，键为桶上界
+     */
+    public Map<String, Long> getBuckets() {
+        long[] counts = snapshot();
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            result.put(i < BOUNDS_MS.length ? "<=" + BOUNDS_MS[i] + "ms" : ">" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms",
+                    counts[i]);
+        }
+        return result;
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private static int bucketOf(long micros) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (micros <= BOUNDS_MS[i] * 1000) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length;
+    }
+}
@@ -0,0 +1,79 @@
+package com.csu.unicorp.common.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import com.csu.unicorp.common.exception.BusinessException;
+
+/**
+ * 按（创建时间, ID）倒序翻页的游标
+ * 游标是上一页最后一条记录的创建时间和ID，下一页只查询排在它之后的记录，
+ * 可以直接利用（创建时间, ID）索引定位，翻到多深都只扫描一页的行，也不需要COUNT。
+ * 对外以不透明字符串传递，客户端只需原样带回。
+ */
+public class SeekCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final LocalDateTime time;
+    private final long id;
+
+    public SeekCursor(LocalDateTime time, long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = time.toEpochSecond(ZoneOffset.UTC) + "." + time.getNano() + "." + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 由最后一条记录生成游标
+     *
+     * @param time 创建时间
+     * @param id 记录ID
+     * @return 游标字符串，时间或ID为空时返回null
+     */
+    public static String of(LocalDateTime time, Number id) {
+        return time != null && id != null ? new SeekCursor(time, id.longValue()).encode() : null;
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 游标，第一页时返回null
+     * @throws BusinessException 游标格式不正确
+     */
+    public static SeekCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(cursor);
+            }
+            LocalDateTime time = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]),
+                    Integer.parseInt(parts[1]), ZoneOffset.UTC);
+            return new SeekCursor(time, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
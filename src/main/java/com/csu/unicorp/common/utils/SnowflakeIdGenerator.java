@@ -0,0 +1,69 @@
+package com.csu.unicorp.common.utils;
+
+/**
+ * Snowflake风格的ID生成器
+ * <p>
+ * ID由 41位毫秒时间戳 + 5位节点号 + 7位序列号 组成，共53位，不超过JavaScript的安全整数范围，
+ * 前端按数字解析不会丢失精度。每个节点每毫秒最多生成128个ID，超出时借用下一毫秒；
+ * 系统时钟回拨时沿用上次的时间戳继续递增，同一节点生成的ID始终单调递增。
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * 起始时间 2024-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    /**
+     * @param nodeId 节点号，0~31，同时运行的节点之间不能重复
+     */
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在0~" + MAX_NODE_ID + "之间: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public synchronized long nextId() {
+        long timestamp = Math.max(currentTimeMillis() - EPOCH, lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                // 本毫秒序列号用完，借用下一毫秒
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * 从ID中解析生成时间
+     *
+     * @param id ID
+     * @return 毫秒时间戳
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
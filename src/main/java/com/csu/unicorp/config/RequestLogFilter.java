@@ -1,65 +1,282 @@
 package com.csu.unicorp.config;
 
-import jakarta.servlet.Filter;
+import com.csu.unicorp.config.security.CustomUserDetails;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRequest;
-import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 请求日志过滤器
- * 输出请求的路径、参数等详细信息到控制台
+ * 请求访问日志过滤器
+ * <p>
+ * 1. 每个请求输出一行key=value格式的访问日志：方法、路由模板、状态码、耗时、用户ID、请求/响应字节数和客户端IP；<br>
+ * 2. 访问日志写入ACCESS_LOG日志器，由logback-spring.xml中的异步appender输出，请求线程不再竞争标准输出的锁；<br>
+ * 3. 不再输出查询参数和表单参数，避免把密码、上传表单等敏感内容写进日志；<br>
+ * 4. 普通请求按采样率输出，服务端错误和慢请求始终输出；所有请求都计入按路由统计的延迟直方图。
  */
-@Component
 @Slf4j
-public class RequestLogFilter implements Filter {
+@Component
+@RequiredArgsConstructor
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final RouteLatencyRegistry routeLatencyRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${app.access-log.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 普通请求的采样率（0~1）
+     */
+    @Value("${app.access-log.sample-rate:1.0}")
+    private double sampleRate;
+
+    /**
+     * 慢请求阈值，超过该耗时的请求不受采样率限制
+     */
+    @Value("${app.access-log.slow-threshold-ms:1000}")
+    private long slowThresholdMs;
+
+    /**
+     * 不输出访问日志的路由，逗号分隔，支持Ant风格通配符，如 /api/v1/files/**
+     */
+    @Value("${app.access-log.excluded-routes:}")
+    private String excludedRoutes;
+
+    private List<String> excludedPatterns = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        excludedPatterns = new ArrayList<>();
+        for (String pattern : StringUtils.commaDelimitedListToStringArray(excludedRoutes)) {
+            if (StringUtils.hasText(pattern)) {
+                excludedPatterns.add(pattern.trim());
+            }
+        }
+    }
 
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
-        // 只处理HTTP请求
-        if (request instanceof HttpServletRequest) {
-            HttpServletRequest httpRequest = (HttpServletRequest) request;
-            
-            // 输出请求信息
-            System.out.println("\n===== 请求信息开始 =====");
-            System.out.println("请求方法: " + httpRequest.getMethod());
-            System.out.println("请求URL: " + httpRequest.getRequestURL());
-            System.out.println("请求URI: " + httpRequest.getRequestURI());
-            
-            // 输出查询参数
-            String queryString = httpRequest.getQueryString();
-            if (queryString != null) {
-                System.out.println("查询参数: " + queryString);
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        CountingResponseWrapper responseWrapper = new CountingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 异步请求在完成时再记录，耗时包含异步处理时间
+                request.getAsyncContext().addListener(
+                        new AccessLogAsyncListener(request, responseWrapper, start, currentUserId()));
+            } else {
+                complete(request, responseWrapper, start, currentUserId());
             }
-            
-            // 输出请求参数
-            Map<String, String[]> parameterMap = httpRequest.getParameterMap();
-            if (!parameterMap.isEmpty()) {
-                System.out.println("请求参数:");
-                parameterMap.forEach((key, values) -> {
-                    System.out.print("  " + key + ": ");
-                    for (String value : values) {
-                        System.out.print(value + ", ");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // 异步分派不重复记录，由初始请求注册的监听器统一记录
+        return true;
+    }
+
+    private void complete(HttpServletRequest request, CountingResponseWrapper response, long start, Integer userId) {
+        long nanos = System.nanoTime() - start;
+        int status = response.getStatus();
+        String route = resolveRoute(request);
+        try {
+            routeLatencyRegistry.record(request.getMethod() + " " + route, nanos, status);
+            if (shouldLog(request, route, nanos, status)) {
+                ACCESS_LOG.info("method={} route={} uri={} status={} durationMs={} userId={} reqBytes={} respBytes={} ip={}",
+                        request.getMethod(), route, request.getRequestURI(), status,
+                        TimeUnit.NANOSECONDS.toMillis(nanos), userId == null ? "-" : userId,
+                        Math.max(request.getContentLengthLong(), 0L), response.getBytesWritten(),
+                        request.getRemoteAddr());
+            }
+        } catch (Exception e) {
+            // 访问日志不能影响请求本身
+            log.warn("记录访问日志失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean shouldLog(HttpServletRequest request, String route, long nanos, int status) {
+        if (!enabled || !ACCESS_LOG.isInfoEnabled()) {
+            return false;
+        }
+        if (status >= 500 || TimeUnit.NANOSECONDS.toMillis(nanos) >= slowThresholdMs) {
+            return true;
+        }
+        if (isExcluded(route, request.getRequestURI())) {
+            return false;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private boolean isExcluded(String route, String uri) {
+        for (String pattern : excludedPatterns) {
+            if (pathMatcher.match(pattern, route) || pathMatcher.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取匹配到的路由模板，如 /v1/jobs/{id}，避免按具体路径统计导致基数过大
+     */
+    private String resolveRoute(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+    }
+
+    private Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails) {
+            return ((CustomUserDetails) authentication.getPrincipal()).getUserId();
+        }
+        return null;
+    }
+
+    /**
+     * 异步请求完成时记录访问日志
+     */
+    private class AccessLogAsyncListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final CountingResponseWrapper response;
+        private final long start;
+        private final Integer userId;
+
+        private AccessLogAsyncListener(HttpServletRequest request, CountingResponseWrapper response,
+                                       long start, Integer userId) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+            this.userId = userId;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(request, response, start, userId);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次开始异步处理时需要重新注册监听器
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * 统计响应字节数的包装器，只计数不缓冲，文件下载等大响应仍然直接写出
+     */
+    private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+        private long bytesWritten;
+        private ServletOutputStream outputStream;
+
+        private CountingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private long getBytesWritten() {
+            if (bytesWritten == 0) {
+                // 未经过输出流写出的响应（如通过Writer输出或零拷贝发送）使用Content-Length
+                String contentLength = getHeader("Content-Length");
+                if (contentLength != null) {
+                    try {
+                        return Long.parseLong(contentLength);
+                    } catch (NumberFormatException ignored) {
+                        return 0L;
                     }
-                    System.out.println();
-                });
+                }
+            }
+            return bytesWritten;
+        }
+
+        private class CountingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private CountingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                bytesWritten++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytesWritten += len;
             }
-            
-            // 输出客户端信息
-            System.out.println("客户端IP: " + httpRequest.getRemoteAddr());
-            System.out.println("===== 请求信息结束 =====\n");
-        }
-        
-        // 继续过滤器链
-        chain.doFilter(request, response);
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.csu.unicorp.config;
+
+import com.csu.unicorp.common.utils.LatencyHistogram;
+import com.csu.unicorp.vo.RouteLatencyVO;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 接口延迟统计
+ * 按“请求方法 路由模板”分别记录延迟直方图，数据只保存在当前实例的内存中
+ */
+@Component
+public class RouteLatencyRegistry {
+
+    /**
+     * 最多统计的路由数，超出的路由合并统计，防止路由模板异常时内存无限增长
+     */
+    private static final int MAX_ROUTES = 1000;
+
+    private static final String OTHER_ROUTE = "OTHER";
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次请求
+     *
+     * @param route  路由
+     * @param nanos  耗时（纳秒）
+     * @param status 响应状态码
+     */
+    public void record(String route, long nanos, int status) {
+        LatencyHistogram histogram = histograms.get(route);
+        if (histogram == null) {
+            String key = histograms.size() < MAX_ROUTES ? route : OTHER_ROUTE;
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos, status >= 500);
+    }
+
+    /**
+     * 获取所有路由的统计，按请求数降序排列
+     */
+    public List<RouteLatencyVO> snapshot() {
+        return histograms.entrySet().stream()
+                .map(entry -> toVO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(RouteLatencyVO::getCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    private RouteLatencyVO toVO(String route, LatencyHistogram histogram) {
+        return RouteLatencyVO.builder()
+                .route(route)
+                .count(histogram.getCount())
+                .errorCount(histogram.getErrorCount())
+                .meanMillis(histogram.getMeanMillis())
+                .p50Millis(histogram.percentileMillis(0.5))
+                .p90Millis(histogram.percentileMillis(0.9))
+                .p99Millis(histogram.percentileMillis(0.99))
+                .maxMillis(histogram.getMaxMillis())
+                .buckets(histogram.getBuckets())
+                .build();
+    }
+}
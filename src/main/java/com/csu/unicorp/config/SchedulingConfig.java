@@ -0,0 +1,13 @@
+package com.csu.unicorp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类
+ * 开启@Scheduled注解支持，用于索引重建、缓存刷新等后台任务
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
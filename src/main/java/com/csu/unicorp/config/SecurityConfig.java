@@ -97,6 +97,7 @@ public class SecurityConfig {
                     .requestMatchers("/v1/organizations/schools").permitAll()
                     .requestMatchers("/v1/jobs", "/v1/jobs/**","/v1/job-categories").permitAll()
                     .requestMatchers("/v1/projects", "/v1/projects/{id}").permitAll()
+                    .requestMatchers("/v1/search/suggestions").permitAll()
                     // 地图API - 允许所有用户访问
                     .requestMatchers("/v1/map/**").permitAll()
                     .requestMatchers("/api/v1/map/**").permitAll()
@@ -173,6 +174,7 @@ public class SecurityConfig {
                     // 章节视频相关接口
                     .requestMatchers("/v1/chapter-videos/{videoId}").authenticated()
                     .requestMatchers("/v1/chapter-videos/chapter/{chapterId}").authenticated()
+                    .requestMatchers(HttpMethod.GET, "/v1/chapter-videos/{videoId}/transcode").authenticated()
                     .requestMatchers(HttpMethod.POST, "/v1/chapter-videos/{videoId}/progress").hasRole("STUDENT")
                     .requestMatchers(HttpMethod.POST, "/v1/chapter-videos/{videoId}/complete").hasRole("STUDENT")
                     .requestMatchers(HttpMethod.POST, "/v1/chapter-videos").hasAnyRole("TEACHER", "SCH_ADMIN")
@@ -1,9 +1,7 @@
 package com.csu.unicorp.config;
 
-import java.nio.file.Paths;
 import java.util.List;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
@@ -13,7 +11,6 @@ import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.csu.unicorp.interceptor.ResourceImageInterceptor;
@@ -27,9 +24,6 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
     
-    @Value("${app.upload.dir:upload}")
-    private String uploadDir;
-    
     private final ResourceImageInterceptor resourceImageInterceptor;
     
     /**
@@ -40,30 +34,10 @@ public class WebConfig implements WebMvcConfigurer {
         return new StandardServletMultipartResolver();
     }
     
-    /**
-     * 配置静态资源访问
-     */
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // 配置上传文件的访问路径
-        String uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize().toString();
-
-        //原来的，就这样注释吧
-        // registry.addResourceHandler("/files/**")
-        //         .addResourceLocations("file:" + uploadPath + "/");
-
-
-        //我之前写的，先别删，我再看看
-        registry.addResourceHandler("/v1/files/**")
-
-        // System.out.println("静态资源映射: /api/v1/files/** -> file:" + uploadPath + "/");
-        // registry.addResourceHandler("/v1/files/**")
-
-                 .addResourceLocations("file:" + uploadPath + "/");
-    }
-    
     /**
      * 添加拦截器
+     * <p>
+     * 上传文件由UploadedFileController提供，拦截器对控制器同样生效
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -12,9 +12,8 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
-import com.csu.unicorp.common.utils.JwtUtil;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.config.security.CustomUserDetails;
 
 import lombok.RequiredArgsConstructor;
@@ -28,8 +27,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
     
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
     
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -52,12 +50,12 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                         
                         try {
                             // 验证token
-                            String username = jwtUtil.extractUsername(token);
-                            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                                log.debug("从token中提取的用户名: {}", username);
-                                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                                UserDetails userDetails = authenticatedUserCache.resolve(token);
                                 
-                                if (jwtUtil.validateToken(token, userDetails)) {
+                                if (userDetails != null) {
+                                    String username = userDetails.getUsername();
+                                    log.debug("从token中提取的用户名: {}", username);
                                     log.debug("JWT令牌有效，设置认证信息");
                                     
                                     // 获取用户ID作为Principal name
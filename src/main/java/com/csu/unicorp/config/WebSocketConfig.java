@@ -1,53 +1,148 @@
 package com.csu.unicorp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * WebSocket配置
+ * <p>
+ * 消息代理模式由 app.websocket.broker.mode 指定：<br>
+ * simple - 内置内存代理，只能单节点部署（默认）；<br>
+ * relay - 转发到外部STOMP代理（如RabbitMQ的STOMP插件），用户目的地和用户注册表通过代理在节点间广播，
+ * 需要reactor-netty，使用 -Pstomp-relay 打包；<br>
+ * redis - 各节点使用内置代理，发给用户的消息通过Redis发布/订阅跨节点转发，见{@link WebSocketUserMessageRelay}。
  */
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
-    
+
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
-    
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.broker.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.broker.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.broker.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.broker.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.broker.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${app.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    /**
+     * 单条消息发送超时时间，慢客户端超过该时间未收完会被断开，避免占满发送缓冲
+     */
+    @Value("${app.websocket.transport.send-time-limit-ms:15000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // 设置消息代理的前缀
-        registry.enableSimpleBroker("/topic", "/queue");
-        
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // 本节点找不到用户会话时广播给其他节点，并在节点间同步用户注册表
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (StringUtils.hasText(relayVirtualHost)) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("配置STOMP代理中继: {}:{}", relayHost, relayPort);
+        } else {
+            // 设置消息代理的前缀
+            registry.enableSimpleBroker("/topic", "/queue");
+            log.info("配置内置消息代理: /topic, /queue, 模式: {}", brokerMode);
+        }
+
         // 设置应用的前缀
         registry.setApplicationDestinationPrefixes("/app");
         // 设置用户订阅点前缀
         registry.setUserDestinationPrefix("/user");
-        
-        log.info("配置消息代理: /topic, /queue, 应用前缀: /app, 用户前缀: /user");
+
+        log.info("应用前缀: /app, 用户前缀: /user");
     }
-    
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // 注册STOMP端点
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // 允许所有来源访问
                 .withSockJS(); // 启用SockJS回退支持
-        
+
         log.info("注册WebSocket端点: /ws (含SockJS支持)");
     }
-    
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // 添加认证拦截器
         registration.interceptors(webSocketAuthInterceptor);
-        log.info("配置WebSocket认证拦截器");
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        log.info("配置WebSocket认证拦截器，入站线程池: {}-{}", inboundCorePoolSize, inboundMaxPoolSize);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
     }
-} 
\ No newline at end of file
+}
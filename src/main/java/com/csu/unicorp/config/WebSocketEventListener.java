@@ -9,16 +9,20 @@ import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * WebSocket事件监听器
- * 用于记录WebSocket连接、断开等事件
+ * 用于记录WebSocket连接、断开等事件，并维护用户在线状态
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventListener {
 
+    private final WebSocketPresenceRegistry presenceRegistry;
+
     /**
      * 监听客户端连接请求
      */
@@ -47,6 +51,7 @@ public class WebSocketEventListener {
         Authentication auth = (Authentication) headerAccessor.getUser();
         if (auth != null) {
             log.info("用户 [{}] 已成功连接WebSocket，Principal类型: {}", auth.getName(), auth.getClass().getName());
+            presenceRegistry.connected(auth.getName(), headerAccessor.getSessionId());
         } else {
             log.info("匿名用户已成功连接WebSocket");
         }
@@ -80,6 +85,7 @@ public class WebSocketEventListener {
         Authentication auth = (Authentication) headerAccessor.getUser();
         if (auth != null) {
             log.info("用户 [{}] 已断开WebSocket连接", auth.getName());
+            presenceRegistry.disconnected(auth.getName(), event.getSessionId());
         } else {
             log.info("匿名用户已断开WebSocket连接");
         }
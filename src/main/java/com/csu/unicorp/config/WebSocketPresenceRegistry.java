@@ -0,0 +1,247 @@
+package com.csu.unicorp.config;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * WebSocket在线状态登记
+ * <p>
+ * 1. 本节点的会话保存在内存中，判断用户是否连接在本节点不访问Redis；<br>
+ * 2. 所有节点的会话登记在Redis哈希 ws:presence:user:{userId} 中，字段为会话ID，值为所在节点ID；<br>
+ * 3. 每个节点定时刷新自己的心跳键 ws:presence:node:{nodeId}，节点宕机后心跳过期，
+ *    其遗留的会话在查询时被识别并清理，不会一直显示在线；<br>
+ * 4. Redis不可用时只记录日志，在线状态退化为仅本节点可见。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketPresenceRegistry {
+
+    private static final String USER_KEY_PREFIX = "ws:presence:user:";
+    private static final String NODE_KEY_PREFIX = "ws:presence:node:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 节点ID，未配置时使用主机名加随机后缀
+     */
+    @Value("${app.websocket.node-id:}")
+    private String configuredNodeId;
+
+    /**
+     * 节点心跳和用户在线登记的过期时间，需大于心跳间隔
+     */
+    @Value("${app.websocket.presence.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private String nodeId;
+
+    /**
+     * 本节点的会话：用户ID -> 会话ID集合
+     */
+    private final Map<String, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        nodeId = StringUtils.hasText(configuredNodeId) ? configuredNodeId : defaultNodeId();
+        heartbeat();
+        log.info("WebSocket在线状态登记已启动，节点ID: {}", nodeId);
+    }
+
+    /**
+     * 获取本节点ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 登记会话上线
+     *
+     * @param userId 用户ID（Principal name）
+     * @param sessionId WebSocket会话ID
+     */
+    public void connected(String userId, String sessionId) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        localSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        try {
+            String key = USER_KEY_PREFIX + userId;
+            stringRedisTemplate.opsForHash().put(key, sessionId, nodeId);
+            stringRedisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("登记用户{}在线状态失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 登记会话下线
+     *
+     * @param userId 用户ID（Principal name）
+     * @param sessionId WebSocket会话ID
+     */
+    public void disconnected(String userId, String sessionId) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        localSessions.computeIfPresent(userId, (k, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        try {
+            stringRedisTemplate.opsForHash().delete(USER_KEY_PREFIX + userId, sessionId);
+        } catch (Exception e) {
+            log.warn("清除用户{}在线状态失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 用户是否在本节点有连接
+     */
+    public boolean hasLocalSession(String userId) {
+        Set<String> sessions = localSessions.get(userId);
+        return sessions != null && !sessions.isEmpty();
+    }
+
+    /**
+     * 用户是否在其他存活节点有连接
+     */
+    public boolean hasRemoteSession(String userId) {
+        for (String node : liveNodes(userId)) {
+            if (!nodeId.equals(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 用户是否在任一节点在线
+     */
+    public boolean isOnline(String userId) {
+        return hasLocalSession(userId) || !liveNodes(userId).isEmpty();
+    }
+
+    /**
+     * 批量查询用户是否在线
+     *
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 是否在线
+     */
+    public Map<String, Boolean> getOnlineStatus(List<String> userIds) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            result.put(userId, isOnline(userId));
+        }
+        return result;
+    }
+
+    /**
+     * 获取本节点连接统计
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("nodeId", nodeId);
+        statistics.put("localUsers", localSessions.size());
+        statistics.put("localSessions", localSessions.values().stream().mapToInt(Set::size).sum());
+        return statistics;
+    }
+
+    /**
+     * 刷新节点心跳，并延长本节点在线用户登记的过期时间
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.setEx(NODE_KEY_PREFIX + nodeId, ttlSeconds, String.valueOf(System.currentTimeMillis()));
+                for (String userId : localSessions.keySet()) {
+                    redis.expire(USER_KEY_PREFIX + userId, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("刷新WebSocket节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                localSessions.forEach((userId, sessions) -> {
+                    if (!sessions.isEmpty()) {
+                        redis.hDel(USER_KEY_PREFIX + userId, sessions.toArray(new String[0]));
+                    }
+                });
+                redis.del(NODE_KEY_PREFIX + nodeId);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("清除WebSocket节点{}在线状态失败: {}", nodeId, e.getMessage());
+        }
+        localSessions.clear();
+    }
+
+    /**
+     * 获取用户有连接的存活节点，顺带清理已宕机节点遗留的会话
+     */
+    private Set<String> liveNodes(String userId) {
+        Set<String> nodes = new HashSet<>();
+        try {
+            String key = USER_KEY_PREFIX + userId;
+            Map<Object, Object> sessions = stringRedisTemplate.opsForHash().entries(key);
+            if (sessions.isEmpty()) {
+                return nodes;
+            }
+            Map<String, Boolean> alive = new HashMap<>();
+            for (Map.Entry<Object, Object> entry : sessions.entrySet()) {
+                String node = String.valueOf(entry.getValue());
+                boolean nodeAlive = alive.computeIfAbsent(node,
+                        n -> nodeId.equals(n) || Boolean.TRUE.equals(stringRedisTemplate.hasKey(NODE_KEY_PREFIX + n)));
+                if (nodeAlive) {
+                    nodes.add(node);
+                } else {
+                    stringRedisTemplate.opsForHash().delete(key, entry.getKey());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("查询用户{}在线状态失败: {}", userId, e.getMessage());
+        }
+        return nodes;
+    }
+
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
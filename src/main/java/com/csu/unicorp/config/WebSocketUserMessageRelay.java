@@ -0,0 +1,134 @@
+package com.csu.unicorp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 发送给指定用户的WebSocket消息出口
+ * <p>
+ * simple和relay模式直接交给SimpMessagingTemplate：simple模式只能送达本节点的连接，
+ * relay模式由外部STOMP代理在节点间转发。<br>
+ * redis模式下每个节点仍使用内置代理，跨节点投递通过Redis发布/订阅完成：
+ * 接收方连接在本节点时直接推送，连接在其他节点时才发布到频道，由持有连接的节点推送；
+ * 接收方不在线时不发布，消息已持久化，上线后通过历史接口获取。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketUserMessageRelay implements MessageListener {
+
+    private static final String CHANNEL = "ws:user-messages";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPresenceRegistry presenceRegistry;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        if (!isRedisMode()) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("WebSocket用户消息通过Redis频道{}跨节点转发", CHANNEL);
+    }
+
+    /**
+     * 发送消息给指定用户
+     *
+     * @param userId 用户ID（Principal name）
+     * @param destination 用户目的地，如 /queue/messages
+     * @param payload 消息内容
+     */
+    public void sendToUser(String userId, String destination, Object payload) {
+        if (!isRedisMode()) {
+            messagingTemplate.convertAndSendToUser(userId, destination, payload);
+            return;
+        }
+        if (presenceRegistry.hasLocalSession(userId)) {
+            messagingTemplate.convertAndSendToUser(userId, destination, payload);
+        }
+        if (presenceRegistry.hasRemoteSession(userId)) {
+            UserMessage message = new UserMessage();
+            message.setOriginNode(presenceRegistry.getNodeId());
+            message.setUserId(userId);
+            message.setDestination(destination);
+            message.setPayload(payload);
+            redisTemplate.convertAndSend(CHANNEL, message);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object value = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (value == null) {
+                return;
+            }
+            // 序列化器未启用类型信息时反序列化结果为Map，消息内容保持Map原样推送，客户端收到的JSON不变
+            UserMessage userMessage = value instanceof UserMessage
+                    ? (UserMessage) value : OBJECT_MAPPER.convertValue(value, UserMessage.class);
+            // 发布方已推送给自己节点上的连接
+            if (presenceRegistry.getNodeId().equals(userMessage.getOriginNode())
+                    || !presenceRegistry.hasLocalSession(userMessage.getUserId())) {
+                return;
+            }
+            messagingTemplate.convertAndSendToUser(
+                    userMessage.getUserId(), userMessage.getDestination(), userMessage.getPayload());
+        } catch (Exception e) {
+            log.error("转发WebSocket用户消息失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    private boolean isRedisMode() {
+        return "redis".equalsIgnoreCase(brokerMode);
+    }
+
+    /**
+     * 跨节点转发的用户消息
+     */
+    @Data
+    @NoArgsConstructor
+    public static class UserMessage {
+        private String originNode;
+        private String userId;
+        private String destination;
+        private Object payload;
+    }
+}
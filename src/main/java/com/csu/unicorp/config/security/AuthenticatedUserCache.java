@@ -0,0 +1,165 @@
+package com.csu.unicorp.config.security;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.csu.unicorp.common.utils.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 已验证令牌缓存
+ * <p>
+ * 令牌首次出现时解析一次（一次HMAC校验），加载用户信息并校验通过后，按令牌缓存用户信息。
+ * 缓存有效期取配置的短过期时间与令牌剩余有效期中的较小值，之后同一令牌的请求不再解析令牌、也不再查询数据库。
+ * 令牌被加入黑名单、用户角色或状态变更时需要调用相应的失效方法；
+ * 其他实例上的缓存无法感知这些变更，过期时间就是跨实例不一致的最长时间。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedUserCache {
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+
+    @Value("${jwt.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<String, Entry> cache;
+
+    /**
+     * 失效次数，加载用户期间发生过失效时不写入缓存，避免写入失效之前加载的旧数据
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    /**
+     * 根据令牌获取已认证的用户
+     *
+     * @param token JWT令牌
+     * @return 用户信息；令牌与用户不匹配时返回null
+     * @throws io.jsonwebtoken.JwtException 令牌签名无效或已过期
+     */
+    public UserDetails resolve(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry != null) {
+            return entry.userDetails;
+        }
+
+        long generation = invalidations.get();
+        Claims claims = jwtUtil.parseClaims(token);
+        String account = claims.getSubject();
+        if (account == null) {
+            return null;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(account);
+        if (!jwtUtil.validateToken(claims, userDetails)) {
+            return null;
+        }
+
+        long ttlNanos = Math.min(TimeUnit.SECONDS.toNanos(ttlSeconds),
+                TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime() - new Date().getTime()));
+        if (ttlNanos > 0 && generation == invalidations.get()) {
+            cache.put(token, new Entry(userDetails, ttlNanos));
+            // 写入期间发生了失效，撤销本次写入
+            if (generation != invalidations.get()) {
+                cache.invalidate(token);
+            }
+        }
+        return userDetails;
+    }
+
+    /**
+     * 使指定令牌的缓存失效
+     */
+    public void invalidateToken(String token) {
+        invalidations.incrementAndGet();
+        cache.invalidate(token);
+    }
+
+    /**
+     * 使指定用户所有令牌的缓存失效，在用户角色、状态、密码或资料变更后调用
+     * 在事务中调用时，事务提交后会再失效一次，避免提交前被并发请求用旧数据重新写入缓存
+     */
+    public void invalidateUser(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        removeUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeUser(userId);
+                }
+            });
+        }
+    }
+
+    private void removeUser(Integer userId) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> entry.userDetails instanceof CustomUserDetails
+                && userId.equals(((CustomUserDetails) entry.userDetails).getUserId()));
+        log.debug("已清除用户{}的认证缓存", userId);
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+
+        private final UserDetails userDetails;
+        private final long ttlNanos;
+
+        private Entry(UserDetails userDetails, long ttlNanos) {
+            this.userDetails = userDetails;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    /**
+     * 条目按写入时计算的有效期过期，读取不延长有效期
+     */
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
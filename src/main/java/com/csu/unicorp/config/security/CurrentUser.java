@@ -0,0 +1,55 @@
+package com.csu.unicorp.config.security;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 当前登录用户
+ * <p>
+ * 只包含业务代码判断身份和权限时需要的字段，每个请求由{@link JwtAuthenticationFilter}在认证后创建一次，
+ * 保存在请求属性中，业务代码通过{@link CurrentUserResolver}获取，不再按账号查询用户表。
+ */
+@Getter
+@ToString
+public class CurrentUser {
+
+    /**
+     * 保存当前用户的请求属性名
+     */
+    public static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName();
+
+    private final Integer userId;
+
+    private final String account;
+
+    private final Integer organizationId;
+
+    /**
+     * 数据库中的角色名称，如 STUDENT、TEACHER，见 RoleConstants
+     */
+    private final String role;
+
+    public CurrentUser(Integer userId, String account, Integer organizationId, String role) {
+        this.userId = userId;
+        this.account = account;
+        this.organizationId = organizationId;
+        this.role = role;
+    }
+
+    /**
+     * 从认证信息创建
+     */
+    public static CurrentUser from(CustomUserDetails userDetails) {
+        return new CurrentUser(userDetails.getUserId(), userDetails.getUsername(),
+                userDetails.getOrganizationId(), userDetails.getRole());
+    }
+
+    /**
+     * 是否为指定角色
+     *
+     * @param role 数据库中的角色名称
+     */
+    public boolean hasRole(String role) {
+        return role != null && role.equals(this.role);
+    }
+}
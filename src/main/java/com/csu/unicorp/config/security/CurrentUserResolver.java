@@ -0,0 +1,78 @@
+package com.csu.unicorp.config.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.csu.unicorp.entity.User;
+import com.csu.unicorp.service.UserService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 当前登录用户解析器
+ * <p>
+ * 业务代码需要当前用户的ID、组织或角色时调用，不再按账号查询用户表：<br>
+ * 1. 请求属性中已有同一账号的当前用户时直接返回，JWT认证的请求在过滤器中已经写入；<br>
+ * 2. 认证信息为{@link CustomUserDetails}时从中创建，认证时已经加载过用户和角色；<br>
+ * 3. 其他认证方式才查询用户和角色，结果写入请求属性，同一请求内只查询一次。
+ * <p>
+ * 认证信息来自已验证令牌缓存，用户资料变更后最长在缓存过期时间内仍可能是旧的组织和角色，
+ * 与接口鉴权使用的信息一致。
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserService userService;
+
+    /**
+     * 获取当前用户
+     *
+     * @param userDetails 认证信息
+     * @return 当前用户，用户不存在时返回null
+     */
+    public CurrentUser resolve(UserDetails userDetails) {
+        if (userDetails == null) {
+            return null;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(CurrentUser.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof CurrentUser
+                    && ((CurrentUser) cached).getAccount().equals(userDetails.getUsername())) {
+                return (CurrentUser) cached;
+            }
+        }
+
+        CurrentUser currentUser = load(userDetails);
+        if (currentUser != null && attributes != null) {
+            attributes.setAttribute(CurrentUser.REQUEST_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    /**
+     * 获取当前用户ID
+     *
+     * @param userDetails 认证信息
+     * @return 用户ID，用户不存在时返回null
+     */
+    public Integer getUserId(UserDetails userDetails) {
+        CurrentUser currentUser = resolve(userDetails);
+        return currentUser != null ? currentUser.getUserId() : null;
+    }
+
+    private CurrentUser load(UserDetails userDetails) {
+        if (userDetails instanceof CustomUserDetails) {
+            return CurrentUser.from((CustomUserDetails) userDetails);
+        }
+        User user = userService.getByAccount(userDetails.getUsername());
+        if (user == null) {
+            return null;
+        }
+        return new CurrentUser(user.getId(), user.getAccount(), user.getOrganizationId(),
+                userService.getUserRole(user.getId()));
+    }
+}
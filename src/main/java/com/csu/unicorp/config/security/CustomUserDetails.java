@@ -19,8 +19,15 @@ public class CustomUserDetails implements UserDetails {
     private final User user;
     private final List<GrantedAuthority> authorities;
     
+    /**
+     * 数据库中的角色名称
+     */
+    @Getter
+    private final String role;
+    
     public CustomUserDetails(User user, String role) {
         this.user = user;
+        this.role = role;
         this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
     }
     
@@ -1,6 +1,5 @@
 package com.csu.unicorp.config.security;
 
-import com.csu.unicorp.common.utils.JwtUtil;
 import com.csu.unicorp.service.TokenBlacklistService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -11,13 +10,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.stream.Collectors;
 
 /**
  * JWT认证过滤器，用于从请求中提取JWT并验证用户
@@ -27,8 +24,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
     private final TokenBlacklistService tokenBlacklistService;
 
     @Override
@@ -67,18 +63,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
             
-            // 从JWT中提取账号
-            final String userAccount = jwtUtil.extractUsername(jwt);
-            
-            log.info("userToken: {}", jwt);
-            log.info("userAccount: {}", userAccount);
-
-            // 如果用户名不为空，且当前SecurityContext中没有认证信息
-            if (userAccount != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userAccount);
+            // 当前SecurityContext中没有认证信息时，解析并验证JWT（已验证过的令牌直接命中缓存）
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = authenticatedUserCache.resolve(jwt);
                 
-                // 验证JWT是否有效
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null) {
                     // 创建认证令牌并设置到SecurityContext中
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -87,13 +76,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    // 业务代码通过CurrentUserResolver获取当前用户，不再按账号查询
+                    if (userDetails instanceof CustomUserDetails) {
+                        request.setAttribute(CurrentUser.REQUEST_ATTRIBUTE,
+                                CurrentUser.from((CustomUserDetails) userDetails));
+                    }
                     
-                    // 输出用户角色信息，用于调试
-                    String roles = userDetails.getAuthorities().stream()
-                            .map(auth -> auth.getAuthority())
-                            .collect(Collectors.joining(", "));
-                    System.out.println("用户 " + userAccount + " 认证成功，角色: " + roles + "，访问路径: " + request.getRequestURI());
-                    log.info("用户 {} 认证成功，角色: {}, 访问路径: {}", userAccount, roles, request.getRequestURI());
+                    log.debug("用户 {} 认证成功，角色: {}, 访问路径: {}",
+                            userDetails.getUsername(), userDetails.getAuthorities(), request.getRequestURI());
                 }
             }
         } catch (Exception e) {
@@ -8,6 +8,8 @@ import com.csu.unicorp.dto.UserUpdateDTO;
 import com.csu.unicorp.service.EnterpriseService;
 import com.csu.unicorp.service.OrganizationService;
 import com.csu.unicorp.service.UserService;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
 import com.csu.unicorp.vo.OrganizationVO;
 import com.csu.unicorp.vo.ResultVO;
 import com.csu.unicorp.vo.UserVO;
@@ -28,6 +30,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 管理员接口
@@ -43,6 +46,8 @@ public class AdminController {
     private final OrganizationService organizationService;
     private final EnterpriseService enterpriseService;
     private final UserService userService;
+    private final FullTextSearch fullTextSearch;
+    private final SearchSuggester searchSuggester;
     
     /**
      * 创建学校
@@ -180,4 +185,66 @@ public class AdminController {
         UserVO updatedUser = userService.updateUserByAdmin(id, userUpdateDTO);
         return ResultVO.success("用户信息修改成功", updatedUser);
     }
+    
+    /**
+     * 重建全文索引
+     */
+    @Operation(summary = "重建全文索引", description = "从数据库全量重建岗位、资源、话题、问题、项目的关键词搜索索引，不指定对象时全部重建。重建期间搜索仍使用旧索引。")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "重建完成",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultVO.class)))
+    })
+    @PostMapping("/search/rebuild")
+    public ResultVO<Map<String, Long>> rebuildSearchIndex(
+            @Parameter(description = "索引对象，不传时全部重建") @RequestParam(required = false) FullTextSearch.Target target) {
+        if (target != null) {
+            fullTextSearch.rebuild(target);
+        } else {
+            for (FullTextSearch.Target each : FullTextSearch.Target.values()) {
+                fullTextSearch.rebuild(each);
+            }
+        }
+        return ResultVO.success("全文索引重建完成", fullTextSearch.getStatistics());
+    }
+    
+    /**
+     * 获取全文索引统计
+     */
+    @Operation(summary = "获取全文索引统计", description = "各索引的文档数（-1表示尚未加载）以及搜索、增量更新、重建次数")
+    @GetMapping("/search/statistics")
+    public ResultVO<Map<String, Long>> getSearchStatistics() {
+        return ResultVO.success("获取成功", fullTextSearch.getStatistics());
+    }
+    
+    /**
+     * 重建输入提示
+     */
+    @Operation(summary = "重建输入提示", description = "从数据库全量重建岗位标题、社区标签、组织名称、热门搜索词的输入提示，不指定来源时全部重建。重建期间仍使用旧数据提示。")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "重建完成",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultVO.class)))
+    })
+    @PostMapping("/search/suggestions/rebuild")
+    public ResultVO<Map<String, Long>> rebuildSuggestions(
+            @Parameter(description = "提示来源，不传时全部重建") @RequestParam(required = false) SearchSuggester.Source source) {
+        if (source != null) {
+            searchSuggester.rebuild(source);
+        } else {
+            for (SearchSuggester.Source each : SearchSuggester.Source.values()) {
+                searchSuggester.rebuild(each);
+            }
+        }
+        return ResultVO.success("输入提示重建完成", searchSuggester.getStatistics());
+    }
+    
+    /**
+     * 获取输入提示统计
+     */
+    @Operation(summary = "获取输入提示统计", description = "各来源的候选词数（-1表示尚未加载）以及提示、增量更新、重建次数")
+    @GetMapping("/search/suggestions/statistics")
+    public ResultVO<Map<String, Long>> getSuggestionStatistics() {
+        return ResultVO.success("获取成功", searchSuggester.getStatistics());
+    }
 } 
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.csu.unicorp.controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,11 +16,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.WebSocketPresenceRegistry;
+import com.csu.unicorp.config.WebSocketUserMessageRelay;
 import com.csu.unicorp.config.security.CustomUserDetails;
 import com.csu.unicorp.dto.ChatMessageDTO;
 import com.csu.unicorp.service.ChatService;
 import com.csu.unicorp.vo.ChatMessageVO;
 import com.csu.unicorp.vo.ChatSessionVO;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.ResultVO;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,8 +47,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ChatController {
     
+    /**
+     * 在线状态单次查询的最大用户数
+     */
+    private static final int MAX_PRESENCE_USERS = 200;
+    
     private final ChatService chatService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketUserMessageRelay userMessageRelay;
+    private final WebSocketPresenceRegistry presenceRegistry;
     
     /**
      * 获取用户所有聊天会话
@@ -108,6 +122,36 @@ public class ChatController {
         return result;
     }
     
+    /**
+     * 按游标获取会话消息历史
+     * @param sessionId 会话ID
+     * @param cursor 上一页返回的游标
+     * @param size 每页大小
+     * @return 消息游标分页列表
+     */
+    @GetMapping("/sessions/{sessionId}/messages/history")
+    @Operation(summary = "按游标获取会话消息历史", description = "从最新的消息开始向前翻页，使用上一页返回的游标获取更早的消息")
+    public ResultVO<CursorPageVO<ChatMessageVO>> getSessionMessagesByCursor(
+            @PathVariable @Parameter(description = "会话ID") Long sessionId,
+            @RequestParam(required = false) @Parameter(description = "上一页返回的游标，第一页不传") String cursor,
+            @RequestParam(required = false, defaultValue = "20") @Parameter(description = "每页大小，最大100") Integer size,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Long currentUserId = Long.valueOf(userDetails.getUser().getId());
+        
+        // 会话不存在或当前用户不是会话成员
+        ChatSessionVO sessionDetail = chatService.getSessionDetail(sessionId, currentUserId);
+        if (sessionDetail == null) {
+            throw new AccessDeniedException("无权查看该会话的消息");
+        }
+        Long otherUserId = sessionDetail.getUserId();
+        
+        CursorPageVO<ChatMessageVO> messages = chatService.getSessionMessagesByCursor(sessionId, currentUserId, cursor, size);
+        
+        ResultVO<CursorPageVO<ChatMessageVO>> result = ResultVO.success("获取消息历史成功", messages);
+        result.setOtherUserId(otherUserId);
+        return result;
+    }
+    
     /**
      * 标记消息为已读
      * @param sessionId 会话ID
@@ -164,7 +208,8 @@ public class ChatController {
                 "1. 接收方必须已连接WebSocket并订阅了`/user/queue/messages`\n" + 
                 "2. 系统会自动将消息路由到接收方的订阅\n" +
                 "3. Principal标识使用用户ID，确保接收方用户ID正确\n" +
-                "4. 消息格式与返回的ChatMessageVO相同"
+                "4. 消息格式与返回的ChatMessageVO相同\n" +
+                "5. 消息先推送后异步入库，入库后发送方会在`/user/queue/message-acks`收到确认"
     )
     public ResultVO<ChatMessageVO> sendMessage(
             @RequestBody ChatMessageDTO messageDTO,
@@ -174,7 +219,7 @@ public class ChatController {
         messageDTO.setSenderId(Long.valueOf(userDetails.getUser().getId()));
         log.info("发送消息: {}", messageDTO);
         try {
-            // 保存消息到数据库
+            // 分配消息ID并排队入库，不等待数据库写入
             ChatMessageVO messageVO = chatService.sendMessage(messageDTO);
             
             // 获取接收者ID作为Principal name
@@ -182,7 +227,7 @@ public class ChatController {
             
             // 使用WebSocket发送消息到接收者的私人队列
             log.info("发送WebSocket消息到用户ID {}: {}", receiverUserId, messageVO);
-            messagingTemplate.convertAndSendToUser(
+            userMessageRelay.sendToUser(
                     receiverUserId, // 直接使用用户ID字符串作为目标用户标识
                     "/queue/messages",
                     messageVO);
@@ -195,4 +240,37 @@ public class ChatController {
             return ResultVO.error("发送消息失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 查询用户在线状态
+     * @param userIds 用户ID列表
+     * @param userDetails 当前登录用户
+     * @return 用户ID到是否在线的映射，只包含当前用户的聊天联系人
+     */
+    @GetMapping("/presence")
+    @Operation(summary = "查询用户在线状态", description = "查询聊天联系人是否有WebSocket连接，多节点部署时包含所有节点的连接。" +
+            "一次最多查询" + MAX_PRESENCE_USERS + "个用户，与当前用户没有会话的用户不返回")
+    public ResultVO<Map<String, Boolean>> getPresence(
+            @RequestParam @Parameter(description = "用户ID列表") List<String> userIds,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        if (userIds.size() > MAX_PRESENCE_USERS) {
+            throw new BusinessException("一次最多查询" + MAX_PRESENCE_USERS + "个用户的在线状态");
+        }
+        Set<Long> candidateIds = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            try {
+                candidateIds.add(Long.valueOf(userId.trim()));
+            } catch (NumberFormatException ignored) {
+                // 非法的用户ID不会是联系人
+            }
+        }
+        Set<Long> contactIds = chatService.filterContacts(Long.valueOf(userDetails.getUser().getId()), candidateIds);
+        List<String> contacts = new ArrayList<>(contactIds.size());
+        for (Long candidateId : candidateIds) {
+            if (contactIds.contains(candidateId)) {
+                contacts.add(String.valueOf(candidateId));
+            }
+        }
+        return ResultVO.success("查询在线状态成功", presenceRegistry.getOnlineStatus(contacts));
+    }
+}
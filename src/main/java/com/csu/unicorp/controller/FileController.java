@@ -1,9 +1,11 @@
 package com.csu.unicorp.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.csu.unicorp.entity.FileMapping;
-import com.csu.unicorp.mapper.FileMappingMapper;
+import com.csu.unicorp.dto.FileUploadSessionDTO;
 import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.FileUploadSessionService;
+import com.csu.unicorp.service.impl.file.FileRangeSender;
+import com.csu.unicorp.service.impl.file.StoredFileNameCache;
+import com.csu.unicorp.vo.FileUploadSessionVO;
 import com.csu.unicorp.vo.ResultVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,20 +15,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
-
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,9 +41,9 @@ import java.util.Map;
 public class FileController {
     
     private final FileService fileService;
-
-    @Autowired
-    private FileMappingMapper fileMappingMapper;
+    private final StoredFileNameCache storedFileNameCache;
+    private final FileRangeSender fileRangeSender;
+    private final FileUploadSessionService fileUploadSessionService;
     
     /**
      * 文件上传接口
@@ -71,22 +72,67 @@ public class FileController {
         return ResultVO.success("文件上传成功", result);
     }
 
+    @Operation(summary = "创建分片上传会话", description = "大文件分片上传第一步，返回上传会话ID、分片大小和分片数量")
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/uploads")
+    public ResultVO<FileUploadSessionVO> createUploadSession(
+            @Valid @RequestBody FileUploadSessionDTO sessionDTO,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResultVO.success("上传会话创建成功", fileUploadSessionService.createSession(sessionDTO, userDetails.getUsername()));
+    }
+
+    @Operation(summary = "查询分片上传会话", description = "返回已接收的分片序号，网络中断后据此只补传缺失的分片")
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/uploads/{uploadId}")
+    public ResultVO<FileUploadSessionVO> getUploadSession(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResultVO.success("获取上传会话成功", fileUploadSessionService.getSession(uploadId, userDetails.getUsername()));
+    }
+
+    @Operation(summary = "上传分片", description = "请求体为分片的原始字节（application/octet-stream），分片可以乱序、并发上传，失败后重传同一分片即可")
+    @SecurityRequirement(name = "bearerAuth")
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{chunkIndex}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResultVO<Void> uploadChunk(
+            @PathVariable String uploadId,
+            @Parameter(description = "分片序号，从0开始") @PathVariable int chunkIndex,
+            @Parameter(description = "分片内容的SHA-256（十六进制）") @RequestHeader("X-Chunk-Checksum") String checksum,
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) throws IOException {
+        fileUploadSessionService.uploadChunk(uploadId, chunkIndex, checksum, request.getInputStream(), userDetails.getUsername());
+        return ResultVO.success("分片上传成功");
+    }
+
+    @Operation(summary = "完成分片上传", description = "全部分片上传后调用，保存文件并返回文件的相对路径，与普通上传返回的file_url相同")
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResultVO<FileUploadSessionVO> completeUploadSession(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResultVO.success("文件上传成功", fileUploadSessionService.completeSession(uploadId, userDetails.getUsername()));
+    }
+
+    @Operation(summary = "取消分片上传", description = "删除上传会话和已上传的分片")
+    @SecurityRequirement(name = "bearerAuth")
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResultVO<Void> cancelUploadSession(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        fileUploadSessionService.cancelSession(uploadId, userDetails.getUsername());
+        return ResultVO.success("上传已取消");
+    }
+
     @GetMapping("/resources/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String filename) throws Exception {
-        System.out.println("下载文件接口被调用：" + filename);
-        Path file = Paths.get("upload/resources").resolve(filename).normalize();
-        if (!Files.exists(file)) {
-            return ResponseEntity.notFound().build();
+    public void downloadFile(@PathVariable String filename, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Path file = fileService.resolveFile("resources/" + filename);
+        if (file == null || filename.contains("/") || filename.contains("\\")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
-        Resource resource = new UrlResource(file.toUri());
 
         // 查找真实文件名
-        FileMapping mapping = fileMappingMapper
-        .selectOne(new QueryWrapper<FileMapping>().eq("stored_name", "resources/" + filename));
-        String originalName = (mapping != null) ? mapping.getOriginalName() : filename;
-
-        return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + originalName + "\"")
-        .body(resource);
+        String originalName = storedFileNameCache.getOriginalName("resources/" + filename);
+        fileRangeSender.send(request, response, file, null, originalName != null ? originalName : filename);
     }
-} 
\ No newline at end of file
+}
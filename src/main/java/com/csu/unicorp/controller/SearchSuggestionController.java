@@ -0,0 +1,62 @@
+package com.csu.unicorp.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.csu.unicorp.service.impl.search.SearchSuggester;
+import com.csu.unicorp.service.impl.search.Suggestion;
+import com.csu.unicorp.vo.ResultVO;
+import com.csu.unicorp.vo.SuggestionVO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 搜索输入提示控制器
+ */
+@RestController
+@RequestMapping("/v1/search")
+@RequiredArgsConstructor
+@Tag(name = "搜索提示", description = "搜索框输入提示相关接口")
+public class SearchSuggestionController {
+
+    private final SearchSuggester searchSuggester;
+
+    /**
+     * 获取输入提示
+     */
+    @GetMapping("/suggestions")
+    @Operation(summary = "获取输入提示", description = "根据已输入的文本提示岗位标题、社区标签、组织名称和热门搜索词，按来源依次排列。" +
+            "每个来源前缀匹配的在前，前缀匹配不足时补充纠错结果（允许少量错字、漏字、多字或相邻字颠倒）")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<List<SuggestionVO>> getSuggestions(
+            @Parameter(description = "已输入的文本") @RequestParam String prefix,
+            @Parameter(description = "提示来源，不传时全部来源") @RequestParam(required = false) List<SearchSuggester.Source> types,
+            @Parameter(description = "每个来源的最大条数") @RequestParam(defaultValue = "5") Integer limit) {
+        List<SearchSuggester.Source> sources = types != null && !types.isEmpty()
+                ? types : List.of(SearchSuggester.Source.values());
+        List<SuggestionVO> result = new ArrayList<>();
+        for (SearchSuggester.Source source : sources) {
+            for (Suggestion suggestion : searchSuggester.suggest(source, prefix, limit)) {
+                result.add(new SuggestionVO(suggestion.getText(), source.name(), suggestion.getRefId(),
+                        suggestion.getDistance() > 0));
+            }
+        }
+        return ResultVO.success("获取输入提示成功", result);
+    }
+}
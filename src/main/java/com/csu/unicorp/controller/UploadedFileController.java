@@ -0,0 +1,81 @@
+package com.csu.unicorp.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.file.FileRangeSender;
+import com.csu.unicorp.service.impl.file.ImageDerivativeService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 上传文件访问控制器
+ * <p>
+ * 代替静态资源映射提供 /v1/files/** 下的头像、图片、章节视频等文件，支持断点续传、条件请求和零拷贝发送。
+ * 图片带size参数时返回对应预设尺寸的缩略图。
+ * 访问权限仍由SecurityConfig和ResourceImageInterceptor按路径控制。
+ */
+@Tag(name = "File Upload", description = "文件上传服务")
+@RestController
+@RequestMapping("/v1/files")
+@RequiredArgsConstructor
+public class UploadedFileController {
+
+    private final FileRangeSender fileRangeSender;
+    private final FileService fileService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    @Operation(summary = "访问上传的文件", description = "按相对路径访问上传的文件，支持Range请求，视频可直接拖动播放；"
+            + "图片可通过size参数获取缩略图，如头像列表使用 ?size=xs")
+    @GetMapping("/{*path}")
+    public void serveFile(@PathVariable String path,
+                          @Parameter(description = "缩略图预设：xs(48px)、sm(96px)、md(320px)、lg(960px)，不填返回原图")
+                          @RequestParam(required = false) String size,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 按内容保存的文件通过存储文件名映射到内容存储路径，同时防止目录遍历
+        Path file = fileService.resolveFile(path.substring(1));
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // 内容存储路径没有扩展名，按请求的存储文件名确定内容类型
+        MediaType contentType = fileRangeSender.contentTypeOf(path);
+
+        if (size != null) {
+            if (!imageDerivativeService.isPreset(size)) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "无效的缩略图尺寸: " + size);
+                return;
+            }
+            Path derivative = Files.isRegularFile(file) && contentType.getType().equals("image")
+                    ? imageDerivativeService.getDerivative(file, size) : null;
+            if (derivative != null) {
+                // 存储文件名唯一，内容不会变化，缩略图可长期缓存；需要权限的资源图片只允许浏览器缓存
+                boolean restricted = path.startsWith("/resource_images/") || path.startsWith("/resumes/");
+                CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).immutable();
+                cacheControl = restricted ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+                // 源图足够小时返回的就是源文件，同样没有扩展名
+                fileRangeSender.send(request, response, derivative, derivative.equals(file) ? contentType : null, null);
+                return;
+            }
+        }
+        fileRangeSender.send(request, response, file, contentType, null);
+    }
+}
@@ -19,6 +19,7 @@ import com.csu.unicorp.config.security.CustomUserDetails;
 import com.csu.unicorp.dto.community.TopicDTO;
 import com.csu.unicorp.service.CommunityCategoryService;
 import com.csu.unicorp.service.CommunityTopicService;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.ResultVO;
 import com.csu.unicorp.vo.community.TopicVO;
 
@@ -294,6 +295,30 @@ public class CommunityTopicController {
         return ResultVO.success("获取最新话题列表成功", topicPage);
     }
     
+    /**
+     * 按游标获取最新话题列表
+     * @param cursor 上一页返回的游标
+     * @param size 每页大小
+     * @param userDetails 当前登录用户
+     * @return 最新话题游标分页列表
+     */
+    @GetMapping("/latest/feed")
+    @Operation(summary = "按游标获取最新话题列表", description = "按发布时间倒序获取话题，使用上一页返回的游标翻页，不返回总数")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "获取成功",
+                content = @Content(mediaType = "application/json", 
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<CursorPageVO<TopicVO>> getLatestTopicsByCursor(
+            @RequestParam(required = false) @Parameter(description = "上一页返回的游标，第一页不传") String cursor,
+            @RequestParam(defaultValue = "10") @Parameter(description = "每页大小，最大100") Integer size,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Long userId = userDetails != null ? Long.valueOf(userDetails.getUser().getId()) : null;
+        
+        CursorPageVO<TopicVO> topics = topicService.getLatestTopicsByCursor(cursor, size, userId);
+        return ResultVO.success("获取最新话题列表成功", topics);
+    }
+    
     /**
      * 获取精华话题列表
      * @param page 页码
@@ -3,6 +3,7 @@ package com.csu.unicorp.controller.course;
 import com.csu.unicorp.dto.ChapterVideoDTO;
 import com.csu.unicorp.service.ChapterVideoService;
 import com.csu.unicorp.vo.ChapterVideoVO;
+import com.csu.unicorp.vo.MediaTranscodeJobVO;
 import com.csu.unicorp.vo.ResultVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -110,6 +111,29 @@ public class ChapterVideoController {
         return ResultVO.success("获取章节视频成功", video);
     }
     
+    /**
+     * 获取视频转码进度
+     */
+    @Operation(summary = "获取视频转码进度", description = "获取视频最近一次转码任务的状态和进度，转码完成后视频详情中返回HLS播放列表地址")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "获取成功",
+                content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ResultVO.class))),
+        @ApiResponse(responseCode = "404", description = "视频不存在",
+                content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    @GetMapping("/{videoId}/transcode")
+    public ResultVO<MediaTranscodeJobVO> getTranscodeJob(
+            @PathVariable @Parameter(description = "视频ID") Integer videoId) {
+        
+        MediaTranscodeJobVO job = videoService.getTranscodeJob(videoId);
+        if (job == null) {
+            return ResultVO.success("视频没有转码任务", null);
+        }
+        return ResultVO.success("获取转码进度成功", job);
+    }
+    
     /**
      * 删除视频
      */
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.csu.unicorp.dto.CourseResourceDTO;
 import com.csu.unicorp.entity.course.CourseResource.ResourceType;
 import com.csu.unicorp.service.CourseResourceService;
+import com.csu.unicorp.service.impl.file.FileRangeSender;
 import com.csu.unicorp.vo.CourseResourceVO;
 import com.csu.unicorp.vo.ResultVO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,21 +14,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -40,6 +38,7 @@ import java.nio.file.Paths;
 public class CourseResourceController {
 
     private final CourseResourceService resourceService;
+    private final FileRangeSender fileRangeSender;
     
     /**
      * 上传课程资源
@@ -79,6 +78,44 @@ public class CourseResourceController {
         CourseResourceVO resource = resourceService.uploadResource(file, resourceDTO, userDetails);
         return ResultVO.success("资源上传成功", resource);
     }
+
+    /**
+     * 使用分片上传的文件创建课程资源
+     */
+    @Operation(summary = "分片上传课程资源", description = "大文件先通过 /files/uploads 分片上传，全部分片上传后调用本接口创建课程资源，需要教师或企业导师权限")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "资源上传成功", 
+                content = @Content(mediaType = "application/json", 
+                schema = @Schema(implementation = ResultVO.class))),
+        @ApiResponse(responseCode = "400", description = "参数错误、分片未上传完或权限不足", 
+                content = @Content(mediaType = "application/json", 
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    @PostMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasAnyRole('TEACHER', 'EN_TEACHER')")
+    public ResultVO<CourseResourceVO> uploadResourceFromSession(
+            @Parameter(description = "分片上传会话ID") @PathVariable String uploadId,
+            @RequestParam("courseId") Integer courseId,
+            @RequestParam("title") String title,
+            @RequestParam("description") String description,
+            @RequestParam("resourceType") String resourceType,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        // 验证资源类型是否有效
+        try {
+            ResourceType.valueOf(resourceType);
+        } catch (IllegalArgumentException e) {
+            return ResultVO.error("无效的资源类型，可选值：document, video, code, other");
+        }
+        
+        CourseResourceDTO resourceDTO = new CourseResourceDTO();
+        resourceDTO.setCourseId(courseId);
+        resourceDTO.setTitle(title);
+        resourceDTO.setDescription(description);
+        resourceDTO.setResourceType(resourceType);
+        
+        CourseResourceVO resource = resourceService.uploadResource(uploadId, resourceDTO, userDetails);
+        return ResultVO.success("资源上传成功", resource);
+    }
     
     /**
      * 删除课程资源
@@ -149,29 +186,24 @@ public class CourseResourceController {
     @Operation(summary = "下载课程资源", description = "下载指定的课程资源文件")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "文件下载成功"),
+        @ApiResponse(responseCode = "206", description = "返回Range请求的部分内容"),
+        @ApiResponse(responseCode = "304", description = "文件未修改"),
         @ApiResponse(responseCode = "404", description = "资源不存在", 
                 content = @Content(mediaType = "application/json", 
                 schema = @Schema(implementation = ResultVO.class)))
     })
     @GetMapping("/download/{resourceId}")
-    public ResponseEntity<Resource> downloadResource(@PathVariable Integer resourceId) {
-        try {
-            // 获取资源文件路径
-            String filePath = resourceService.downloadResource(resourceId);
-            Path path = Paths.get(filePath);
-            Resource resource = new UrlResource(path.toUri());
-            
-            // 获取资源详情，用于设置文件名
-            CourseResourceVO resourceVO = resourceService.getResourceById(resourceId);
-            String filename = resourceVO.getTitle() + getFileExtension(filePath);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(resourceVO.getFileType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("文件下载失败", e);
-        }
+    public void downloadResource(@PathVariable Integer resourceId, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        // 只有从头开始的请求计入下载次数，拖动进度、断点续传的后续请求不重复计数
+        CourseResourceVO resourceVO = resourceService.getResourceForDownload(
+                resourceId, fileRangeSender.isInitialRequest(request));
+        String filePath = resourceVO.getFilePath();
+        String filename = resourceVO.getTitle() + getFileExtension(filePath);
+        MediaType contentType = StringUtils.hasText(resourceVO.getFileType())
+                ? MediaType.parseMediaType(resourceVO.getFileType()) : null;
+        
+        fileRangeSender.send(request, response, Paths.get(filePath), contentType, filename);
     }
     
     /**
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.csu.unicorp.config.security.CustomUserDetails;
 import com.csu.unicorp.dto.JobCreationDTO;
 import com.csu.unicorp.service.JobService;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.JobVO;
 import com.csu.unicorp.vo.ResultVO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -49,7 +50,7 @@ public class JobController {
             @Parameter(description = "学历要求筛选",schema = @Schema(allowableValues = {"bachelor", "master", "doctorate","any"})) @RequestParam(required = false) String educationRequirement,
             @Parameter(description = "最低薪资") @RequestParam(required = false) Integer salaryMin,
             @Parameter(description = "最高薪资") @RequestParam(required = false) Integer salaryMax,
-            @Parameter(description = "排序方式", schema = @Schema(allowableValues = {"latest", "salary_asc", "salary_desc"})) 
+            @Parameter(description = "排序方式，relevance 按关键词相关度排序", schema = @Schema(allowableValues = {"latest", "salary_asc", "salary_desc", "relevance"})) 
             @RequestParam(required = false, defaultValue = "latest") String sortBy,
             @Parameter(description = "组织ID筛选") @RequestParam(required = false) Integer organizeId,
             @Parameter(description = "发布者ID筛选") @RequestParam(required = false) Integer posterId) {
@@ -58,6 +59,32 @@ public class JobController {
         return ResultVO.success("获取岗位列表成功", jobList);
     }
     
+    @GetMapping("/feed")
+    @Operation(summary = "按游标获取岗位列表", description = "按发布时间倒序获取状态为 'open' 的岗位，使用上一页返回的游标翻页，不返回总数")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "成功获取岗位列表",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "游标无效",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<CursorPageVO<JobVO>> getJobFeed(
+            @Parameter(description = "上一页返回的游标，第一页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小，最大100") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
+            @Parameter(description = "城市筛选") @RequestParam(required = false) String location,
+            @Parameter(description = "工作类型筛选",schema = @Schema(allowableValues = {"full_time", "part_time", "internship", "remote"})) @RequestParam(required = false) String jobType,
+            @Parameter(description = "学历要求筛选",schema = @Schema(allowableValues = {"bachelor", "master", "doctorate","any"})) @RequestParam(required = false) String educationRequirement,
+            @Parameter(description = "最低薪资") @RequestParam(required = false) Integer salaryMin,
+            @Parameter(description = "最高薪资") @RequestParam(required = false) Integer salaryMax,
+            @Parameter(description = "组织ID筛选") @RequestParam(required = false) Integer organizeId,
+            @Parameter(description = "发布者ID筛选") @RequestParam(required = false) Integer posterId) {
+        CursorPageVO<JobVO> jobs = jobService.getJobFeed(cursor, size, keyword, location, jobType,
+                educationRequirement, salaryMin, salaryMax, organizeId, posterId);
+        return ResultVO.success("获取岗位列表成功", jobs);
+    }
+    
     @PostMapping
     @PreAuthorize("hasAnyRole('EN_ADMIN', 'EN_TEACHER')")
     @ResponseStatus(HttpStatus.CREATED)
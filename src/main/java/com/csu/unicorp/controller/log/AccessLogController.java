@@ -0,0 +1,67 @@
+package com.csu.unicorp.controller.log;
+
+import com.csu.unicorp.config.RouteLatencyRegistry;
+import com.csu.unicorp.vo.ResultVO;
+import com.csu.unicorp.vo.RouteLatencyVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 访问日志控制器
+ * 提供按路由统计的接口延迟查询功能
+ */
+@Tag(name = "AccessLog", description = "接口访问统计")
+@RestController
+@RequestMapping("/v1/admin/access-log")
+@RequiredArgsConstructor
+public class AccessLogController {
+
+    private final RouteLatencyRegistry routeLatencyRegistry;
+
+    /**
+     * 获取各路由的延迟统计
+     *
+     * @return 延迟统计列表，按请求数降序排列
+     */
+    @Operation(summary = "获取接口延迟统计", description = "获取当前实例自启动或上次清空以来各路由的请求数、错误数和延迟分布")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查询成功",
+                content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    @GetMapping("/routes")
+    @PreAuthorize("hasRole('SYSADMIN')")
+    public ResultVO<List<RouteLatencyVO>> getRouteLatencies() {
+        return ResultVO.success("查询成功", routeLatencyRegistry.snapshot());
+    }
+
+    /**
+     * 清空延迟统计
+     *
+     * @return 操作结果
+     */
+    @Operation(summary = "清空接口延迟统计", description = "清空当前实例的接口延迟统计数据")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "清空成功",
+                content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    @DeleteMapping("/routes")
+    @PreAuthorize("hasRole('SYSADMIN')")
+    public ResultVO<Void> resetRouteLatencies() {
+        routeLatencyRegistry.reset();
+        return ResultVO.success("清空成功");
+    }
+}
@@ -5,6 +5,7 @@ import com.csu.unicorp.common.annotation.Log;
 import com.csu.unicorp.common.constants.LogActionType;
 import com.csu.unicorp.service.AuditLogService;
 import com.csu.unicorp.vo.AuditLogVO;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.LogStatisticsVO;
 import com.csu.unicorp.vo.ResultVO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -70,6 +71,40 @@ public class AuditLogController {
         return ResultVO.success("查询成功", logs);
     }
     
+    /**
+     * 按游标查询审计日志
+     * 
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param size 每页大小
+     * @param userId 用户ID
+     * @param action 操作类型
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 日志游标分页列表
+     */
+    @Operation(summary = "按游标查询审计日志", description = "按时间倒序查询审计日志，使用上一页返回的游标翻页，不返回总数")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查询成功",
+                content = @Content(mediaType = "application/json", 
+                schema = @Schema(implementation = ResultVO.class)))
+    })
+    @GetMapping("/logs/cursor")
+    @PreAuthorize("hasRole('SYSADMIN')")
+    @Log(value = LogActionType.SYSTEM_INFO, module = "审计日志", description = "查询审计日志")
+    public ResultVO<CursorPageVO<AuditLogVO>> getLogsByCursor(
+            @RequestParam(required = false) @Parameter(description = "上一页返回的游标") String cursor,
+            @RequestParam(defaultValue = "10") @Parameter(description = "每页大小，最大100") int size,
+            @RequestParam(required = false) @Parameter(description = "用户ID") Integer userId,
+            @RequestParam(required = false) @Parameter(description = "操作类型") String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) 
+                @Parameter(description = "开始时间") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) 
+                @Parameter(description = "结束时间") LocalDateTime endTime) {
+        
+        CursorPageVO<AuditLogVO> logs = auditLogService.getLogsByCursor(cursor, size, userId, action, startTime, endTime);
+        return ResultVO.success("查询成功", logs);
+    }
+    
     /**
      * 获取日志统计信息
      * 
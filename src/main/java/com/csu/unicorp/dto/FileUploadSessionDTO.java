@@ -0,0 +1,52 @@
+package com.csu.unicorp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 分片上传会话数据传输对象
+ */
+@Data
+@Schema(description = "分片上传会话数据传输对象")
+public class FileUploadSessionDTO {
+
+    /**
+     * 原始文件名
+     */
+    @NotBlank(message = "文件名不能为空")
+    @Size(max = 255, message = "文件名不能超过255个字符")
+    @Schema(description = "原始文件名", required = true, example = "第一章课件.pptx")
+    private String fileName;
+
+    /**
+     * 文件总大小
+     */
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    @Schema(description = "文件总大小（字节）", required = true, example = "104857600")
+    private Long totalSize;
+
+    /**
+     * 分片大小
+     */
+    @Positive(message = "分片大小必须大于0")
+    @Schema(description = "期望的分片大小（字节），不填时使用服务端默认值，实际值以返回结果为准", example = "5242880")
+    private Integer chunkSize;
+
+    /**
+     * 文件MIME类型
+     */
+    @Size(max = 100, message = "文件类型不能超过100个字符")
+    @Schema(description = "文件MIME类型", example = "application/vnd.openxmlformats-officedocument.presentationml.presentation")
+    private String contentType;
+
+    /**
+     * 文件类型标识
+     */
+    @Schema(description = "文件类型标识，与普通上传相同；上传课程资源时不需要填写", example = "resource")
+    private String type;
+}
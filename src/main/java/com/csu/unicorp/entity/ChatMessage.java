@@ -15,7 +15,10 @@ import lombok.Data;
 @TableName("chat_message")
 public class ChatMessage {
     
-    @TableId(type = IdType.AUTO)
+    /**
+     * 消息ID，由应用按Snowflake规则分配
+     */
+    @TableId(type = IdType.INPUT)
     private Long id;
     
     private Long sessionId;
@@ -23,4 +23,29 @@ public class ChatSession {
     private Long user2Id;
     
     private LocalDateTime createdAt;
+    
+    /**
+     * 最后一条消息ID
+     */
+    private Long lastMessageId;
+    
+    /**
+     * 最后一条消息摘要
+     */
+    private String lastMessageSnippet;
+    
+    /**
+     * 最后一条消息时间，没有消息时为会话创建时间
+     */
+    private LocalDateTime lastMessageTime;
+    
+    /**
+     * user1的未读消息数
+     */
+    private Integer user1UnreadCount;
+    
+    /**
+     * user2的未读消息数
+     */
+    private Integer user2UnreadCount;
 } 
\ No newline at end of file
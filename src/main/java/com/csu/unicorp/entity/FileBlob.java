@@ -0,0 +1,42 @@
+package com.csu.unicorp.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容实体类，相同内容的上传文件共用一份
+ */
+@Data
+@TableName("file_blobs")
+public class FileBlob {
+
+    /**
+     * 文件内容SHA-256
+     */
+    @TableId(value = "content_hash", type = IdType.INPUT)
+    private String contentHash;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long size;
+
+    /**
+     * 引用数
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 引用数降为0的时间
+     */
+    private LocalDateTime releasedAt;
+}
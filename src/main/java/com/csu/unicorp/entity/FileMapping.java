@@ -17,5 +17,9 @@ public class FileMapping {
     private String storedName;
     private String originalName;
     private String type;
+    /**
+     * 文件内容SHA-256，为空表示旧文件，仍按storedName存放在上传目录下
+     */
+    private String contentHash;
     private Timestamp uploadTime;
 }
\ No newline at end of file
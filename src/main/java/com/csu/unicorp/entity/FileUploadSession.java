@@ -0,0 +1,85 @@
+package com.csu.unicorp.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ */
+@Data
+@TableName("file_upload_sessions")
+public class FileUploadSession {
+
+    public static final String STATUS_UPLOADING = "UPLOADING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * 上传会话ID
+     */
+    @TableId(value = "id", type = IdType.INPUT)
+    private String id;
+
+    /**
+     * 创建会话的账号
+     */
+    private String ownerAccount;
+
+    /**
+     * 文件类型标识
+     */
+    private String type;
+
+    /**
+     * 原始文件名
+     */
+    private String originalName;
+
+    /**
+     * 文件MIME类型
+     */
+    private String contentType;
+
+    /**
+     * 文件总大小（字节）
+     */
+    private Long totalSize;
+
+    /**
+     * 分片大小（字节）
+     */
+    private Integer chunkSize;
+
+    /**
+     * 分片数量
+     */
+    private Integer chunkCount;
+
+    /**
+     * 会话状态
+     */
+    private String status;
+
+    /**
+     * 完成后的文件相对路径
+     */
+    private String storedName;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expiresAt;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,59 @@
+package com.csu.unicorp.entity.achievement;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 学生成果统计实体类
+ * 按学生预聚合的成果数量，避免统计时逐个学生查询成果列表
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("student_achievement_stats")
+public class StudentAchievementStats {
+
+    /**
+     * 学生ID
+     */
+    @TableId(type = IdType.INPUT)
+    private Integer userId;
+
+    /**
+     * 作品数量
+     */
+    private Integer portfolioCount;
+
+    /**
+     * 竞赛获奖数量
+     */
+    private Integer awardCount;
+
+    /**
+     * 已认证竞赛获奖数量
+     */
+    private Integer verifiedAwardCount;
+
+    /**
+     * 科研成果数量
+     */
+    private Integer researchCount;
+
+    /**
+     * 已认证科研成果数量
+     */
+    private Integer verifiedResearchCount;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -56,6 +56,21 @@ public class ChapterVideo {
      */
     private String coverImage;
     
+    /**
+     * HLS主播放列表路径，转码完成前为空
+     */
+    private String hlsPlaylist;
+    
+    /**
+     * 进度条预览缩略图WebVTT路径
+     */
+    private String thumbnailTrack;
+    
+    /**
+     * 转码状态
+     */
+    private String transcodeStatus;
+    
     /**
      * 上传者ID
      */
@@ -0,0 +1,93 @@
+package com.csu.unicorp.entity.course;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 媒体转码任务实体类
+ */
+@Data
+@TableName("media_transcode_jobs")
+public class MediaTranscodeJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELED = "CANCELED";
+
+    /**
+     * 任务ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 章节视频ID
+     */
+    private Integer videoId;
+
+    /**
+     * 原始文件相对路径（相对上传根目录）
+     */
+    private String sourcePath;
+
+    /**
+     * 任务状态
+     */
+    private String status;
+
+    /**
+     * 当前步骤：PROBE/COVER/THUMBNAILS/渲染的清晰度（如720p）/PLAYLIST
+     */
+    private String stage;
+
+    /**
+     * 进度百分比
+     */
+    private Integer progress;
+
+    /**
+     * 已执行次数
+     */
+    private Integer attempts;
+
+    /**
+     * 执行节点
+     */
+    private String workerNode;
+
+    /**
+     * 已生成的清晰度，逗号分隔
+     */
+    private String renditions;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 开始执行时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 执行节点最后一次上报进度的时间
+     */
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishedAt;
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.entity.AuditLog;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
@@ -67,4 +68,19 @@ public interface AuditLogMapper extends BaseMapper<AuditLog> {
      */
     @Select("SELECT DATE(timestamp) as date, COUNT(*) as count FROM audit_logs GROUP BY DATE(timestamp) ORDER BY date DESC LIMIT 30")
     List<Map<String, Object>> countByDate();
+
+    /**
+     * 批量插入日志（单条多行INSERT）
+     * 
+     * @param logs 日志列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO audit_logs (user_id, user_account, user_name, action, module, ip, result, timestamp, details) VALUES " +
+            "<foreach collection='logs' item='log' separator=','>" +
+            "(#{log.userId}, #{log.userAccount}, #{log.userName}, #{log.action}, #{log.module}, " +
+            "#{log.ip}, #{log.result}, #{log.timestamp}, #{log.details})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("logs") List<AuditLog> logs);
 } 
\ No newline at end of file
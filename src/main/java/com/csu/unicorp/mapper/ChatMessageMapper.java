@@ -2,6 +2,7 @@ package com.csu.unicorp.mapper;
 
 import java.util.List;
 
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -39,6 +40,19 @@ public interface ChatMessageMapper extends BaseMapper<ChatMessage> {
      * @param sessionId 会话ID
      * @param receiverId 接收者ID
      */
-    @Update("UPDATE chat_message SET is_read = 1 WHERE session_id = #{sessionId}  AND is_read = 0")
+    @Update("UPDATE chat_message SET is_read = 1 WHERE session_id = #{sessionId} AND sender_id != #{receiverId} AND is_read = 0")
     void markAllAsRead(@Param("sessionId") Long sessionId, @Param("receiverId") Long receiverId);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量插入消息，消息ID由应用分配
+     * @param messages 消息列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO chat_message (id, session_id, sender_id, content, sent_at, is_read) VALUES " +
+            "<foreach collection='messages' item='m' separator=','>" +
+            "(#{m.id}, #{m.sessionId}, #{m.senderId}, #{m.content}, #{m.sentAt}, #{m.isRead})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("messages") List<ChatMessage> messages);
+}
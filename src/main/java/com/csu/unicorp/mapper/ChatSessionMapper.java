@@ -1,11 +1,17 @@
 package com.csu.unicorp.mapper;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.csu.unicorp.entity.ChatSession;
+import com.csu.unicorp.vo.ChatSessionVO;
 
 /**
  * 聊天会话Mapper接口
@@ -21,4 +27,80 @@ public interface ChatSessionMapper extends BaseMapper<ChatSession> {
      */
     @Select("SELECT * FROM chat_session WHERE (user1_id = #{user1Id} AND user2_id = #{user2Id}) OR (user1_id = #{user2Id} AND user2_id = #{user1Id}) LIMIT 1")
     ChatSession findByUsers(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
-} 
\ No newline at end of file
+    
+    /**
+     * 查询用户的会话列表，对方用户信息、最后一条消息和未读数均来自一次查询，按最后消息时间倒序
+     * 两个分支分别使用(user1_id, last_message_time)和(user2_id, last_message_time)索引
+     * @param userId 当前用户ID
+     * @return 会话列表，对方头像为相对路径
+     */
+    @Select("SELECT * FROM (" +
+            "SELECT s.id, s.user2_id AS user_id, u.nickname AS user_name, u.avatar AS user_avatar, " +
+            "s.last_message_snippet AS last_message, s.last_message_time, s.user1_unread_count AS unread_count " +
+            "FROM chat_session s LEFT JOIN users u ON u.id = s.user2_id " +
+            "WHERE s.user1_id = #{userId} " +
+            "UNION ALL " +
+            "SELECT s.id, s.user1_id AS user_id, u.nickname AS user_name, u.avatar AS user_avatar, " +
+            "s.last_message_snippet AS last_message, s.last_message_time, s.user2_unread_count AS unread_count " +
+            "FROM chat_session s LEFT JOIN users u ON u.id = s.user1_id " +
+            "WHERE s.user2_id = #{userId} AND s.user1_id != #{userId}" +
+            ") t ORDER BY t.last_message_time DESC, t.id DESC")
+    List<ChatSessionVO> selectInbox(@Param("userId") Long userId);
+    
+    /**
+     * 从给定的用户中筛选与当前用户有会话的用户
+     * 两个分支分别使用user1_id和user2_id开头的索引
+     * @param userId 当前用户ID
+     * @param candidateIds 待筛选的用户ID，不能为空
+     * @return 有会话的用户ID
+     */
+    @Select("<script>" +
+            "SELECT s.user2_id FROM chat_session s WHERE s.user1_id = #{userId} AND s.user2_id IN " +
+            "<foreach collection='candidateIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "UNION " +
+            "SELECT s.user1_id FROM chat_session s WHERE s.user2_id = #{userId} AND s.user1_id IN " +
+            "<foreach collection='candidateIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Long> selectContactIds(@Param("userId") Long userId, @Param("candidateIds") Collection<Long> candidateIds);
+    
+    /**
+     * 增加接收方未读数，同时锁定会话行
+     * 写入消息和标记已读都先更新会话行，两者按会话串行执行，未读数不会与消息的已读状态不一致
+     * @param sessionId 会话ID
+     * @param senderId 发送者ID
+     * @param count 该发送者的新消息数
+     * @return 影响行数
+     */
+    @Update("UPDATE chat_session SET " +
+            "user1_unread_count = user1_unread_count + IF(user1_id = #{senderId}, 0, #{count}), " +
+            "user2_unread_count = user2_unread_count + IF(user2_id = #{senderId}, 0, #{count}) " +
+            "WHERE id = #{sessionId}")
+    int incrementUnreadCount(@Param("sessionId") Long sessionId, @Param("senderId") Long senderId,
+                             @Param("count") int count);
+    
+    /**
+     * 更新会话的最后一条消息，只会用更新的消息覆盖，补写的旧消息不会覆盖
+     * @param sessionId 会话ID
+     * @param messageId 消息ID
+     * @param snippet 消息摘要
+     * @param sentAt 发送时间
+     * @return 影响行数
+     */
+    @Update("UPDATE chat_session SET last_message_id = #{messageId}, last_message_snippet = #{snippet}, " +
+            "last_message_time = #{sentAt} " +
+            "WHERE id = #{sessionId} AND (last_message_id IS NULL OR last_message_id < #{messageId})")
+    int updateLastMessage(@Param("sessionId") Long sessionId, @Param("messageId") Long messageId,
+                          @Param("snippet") String snippet, @Param("sentAt") LocalDateTime sentAt);
+    
+    /**
+     * 清零用户在会话中的未读数，同时锁定会话行
+     * @param sessionId 会话ID
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    @Update("UPDATE chat_session SET " +
+            "user1_unread_count = IF(user1_id = #{userId}, 0, user1_unread_count), " +
+            "user2_unread_count = IF(user2_id = #{userId}, 0, user2_unread_count) " +
+            "WHERE id = #{sessionId}")
+    int resetUnreadCount(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+}
@@ -0,0 +1,77 @@
+package com.csu.unicorp.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.csu.unicorp.entity.FileBlob;
+
+/**
+ * 文件内容Mapper接口
+ * <p>
+ * 清理时先锁定引用数为0的记录再删除文件，增加引用的语句会等待清理事务结束，不会引用到正在删除的文件
+ */
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 增加已有内容的引用
+     * @param contentHash 文件内容SHA-256
+     * @return 影响行数，为0表示内容不存在，需要写入
+     */
+    @Update("UPDATE file_blobs SET ref_count = ref_count + 1, released_at = NULL WHERE content_hash = #{contentHash}")
+    int acquire(@Param("contentHash") String contentHash);
+
+    /**
+     * 登记新内容并增加引用，并发写入相同内容时合并为一条
+     * @param contentHash 文件内容SHA-256
+     * @param size 文件大小
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO file_blobs (content_hash, size, ref_count, created_at) VALUES (#{contentHash}, #{size}, 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, released_at = NULL")
+    int upsert(@Param("contentHash") String contentHash, @Param("size") long size);
+
+    /**
+     * 减少引用，引用数降为0时记录时间
+     * @param contentHash 文件内容SHA-256
+     * @return 影响行数
+     */
+    @Update("UPDATE file_blobs SET released_at = IF(ref_count <= 1, NOW(), released_at), " +
+            "ref_count = GREATEST(ref_count - 1, 0) WHERE content_hash = #{contentHash}")
+    int release(@Param("contentHash") String contentHash);
+
+    /**
+     * 查询可以清理的内容：引用数为0超过保留时间，且file_mapping中已没有引用
+     * @param graceMinutes 保留时间（分钟）
+     * @param limit 最多返回的数量
+     * @return 文件内容SHA-256列表
+     */
+    @Select("SELECT b.content_hash FROM file_blobs b WHERE b.ref_count = 0 " +
+            "AND b.released_at < NOW() - INTERVAL #{graceMinutes} MINUTE " +
+            "AND NOT EXISTS (SELECT 1 FROM file_mapping m WHERE m.content_hash = b.content_hash) " +
+            "LIMIT #{limit}")
+    List<String> selectCollectable(@Param("graceMinutes") int graceMinutes, @Param("limit") int limit);
+
+    /**
+     * 锁定仍未被引用的内容
+     * @param contentHash 文件内容SHA-256
+     * @return 文件内容SHA-256，已被重新引用时返回null
+     */
+    @Select("SELECT content_hash FROM file_blobs WHERE content_hash = #{contentHash} AND ref_count = 0 FOR UPDATE")
+    String lockUnreferenced(@Param("contentHash") String contentHash);
+
+    /**
+     * 删除内容记录
+     * @param contentHash 文件内容SHA-256
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM file_blobs WHERE content_hash = #{contentHash} AND ref_count = 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+}
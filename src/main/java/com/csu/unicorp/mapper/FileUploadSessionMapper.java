@@ -0,0 +1,84 @@
+package com.csu.unicorp.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.csu.unicorp.entity.FileUploadSession;
+
+/**
+ * 分片上传会话Mapper接口
+ */
+@Mapper
+public interface FileUploadSessionMapper extends BaseMapper<FileUploadSession> {
+
+    /**
+     * 记录已接收的分片，重传同一分片时覆盖校验和
+     * @param uploadId 上传会话ID
+     * @param chunkIndex 分片序号
+     * @param checksum 分片SHA-256
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO file_upload_chunks (upload_id, chunk_index, checksum, received_at) " +
+            "VALUES (#{uploadId}, #{chunkIndex}, #{checksum}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE checksum = VALUES(checksum), received_at = NOW()")
+    int upsertChunk(@Param("uploadId") String uploadId, @Param("chunkIndex") int chunkIndex,
+                    @Param("checksum") String checksum);
+
+    /**
+     * 删除分片的接收记录，重传分片写入临时文件前调用，写入或校验失败时该分片视为未接收
+     * @param uploadId 上传会话ID
+     * @param chunkIndex 分片序号
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM file_upload_chunks WHERE upload_id = #{uploadId} AND chunk_index = #{chunkIndex}")
+    int deleteChunk(@Param("uploadId") String uploadId, @Param("chunkIndex") int chunkIndex);
+
+    /**
+     * 查询已接收的分片序号
+     * @param uploadId 上传会话ID
+     * @return 分片序号列表，升序
+     */
+    @Select("SELECT chunk_index FROM file_upload_chunks WHERE upload_id = #{uploadId} ORDER BY chunk_index")
+    List<Integer> selectChunkIndexes(@Param("uploadId") String uploadId);
+
+    /**
+     * 统计已接收的分片数量
+     * @param uploadId 上传会话ID
+     * @return 分片数量
+     */
+    @Select("SELECT COUNT(*) FROM file_upload_chunks WHERE upload_id = #{uploadId}")
+    int countChunks(@Param("uploadId") String uploadId);
+
+    /**
+     * 完成上传，只有上传中的会话才能完成，重复提交时只有一次成功
+     * @param id 上传会话ID
+     * @param storedName 文件相对路径
+     * @return 影响行数
+     */
+    @Update("UPDATE file_upload_sessions SET status = 'COMPLETED', stored_name = #{storedName}, completed_at = NOW() " +
+            "WHERE id = #{id} AND status = 'UPLOADING'")
+    int complete(@Param("id") String id, @Param("storedName") String storedName);
+
+    /**
+     * 查询已过期的会话：未完成的按过期时间，已完成的保留到过期后再删除记录
+     * @param limit 最多返回的数量
+     * @return 会话ID列表
+     */
+    @Select("SELECT id FROM file_upload_sessions WHERE expires_at < NOW() LIMIT #{limit}")
+    List<String> selectExpiredIds(@Param("limit") int limit);
+
+    /**
+     * 删除会话及其分片记录
+     * @param id 上传会话ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM file_upload_sessions WHERE id = #{id}")
+    int deleteSession(@Param("id") String id);
+}
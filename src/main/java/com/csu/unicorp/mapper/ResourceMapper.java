@@ -1,5 +1,7 @@
 package com.csu.unicorp.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -16,11 +18,21 @@ import com.csu.unicorp.vo.ResourceVO;
 @Mapper
 public interface ResourceMapper extends BaseMapper<Resource> {
     
+    /**
+     * 关键词筛选，matchedIds 为全文检索匹配的资源ID，为null时不按关键词筛选，为空时没有匹配的资源
+     */
+    String MATCHED_IDS_FILTER = "<if test='matchedIds != null'>" +
+            "<choose>" +
+            "<when test='matchedIds.isEmpty()'>AND 1 = 0 </when>" +
+            "<otherwise>AND r.id IN <foreach collection='matchedIds' item='matchedId' open='(' separator=',' close=')'>#{matchedId}</foreach> </otherwise>" +
+            "</choose>" +
+            "</if>";
+    
     /**
      * 分页查询资源列表，包含上传者信息
      *
      * @param page 分页参数
-     * @param keyword 搜索关键词
+     * @param matchedIds 全文检索匹配的资源ID，为null时不按关键词筛选
      * @return 资源列表（含上传者信息）
      */
     @Select("<script>" +
@@ -29,14 +41,10 @@ public interface ResourceMapper extends BaseMapper<Resource> {
             "LEFT JOIN users u ON r.uploaded_by_user_id = u.id " +
             "LEFT JOIN organizations o ON u.organization_id = o.id " +
             "WHERE r.is_deleted = 0 " +
-            "<if test='keyword != null and keyword != \"\"'>" +
-            "AND (r.title LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR r.description LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR r.resource_type LIKE CONCAT('%', #{keyword}, '%'))" +
-            "</if>" +
+            MATCHED_IDS_FILTER +
             "ORDER BY r.created_at DESC" +
             "</script>")
-    IPage<ResourceVO> selectResourcesWithUploader(Page<ResourceVO> page, @Param("keyword") String keyword);
+    IPage<ResourceVO> selectResourcesWithUploader(Page<ResourceVO> page, @Param("matchedIds") List<Long> matchedIds);
     
     /**
      * 根据ID查询资源详情，包含上传者信息
@@ -56,7 +64,7 @@ public interface ResourceMapper extends BaseMapper<Resource> {
      *
      * @param page 分页参数
      * @param userId 用户ID
-     * @param keyword 搜索关键词
+     * @param matchedIds 全文检索匹配的资源ID，为null时不按关键词筛选
      * @return 资源列表（含上传者信息）
      */
     @Select("<script>" +
@@ -65,12 +73,23 @@ public interface ResourceMapper extends BaseMapper<Resource> {
             "LEFT JOIN users u ON r.uploaded_by_user_id = u.id " +
             "LEFT JOIN organizations o ON u.organization_id = o.id " +
             "WHERE r.is_deleted = 0 AND r.uploaded_by_user_id = #{userId} " +
-            "<if test='keyword != null and keyword != \"\"'>" +
-            "AND (r.title LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR r.description LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR r.resource_type LIKE CONCAT('%', #{keyword}, '%'))" +
-            "</if>" +
+            MATCHED_IDS_FILTER +
             "ORDER BY r.created_at DESC" +
             "</script>")
-    IPage<ResourceVO> selectUserUploadedResources(Page<ResourceVO> page, @Param("userId") Integer userId, @Param("keyword") String keyword);
-} 
\ No newline at end of file
+    IPage<ResourceVO> selectUserUploadedResources(Page<ResourceVO> page, @Param("userId") Integer userId, @Param("matchedIds") List<Long> matchedIds);
+
+    /**
+     * 根据图片或文件的存储路径查找资源，只返回ID、上传者和可见性
+     * 两个条件分别查询再合并，各自使用image_url、file_url上的索引
+     *
+     * @param url 存储路径，如 resource_images/xxx.png
+     * @return 资源，不存在时返回null
+     */
+    @Select("(SELECT id, uploaded_by_user_id, visibility FROM resources " +
+            "WHERE image_url = #{url} AND is_deleted = 0 LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT id, uploaded_by_user_id, visibility FROM resources " +
+            "WHERE file_url = #{url} AND is_deleted = 0 LIMIT 1) " +
+            "LIMIT 1")
+    Resource selectAccessByUrl(@Param("url") String url);
+}
@@ -0,0 +1,88 @@
+package com.csu.unicorp.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import com.csu.unicorp.service.impl.search.SearchDocument;
+
+/**
+ * 全文检索文档查询
+ * 每个方法的ID参数为空时返回全部记录，用于重建索引；不为空时只返回该记录，用于增量更新
+ */
+@Mapper
+public interface SearchDocumentMapper {
+
+    /**
+     * 查询岗位文档：标题；标签、组织名称、工作地点；岗位描述
+     * 岗位列表只展示招聘中的岗位，已关闭的岗位不进入索引
+     *
+     * @param id 岗位ID，为空时查询全部
+     * @return 文档列表
+     */
+    @Select("<script>" +
+            "SELECT j.id, j.title, CONCAT_WS(' ', j.tags, o.organization_name, j.location) AS keywords, " +
+            "j.description AS content " +
+            "FROM jobs j " +
+            "LEFT JOIN organizations o ON j.organization_id = o.id " +
+            "WHERE j.is_deleted = 0 AND j.status = 'open' " +
+            "<if test='id != null'>AND j.id = #{id}</if>" +
+            "</script>")
+    List<SearchDocument> selectJobDocuments(@Param("id") Long id);
+
+    /**
+     * 查询资源文档：标题；资源类型；资源描述
+     *
+     * @param id 资源ID，为空时查询全部
+     * @return 文档列表
+     */
+    @Select("<script>" +
+            "SELECT r.id, r.title, r.resource_type AS keywords, r.description AS content " +
+            "FROM resources r " +
+            "WHERE r.is_deleted = 0 " +
+            "<if test='id != null'>AND r.id = #{id}</if>" +
+            "</script>")
+    List<SearchDocument> selectResourceDocuments(@Param("id") Long id);
+
+    /**
+     * 查询话题文档：标题；正文
+     *
+     * @param id 话题ID，为空时查询全部
+     * @return 文档列表
+     */
+    @Select("<script>" +
+            "SELECT t.id, t.title, NULL AS keywords, t.content " +
+            "FROM community_topic t " +
+            "WHERE t.status != 'DELETED' " +
+            "<if test='id != null'>AND t.id = #{id}</if>" +
+            "</script>")
+    List<SearchDocument> selectTopicDocuments(@Param("id") Long id);
+
+    /**
+     * 查询问题文档：标题；正文
+     *
+     * @param id 问题ID，为空时查询全部
+     * @return 文档列表
+     */
+    @Select("<script>" +
+            "SELECT q.id, q.title, NULL AS keywords, q.content " +
+            "FROM community_question q " +
+            "<if test='id != null'>WHERE q.id = #{id}</if>" +
+            "</script>")
+    List<SearchDocument> selectQuestionDocuments(@Param("id") Long id);
+
+    /**
+     * 查询项目文档：标题；项目领域；项目描述
+     *
+     * @param id 项目ID，为空时查询全部
+     * @return 文档列表
+     */
+    @Select("<script>" +
+            "SELECT p.project_id AS id, p.title, p.field AS keywords, p.description AS content " +
+            "FROM project p " +
+            "<if test='id != null'>WHERE p.project_id = #{id}</if>" +
+            "</script>")
+    List<SearchDocument> selectProjectDocuments(@Param("id") Long id);
+}
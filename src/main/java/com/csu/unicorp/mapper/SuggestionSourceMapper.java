@@ -0,0 +1,81 @@
+package com.csu.unicorp.mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import com.csu.unicorp.service.impl.search.Suggestion;
+
+/**
+ * 输入提示候选词查询
+ * 每个方法的文本参数为空时返回全部候选词，用于重建；不为空时只返回该文本，用于增量更新
+ */
+@Mapper
+public interface SuggestionSourceMapper {
+
+    /**
+     * 查询招聘中的岗位标题，权重为同名岗位数
+     *
+     * @param text 岗位标题，为空时查询全部
+     * @return 候选词列表
+     */
+    @Select("<script>" +
+            "SELECT j.title AS text, COUNT(*) AS weight " +
+            "FROM jobs j " +
+            "WHERE j.is_deleted = 0 AND j.status = 'open' " +
+            "<if test='text != null'>AND j.title = #{text}</if>" +
+            "GROUP BY j.title" +
+            "</script>")
+    List<Suggestion> selectJobTitles(@Param("text") String text);
+
+    /**
+     * 查询社区标签，权重为使用次数加一，未使用的标签也能被提示
+     *
+     * @param text 标签名称，为空时查询全部
+     * @return 候选词列表
+     */
+    @Select("<script>" +
+            "SELECT t.name AS text, t.usage_count + 1 AS weight, t.id AS refId " +
+            "FROM community_tag t " +
+            "<where><if test='text != null'>t.name = #{text}</if></where>" +
+            "</script>")
+    List<Suggestion> selectTags(@Param("text") String text);
+
+    /**
+     * 查询审核通过的组织名称，权重为招聘中的岗位数加一
+     *
+     * @param text 组织名称，为空时查询全部
+     * @return 候选词列表
+     */
+    @Select("<script>" +
+            "SELECT o.organization_name AS text, o.id AS refId, " +
+            "(SELECT COUNT(*) FROM jobs j WHERE j.organization_id = o.id AND j.is_deleted = 0 AND j.status = 'open') + 1 AS weight " +
+            "FROM organizations o " +
+            "WHERE o.is_deleted = 0 AND o.status = 'approved' " +
+            "<if test='text != null'>AND o.organization_name = #{text}</if>" +
+            "</script>")
+    List<Suggestion> selectOrganizations(@Param("text") String text);
+
+    /**
+     * 查询近期的热门搜索词，权重为搜索人数，同一用户重复搜索只计一次
+     *
+     * @param since 起始时间
+     * @param minCount 最少搜索人数
+     * @param limit 最多返回的搜索词数
+     * @return 候选词列表，按搜索人数降序
+     */
+    @Select("SELECT TRIM(b.search_keyword) AS text, COUNT(DISTINCT b.user_id) AS weight " +
+            "FROM user_behaviors b " +
+            "WHERE b.behavior_type = 'search' AND b.occurred_at >= #{since} " +
+            "AND b.search_keyword IS NOT NULL AND TRIM(b.search_keyword) != '' " +
+            "GROUP BY TRIM(b.search_keyword) " +
+            "HAVING COUNT(DISTINCT b.user_id) >= #{minCount} " +
+            "ORDER BY weight DESC " +
+            "LIMIT #{limit}")
+    List<Suggestion> selectSearchKeywords(@Param("since") LocalDateTime since,
+                                          @Param("minCount") int minCount,
+                                          @Param("limit") int limit);
+}
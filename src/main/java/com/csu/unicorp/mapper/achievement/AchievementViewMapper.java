@@ -2,10 +2,12 @@ package com.csu.unicorp.mapper.achievement;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.csu.unicorp.entity.achievement.AchievementView;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -66,4 +68,41 @@ public interface AchievementViewMapper extends BaseMapper<AchievementView> {
             "SELECT 'research' as type, COUNT(*) as count FROM achievement_views av " +
             "JOIN research_achievements ra ON av.achievement_type = 'research' AND av.achievement_id = ra.id AND ra.user_id = #{userId}")
     List<Map<String, Object>> countByUserIdGroupByType(@Param("userId") Integer userId);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量统计多个用户成果的总访问次数
+     * 
+     * @param userIds 用户ID列表
+     * @return 每个用户的访问次数，键为userId和viewCount，没有访问记录的用户不返回
+     */
+    @Select("<script>" +
+            "SELECT t.user_id AS userId, COUNT(*) AS viewCount FROM (" +
+            "SELECT pi.user_id FROM achievement_views av " +
+            "JOIN portfolio_items pi ON av.achievement_type = 'portfolio' AND av.achievement_id = pi.id " +
+            "WHERE pi.user_id IN <foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "UNION ALL " +
+            "SELECT ca.user_id FROM achievement_views av " +
+            "JOIN competition_awards ca ON av.achievement_type = 'award' AND av.achievement_id = ca.id " +
+            "WHERE ca.user_id IN <foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "UNION ALL " +
+            "SELECT ra.user_id FROM achievement_views av " +
+            "JOIN research_achievements ra ON av.achievement_type = 'research' AND av.achievement_id = ra.id " +
+            "WHERE ra.user_id IN <foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            ") t GROUP BY t.user_id" +
+            "</script>")
+    List<Map<String, Object>> countByUserIds(@Param("userIds") Collection<Integer> userIds);
+    
+    /**
+     * 批量插入访问记录（单条多行INSERT）
+     * 
+     * @param views 访问记录列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO achievement_views (achievement_type, achievement_id, viewer_id, viewer_ip, view_time) VALUES " +
+            "<foreach collection='views' item='view' separator=','>" +
+            "(#{view.achievementType}, #{view.achievementId}, #{view.viewerId}, #{view.viewerIp}, #{view.viewTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("views") List<AchievementView> views);
+}
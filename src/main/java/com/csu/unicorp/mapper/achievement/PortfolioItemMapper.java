@@ -8,7 +8,9 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 作品项目Mapper接口
@@ -62,6 +64,24 @@ public interface PortfolioItemMapper extends BaseMapper<PortfolioItem> {
      */
     @Update("UPDATE portfolio_items SET view_count = view_count + 1 WHERE id = #{id}")
     int increaseViewCount(@Param("id") Integer id);
+
+    /**
+     * 批量累加作品浏览次数
+     *
+     * @param deltas 作品ID到浏览次数增量的映射
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE portfolio_items SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta' separator=' '>" +
+            "WHEN #{id} THEN #{delta}" +
+            "</foreach>" +
+            " ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
     
     /**
      * 增加作品点赞数
@@ -72,6 +92,22 @@ public interface PortfolioItemMapper extends BaseMapper<PortfolioItem> {
     @Update("UPDATE portfolio_items SET like_count = like_count + 1 WHERE id = #{id}")
     int increaseLikeCount(@Param("id") Integer id);
     
+    /**
+     * 批量统计多个用户作品的点赞总数
+     * 
+     * @param userIds 用户ID列表
+     * @return 每个用户的点赞总数，键为userId和likeCount，没有作品的用户不返回
+     */
+    @Select("<script>" +
+            "SELECT user_id AS userId, SUM(like_count) AS likeCount FROM portfolio_items " +
+            "WHERE is_deleted = 0 AND user_id IN " +
+            "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            " GROUP BY user_id" +
+            "</script>")
+    List<Map<String, Object>> sumLikeCountByUserIds(@Param("userIds") Collection<Integer> userIds);
+    
     /**
      * 根据组织ID分页查询作品列表
      * 
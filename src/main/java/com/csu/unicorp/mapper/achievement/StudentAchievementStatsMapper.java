@@ -0,0 +1,141 @@
+package com.csu.unicorp.mapper.achievement;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.csu.unicorp.entity.achievement.StudentAchievementStats;
+import com.csu.unicorp.vo.achievement.StudentAchievementOverviewVO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 学生成果统计Mapper接口
+ */
+@Mapper
+public interface StudentAchievementStatsMapper extends BaseMapper<StudentAchievementStats> {
+
+    /**
+     * 学生及其成果统计，没有统计数据的学生按0计
+     */
+    String STUDENT_STATS_JOIN = " FROM users u " +
+            "JOIN user_roles ur ON ur.user_id = u.id " +
+            "JOIN roles ro ON ro.id = ur.role_id AND ro.role_name = 'STUDENT' " +
+            "LEFT JOIN student_achievement_stats s ON s.user_id = u.id ";
+
+    /**
+     * 限定组织下未删除的用户
+     */
+    String ORGANIZATION_FILTER = "WHERE u.organization_id = #{organizationId} AND u.is_deleted = 0 ";
+
+    /**
+     * 学生成果概览列，点赞数和访问量不在统计表中，需另行查询
+     */
+    String OVERVIEW_COLUMNS = "SELECT u.id AS user_id, u.nickname AS user_name, u.nickname, u.avatar, " +
+            "u.organization_id, o.organization_name, " +
+            "(SELECT r.major FROM resumes r WHERE r.user_id = u.id LIMIT 1) AS major, " +
+            "COALESCE(s.portfolio_count, 0) AS portfolio_count, " +
+            "COALESCE(s.award_count, 0) AS award_count, " +
+            "COALESCE(s.research_count, 0) AS research_count, " +
+            "COALESCE(s.verified_award_count, 0) + COALESCE(s.verified_research_count, 0) AS verified_count " +
+            STUDENT_STATS_JOIN +
+            "LEFT JOIN organizations o ON o.id = u.organization_id " +
+            ORGANIZATION_FILTER;
+
+    /**
+     * 按成果表重新计算单个学生的统计数据
+     *
+     * @param userId 学生ID
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO student_achievement_stats " +
+            "(user_id, portfolio_count, award_count, verified_award_count, research_count, verified_research_count, updated_at) " +
+            "SELECT #{userId}, " +
+            "(SELECT COUNT(*) FROM portfolio_items WHERE user_id = #{userId} AND is_deleted = 0), " +
+            "(SELECT COUNT(*) FROM competition_awards WHERE user_id = #{userId} AND is_deleted = 0), " +
+            "(SELECT COUNT(*) FROM competition_awards WHERE user_id = #{userId} AND is_deleted = 0 AND is_verified = 1), " +
+            "(SELECT COUNT(*) FROM research_achievements WHERE user_id = #{userId} AND is_deleted = 0), " +
+            "(SELECT COUNT(*) FROM research_achievements WHERE user_id = #{userId} AND is_deleted = 0 AND is_verified = 1), " +
+            "NOW() " +
+            "ON DUPLICATE KEY UPDATE portfolio_count = VALUES(portfolio_count), award_count = VALUES(award_count), " +
+            "verified_award_count = VALUES(verified_award_count), research_count = VALUES(research_count), " +
+            "verified_research_count = VALUES(verified_research_count), updated_at = VALUES(updated_at)")
+    int refreshByUserId(@Param("userId") Integer userId);
+
+    /**
+     * 按成果表重新计算所有学生的统计数据
+     *
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO student_achievement_stats " +
+            "(user_id, portfolio_count, award_count, verified_award_count, research_count, verified_research_count, updated_at) " +
+            "SELECT u.id, COALESCE(p.total, 0), COALESCE(a.total, 0), COALESCE(a.verified, 0), " +
+            "COALESCE(r.total, 0), COALESCE(r.verified, 0), NOW() " +
+            "FROM users u " +
+            "JOIN user_roles ur ON ur.user_id = u.id " +
+            "JOIN roles ro ON ro.id = ur.role_id AND ro.role_name = 'STUDENT' " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS total FROM portfolio_items " +
+            "WHERE is_deleted = 0 GROUP BY user_id) p ON p.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS total, SUM(is_verified) AS verified FROM competition_awards " +
+            "WHERE is_deleted = 0 GROUP BY user_id) a ON a.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS total, SUM(is_verified) AS verified FROM research_achievements " +
+            "WHERE is_deleted = 0 GROUP BY user_id) r ON r.user_id = u.id " +
+            "ON DUPLICATE KEY UPDATE portfolio_count = VALUES(portfolio_count), award_count = VALUES(award_count), " +
+            "verified_award_count = VALUES(verified_award_count), research_count = VALUES(research_count), " +
+            "verified_research_count = VALUES(verified_research_count), updated_at = VALUES(updated_at)")
+    int rebuildAll();
+
+    /**
+     * 汇总组织下所有学生的成果统计
+     *
+     * @param organizationId 组织ID
+     * @return 学生数、各类成果总数及有各类成果的学生数
+     */
+    @Select("SELECT COUNT(*) AS totalStudents, " +
+            "COALESCE(SUM(s.portfolio_count), 0) AS totalPortfolios, " +
+            "COALESCE(SUM(s.award_count), 0) AS totalAwards, " +
+            "COALESCE(SUM(s.research_count), 0) AS totalResearch, " +
+            "COALESCE(SUM(s.verified_award_count + s.verified_research_count), 0) AS totalVerified, " +
+            "COALESCE(SUM(s.portfolio_count + s.award_count + s.research_count > 0), 0) AS studentsWithAchievements, " +
+            "COALESCE(SUM(s.portfolio_count > 0), 0) AS studentsWithPortfolios, " +
+            "COALESCE(SUM(s.award_count > 0), 0) AS studentsWithAwards, " +
+            "COALESCE(SUM(s.research_count > 0), 0) AS studentsWithResearch" +
+            STUDENT_STATS_JOIN + ORGANIZATION_FILTER)
+    Map<String, Object> selectOrganizationSummary(@Param("organizationId") Integer organizationId);
+
+    /**
+     * 统计组织下的学生数
+     *
+     * @param organizationId 组织ID
+     * @return 学生数
+     */
+    @Select("SELECT COUNT(*)" + STUDENT_STATS_JOIN + ORGANIZATION_FILTER)
+    long countStudentsByOrganizationId(@Param("organizationId") Integer organizationId);
+
+    /**
+     * 分页查询组织下学生的成果概览，按学生ID排序
+     *
+     * @param organizationId 组织ID
+     * @param offset 偏移量
+     * @param limit 数量
+     * @return 成果概览列表
+     */
+    @Select(OVERVIEW_COLUMNS + "ORDER BY u.id LIMIT #{limit} OFFSET #{offset}")
+    List<StudentAchievementOverviewVO> selectOverviewPageByOrganizationId(@Param("organizationId") Integer organizationId,
+                                                                          @Param("offset") long offset,
+                                                                          @Param("limit") int limit);
+
+    /**
+     * 查询组织下成果总数最多的学生
+     *
+     * @param organizationId 组织ID
+     * @param limit 数量
+     * @return 成果概览列表，按成果总数降序
+     */
+    @Select(OVERVIEW_COLUMNS +
+            "ORDER BY COALESCE(s.portfolio_count + s.award_count + s.research_count, 0) DESC, u.id LIMIT #{limit}")
+    List<StudentAchievementOverviewVO> selectTopByOrganizationId(@Param("organizationId") Integer organizationId,
+                                                                 @Param("limit") int limit);
+}
@@ -1,5 +1,7 @@
 package com.csu.unicorp.mapper.community;
 
+import java.util.Map;
+
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
@@ -22,6 +24,24 @@ public interface CommunityQuestionMapper extends BaseMapper<CommunityQuestion> {
      */
     @Update("UPDATE community_question SET view_count = view_count + 1 WHERE id = #{questionId}")
     int incrementViewCount(@Param("questionId") Long questionId);
+
+    /**
+     * 批量累加问题浏览次数
+     *
+     * @param deltas 问题ID到浏览次数增量的映射
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE community_question SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta' separator=' '>" +
+            "WHEN #{id} THEN #{delta}" +
+            "</foreach>" +
+            " ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
     
     /**
      * 增加问题回答数量
@@ -1,6 +1,8 @@
 package com.csu.unicorp.mapper.community;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -46,6 +48,26 @@ public interface CommunityTopicMapper extends BaseMapper<CommunityTopic> {
             "ORDER BY t.created_at DESC")
     Page<CommunityTopic> selectLatestTopics(Page<CommunityTopic> page);
     
+    /**
+     * 按（创建时间, ID）倒序获取游标之后的最新话题
+     * @param cursorTime 上一页最后一条的创建时间，第一页为null
+     * @param cursorId 上一页最后一条的ID
+     * @param limit 最多返回的条数
+     * @return 最新话题列表
+     */
+    @Select("<script>" +
+            "SELECT t.* FROM community_topic t " +
+            "WHERE t.status = 'NORMAL' " +
+            "<if test='cursorTime != null'>" +
+            "AND (t.created_at &lt; #{cursorTime} OR (t.created_at = #{cursorTime} AND t.id &lt; #{cursorId})) " +
+            "</if>" +
+            "ORDER BY t.created_at DESC, t.id DESC " +
+            "LIMIT #{limit}" +
+            "</script>")
+    List<CommunityTopic> selectLatestTopicsBefore(@Param("cursorTime") LocalDateTime cursorTime,
+                                                  @Param("cursorId") Long cursorId,
+                                                  @Param("limit") int limit);
+    
     /**
      * 获取精华话题列表
      * @param page 分页参数
@@ -74,6 +96,24 @@ public interface CommunityTopicMapper extends BaseMapper<CommunityTopic> {
      */
     @Update("UPDATE community_topic SET view_count = view_count + 1 WHERE id = #{topicId}")
     int incrementViewCount(@Param("topicId") Long topicId);
+
+    /**
+     * 批量累加话题浏览次数
+     *
+     * @param deltas 话题ID到浏览次数增量的映射
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE community_topic SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta' separator=' '>" +
+            "WHEN #{id} THEN #{delta}" +
+            "</foreach>" +
+            " ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
     
     /**
      * 增加话题评论数量
@@ -128,11 +168,19 @@ public interface CommunityTopicMapper extends BaseMapper<CommunityTopic> {
     /**
      * 搜索话题
      * @param page 分页参数
-     * @param keyword 关键词
+     * @param matchedIds 全文检索匹配的话题ID，为null时不按关键词筛选，为空时没有匹配的话题
      * @return 话题列表
      */
-    @Select("SELECT t.* FROM community_topic t " +
-            "WHERE t.status = 'NORMAL' AND (t.title LIKE CONCAT('%', #{keyword}, '%') OR t.content LIKE CONCAT('%', #{keyword}, '%')) " +
-            "ORDER BY t.is_sticky DESC, t.is_essence DESC, t.created_at DESC")
-    Page<CommunityTopic> searchTopics(Page<CommunityTopic> page, @Param("keyword") String keyword);
+    @Select("<script>" +
+            "SELECT t.* FROM community_topic t " +
+            "WHERE t.status = 'NORMAL' " +
+            "<if test='matchedIds != null'>" +
+            "<choose>" +
+            "<when test='matchedIds.isEmpty()'>AND 1 = 0 </when>" +
+            "<otherwise>AND t.id IN <foreach collection='matchedIds' item='matchedId' open='(' separator=',' close=')'>#{matchedId}</foreach> </otherwise>" +
+            "</choose>" +
+            "</if>" +
+            "ORDER BY t.is_sticky DESC, t.is_essence DESC, t.created_at DESC" +
+            "</script>")
+    Page<CommunityTopic> searchTopics(Page<CommunityTopic> page, @Param("matchedIds") List<Long> matchedIds);
 } 
\ No newline at end of file
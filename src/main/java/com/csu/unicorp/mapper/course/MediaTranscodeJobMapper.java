@@ -0,0 +1,109 @@
+package com.csu.unicorp.mapper.course;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.csu.unicorp.entity.course.MediaTranscodeJob;
+
+/**
+ * 媒体转码任务Mapper接口
+ * <p>
+ * 状态变更都带有原状态条件，多个节点同时领取同一任务时只有一个能成功，已取消的任务不会被执行结果覆盖；
+ * 执行中的更新还带有执行节点和执行次数条件，任务被放回并由其他节点（或本节点的新一次执行）领取后，原执行的更新不再生效
+ */
+@Mapper
+public interface MediaTranscodeJobMapper extends BaseMapper<MediaTranscodeJob> {
+
+    /**
+     * 查询待执行的任务ID，先提交的先执行
+     * @param limit 最多返回的数量
+     * @return 任务ID列表
+     */
+    @Select("SELECT id FROM media_transcode_jobs WHERE status = 'PENDING' ORDER BY id LIMIT #{limit}")
+    List<Long> selectPendingIds(@Param("limit") int limit);
+
+    /**
+     * 领取任务
+     * @param id 任务ID
+     * @param workerNode 执行节点
+     * @return 影响行数，为0表示已被其他节点领取或已取消
+     */
+    @Update("UPDATE media_transcode_jobs SET status = 'RUNNING', worker_node = #{workerNode}, " +
+            "attempts = attempts + 1, progress = 0, stage = NULL, error_message = NULL, " +
+            "started_at = NOW(), heartbeat_at = NOW() " +
+            "WHERE id = #{id} AND status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("workerNode") String workerNode);
+
+    /**
+     * 上报进度，同时作为执行节点的心跳
+     * @param id 任务ID
+     * @param stage 当前步骤
+     * @param progress 进度百分比
+     * @param workerNode 执行节点
+     * @param attempt 领取时的执行次数
+     * @return 影响行数，为0表示任务已被取消或被其他节点接管，应停止执行
+     */
+    @Update("UPDATE media_transcode_jobs SET stage = #{stage}, progress = #{progress}, heartbeat_at = NOW() " +
+            "WHERE id = #{id} AND status = 'RUNNING' AND worker_node = #{workerNode} AND attempts = #{attempt}")
+    int updateProgress(@Param("id") Long id, @Param("stage") String stage, @Param("progress") int progress,
+                       @Param("workerNode") String workerNode, @Param("attempt") int attempt);
+
+    /**
+     * 结束任务
+     * @param id 任务ID
+     * @param status 结束状态：SUCCEEDED/FAILED，需要重试时为PENDING
+     * @param renditions 已生成的清晰度
+     * @param errorMessage 失败原因
+     * @param workerNode 执行节点
+     * @param attempt 领取时的执行次数
+     * @return 影响行数，为0表示任务已被取消或被其他节点接管，执行结果应丢弃
+     */
+    @Update("UPDATE media_transcode_jobs SET status = #{status}, renditions = #{renditions}, " +
+            "error_message = #{errorMessage}, worker_node = IF(#{status} = 'PENDING', NULL, worker_node), " +
+            "progress = IF(#{status} = 'SUCCEEDED', 100, progress), " +
+            "finished_at = IF(#{status} = 'PENDING', NULL, NOW()) " +
+            "WHERE id = #{id} AND status = 'RUNNING' AND worker_node = #{workerNode} AND attempts = #{attempt}")
+    int finish(@Param("id") Long id, @Param("status") String status,
+               @Param("renditions") String renditions, @Param("errorMessage") String errorMessage,
+               @Param("workerNode") String workerNode, @Param("attempt") int attempt);
+
+    /**
+     * 把心跳超时的任务放回待执行，执行节点宕机时由其他节点接管
+     * @param staleMinutes 心跳超时时间（分钟）
+     * @return 影响行数
+     */
+    @Update("UPDATE media_transcode_jobs SET status = 'PENDING', worker_node = NULL " +
+            "WHERE status = 'RUNNING' AND heartbeat_at < NOW() - INTERVAL #{staleMinutes} MINUTE")
+    int requeueStale(@Param("staleMinutes") int staleMinutes);
+
+    /**
+     * 把指定节点正在执行的任务放回待执行，节点正常关闭时调用
+     * @param workerNode 执行节点
+     * @return 影响行数
+     */
+    @Update("UPDATE media_transcode_jobs SET status = 'PENDING', worker_node = NULL " +
+            "WHERE status = 'RUNNING' AND worker_node = #{workerNode}")
+    int requeueByNode(@Param("workerNode") String workerNode);
+
+    /**
+     * 取消视频未结束的转码任务
+     * @param videoId 章节视频ID
+     * @return 影响行数
+     */
+    @Update("UPDATE media_transcode_jobs SET status = 'CANCELED', finished_at = NOW() " +
+            "WHERE video_id = #{videoId} AND status IN ('PENDING', 'RUNNING')")
+    int cancelByVideoId(@Param("videoId") Integer videoId);
+
+    /**
+     * 查询视频最近一次转码任务
+     * @param videoId 章节视频ID
+     * @return 转码任务
+     */
+    @Select("SELECT * FROM media_transcode_jobs WHERE video_id = #{videoId} ORDER BY id DESC LIMIT 1")
+    MediaTranscodeJob selectLatestByVideoId(@Param("videoId") Integer videoId);
+}
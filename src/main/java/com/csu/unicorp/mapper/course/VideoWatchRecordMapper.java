@@ -5,6 +5,8 @@ import com.csu.unicorp.entity.course.VideoWatchRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 视频观看记录Mapper接口
  */
@@ -18,4 +20,11 @@ public interface VideoWatchRecordMapper extends BaseMapper<VideoWatchRecord> {
      * @return 观看记录
      */
     VideoWatchRecord selectByVideoAndUser(@Param("videoId") Integer videoId, @Param("userId") Integer userId);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量写入观看进度，已有记录时进度取较大值、完成状态不会被撤销
+     * @param records 观看记录
+     * @return 影响行数
+     */
+    int upsertProgressBatch(@Param("records") List<VideoWatchRecord> records);
+}
@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,6 +25,20 @@ public interface JobCategoryRelationMapper extends BaseMapper<JobCategoryRelatio
     @Select("SELECT category_id FROM job_category_relations WHERE job_id = #{jobId}")
     List<Integer> selectCategoryIdsByJobId(@Param("jobId") Integer jobId);
 
+    /**
+     * 批量获取多个岗位的分类关联，用于列表页一次性加载分类
+     *
+     * @param jobIds 岗位ID列表
+     * @return 岗位与分类关联列表
+     */
+    @Select("<script>" +
+            "SELECT job_id, category_id FROM job_category_relations WHERE job_id IN " +
+            "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<JobCategoryRelation> selectByJobIds(@Param("jobIds") Collection<Integer> jobIds);
+
     /**
      * 根据岗位ID删除所有关联
      *
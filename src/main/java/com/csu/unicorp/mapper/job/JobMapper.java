@@ -10,17 +10,64 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 岗位Mapper接口
  */
 @Mapper
 public interface JobMapper extends BaseMapper<Job> {
     
+    /**
+     * 关键词筛选，matchedIds 为全文检索匹配的岗位ID，为null时不按关键词筛选，为空时没有匹配的岗位
+     */
+    String MATCHED_IDS_FILTER = "<if test='matchedIds != null'> "
+            + "<choose>"
+            + "<when test='matchedIds.isEmpty()'>AND 1 = 0 </when>"
+            + "<otherwise>AND j.id IN <foreach collection='matchedIds' item='matchedId' open='(' separator=',' close=')'>#{matchedId}</foreach> </otherwise>"
+            + "</choose>"
+            + "</if> ";
+    
+    /**
+     * 按全文检索相关度排序，matchedIds 已按相关度降序
+     */
+    String RELEVANCE_ORDER = "ORDER BY FIELD(j.id, "
+            + "<foreach collection='matchedIds' item='matchedId' separator=','>#{matchedId}</foreach>)";
+    
+    /**
+     * 开放岗位的筛选条件，分页列表和游标列表共用
+     */
+    String OPEN_JOB_FILTERS = "WHERE j.is_deleted = 0 AND j.status = 'open' "
+            + MATCHED_IDS_FILTER
+            + "<if test='location != null and location != \"\"'> "
+            + "AND j.location = #{location} "
+            + "</if> "
+            + "<if test='jobType != null and jobType != \"\"'> "
+            + "AND j.job_type = #{jobType} "
+            + "</if> "
+            + "<if test='educationRequirement != null and educationRequirement != \"\"'> "
+            + "AND j.education_requirement = #{educationRequirement} "
+            + "</if> "
+            + "<if test='salaryMin != null'> "
+            + "AND j.salary_min >= #{salaryMin} "
+            + "</if> "
+            + "<if test='salaryMax != null'> "
+            + "AND j.salary_max &lt;= #{salaryMax} "
+            + "</if> "
+            + "<if test='organizeId != null'> "
+            + "AND j.organization_id = #{organizeId} "
+            + "</if> "
+            + "<if test='posterId != null'> "
+            + "AND j.posted_by_user_id = #{posterId} "
+            + "</if> ";
+    
     /**
      * 分页查询岗位列表，包含组织名称
      *
      * @param page    分页参数
-     * @param keyword 搜索关键词
+     * @param matchedIds 全文检索匹配的岗位ID，为null时不按关键词筛选
      * @return 岗位列表
      */
     @Select({
@@ -29,23 +76,17 @@ public interface JobMapper extends BaseMapper<Job> {
             "FROM jobs j",
             "LEFT JOIN organizations o ON j.organization_id = o.id",
             "WHERE j.is_deleted = 0 AND j.status = 'open'",
-            "<if test='keyword != null and keyword != \"\"'>",
-            "AND (j.title LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.description LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.location LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.tags LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     o.organization_name LIKE CONCAT('%', #{keyword}, '%'))",
-            "</if>",
+            MATCHED_IDS_FILTER,
             "ORDER BY j.created_at DESC",
             "</script>"
     })
-    IPage<JobVO> pageJobs(Page<JobVO> page, @Param("keyword") String keyword);
+    IPage<JobVO> pageJobs(Page<JobVO> page, @Param("matchedIds") List<Long> matchedIds);
     
     /**
      * 分页查询岗位列表，支持多条件筛选
      *
      * @param page                 分页参数
-     * @param keyword              搜索关键词
+     * @param matchedIds           全文检索匹配的岗位ID，为null时不按关键词筛选
      * @param location             工作地点
      * @param jobType              工作类型
      * @param educationRequirement 学历要求
@@ -60,12 +101,7 @@ public interface JobMapper extends BaseMapper<Job> {
             "FROM jobs j",
             "LEFT JOIN organizations o ON j.organization_id = o.id",
             "WHERE j.is_deleted = 0 AND j.status = 'open'",
-            "<if test='keyword != null and keyword != \"\"'>",
-            "AND (j.title LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.description LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.tags LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     o.organization_name LIKE CONCAT('%', #{keyword}, '%'))",
-            "</if>",
+            MATCHED_IDS_FILTER,
             "<if test='location != null and location != \"\"'>",
             "AND j.location = #{location}",
             "</if>",
@@ -82,6 +118,7 @@ public interface JobMapper extends BaseMapper<Job> {
             "AND j.salary_max &lt;= #{salaryMax}",
             "</if>",
             "<choose>",
+            "  <when test=\"sortBy == 'relevance' and matchedIds != null and !matchedIds.isEmpty()\">" + RELEVANCE_ORDER + "</when>",
             "  <when test=\"sortBy == 'salary_asc'\">ORDER BY j.salary_min ASC</when>",
             "  <when test=\"sortBy == 'salary_desc'\">ORDER BY j.salary_max DESC</when>",
             "  <otherwise>ORDER BY j.created_at DESC</otherwise>",
@@ -90,7 +127,7 @@ public interface JobMapper extends BaseMapper<Job> {
     })
     IPage<JobVO> pageJobsWithFilters(
             Page<JobVO> page, 
-            @Param("keyword") String keyword,
+            @Param("matchedIds") List<Long> matchedIds,
             @Param("location") String location,
             @Param("jobType") String jobType,
             @Param("educationRequirement") String educationRequirement,
@@ -103,7 +140,7 @@ public interface JobMapper extends BaseMapper<Job> {
      * 分页查询岗位列表，支持多条件筛选，包含组织ID和发布者ID筛选
      *
      * @param page                 分页参数
-     * @param keyword              搜索关键词
+     * @param matchedIds           全文检索匹配的岗位ID，为null时不按关键词筛选
      * @param location             工作地点
      * @param jobType              工作类型
      * @param educationRequirement 学历要求
@@ -119,35 +156,9 @@ public interface JobMapper extends BaseMapper<Job> {
             "SELECT j.*, o.organization_name",
             "FROM jobs j",
             "LEFT JOIN organizations o ON j.organization_id = o.id",
-            "WHERE j.is_deleted = 0 AND j.status = 'open'",
-            "<if test='keyword != null and keyword != \"\"'>",
-            "AND (j.title LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.description LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     j.tags LIKE CONCAT('%', #{keyword}, '%') OR",
-            "     o.organization_name LIKE CONCAT('%', #{keyword}, '%'))",
-            "</if>",
-            "<if test='location != null and location != \"\"'>",
-            "AND j.location = #{location}",
-            "</if>",
-            "<if test='jobType != null and jobType != \"\"'>",
-            "AND j.job_type = #{jobType}",
-            "</if>",
-            "<if test='educationRequirement != null and educationRequirement != \"\"'>",
-            "AND j.education_requirement = #{educationRequirement}",
-            "</if>",
-            "<if test='salaryMin != null'>",
-            "AND j.salary_min >= #{salaryMin}",
-            "</if>",
-            "<if test='salaryMax != null'>",
-            "AND j.salary_max &lt;= #{salaryMax}",
-            "</if>",
-            "<if test='organizeId != null'>",
-            "AND j.organization_id = #{organizeId}",
-            "</if>",
-            "<if test='posterId != null'>",
-            "AND j.posted_by_user_id = #{posterId}",
-            "</if>",
+            OPEN_JOB_FILTERS,
             "<choose>",
+            "  <when test=\"sortBy == 'relevance' and matchedIds != null and !matchedIds.isEmpty()\">" + RELEVANCE_ORDER + "</when>",
             "  <when test=\"sortBy == 'salary_asc'\">ORDER BY j.salary_min ASC</when>",
             "  <when test=\"sortBy == 'salary_desc'\">ORDER BY j.salary_max DESC</when>",
             "  <otherwise>ORDER BY j.created_at DESC</otherwise>",
@@ -156,7 +167,7 @@ public interface JobMapper extends BaseMapper<Job> {
     })
     IPage<JobVO> pageJobsWithAdvancedFilters(
             Page<JobVO> page, 
-            @Param("keyword") String keyword,
+            @Param("matchedIds") List<Long> matchedIds,
             @Param("location") String location,
             @Param("jobType") String jobType,
             @Param("educationRequirement") String educationRequirement,
@@ -167,6 +178,41 @@ public interface JobMapper extends BaseMapper<Job> {
             @Param("posterId") Integer posterId
     );
     
+    /**
+     * 按（发布时间, ID）倒序查询岗位，从游标之后开始，筛选条件与 pageJobsWithAdvancedFilters 相同
+     *
+     * @param cursorTime 上一页最后一条的发布时间，第一页为null
+     * @param cursorId   上一页最后一条的ID
+     * @param limit      最多返回的条数
+     * @return 岗位列表
+     */
+    @Select({
+            "<script>",
+            "SELECT j.*, o.organization_name",
+            "FROM jobs j",
+            "LEFT JOIN organizations o ON j.organization_id = o.id",
+            OPEN_JOB_FILTERS,
+            "<if test='cursorTime != null'>",
+            "AND (j.created_at &lt; #{cursorTime} OR (j.created_at = #{cursorTime} AND j.id &lt; #{cursorId}))",
+            "</if>",
+            "ORDER BY j.created_at DESC, j.id DESC",
+            "LIMIT #{limit}",
+            "</script>"
+    })
+    List<JobVO> selectJobFeed(
+            @Param("matchedIds") List<Long> matchedIds,
+            @Param("location") String location,
+            @Param("jobType") String jobType,
+            @Param("educationRequirement") String educationRequirement,
+            @Param("salaryMin") Integer salaryMin,
+            @Param("salaryMax") Integer salaryMax,
+            @Param("organizeId") Integer organizeId,
+            @Param("posterId") Integer posterId,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit
+    );
+    
     /**
      * 根据ID查询岗位详情，包含组织名称
      *
@@ -186,6 +232,24 @@ public interface JobMapper extends BaseMapper<Job> {
      */
     @Update("UPDATE jobs SET view_count = view_count + 1 WHERE id = #{id}")
     void incrementViewCount(@Param("id") Integer id);
+
+    /**
+     * 批量累加岗位浏览次数
+     *
+     * @param deltas 岗位ID到浏览次数增量的映射
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE jobs SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta' separator=' '>" +
+            "WHEN #{id} THEN #{delta}" +
+            "</foreach>" +
+            " ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
     
     /**
      * 根据分类ID查询岗位列表
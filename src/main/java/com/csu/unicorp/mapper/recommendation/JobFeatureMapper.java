@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -57,4 +58,18 @@ public interface JobFeatureMapper extends BaseMapper<JobFeature> {
             "WHERE jcr.category_id = #{categoryId} " +
             "AND j.status = 'open' AND j.is_deleted = 0")
     List<JobFeature> selectByCategoryId(@Param("categoryId") Integer categoryId);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量获取岗位特征
+     *
+     * @param jobIds 岗位ID列表
+     * @return 岗位特征列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM job_features WHERE job_id IN " +
+            "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<JobFeature> selectByJobIds(@Param("jobIds") Collection<Integer> jobIds);
+}
@@ -5,11 +5,15 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.entity.recommendation.JobRecommendation;
 import com.csu.unicorp.vo.JobRecommendationVO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 岗位推荐Mapper接口
  */
@@ -54,4 +58,34 @@ public interface JobRecommendationMapper extends BaseMapper<JobRecommendation> {
      */
     @Select("SELECT COUNT(*) FROM job_recommendations WHERE user_id = #{userId} AND job_id = #{jobId}")
     int countExistingRecommendation(@Param("userId") Integer userId, @Param("jobId") Integer jobId);
-} 
\ No newline at end of file
+    
+    /**
+     * 查询用户已被推荐过的岗位ID
+     *
+     * @param userId 用户ID
+     * @param jobIds 候选岗位ID列表
+     * @return 已存在推荐记录的岗位ID列表
+     */
+    @Select("<script>" +
+            "SELECT job_id FROM job_recommendations WHERE user_id = #{userId} AND job_id IN " +
+            "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<Integer> selectExistingJobIds(@Param("userId") Integer userId, @Param("jobIds") Collection<Integer> jobIds);
+    
+    /**
+     * 批量写入岗位推荐，已存在的推荐只刷新分数和原因，保留用户处理状态
+     *
+     * @param recommendations 推荐列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO job_recommendations (user_id, job_id, score, reason, status, created_at, updated_at) VALUES " +
+            "<foreach collection='list' item='r' separator=','>" +
+            "(#{r.userId}, #{r.jobId}, #{r.score}, #{r.reason}, #{r.status}, #{r.createdAt}, #{r.updatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE score = VALUES(score), reason = VALUES(reason), updated_at = VALUES(updated_at)" +
+            "</script>")
+    int batchUpsert(@Param("list") List<JobRecommendation> recommendations);
+}
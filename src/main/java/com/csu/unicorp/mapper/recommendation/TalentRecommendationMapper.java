@@ -5,11 +5,15 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.entity.recommendation.TalentRecommendation;
 import com.csu.unicorp.vo.StudentTalentVO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 人才推荐Mapper接口
  */
@@ -51,4 +55,35 @@ public interface TalentRecommendationMapper extends BaseMapper<TalentRecommendat
      */
     @Select("SELECT COUNT(*) FROM talent_recommendations WHERE organization_id = #{organizationId} AND student_id = #{studentId}")
     int countExistingRecommendation(@Param("organizationId") Integer organizationId, @Param("studentId") Integer studentId);
-} 
\ No newline at end of file
+    
+    /**
+     * 查询已推荐给企业的学生ID
+     *
+     * @param organizationId 组织ID
+     * @param studentIds 候选学生ID列表
+     * @return 已存在推荐记录的学生ID列表
+     */
+    @Select("<script>" +
+            "SELECT student_id FROM talent_recommendations WHERE organization_id = #{organizationId} AND student_id IN " +
+            "<foreach collection='studentIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<Integer> selectExistingStudentIds(@Param("organizationId") Integer organizationId,
+                                           @Param("studentIds") Collection<Integer> studentIds);
+    
+    /**
+     * 批量写入人才推荐，已存在的推荐只刷新分数和原因，保留企业处理状态
+     *
+     * @param recommendations 推荐列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO talent_recommendations (organization_id, student_id, score, reason, status, created_at, updated_at) VALUES " +
+            "<foreach collection='list' item='r' separator=','>" +
+            "(#{r.organizationId}, #{r.studentId}, #{r.score}, #{r.reason}, #{r.status}, #{r.createdAt}, #{r.updatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE score = VALUES(score), reason = VALUES(reason), updated_at = VALUES(updated_at)" +
+            "</script>")
+    int batchUpsert(@Param("list") List<TalentRecommendation> recommendations);
+}
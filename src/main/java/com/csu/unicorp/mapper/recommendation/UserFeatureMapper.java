@@ -3,8 +3,12 @@ package com.csu.unicorp.mapper.recommendation;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.csu.unicorp.entity.recommendation.UserFeature;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -43,4 +47,18 @@ public interface UserFeatureMapper extends BaseMapper<UserFeature> {
      */
     @Select("SELECT * FROM user_features WHERE skills LIKE CONCAT('%', #{skill}, '%')")
     List<UserFeature> selectBySkill(@Param("skill") String skill);
-} 
\ No newline at end of file
+    
+    /**
+     * 流式读取所有学生用户的特征，逐行回调，避免一次性加载整张表
+     *
+     * @param handler 结果处理器
+     */
+    @Select("SELECT uf.* FROM user_features uf " +
+            "JOIN users u ON uf.user_id = u.id " +
+            "JOIN user_roles ur ON u.id = ur.user_id " +
+            "JOIN roles r ON ur.role_id = r.id " +
+            "WHERE r.role_name = 'student'")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(UserFeature.class)
+    void streamAllStudentFeatures(ResultHandler<UserFeature> handler);
+}
@@ -3,6 +3,7 @@ package com.csu.unicorp.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.csu.unicorp.common.constants.LogActionType;
 import com.csu.unicorp.vo.AuditLogVO;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.LogStatisticsVO;
 
 import java.time.LocalDateTime;
@@ -53,6 +54,21 @@ public interface AuditLogService {
                                    Integer userId, String action, 
                                    LocalDateTime startTime, LocalDateTime endTime);
     
+    /**
+     * 按时间倒序游标分页查询日志，不统计总数
+     * 
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @param userId 用户ID
+     * @param action 操作类型
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 日志游标分页列表
+     */
+    CursorPageVO<AuditLogVO> getLogsByCursor(String cursor, int size,
+                                            Integer userId, String action,
+                                            LocalDateTime startTime, LocalDateTime endTime);
+    
     /**
      * 获取操作类型统计
      * 
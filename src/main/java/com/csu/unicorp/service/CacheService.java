@@ -44,11 +44,20 @@ public interface CacheService {
 
     /**
      * 批量删除缓存
+     * 形如“命名空间*”或“命名空间 + ID + *”的模式通过成员索引删除，ID按完整分段匹配；
+     * 其他模式回退到SCAN
      * @param pattern 缓存键模式
      * @return 删除数量
      */
     long deleteByPattern(String pattern);
 
+    /**
+     * 使用SCAN遍历键空间批量删除缓存，供管理操作使用
+     * @param pattern 缓存键模式
+     * @return 删除数量
+     */
+    long deleteByScan(String pattern);
+
     /**
      * 设置缓存过期时间
      * @param key 缓存键
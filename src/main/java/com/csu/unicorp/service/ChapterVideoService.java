@@ -2,6 +2,7 @@ package com.csu.unicorp.service;
 
 import com.csu.unicorp.dto.ChapterVideoDTO;
 import com.csu.unicorp.vo.ChapterVideoVO;
+import com.csu.unicorp.vo.MediaTranscodeJobVO;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -71,4 +72,11 @@ public interface ChapterVideoService {
      * @return 是否标记成功
      */
     boolean markVideoCompleted(Integer videoId, UserDetails userDetails);
-} 
\ No newline at end of file
+    
+    /**
+     * 获取视频最近一次转码任务的状态和进度
+     * @param videoId 视频ID
+     * @return 转码任务，没有转码任务时返回null
+     */
+    MediaTranscodeJobVO getTranscodeJob(Integer videoId);
+}
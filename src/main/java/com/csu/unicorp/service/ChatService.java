@@ -1,12 +1,15 @@
 package com.csu.unicorp.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import com.csu.unicorp.dto.ChatMessageDTO;
 import com.csu.unicorp.entity.ChatMessage;
 import com.csu.unicorp.entity.ChatSession;
 import com.csu.unicorp.vo.ChatMessageVO;
 import com.csu.unicorp.vo.ChatSessionVO;
+import com.csu.unicorp.vo.CursorPageVO;
 
 /**
  * 聊天服务接口
@@ -60,10 +63,28 @@ public interface ChatService {
      */
     List<ChatMessageVO> getSessionMessages(Long sessionId, Long currentUserId, Integer page, Integer size);
     
+    /**
+     * 按游标获取会话的历史消息，从最新的消息开始向前翻页
+     * @param sessionId 会话ID
+     * @param currentUserId 当前用户ID
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @return 历史消息游标分页列表
+     */
+    CursorPageVO<ChatMessageVO> getSessionMessagesByCursor(Long sessionId, Long currentUserId, String cursor, Integer size);
+    
     /**
      * 将会话中的消息标记为已读
      * @param sessionId 会话ID
      * @param userId 用户ID
      */
     void markMessagesAsRead(Long sessionId, Long userId);
+    
+    /**
+     * 从给定的用户中筛选当前用户的聊天联系人（双方有会话）
+     * @param userId 当前用户ID
+     * @param candidateIds 待筛选的用户ID
+     * @return 联系人的用户ID
+     */
+    Set<Long> filterContacts(Long userId, Collection<Long> candidateIds);
 } 
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.csu.unicorp.dto.community.TopicDTO;
 import com.csu.unicorp.entity.community.CommunityTopic;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.community.TopicVO;
 
 /**
@@ -74,6 +75,15 @@ public interface CommunityTopicService extends IService<CommunityTopic> {
      */
     Page<TopicVO> getLatestTopics(int page, int size, Long userId);
     
+    /**
+     * 按游标获取最新话题列表，不统计总数
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @param userId 当前用户ID（可选）
+     * @return 最新话题游标分页列表
+     */
+    CursorPageVO<TopicVO> getLatestTopicsByCursor(String cursor, int size, Long userId);
+    
     /**
      * 获取精华话题列表
      * @param page 页码
@@ -22,6 +22,15 @@ public interface CourseResourceService {
      * @throws IOException 文件处理异常
      */
     CourseResourceVO uploadResource(MultipartFile file, CourseResourceDTO resourceDTO, UserDetails userDetails) throws IOException;
+
+    /**
+     * 使用已上传完所有分片的上传会话创建课程资源
+     * @param uploadId 分片上传会话ID
+     * @param resourceDTO 资源信息
+     * @param userDetails 当前用户
+     * @return 资源视图对象
+     */
+    CourseResourceVO uploadResource(String uploadId, CourseResourceDTO resourceDTO, UserDetails userDetails);
     
     /**
      * 删除课程资源
@@ -52,4 +61,12 @@ public interface CourseResourceService {
      * @return 资源文件路径
      */
     String downloadResource(Integer resourceId);
-} 
\ No newline at end of file
+    
+    /**
+     * 获取下载所需的资源信息，不查询课程标题和上传者
+     * @param resourceId 资源ID
+     * @param countDownload 是否增加下载次数，断点续传、拖动进度的后续请求不增加
+     * @return 资源视图对象
+     */
+    CourseResourceVO getResourceForDownload(Integer resourceId, boolean countDownload);
+}
@@ -1,5 +1,7 @@
 package com.csu.unicorp.service;
 
+import java.nio.file.Path;
+
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -16,6 +18,24 @@ public interface FileService {
      * @return 文件的相对路径，例如 "resumes/filename.docx"
      */
     String uploadFile(MultipartFile file, String type);
+
+    /**
+     * 保存已在服务器磁盘上的文件（如分片上传合并后的文件），移动到对应目录并记录文件映射
+     *
+     * @param source 源文件，保存后不再存在
+     * @param originalFilename 原始文件名
+     * @param type 文件类型（avatar, resume, resource等）
+     * @return 文件的相对路径，例如 "resumes/filename.docx"
+     */
+    String storeFile(Path source, String originalFilename, String type);
+
+    /**
+     * 获取文件在磁盘上的实际路径，按内容保存的文件指向内容存储路径，旧文件仍在上传目录下
+     *
+     * @param relativePath 文件的相对路径，例如 "resumes/filename.docx"
+     * @return 实际路径，路径越出上传目录时返回null
+     */
+    Path resolveFile(String relativePath);
     
     /**
      * 删除文件
@@ -0,0 +1,74 @@
+package com.csu.unicorp.service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import com.csu.unicorp.dto.FileUploadSessionDTO;
+import com.csu.unicorp.entity.FileUploadSession;
+import com.csu.unicorp.vo.FileUploadSessionVO;
+
+/**
+ * 分片上传服务接口
+ * <p>
+ * 客户端先创建上传会话，再按任意顺序上传分片（可并发、可重传），全部分片到齐后提交。
+ * 网络中断后查询会话即可得到已接收的分片，只需补传其余分片。
+ */
+public interface FileUploadSessionService {
+
+    /**
+     * 创建上传会话
+     *
+     * @param sessionDTO 文件信息
+     * @param account 当前账号
+     * @return 上传会话，包含服务端确定的分片大小和分片数量
+     */
+    FileUploadSessionVO createSession(FileUploadSessionDTO sessionDTO, String account);
+
+    /**
+     * 查询上传会话
+     *
+     * @param uploadId 上传会话ID
+     * @param account 当前账号
+     * @return 上传会话，包含已接收的分片序号
+     */
+    FileUploadSessionVO getSession(String uploadId, String account);
+
+    /**
+     * 上传分片
+     *
+     * @param uploadId 上传会话ID
+     * @param chunkIndex 分片序号，从0开始
+     * @param checksum 分片内容的SHA-256（十六进制）
+     * @param input 分片内容
+     * @param account 当前账号
+     */
+    void uploadChunk(String uploadId, int chunkIndex, String checksum, InputStream input, String account);
+
+    /**
+     * 完成上传，按会话的文件类型保存文件并记录文件映射
+     *
+     * @param uploadId 上传会话ID
+     * @param account 当前账号
+     * @return 已完成的上传会话，fileUrl为文件相对路径
+     */
+    FileUploadSessionVO completeSession(String uploadId, String account);
+
+    /**
+     * 完成上传，把文件移动到指定位置，供课程资源等自行管理存储路径的业务使用
+     *
+     * @param uploadId 上传会话ID
+     * @param account 当前账号
+     * @param targetResolver 根据会话信息（原始文件名等）生成目标文件路径
+     * @return 已完成的上传会话，storedName为目标文件路径
+     */
+    FileUploadSession completeSession(String uploadId, String account, Function<FileUploadSession, Path> targetResolver);
+
+    /**
+     * 取消上传，删除会话和临时文件
+     *
+     * @param uploadId 上传会话ID
+     * @param account 当前账号
+     */
+    void cancelSession(String uploadId, String account);
+}
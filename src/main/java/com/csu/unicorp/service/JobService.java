@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.csu.unicorp.dto.JobCreationDTO;
 import com.csu.unicorp.entity.job.Job;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.JobVO;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -33,7 +34,7 @@ public interface JobService extends IService<Job> {
      * @param educationRequirement 学历要求
      * @param salaryMin            最低薪资
      * @param salaryMax            最高薪资
-     * @param sortBy               排序方式（latest-最新发布，salary_asc-薪资从低到高，salary_desc-薪资从高到低）
+     * @param sortBy               排序方式（latest-最新发布，salary_asc-薪资从低到高，salary_desc-薪资从高到低，relevance-关键词相关度）
      * @return 岗位列表分页结果
      */
     IPage<JobVO> pageJobs(int page, int size, String keyword, String location, 
@@ -51,7 +52,7 @@ public interface JobService extends IService<Job> {
      * @param educationRequirement 学历要求
      * @param salaryMin            最低薪资
      * @param salaryMax            最高薪资
-     * @param sortBy               排序方式（latest-最新发布，salary_asc-薪资从低到高，salary_desc-薪资从高到低）
+     * @param sortBy               排序方式（latest-最新发布，salary_asc-薪资从低到高，salary_desc-薪资从高到低，relevance-关键词相关度）
      * @param organizeId           组织ID筛选
      * @param posterId             发布者ID筛选
      * @return 岗位列表分页结果
@@ -61,6 +62,26 @@ public interface JobService extends IService<Job> {
                           Integer salaryMin, Integer salaryMax, String sortBy,
                           Integer organizeId, Integer posterId);
     
+    /**
+     * 按发布时间倒序的游标分页查询岗位列表，不统计总数，翻页深度不影响查询代价
+     *
+     * @param cursor               上一页返回的游标，第一页为空
+     * @param size                 每页大小
+     * @param keyword              搜索关键词
+     * @param location             工作地点
+     * @param jobType              工作类型
+     * @param educationRequirement 学历要求
+     * @param salaryMin            最低薪资
+     * @param salaryMax            最高薪资
+     * @param organizeId           组织ID筛选
+     * @param posterId             发布者ID筛选
+     * @return 岗位列表游标分页结果
+     */
+    CursorPageVO<JobVO> getJobFeed(String cursor, int size, String keyword, String location,
+                                   String jobType, String educationRequirement,
+                                   Integer salaryMin, Integer salaryMax,
+                                   Integer organizeId, Integer posterId);
+    
     /**
      * 根据分类ID分页查询岗位列表
      *
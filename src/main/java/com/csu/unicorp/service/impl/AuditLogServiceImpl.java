@@ -4,10 +4,12 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.LogActionType;
+import com.csu.unicorp.common.utils.SeekCursor;
 import com.csu.unicorp.entity.AuditLog;
 import com.csu.unicorp.mapper.AuditLogMapper;
 import com.csu.unicorp.service.AuditLogService;
 import com.csu.unicorp.vo.AuditLogVO;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.LogStatisticsVO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,8 @@ import java.util.Map;
 public class AuditLogServiceImpl implements AuditLogService {
     
     private final AuditLogMapper auditLogMapper;
+    private final AuditLogWriter auditLogWriter;
+    private final PageCountCache pageCountCache;
     
     @Override
     public void log(Integer userId, LogActionType action, String details) {
@@ -34,7 +38,7 @@ public class AuditLogServiceImpl implements AuditLogService {
                 .timestamp(LocalDateTime.now())
                 .build();
         
-        auditLogMapper.insert(log);
+        auditLogWriter.submit(log);
     }
     
     @Override
@@ -53,7 +57,7 @@ public class AuditLogServiceImpl implements AuditLogService {
                 .timestamp(LocalDateTime.now())
                 .build();
         
-        auditLogMapper.insert(log);
+        auditLogWriter.submit(log);
     }
     
     @Override
@@ -61,9 +65,47 @@ public class AuditLogServiceImpl implements AuditLogService {
                                          Integer userId, String action, 
                                          LocalDateTime startTime, LocalDateTime endTime) {
         Page<AuditLog> pageParam = new Page<>(page, size);
+        LambdaQueryWrapper<AuditLog> wrapper = buildFilter(userId, action, startTime, endTime);
+        
+        // 按时间倒序排序
+        wrapper.orderByDesc(AuditLog::getTimestamp);
+        
+        // 执行查询，日志只追加，总数使用缓存的近似值
+        String countKey = "audit:" + userId + "|" + action + "|" + startTime + "|" + endTime;
+        IPage<AuditLog> logPage = pageCountCache.page(countKey, pageParam, p -> auditLogMapper.selectPage(p, wrapper));
+        
+        // 转换为VO
+        return logPage.convert(this::convertToVO);
+    }
+    
+    @Override
+    public CursorPageVO<AuditLogVO> getLogsByCursor(String cursor, int size,
+                                                    Integer userId, String action,
+                                                    LocalDateTime startTime, LocalDateTime endTime) {
+        SeekCursor seek = SeekCursor.decode(cursor);
+        size = CursorPageVO.limitSize(size);
+        LambdaQueryWrapper<AuditLog> wrapper = buildFilter(userId, action, startTime, endTime);
+        
+        // 只查询排在游标之后的记录
+        if (seek != null) {
+            wrapper.and(w -> w.lt(AuditLog::getTimestamp, seek.getTime())
+                    .or(q -> q.eq(AuditLog::getTimestamp, seek.getTime()).lt(AuditLog::getId, seek.getId())));
+        }
+        wrapper.orderByDesc(AuditLog::getTimestamp).orderByDesc(AuditLog::getId)
+                .last("LIMIT " + (size + 1));
+        
+        List<AuditLog> rows = auditLogMapper.selectList(wrapper);
+        return CursorPageVO.of(rows, size, log -> SeekCursor.of(log.getTimestamp(), log.getId()))
+                .convert(this::convertToVO);
+    }
+    
+    /**
+     * 构建日志查询条件
+     */
+    private LambdaQueryWrapper<AuditLog> buildFilter(Integer userId, String action,
+                                                     LocalDateTime startTime, LocalDateTime endTime) {
         LambdaQueryWrapper<AuditLog> wrapper = new LambdaQueryWrapper<>();
         
-        // 构建查询条件
         if (userId != null) {
             wrapper.eq(AuditLog::getUserId, userId);
         }
@@ -75,15 +117,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         if (startTime != null && endTime != null) {
             wrapper.between(AuditLog::getTimestamp, startTime, endTime);
         }
-        
-        // 按时间倒序排序
-        wrapper.orderByDesc(AuditLog::getTimestamp);
-        
-        // 执行查询
-        IPage<AuditLog> logPage = auditLogMapper.selectPage(pageParam, wrapper);
-        
-        // 转换为VO
-        return logPage.convert(this::convertToVO);
+        return wrapper;
     }
     
     @Override
@@ -119,6 +153,7 @@ public class AuditLogServiceImpl implements AuditLogService {
                 .todayLogs(todayLogs)
                 .actionStatistics(actionStats)
                 .dateStatistics(dateStats)
+                .writerStatistics(auditLogWriter.getStatistics())
                 .build();
     }
     
@@ -0,0 +1,205 @@
+package com.csu.unicorp.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.entity.AuditLog;
+import com.csu.unicorp.mapper.AuditLogMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 审计日志异步批量写入器
+ * <p>
+ * 1. 请求线程只把日志放入有界队列，不再同步写数据库；<br>
+ * 2. 后台线程攒够一批或等待超时后，用一条多行INSERT写入；<br>
+ * 3. 队列满时请求线程最多等待配置的时间，仍然放不进去就丢弃该条日志并计数，不会拖慢业务请求；<br>
+ * 4. 应用关闭时写完队列中剩余的日志再退出。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogWriter {
+
+    private final AuditLogMapper auditLogMapper;
+
+    @Value("${app.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    /**
+     * 队列满时请求线程的最长等待时间，0表示直接丢弃
+     */
+    @Value("${app.audit.offer-timeout-ms:0}")
+    private long offerTimeoutMs;
+
+    @Value("${app.audit.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BlockingQueue<AuditLog> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交一条审计日志
+     *
+     * @param auditLog 审计日志
+     * @return 是否已放入队列
+     */
+    public boolean submit(AuditLog auditLog) {
+        boolean offered;
+        try {
+            offered = offerTimeoutMs > 0
+                    ? queue.offer(auditLog, offerTimeoutMs, TimeUnit.MILLISECONDS)
+                    : queue.offer(auditLog);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+
+        if (offered) {
+            accepted.incrementAndGet();
+        } else {
+            long count = dropped.incrementAndGet();
+            // 避免日志刷屏，每丢弃1000条提示一次
+            if (count % 1000 == 1) {
+                log.warn("审计日志队列已满，累计丢弃{}条", count);
+            }
+        }
+        return offered;
+    }
+
+    /**
+     * 获取写入器统计信息
+     *
+     * @return 排队中、已接收、已写入、已丢弃、写入失败的日志数量
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("pending", (long) queue.size());
+        statistics.put("accepted", accepted.get());
+        statistics.put("written", written.get());
+        statistics.put("dropped", dropped.get());
+        statistics.put("failed", failed.get());
+        return statistics;
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            flush(batch);
+        }
+        // 关闭超时被中断时，尽量写完剩余日志
+        drainAll(batch);
+    }
+
+    /**
+     * 攒一批日志：攒满一批或距第一条日志超过刷新间隔即返回
+     */
+    private void fillBatch(List<AuditLog> batch) throws InterruptedException {
+        AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void drainAll(List<AuditLog> batch) {
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * 写入一批日志，多行INSERT失败时逐条重试，只丢弃确实写不进去的日志
+     */
+    private void flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            auditLogMapper.insertBatch(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            log.error("批量写入审计日志失败，改为逐条写入: {}", e.getMessage());
+            for (AuditLog auditLog : batch) {
+                try {
+                    auditLogMapper.insert(auditLog);
+                    written.incrementAndGet();
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                    log.error("写入审计日志失败: {}", ex.getMessage());
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMs);
+            if (worker.isAlive()) {
+                worker.interrupt();
+                worker.join(shutdownTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("审计日志写入器已关闭，统计: {}", getStatistics());
+    }
+}
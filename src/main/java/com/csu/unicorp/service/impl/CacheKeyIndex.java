@@ -0,0 +1,280 @@
+package com.csu.unicorp.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.common.constants.CacheConstants;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 缓存命名空间成员索引
+ * <p>
+ * 需要按模式批量失效的缓存键在写入时登记到Redis集合中，失效时直接读取集合删除成员，
+ * 不再使用会阻塞Redis的KEYS命令，失效的代价与命名空间成员数成正比，而与整个键空间无关。
+ * <p>
+ * 键的结构为“命名空间 + 分段 + 其余部分”，其中分段是命名空间之后到第一个冒号之前的部分（通常是ID）。
+ * 例如 community:comment:topic:5:10 的命名空间为 community:comment:topic:，分段为 5。
+ * 每个分段对应一个成员集合，每个命名空间另有一个集合记录所有分段。
+ * 只支持“命名空间*”和“命名空间 + 分段 + *”两种模式，其他模式由调用方回退到SCAN。
+ * <p>
+ * 失效时每条命令只访问一个键（多键DEL由客户端按槽位拆分），不使用在脚本中拼接键名的Lua脚本，可以在Redis Cluster下使用。
+ * 失效不是原子的：只从索引中移除已读到并删除的成员，期间新登记的键仍保留在索引中，下次失效时删除。
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheKeyIndex {
+
+    /**
+     * 登记成员索引的命名空间，即会被按模式批量失效的缓存键前缀
+     */
+    private static final List<String> NAMESPACES = List.of(
+            CacheConstants.HOT_TOPICS_CACHE_KEY,
+            CacheConstants.LATEST_TOPICS_CACHE_KEY,
+            CacheConstants.FEATURED_TOPICS_CACHE_KEY,
+            CacheConstants.TOPIC_COMMENTS_CACHE_KEY_PREFIX,
+            CacheConstants.COMMENT_REPLIES_CACHE_KEY_PREFIX,
+            CacheConstants.USER_COMMENTS_CACHE_KEY_PREFIX,
+            CacheConstants.USER_VISIBLE_CATEGORIES_CACHE_KEY_PREFIX,
+            CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX
+    );
+
+    /**
+     * 每批删除的键数量
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final RedisSerializer<String> STRING = RedisSerializer.string();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 登记缓存键，应在缓存值写入Redis之后调用
+     *
+     * @param key     缓存键
+     * @param timeout 缓存过期时间，小于等于0表示不过期
+     * @param unit    时间单位
+     */
+    public void register(String key, long timeout, TimeUnit unit) {
+        String namespace = namespaceOf(key);
+        if (namespace == null) {
+            return;
+        }
+        String segment = segmentOf(key.substring(namespace.length()));
+        byte[] membersKey = STRING.serialize(membersKey(namespace, segment));
+        byte[] segmentsKey = STRING.serialize(segmentsKey(namespace));
+        // 索引的过期时间不短于成员的过期时间，保证成员存在期间一定能通过索引找到
+        long indexTtl = timeout > 0
+                ? Math.max(unit.toSeconds(timeout), CacheConstants.CACHE_INDEX_EXPIRE_TIME) : -1;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.setCommands().sAdd(membersKey, STRING.serialize(key));
+            connection.setCommands().sAdd(segmentsKey, STRING.serialize(segment));
+            touch(connection, membersKey, indexTtl);
+            touch(connection, segmentsKey, indexTtl);
+            return null;
+        });
+    }
+
+    /**
+     * 通过成员索引按模式删除缓存
+     *
+     * @param pattern 缓存键模式
+     * @return 删除数量；模式无法通过索引处理时返回null
+     */
+    public Long invalidate(String pattern) {
+        if (!pattern.endsWith("*")) {
+            return null;
+        }
+        String prefix = pattern.substring(0, pattern.length() - 1);
+        if (containsGlob(prefix)) {
+            return null;
+        }
+        String namespace = namespaceOf(prefix);
+        if (namespace == null || hasNestedNamespace(prefix, namespace)) {
+            return null;
+        }
+
+        String rest = prefix.substring(namespace.length());
+        if (rest.endsWith(":")) {
+            rest = rest.substring(0, rest.length() - 1);
+        }
+        if (rest.isEmpty()) {
+            return purgeNamespace(namespace);
+        }
+        if (rest.indexOf(':') >= 0) {
+            return null;
+        }
+        return purgeSegment(namespace, rest);
+    }
+
+    /**
+     * 使用SCAN按模式查找缓存键，不会长时间阻塞Redis
+     *
+     * @param pattern 缓存键模式
+     * @return 匹配的键
+     */
+    public Set<String> scan(String pattern) {
+        Set<String> keys = new HashSet<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    /**
+     * 使用SCAN按模式分批删除缓存，供无法通过索引处理的模式和管理操作使用
+     *
+     * @param pattern 缓存键模式
+     * @return 删除数量
+     */
+    public long scanAndDelete(String pattern) {
+        long count = 0;
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= BATCH_SIZE) {
+                    count += deleteBatch(batch);
+                }
+            }
+        }
+        count += deleteBatch(batch);
+        return count;
+    }
+
+    private long deleteBatch(List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(batch);
+        batch.clear();
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * 删除命名空间下所有分段的缓存
+     */
+    private long purgeNamespace(String namespace) {
+        byte[] segmentsKey = STRING.serialize(segmentsKey(namespace));
+        Set<byte[]> segments = redisTemplate.execute(
+                (RedisCallback<Set<byte[]>>) connection -> connection.setCommands().sMembers(segmentsKey));
+        if (segments == null) {
+            return 0;
+        }
+        long total = 0;
+        for (byte[] segment : segments) {
+            String segmentName = STRING.deserialize(segment);
+            total += purgeSegment(namespace, segmentName);
+            byte[] membersKey = STRING.serialize(membersKey(namespace, segmentName));
+            // 分段没有成员后移出命名空间；登记时先加成员再加分段，移除后发现又有成员时重新加入
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.setCommands().sRem(segmentsKey, segment);
+                Long remaining = connection.setCommands().sCard(membersKey);
+                if (remaining != null && remaining > 0) {
+                    connection.setCommands().sAdd(segmentsKey, segment);
+                }
+                return null;
+            });
+        }
+        return total;
+    }
+
+    /**
+     * 分批删除分段成员集合中的键，并从集合中移除已删除的成员
+     */
+    private long purgeSegment(String namespace, String segment) {
+        byte[] membersKey = STRING.serialize(membersKey(namespace, segment));
+        Set<byte[]> members = redisTemplate.execute(
+                (RedisCallback<Set<byte[]>>) connection -> connection.setCommands().sMembers(membersKey));
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+        long count = 0;
+        List<byte[]> removed = new ArrayList<>(BATCH_SIZE);
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        Iterator<byte[]> iterator = members.iterator();
+        while (iterator.hasNext()) {
+            byte[] member = iterator.next();
+            removed.add(member);
+            batch.add(STRING.deserialize(member));
+            if (batch.size() >= BATCH_SIZE || !iterator.hasNext()) {
+                count += deleteBatch(batch);
+                byte[][] values = removed.toArray(new byte[0][]);
+                redisTemplate.execute((RedisCallback<Long>) connection -> connection.setCommands().sRem(membersKey, values));
+                removed.clear();
+            }
+        }
+        return count;
+    }
+
+    private static void touch(RedisConnection connection, byte[] key, long ttlSeconds) {
+        if (ttlSeconds > 0) {
+            connection.keyCommands().expire(key, ttlSeconds);
+        } else {
+            connection.keyCommands().persist(key);
+        }
+    }
+
+    /**
+     * 查找键所属的命名空间（最长前缀匹配）
+     */
+    private static String namespaceOf(String key) {
+        String matched = null;
+        for (String namespace : NAMESPACES) {
+            if (key.startsWith(namespace) && (matched == null || namespace.length() > matched.length())) {
+                matched = namespace;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 模式是否还覆盖了更长的命名空间，这种情况下索引无法找全所有键
+     */
+    private static boolean hasNestedNamespace(String prefix, String namespace) {
+        for (String other : NAMESPACES) {
+            if (!other.equals(namespace) && other.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String segmentOf(String rest) {
+        int colon = rest.indexOf(':');
+        return colon >= 0 ? rest.substring(0, colon) : rest;
+    }
+
+    private static boolean containsGlob(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String segmentsKey(String namespace) {
+        return CacheConstants.CACHE_INDEX_KEY_PREFIX + namespace;
+    }
+
+    private static String membersKey(String namespace, String segment) {
+        return CacheConstants.CACHE_INDEX_KEY_PREFIX + namespace + "|" + segment;
+    }
+}
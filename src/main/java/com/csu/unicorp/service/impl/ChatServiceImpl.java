@@ -3,20 +3,29 @@ package com.csu.unicorp.service.impl;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.csu.unicorp.service.FileService;
 import org.springframework.beans.BeanUtils;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.csu.unicorp.common.utils.SeekCursor;
 import com.csu.unicorp.dto.ChatMessageDTO;
 import com.csu.unicorp.entity.ChatMessage;
 import com.csu.unicorp.entity.ChatSession;
@@ -25,8 +34,10 @@ import com.csu.unicorp.mapper.ChatMessageMapper;
 import com.csu.unicorp.mapper.ChatSessionMapper;
 import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.service.ChatService;
+import com.csu.unicorp.service.impl.chat.ChatMessagePipeline;
 import com.csu.unicorp.vo.ChatMessageVO;
 import com.csu.unicorp.vo.ChatSessionVO;
+import com.csu.unicorp.vo.CursorPageVO;
 
 import lombok.RequiredArgsConstructor;
 
@@ -41,68 +52,42 @@ public class ChatServiceImpl implements ChatService {
     private final ChatMessageMapper chatMessageMapper;
     private final UserMapper userMapper;
     private final FileService fileService;
+    private final ChatMessagePipeline chatMessagePipeline;
+    
+    /**
+     * 会话成员创建后不会变化，发送消息时从缓存获取会话，不查询数据库
+     */
+    private final Cache<Long, ChatSession> sessionCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+    
+    /**
+     * 两个用户ID（小的在前）到会话ID的映射
+     */
+    private final Cache<String, Long> sessionIdByUsers = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+    
+    /**
+     * 发送者昵称，修改昵称后最多10分钟生效
+     */
+    private final Cache<Long, String> senderNames = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
     
     @Override
     public List<ChatSessionVO> getUserSessions(Long userId) {
-        // 查询用户参与的所有会话
-        LambdaQueryWrapper<ChatSession> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ChatSession::getUser1Id, userId).or().eq(ChatSession::getUser2Id, userId);
-        List<ChatSession> sessions = chatSessionMapper.selectList(wrapper);
-        
-        if (sessions.isEmpty()) {
-            return Collections.emptyList();
-        }
-        
-        // 获取所有会话中的用户ID（排除当前用户）
-        List<Integer> otherUserIds = sessions.stream()
-                .map(session -> {
-                    Long otherUserId = session.getUser1Id().equals(userId) ? session.getUser2Id() : session.getUser1Id();
-                    return otherUserId.intValue(); // 转换为Integer类型
-                })
-                .collect(Collectors.toList());
-        
-        // 批量查询用户信息
-        List<User> users = userMapper.selectBatchIds(otherUserIds);
-        Map<Integer, User> userMap = users.stream()
-                .collect(Collectors.toMap(User::getId, Function.identity()));
-        
-        // 构建会话VO
-        List<ChatSessionVO> result = new ArrayList<>(sessions.size());
-        for (ChatSession session : sessions) {
-            ChatSessionVO vo = new ChatSessionVO();
-            vo.setId(session.getId());
-            
-            // 设置对话用户信息
-            Long otherUserId = session.getUser1Id().equals(userId) ? session.getUser2Id() : session.getUser1Id();
-            User otherUser = userMap.get(otherUserId.intValue());
-            if (otherUser != null) {
-                vo.setUserId(otherUserId);
-                vo.setUserName(otherUser.getNickname());
-                String avatar = fileService.getFullFileUrl(otherUser.getAvatar());
-                vo.setUserAvatar(avatar);
-            }
-            
-            // 获取最近一条消息
-            List<ChatMessage> recentMessages = chatMessageMapper.findRecentMessages(session.getId(), 1);
-            if (!recentMessages.isEmpty()) {
-                ChatMessage lastMessage = recentMessages.get(0);
-                vo.setLastMessage(lastMessage.getContent());
-                vo.setLastMessageTime(lastMessage.getSentAt());
-            } else {
-                vo.setLastMessageTime(session.getCreatedAt());
+        // 对方用户信息、最后一条消息和未读数都冗余在会话表中，一次查询即可
+        List<ChatSessionVO> sessions = chatSessionMapper.selectInbox(userId);
+        for (ChatSessionVO session : sessions) {
+            if (session.getUserAvatar() != null) {
+                session.setUserAvatar(fileService.getFullFileUrl(session.getUserAvatar()));
             }
-            
-            // 获取未读消息数
-            Integer unreadCount = chatMessageMapper.countUnreadMessages(session.getId(), userId);
-            vo.setUnreadCount(unreadCount);
-            
-            result.add(vo);
         }
-        
-        // 按最后消息时间倒序排列
-        result.sort((a, b) -> b.getLastMessageTime().compareTo(a.getLastMessageTime()));
-        
-        return result;
+        return sessions;
     }
     
     
@@ -119,7 +104,8 @@ public class ChatServiceImpl implements ChatService {
         }
         
         // 获取对话用户信息
-        Long otherUserId = session.getUser1Id().equals(userId) ? session.getUser2Id() : session.getUser1Id();
+        boolean isUser1 = session.getUser1Id().equals(userId);
+        Long otherUserId = isUser1 ? session.getUser2Id() : session.getUser1Id();
         User otherUser = userMapper.selectById(otherUserId.intValue());
         
         ChatSessionVO vo = new ChatSessionVO();
@@ -131,19 +117,11 @@ public class ChatServiceImpl implements ChatService {
             vo.setUserAvatar(otherUser.getAvatar());
         }
         
-        // 获取最近一条消息
-        List<ChatMessage> recentMessages = chatMessageMapper.findRecentMessages(session.getId(), 1);
-        if (!recentMessages.isEmpty()) {
-            ChatMessage lastMessage = recentMessages.get(0);
-            vo.setLastMessage(lastMessage.getContent());
-            vo.setLastMessageTime(lastMessage.getSentAt());
-        } else {
-            vo.setLastMessageTime(session.getCreatedAt());
-        }
-        
-        // 获取未读消息数
-        Integer unreadCount = chatMessageMapper.countUnreadMessages(session.getId(), userId);
-        vo.setUnreadCount(unreadCount);
+        // 最后一条消息和未读数
+        vo.setLastMessage(session.getLastMessageSnippet());
+        vo.setLastMessageTime(session.getLastMessageTime() != null
+                ? session.getLastMessageTime() : session.getCreatedAt());
+        vo.setUnreadCount(isUser1 ? session.getUser1UnreadCount() : session.getUser2UnreadCount());
         
         return vo;
     }
@@ -151,6 +129,15 @@ public class ChatServiceImpl implements ChatService {
     @Override
     @Transactional
     public ChatSession getOrCreateSession(Long user1Id, Long user2Id) {
+        String usersKey = Math.min(user1Id, user2Id) + ":" + Math.max(user1Id, user2Id);
+        Long cachedSessionId = sessionIdByUsers.getIfPresent(usersKey);
+        if (cachedSessionId != null) {
+            ChatSession cached = sessionCache.getIfPresent(cachedSessionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
         // 查找现有会话
         ChatSession session = chatSessionMapper.findByUsers(user1Id, user2Id);
         
@@ -160,26 +147,22 @@ public class ChatServiceImpl implements ChatService {
             session.setUser1Id(user1Id);
             session.setUser2Id(user2Id);
             session.setCreatedAt(LocalDateTime.now());
+            session.setLastMessageTime(session.getCreatedAt());
             chatSessionMapper.insert(session);
         }
         
+        sessionCache.put(session.getId(), session);
+        sessionIdByUsers.put(usersKey, session.getId());
         return session;
     }
     
     @Override
     public ChatMessage saveMessage(ChatMessage message) {
-        if (message.getSentAt() == null) {
-            message.setSentAt(LocalDateTime.now());
-        }
-        if (message.getIsRead() == null) {
-            message.setIsRead(0);
-        }
-        chatMessageMapper.insert(message);
-        return message;
+        // 同步入库，会话未读数和最后一条消息与异步写入使用同一套逻辑维护
+        return chatMessagePipeline.persistNow(message);
     }
     
     @Override
-    @Transactional
     public ChatMessageVO sendMessage(ChatMessageDTO messageDTO) {
         // 设置默认消息类型
         if (messageDTO.getType() == null) {
@@ -192,7 +175,7 @@ public class ChatServiceImpl implements ChatService {
         
         if (sessionId != null) {
             // 如果前端传递了sessionId，则直接使用
-            session = chatSessionMapper.selectById(sessionId);
+            session = sessionCache.get(sessionId, chatSessionMapper::selectById);
             // 验证会话是否存在且当前用户是会话成员
             if (session == null || (!session.getUser1Id().equals(messageDTO.getSenderId()) 
                     && !session.getUser2Id().equals(messageDTO.getSenderId()))) {
@@ -204,7 +187,7 @@ public class ChatServiceImpl implements ChatService {
             session = getOrCreateSession(messageDTO.getSenderId(), messageDTO.getReceiverId());
         }
         
-        // 创建并保存消息
+        // 创建消息，分配ID后异步入库，调用方可以立即推送
         ChatMessage message = new ChatMessage();
         message.setSessionId(session.getId());
         message.setSenderId(messageDTO.getSenderId());
@@ -212,10 +195,10 @@ public class ChatServiceImpl implements ChatService {
         message.setSentAt(LocalDateTime.now());
         message.setIsRead(0);
         
-        saveMessage(message);
+        chatMessagePipeline.submit(message);
         
         // 转换为VO返回
-        ChatMessageVO messageVO = convertToMessageVO(message);
+        ChatMessageVO messageVO = convertToMessageVO(message, session);
         messageVO.setType(messageDTO.getType()); // 设置消息类型
         
         return messageVO;
@@ -236,20 +219,93 @@ public class ChatServiceImpl implements ChatService {
         // 获取接收方ID（对话的另一方）
         Long receiverId = session.getUser1Id().equals(currentUserId) ? session.getUser2Id() : session.getUser1Id();
         
-        // 分页查询消息
-        IPage<ChatMessage> messagePage = new Page<>(page, size);
+        // 分页查询消息，只返回列表，不需要统计总数
+        IPage<ChatMessage> messagePage = new Page<>(page, size, false);
         LambdaQueryWrapper<ChatMessage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ChatMessage::getSessionId, sessionId)
                 .orderByDesc(ChatMessage::getSentAt);
         
         IPage<ChatMessage> result = chatMessageMapper.selectPage(messagePage, wrapper);
+        List<ChatMessage> records = new ArrayList<>(result.getRecords());
+        
+        // 第一页合并已发送尚未入库的消息
+        if (page == 1) {
+            Set<Long> loadedIds = records.stream().map(ChatMessage::getId).collect(Collectors.toSet());
+            for (ChatMessage message : chatMessagePipeline.getInFlightMessages(sessionId)) {
+                if (!loadedIds.contains(message.getId())) {
+                    records.add(message);
+                }
+            }
+            records.sort(Comparator.comparing(ChatMessage::getSentAt).thenComparing(ChatMessage::getId).reversed());
+        }
+        
+        return toMessageVOs(records, receiverId);
+    }
+    
+    @Override
+    public CursorPageVO<ChatMessageVO> getSessionMessagesByCursor(Long sessionId, Long currentUserId,
+                                                                String cursor, Integer size) {
+        SeekCursor seek = SeekCursor.decode(cursor);
+        size = size == null || size < 1 ? 20 : CursorPageVO.limitSize(size);
+        
+        ChatSession session = chatSessionMapper.selectById(sessionId);
+        if (session == null) {
+            return new CursorPageVO<>(Collections.emptyList(), null, false);
+        }
+        // 验证当前用户是否为会话成员
+        if (!session.getUser1Id().equals(currentUserId) && !session.getUser2Id().equals(currentUserId)) {
+            throw new AccessDeniedException("无权查看该会话的消息");
+        }
+        Long receiverId = session.getUser1Id().equals(currentUserId) ? session.getUser2Id() : session.getUser1Id();
+        
+        // 只查询排在游标之后的消息，多查一条判断是否还有下一页
+        LambdaQueryWrapper<ChatMessage> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ChatMessage::getSessionId, sessionId);
+        if (seek != null) {
+            wrapper.and(w -> w.lt(ChatMessage::getSentAt, seek.getTime())
+                    .or(q -> q.eq(ChatMessage::getSentAt, seek.getTime()).lt(ChatMessage::getId, seek.getId())));
+        }
+        wrapper.orderByDesc(ChatMessage::getSentAt).orderByDesc(ChatMessage::getId)
+                .last("LIMIT " + (size + 1));
+        List<ChatMessage> records = new ArrayList<>(chatMessageMapper.selectList(wrapper));
+        
+        // 合并已发送尚未入库且排在游标之后的消息，按同样的顺序截取
+        Set<Long> loadedIds = records.stream().map(ChatMessage::getId).collect(Collectors.toSet());
+        Comparator<ChatMessage> newestFirst = Comparator.comparing(ChatMessage::getSentAt)
+                .thenComparing(ChatMessage::getId).reversed();
+        for (ChatMessage message : chatMessagePipeline.getInFlightMessages(sessionId)) {
+            if (!loadedIds.contains(message.getId()) && (seek == null || isBefore(message, seek))) {
+                records.add(message);
+            }
+        }
+        records.sort(newestFirst);
+        if (records.size() > size + 1) {
+            records = new ArrayList<>(records.subList(0, size + 1));
+        }
         
-        if (result.getRecords().isEmpty()) {
+        CursorPageVO<ChatMessage> page = CursorPageVO.of(records, size,
+                message -> SeekCursor.of(message.getSentAt(), message.getId()));
+        return new CursorPageVO<>(toMessageVOs(page.getRecords(), receiverId), page.getNextCursor(), page.isHasMore());
+    }
+    
+    /**
+     * 判断消息是否排在游标之后（更早发送）
+     */
+    private static boolean isBefore(ChatMessage message, SeekCursor seek) {
+        int order = message.getSentAt().compareTo(seek.getTime());
+        return order < 0 || (order == 0 && message.getId() < seek.getId());
+    }
+    
+    /**
+     * 批量转换消息，发送者名称一次查询
+     */
+    private List<ChatMessageVO> toMessageVOs(List<ChatMessage> records, Long receiverId) {
+        if (records.isEmpty()) {
             return Collections.emptyList();
         }
         
         // 获取发送者信息
-        List<Integer> senderIds = result.getRecords().stream()
+        List<Integer> senderIds = records.stream()
                 .map(message -> message.getSenderId().intValue())
                 .distinct()
                 .collect(Collectors.toList());
@@ -259,7 +315,7 @@ public class ChatServiceImpl implements ChatService {
                 .collect(Collectors.toMap(User::getId, Function.identity()));
         
         // 转换为VO列表
-        return result.getRecords().stream()
+        return records.stream()
                 .map(message -> {
                     ChatMessageVO vo = new ChatMessageVO();
                     BeanUtils.copyProperties(message, vo);
@@ -280,26 +336,37 @@ public class ChatServiceImpl implements ChatService {
     @Override
     @Transactional
     public void markMessagesAsRead(Long sessionId, Long userId) {
+        // 与发送消息相同，先锁定会话行再更新消息
+        chatSessionMapper.resetUnreadCount(sessionId, userId);
         chatMessageMapper.markAllAsRead(sessionId, userId);
     }
     
+    @Override
+    public Set<Long> filterContacts(Long userId, Collection<Long> candidateIds) {
+        if (candidateIds == null || candidateIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(chatSessionMapper.selectContactIds(userId, candidateIds));
+    }
+
+    
     /**
      * 将消息实体转换为视图对象
      * @param message 消息实体
+     * @param session 消息所属会话
      * @return 消息视图对象
      */
-    private ChatMessageVO convertToMessageVO(ChatMessage message) {
+    private ChatMessageVO convertToMessageVO(ChatMessage message, ChatSession session) {
         ChatMessageVO vo = new ChatMessageVO();
         BeanUtils.copyProperties(message, vo);
         
         // 设置发送者名称
-        User sender = userMapper.selectById(message.getSenderId().intValue());
-        if (sender != null) {
-            vo.setSenderName(sender.getNickname());
-        }
+        vo.setSenderName(senderNames.get(message.getSenderId(), senderId -> {
+            User sender = userMapper.selectById(senderId.intValue());
+            return sender != null ? sender.getNickname() : null;
+        }));
         
-        // 获取会话信息以确定接收方ID
-        ChatSession session = chatSessionMapper.selectById(message.getSessionId());
+        // 根据会话确定接收方ID
         if (session != null) {
             // 接收方是会话中发送者之外的另一个用户
             Long receiverId = session.getUser1Id().equals(message.getSenderId()) ? 
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.common.utils.AccountGenerator;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.dto.MentorCreationDTO;
 import com.csu.unicorp.dto.MentorUpdateDTO;
 import com.csu.unicorp.dto.UserUpdateDTO;
@@ -35,6 +36,7 @@ import java.util.Objects;
 public class EnterpriseAdminServiceImpl implements EnterpriseAdminService {
 
     private final UserMapper userMapper;
+    private final AuthenticatedUserCache authenticatedUserCache;
     private final OrganizationMapper organizationMapper;
     private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
@@ -137,6 +139,7 @@ public class EnterpriseAdminServiceImpl implements EnterpriseAdminService {
         }
         
         userMapper.updateById(mentor);
+        authenticatedUserCache.invalidateUser(mentor.getId());
         
         return convertToVO(mentor);
     }
@@ -175,6 +178,7 @@ public class EnterpriseAdminServiceImpl implements EnterpriseAdminService {
         mentor.setStatus(status);
         mentor.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(mentor);
+        authenticatedUserCache.invalidateUser(mentor.getId());
     }
     
     @Override
@@ -225,6 +229,7 @@ public class EnterpriseAdminServiceImpl implements EnterpriseAdminService {
         
         // 保存更新
         userMapper.updateById(mentor);
+        authenticatedUserCache.invalidateUser(mentor.getId());
         
         // 返回更新后的用户信息
         return convertToVO(mentor);
@@ -7,6 +7,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.entity.EnterpriseDetail;
 import com.csu.unicorp.entity.User;
 import com.csu.unicorp.entity.organization.Organization;
@@ -16,6 +17,7 @@ import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.service.EnterpriseService;
 import com.csu.unicorp.service.FileService;
 import com.csu.unicorp.service.OrganizationService;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
 import com.csu.unicorp.vo.OrganizationVO;
 
 import lombok.RequiredArgsConstructor;
@@ -32,8 +34,10 @@ public class EnterpriseServiceImpl implements EnterpriseService {
     private final OrganizationMapper organizationMapper;
     private final EnterpriseDetailMapper enterpriseDetailMapper;
     private final UserMapper userMapper;
+    private final AuthenticatedUserCache authenticatedUserCache;
     private final OrganizationService organizationService;
     private final FileService fileService;
+    private final SearchSuggester searchSuggester;
     
     @Override
     @Transactional
@@ -74,6 +78,7 @@ public class EnterpriseServiceImpl implements EnterpriseService {
         // 2. 更新企业状态为approved
         organization.setStatus("approved");
         organizationMapper.updateById(organization);
+        searchSuggester.refresh(SearchSuggester.Source.ORGANIZATION, organization.getOrganizationName());
         
         // 3. 更新企业管理员状态为active
         LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
@@ -84,6 +89,7 @@ public class EnterpriseServiceImpl implements EnterpriseService {
         for (User user : pendingUsers) {
             user.setStatus("active");
             userMapper.updateById(user);
+            authenticatedUserCache.invalidateUser(user.getId());
         }
         
         // 4. 返回更新后的企业信息
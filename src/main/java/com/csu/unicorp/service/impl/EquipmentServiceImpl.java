@@ -16,6 +16,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.common.exception.ResourceNotFoundException;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.BookingCreationDTO;
 import com.csu.unicorp.dto.BookingReviewDTO;
 import com.csu.unicorp.entity.EquipmentBooking;
@@ -40,6 +41,7 @@ public class EquipmentServiceImpl implements EquipmentService {
     private final EquipmentBookingMapper bookingMapper;
     private final ResourceMapper resourceMapper;
     private final UserMapper userMapper;
+    private final CurrentUserResolver currentUserResolver;
     
     @Override
     @Transactional
@@ -303,12 +305,11 @@ public class EquipmentServiceImpl implements EquipmentService {
      * 从UserDetails获取用户ID
      */
     private Integer getUserIdFromUserDetails(UserDetails userDetails) {
-        String username = userDetails.getUsername();
-        User user = userMapper.selectByAccount(username);
-        if (user == null) {
+        Integer userId = currentUserResolver.getUserId(userDetails);
+        if (userId == null) {
             throw new ResourceNotFoundException("用户不存在");
         }
-        return user.getId();
+        return userId;
     }
     
     private void checkTimeConflict(Integer resourceId, LocalDateTime startTime, LocalDateTime endTime, Integer excludeBookingId) {
@@ -12,6 +12,7 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.csu.unicorp.entity.FileMapping;
 import com.csu.unicorp.mapper.FileMappingMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +25,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.file.ContentAddressedFileStore;
+import com.csu.unicorp.service.impl.file.StoredFileNameCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -57,6 +60,10 @@ public class FileServiceImpl implements FileService {
 
     @Autowired
     private FileMappingMapper fileMappingMapper;
+
+    private final StoredFileNameCache storedFileNameCache;
+    private final ContentAddressedFileStore contentAddressedFileStore;
+
     @Override
     public String uploadFile(MultipartFile file, String type) {
         // 文件为空检查
@@ -69,62 +76,111 @@ public class FileServiceImpl implements FileService {
             throw new BusinessException("文件大小超过限制，最大允许" + (maxFileSize / 1024 / 1024) + "MB");
         }
         
-        // 确定文件存储目录
-        String subDir;
+        String subDir = resolveSubDir(type);
+        try {
+            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
+            String storedName = generateStoredName(subDir, originalFilename);
+
+            // 按内容保存：相同内容已存在时只增加引用，不再写入
+            String contentHash = contentAddressedFileStore.put(file);
+
+            return saveMapping(storedName, originalFilename, type, contentHash);
+        } catch (IOException e) {
+            log.error("文件上传失败", e);
+            throw new BusinessException("文件上传失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String storeFile(Path source, String originalFilename, String type) {
+        String subDir = resolveSubDir(type);
+        try {
+            String cleanFilename = StringUtils.cleanPath(originalFilename);
+            String storedName = generateStoredName(subDir, cleanFilename);
+            String contentHash = contentAddressedFileStore.put(source);
+            return saveMapping(storedName, cleanFilename, type, contentHash);
+        } catch (IOException e) {
+            log.error("文件保存失败: {}", source, e);
+            throw new BusinessException("文件保存失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Path resolveFile(String relativePath) {
+        Path root = Paths.get(uploadBaseDir).toAbsolutePath().normalize();
+        Path filePath = root.resolve(relativePath).normalize();
+        // 防止目录遍历
+        if (!filePath.startsWith(root) || filePath.equals(root)) {
+            return null;
+        }
+
+        String storedName = root.relativize(filePath).toString().replace('\\', '/');
+        String contentHash = storedFileNameCache.getContentHash(storedName);
+        return contentHash != null ? contentAddressedFileStore.resolve(contentHash) : filePath;
+    }
+
+    /**
+     * 确定文件存储目录
+     */
+    private String resolveSubDir(String type) {
         if ("avatars".equals(type)) {
-            subDir = "avatars";
+            return "avatars";
         } else if ("resume".equals(type)) {
-            subDir = "resumes";
+            return "resumes";
         } else if ("logo".equals(type)) {
-            subDir = "logos";
-        } else {
-            // 默认为资源文件
-            subDir = "resources";
+            return "logos";
         }
-        
+        // 默认为资源文件
+        return "resources";
+    }
+
+    /**
+     * 生成唯一的存储文件名，即返回给前端的文件相对路径
+     */
+    private String generateStoredName(String subDir, String originalFilename) {
+        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        return subDir + "/" + UUID.randomUUID().toString().substring(0, 8) + "_" + timestamp + fileExtension;
+    }
+
+    /**
+     * 保存存储文件名与原始文件名、文件内容的映射，返回文件相对路径
+     */
+    private String saveMapping(String storedName, String originalFilename, String type, String contentHash) {
+        FileMapping mapping = new FileMapping();
+        mapping.setStoredName(storedName);          // 存储名
+        mapping.setOriginalName(originalFilename);  // 真实名
+        mapping.setType(type);
+        mapping.setContentHash(contentHash);
         try {
-            // 创建目录
-            String uploadDir = uploadBaseDir + "/" + subDir;
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // 生成唯一文件名
-            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-            String uniqueFilename = UUID.randomUUID().toString().substring(0, 8) + "_" + timestamp + fileExtension;
-            
-            // 保存文件
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath);
-
-             // 保存映射
-            FileMapping mapping = new FileMapping();
-            mapping.setStoredName(subDir + "/" + uniqueFilename); // 存储名
-            mapping.setOriginalName(originalFilename);            // 真实名
-            mapping.setType(type);
             fileMappingMapper.insert(mapping);
-            
-            // 返回文件相对路径
-            return subDir + "/" + uniqueFilename;
-            
-        } catch (IOException e) {
-            log.error("文件上传失败", e);
-            throw new BusinessException("文件上传失败: " + e.getMessage());
+        } catch (RuntimeException e) {
+            contentAddressedFileStore.release(contentHash);
+            throw e;
         }
+        storedFileNameCache.register(storedName, originalFilename, contentHash);
+
+        // 返回文件相对路径
+        return storedName;
     }
     
     @Override
     public boolean deleteFile(String fileUrl) {
+        String relativePath = toRelativePath(fileUrl);
+
+        // 按内容保存的文件删除映射并减少引用，内容没有其他引用时由后台清理
+        FileMapping mapping = fileMappingMapper.selectOne(new LambdaQueryWrapper<FileMapping>()
+                .eq(FileMapping::getStoredName, relativePath)
+                .last("LIMIT 1"));
+        if (mapping != null && mapping.getContentHash() != null) {
+            fileMappingMapper.deleteById(mapping.getId());
+            contentAddressedFileStore.release(mapping.getContentHash());
+            storedFileNameCache.invalidate(relativePath);
+            log.info("文件已成功删除: {}", relativePath);
+            return true;
+        }
+
         try {
-            // 如果提供的是完整URL，转换为相对路径
-            String relativePath = fileUrl;
-            if (fileUrl.startsWith(getBaseUrl())) {
-                relativePath = fileUrl.substring(fileUrl.indexOf("/api/v1/files/") + "/api/v1/files/".length());
-            }
-            
             // 构建文件路径
             Path filePath = Paths.get(uploadBaseDir).resolve(relativePath).normalize();
             
@@ -143,6 +199,17 @@ public class FileServiceImpl implements FileService {
             return false;
         }
     }
+
+    /**
+     * 如果提供的是完整URL，转换为相对路径
+     */
+    private String toRelativePath(String fileUrl) {
+        String baseUrl = getBaseUrl();
+        if (baseUrl != null && fileUrl.startsWith(baseUrl)) {
+            return fileUrl.substring(fileUrl.indexOf("/api/v1/files/") + "/api/v1/files/".length());
+        }
+        return fileUrl;
+    }
     
     @Override
     public String getFullFileUrl(String relativePath) {
@@ -191,17 +258,13 @@ public class FileServiceImpl implements FileService {
     @Override
     public Resource loadFileAsResource(String fileUrl) {
         try {
-            // 如果提供的是完整URL，转换为相对路径
-            String relativePath = fileUrl;
-            if (fileUrl.startsWith(getBaseUrl())) {
-                relativePath = fileUrl.substring(fileUrl.indexOf("/api/v1/files/") + "/api/v1/files/".length());
-            }
+            String relativePath = toRelativePath(fileUrl);
             
-            // 构建文件路径
-            Path filePath = Paths.get(uploadBaseDir).resolve(relativePath).normalize();
+            // 构建文件路径，按内容保存的文件指向内容存储路径
+            Path filePath = resolveFile(relativePath);
             
             // 检查路径是否合法（防止目录遍历攻击）
-            if (!filePath.toFile().exists()) {
+            if (filePath == null || !filePath.toFile().exists()) {
                 throw new BusinessException("文件不存在: " + relativePath);
             }
             
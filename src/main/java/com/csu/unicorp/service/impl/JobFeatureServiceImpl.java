@@ -7,6 +7,7 @@ import com.csu.unicorp.mapper.job.JobCategoryRelationMapper;
 import com.csu.unicorp.mapper.job.JobMapper;
 import com.csu.unicorp.mapper.recommendation.JobFeatureMapper;
 import com.csu.unicorp.service.JobFeatureService;
+import com.csu.unicorp.service.impl.recommendation.JobRecommendationIndex;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +37,7 @@ public class JobFeatureServiceImpl implements JobFeatureService {
     private final JobFeatureMapper jobFeatureMapper;
     private final JobCategoryRelationMapper jobCategoryRelationMapper;
     private final ObjectMapper objectMapper;
+    private final JobRecommendationIndex jobRecommendationIndex;
     
     /**
      * 常见技能关键词
@@ -97,11 +99,16 @@ public class JobFeatureServiceImpl implements JobFeatureService {
         jobFeature.setUpdatedAt(LocalDateTime.now());
         
         // 保存特征
+        boolean saved;
         if (isNew) {
-            return jobFeatureMapper.insert(jobFeature) > 0;
+            saved = jobFeatureMapper.insert(jobFeature) > 0;
         } else {
-            return jobFeatureMapper.updateById(jobFeature) > 0;
+            saved = jobFeatureMapper.updateById(jobFeature) > 0;
         }
+        
+        // 增量更新岗位推荐索引
+        jobRecommendationIndex.refreshJob(jobId);
+        return saved;
     }
     
     /**
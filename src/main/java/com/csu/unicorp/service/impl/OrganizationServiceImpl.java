@@ -14,6 +14,7 @@ import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.service.OrganizationService;
 import com.csu.unicorp.service.RoleService;
 import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
 import com.csu.unicorp.vo.OrganizationSimpleVO;
 import com.csu.unicorp.vo.OrganizationVO;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +42,7 @@ public class OrganizationServiceImpl implements OrganizationService {
     private final PasswordEncoder passwordEncoder;
     private final AccountGenerator accountGenerator;
     private final FileService fileService;
+    private final SearchSuggester searchSuggester;
     
     @Override
     public List<?> getAllSchools(String view) {
@@ -110,6 +112,7 @@ public class OrganizationServiceImpl implements OrganizationService {
         }
         
         organizationMapper.insert(organization);
+        searchSuggester.refresh(SearchSuggester.Source.ORGANIZATION, organization.getOrganizationName());
         
         // 生成学校管理员账号
         String adminAccount = accountGenerator.generateStudentAccount(organization);
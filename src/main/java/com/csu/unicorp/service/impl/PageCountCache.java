@@ -0,0 +1,70 @@
+package com.csu.unicorp.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 分页总数缓存
+ * <p>
+ * 分页插件每次翻页都会先执行一次COUNT，筛选条件不变时总数几乎不变。这里按查询条件缓存总数：
+ * 缓存未命中时照常查询并记录总数，命中时关闭本次COUNT，直接填入缓存的总数。
+ * 总数是近似值，最多落后缓存有效期，新增或删除记录后可以按前缀主动失效。
+ */
+@Component
+public class PageCountCache {
+
+    @Value("${app.page-count.cache-max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.page-count.cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<String, Long> counts;
+
+    @PostConstruct
+    public void init() {
+        counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 执行分页查询，总数使用缓存
+     *
+     * @param key 查询条件，同一条件的查询总数相同，如 jobs:keyword=java
+     * @param page 分页参数
+     * @param query 分页查询
+     * @return 分页结果
+     */
+    public <T, P extends IPage<T>> P page(String key, Page<T> page, Function<Page<T>, P> query) {
+        Long cached = counts.getIfPresent(key);
+        page.setSearchCount(cached == null);
+        P result = query.apply(page);
+        if (cached == null) {
+            counts.put(key, result.getTotal());
+        } else {
+            result.setTotal(cached);
+        }
+        return result;
+    }
+
+    /**
+     * 使指定前缀的总数失效，在新增或删除记录后调用
+     *
+     * @param prefix 查询条件前缀，如 jobs:
+     */
+    public void invalidate(String prefix) {
+        counts.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+}
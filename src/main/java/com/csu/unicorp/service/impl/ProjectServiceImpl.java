@@ -16,6 +16,7 @@ import com.csu.unicorp.entity.ProjectApplication;
 import com.csu.unicorp.entity.User;
 import com.csu.unicorp.mapper.*;
 import com.csu.unicorp.service.ProjectService;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
 import com.csu.unicorp.vo.PageResultVO;
 import com.csu.unicorp.vo.ProjectVO;
 import org.springframework.beans.BeanUtils;
@@ -50,6 +51,8 @@ public class ProjectServiceImpl implements ProjectService {
     private ProjectApplicationMapper applicationMapper;
     @Autowired
     private FileMappingMapper fileMappingMapper;
+    @Autowired
+    private FullTextSearch fullTextSearch;
 
     public ProjectServiceImpl(ProjectMapper projectMapper) { this.projectMapper = projectMapper; }
 
@@ -68,6 +71,7 @@ public class ProjectServiceImpl implements ProjectService {
             // status直接用前端传入的
             project.setStatus(dto.getStatus());
             projectMapper.updateById(project);
+            fullTextSearch.refresh(FullTextSearch.Target.PROJECT, project.getProjectId());
         } else {
             // 新建
             project = new Project();
@@ -78,6 +82,7 @@ public class ProjectServiceImpl implements ProjectService {
             // status直接用前端传入的
             project.setStatus(dto.getStatus());
             projectMapper.insert(project);
+            fullTextSearch.refresh(FullTextSearch.Target.PROJECT, project.getProjectId());
         }
         ProjectVO vo = new ProjectVO();
         BeanUtils.copyProperties(project, vo);
@@ -99,6 +104,7 @@ public ProjectVO updateProject(ProjectCreationDTO dto) {
         project.setAttachments(String.join(",", dto.getAttachments()));
     }
     projectMapper.updateById(project);
+    fullTextSearch.refresh(FullTextSearch.Target.PROJECT, project.getProjectId());
 
     ProjectVO vo = new ProjectVO();
     BeanUtils.copyProperties(project, vo);
@@ -119,7 +125,13 @@ public ProjectVO updateProject(ProjectCreationDTO dto) {
             wrapper.in("field", fieldList);
         }
         if (keyword != null && !keyword.isEmpty()) {
-            wrapper.and(w -> w.like("title", keyword).or().like("description", keyword));
+            List<Long> matchedIds = fullTextSearch.search(FullTextSearch.Target.PROJECT, keyword);
+            if (matchedIds != null) {
+                if (matchedIds.isEmpty()) {
+                    return new PageResultVO<>(0, Collections.emptyList());
+                }
+                wrapper.in("project_id", matchedIds);
+            }
         }
     
         // 组织优先
@@ -239,7 +251,13 @@ public PageResultVO<ProjectVO> getProjectList(String status, String initiatorTyp
         wrapper.in("field", fieldList);
     }
     if (keyword != null && !keyword.isEmpty()) {
-        wrapper.and(w -> w.like("title", keyword).or().like("description", keyword));
+        List<Long> matchedIds = fullTextSearch.search(FullTextSearch.Target.PROJECT, keyword);
+        if (matchedIds != null) {
+            if (matchedIds.isEmpty()) {
+                return new PageResultVO<>(0, Collections.emptyList());
+            }
+            wrapper.in("project_id", matchedIds);
+        }
     }
 
     // 组织优先
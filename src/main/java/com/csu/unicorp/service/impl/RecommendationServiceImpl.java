@@ -23,6 +23,12 @@ import com.csu.unicorp.mapper.recommendation.TalentRecommendationMapper;
 import com.csu.unicorp.mapper.recommendation.UserBehaviorMapper;
 import com.csu.unicorp.mapper.recommendation.UserFeatureMapper;
 import com.csu.unicorp.service.RecommendationService;
+import com.csu.unicorp.service.impl.recommendation.JobFeatureVector;
+import com.csu.unicorp.service.impl.recommendation.JobMatchScorer;
+import com.csu.unicorp.service.impl.recommendation.JobRecommendationIndex;
+import com.csu.unicorp.service.impl.recommendation.TalentMatchingPipeline;
+import com.csu.unicorp.service.impl.recommendation.UserFeatureVector;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
 import com.csu.unicorp.vo.JobCategoryVO;
 import com.csu.unicorp.vo.JobRecommendationVO;
 import com.csu.unicorp.vo.StudentTalentVO;
@@ -41,8 +47,11 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +70,19 @@ public class RecommendationServiceImpl implements RecommendationService {
     private final JobMapper jobMapper;
     private final JobCategoryMapper jobCategoryMapper;
     private final ObjectMapper objectMapper;
+    private final JobRecommendationIndex jobRecommendationIndex;
+    private final TalentMatchingPipeline talentMatchingPipeline;
+    private final SearchSuggester searchSuggester;
+
+    /**
+     * 每次为学生生成的岗位推荐数量
+     */
+    private static final int JOB_RECOMMENDATION_LIMIT = 10;
+
+    /**
+     * 每次为企业生成的人才推荐数量
+     */
+    private static final int TALENT_RECOMMENDATION_LIMIT = 10;
 
     // 行为权重配置
     private static final Map<String, Double> BEHAVIOR_WEIGHTS = Map.of(
@@ -176,7 +198,11 @@ public class RecommendationServiceImpl implements RecommendationService {
         behavior.setSearchKeyword(behaviorDTO.getSearchKeyword());
         behavior.setOccurredAt(LocalDateTime.now());
         
-        return userBehaviorMapper.insert(behavior) > 0;
+        boolean inserted = userBehaviorMapper.insert(behavior) > 0;
+        if (inserted && "search".equals(behaviorType)) {
+            searchSuggester.recordSearch(userId, behavior.getSearchKeyword());
+        }
+        return inserted;
     }
 
     @Override
@@ -312,53 +338,36 @@ public class RecommendationServiceImpl implements RecommendationService {
             return 0;
         }
         
-        // 获取所有开放状态的岗位特征
-        List<JobFeature> allJobFeatures = jobFeatureMapper.selectAllActiveJobFeatures();
-        if (allJobFeatures.isEmpty()) {
+        // 通过岗位推荐索引选出最匹配的前10个岗位
+        UserFeatureVector userVector = UserFeatureVector.of(userFeature, objectMapper);
+        List<JobRecommendationIndex.ScoredJob> topJobs = jobRecommendationIndex.topK(userVector, JOB_RECOMMENDATION_LIMIT);
+        if (topJobs.isEmpty()) {
             log.warn("没有可用的岗位特征，无法生成推荐");
             return 0;
         }
         
-        // 计算用户与每个岗位的匹配度
-        List<Map.Entry<Integer, Double>> jobScores = new ArrayList<>();
-        
-        for (JobFeature jobFeature : allJobFeatures) {
-            // 计算匹配分数
-            double score = calculateMatchScore(userFeature, jobFeature);
-            jobScores.add(Map.entry(jobFeature.getJobId(), score));
-        }
-        
-        // 按分数降序排序
-        jobScores.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+        // 已推荐过的岗位只刷新分数和原因，不计入新生成数量
+        List<Integer> jobIds = topJobs.stream()
+                .map(JobRecommendationIndex.ScoredJob::getJobId)
+                .collect(Collectors.toList());
+        Set<Integer> existingJobIds = new HashSet<>(jobRecommendationMapper.selectExistingJobIds(userId, jobIds));
         
-        // 取前10个最匹配的岗位
-        int count = 0;
-        for (int i = 0; i < Math.min(10, jobScores.size()); i++) {
-            Map.Entry<Integer, Double> entry = jobScores.get(i);
-            Integer jobId = entry.getKey();
-            Double score = entry.getValue();
-            
-            // 检查是否已推荐过
-            int existingCount = jobRecommendationMapper.countExistingRecommendation(userId, jobId);
-            if (existingCount > 0) {
-                continue;
-            }
-            
-            // 创建推荐记录
+        LocalDateTime now = LocalDateTime.now();
+        List<JobRecommendation> recommendations = new ArrayList<>(topJobs.size());
+        for (JobRecommendationIndex.ScoredJob scoredJob : topJobs) {
             JobRecommendation recommendation = new JobRecommendation();
             recommendation.setUserId(userId);
-            recommendation.setJobId(jobId);
-            recommendation.setScore(score);
-            recommendation.setReason(generateRecommendationReason(userFeature, jobFeatureMapper.selectByJobId(jobId)));
+            recommendation.setJobId(scoredJob.getJobId());
+            recommendation.setScore(scoredJob.getScore());
+            recommendation.setReason(JobMatchScorer.reason(userVector, scoredJob.getVector()));
             recommendation.setStatus("new");
-            recommendation.setCreatedAt(LocalDateTime.now());
-            recommendation.setUpdatedAt(LocalDateTime.now());
-            
-            jobRecommendationMapper.insert(recommendation);
-            count++;
+            recommendation.setCreatedAt(now);
+            recommendation.setUpdatedAt(now);
+            recommendations.add(recommendation);
         }
+        jobRecommendationMapper.batchUpsert(recommendations);
         
-        return count;
+        return (int) jobIds.stream().filter(jobId -> !existingJobIds.contains(jobId)).count();
     }
 
     @Override
@@ -377,70 +386,49 @@ public class RecommendationServiceImpl implements RecommendationService {
             return 0;
         }
         
-        // 获取所有学生用户特征
-        List<UserFeature> allStudentFeatures = userFeatureMapper.selectAllStudentFeatures();
-        if (allStudentFeatures.isEmpty()) {
-            log.warn("没有可用的学生特征，无法生成推荐");
-            return 0;
+        // 一次性预加载组织岗位的特征向量
+        Map<Integer, JobFeature> featureByJobId = jobFeatureMapper.selectByJobIds(
+                        organizationJobs.stream().map(Job::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(JobFeature::getJobId, Function.identity(), (a, b) -> a));
+        List<JobFeatureVector> jobVectors = new ArrayList<>(organizationJobs.size());
+        for (Job job : organizationJobs) {
+            JobFeature jobFeature = featureByJobId.get(job.getId());
+            if (jobFeature != null) {
+                jobVectors.add(JobFeatureVector.of(jobFeature, job, objectMapper));
+            }
         }
         
-        // 计算每个学生与组织岗位的最高匹配度
-        Map<Integer, Double> studentScores = new HashMap<>();
-        Map<Integer, String> studentReasons = new HashMap<>();
-        
-        for (UserFeature studentFeature : allStudentFeatures) {
-            double maxScore = 0.0;
-            String bestReason = "";
-            
-            for (Job job : organizationJobs) {
-                JobFeature jobFeature = jobFeatureMapper.selectByJobId(job.getId());
-                if (jobFeature != null) {
-                    double score = calculateMatchScore(studentFeature, jobFeature);
-                    if (score > maxScore) {
-                        maxScore = score;
-                        bestReason = "与贵公司的 " + job.getTitle() + " 岗位匹配度高";
-                    }
-                }
-            }
-            
-            if (maxScore > 0) {
-                studentScores.put(studentFeature.getUserId(), maxScore);
-                studentReasons.put(studentFeature.getUserId(), bestReason);
-            }
+        // 流式读取学生特征并分块并行打分，取前10个最匹配的学生
+        List<TalentMatchingPipeline.TalentMatch> topStudents = talentMatchingPipeline.match(jobVectors, TALENT_RECOMMENDATION_LIMIT);
+        if (topStudents.isEmpty()) {
+            log.warn("没有可用的学生特征，无法生成推荐");
+            return 0;
         }
         
-        // 按分数降序排序
-        List<Map.Entry<Integer, Double>> sortedStudents = new ArrayList<>(studentScores.entrySet());
-        sortedStudents.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+        // 已推荐过的学生只刷新分数和原因，不计入新生成数量
+        List<Integer> studentIds = topStudents.stream()
+                .map(TalentMatchingPipeline.TalentMatch::getStudentId)
+                .collect(Collectors.toList());
+        Set<Integer> existingStudentIds = new HashSet<>(
+                talentRecommendationMapper.selectExistingStudentIds(organizationId, studentIds));
         
-        // 取前10个最匹配的学生
-        int count = 0;
-        for (int i = 0; i < Math.min(10, sortedStudents.size()); i++) {
-            Map.Entry<Integer, Double> entry = sortedStudents.get(i);
-            Integer studentId = entry.getKey();
-            Double score = entry.getValue();
-            
-            // 检查是否已推荐过
-            int existingCount = talentRecommendationMapper.countExistingRecommendation(organizationId, studentId);
-            if (existingCount > 0) {
-                continue;
-            }
-            
-            // 创建推荐记录
+        LocalDateTime now = LocalDateTime.now();
+        List<TalentRecommendation> recommendations = new ArrayList<>(topStudents.size());
+        for (TalentMatchingPipeline.TalentMatch match : topStudents) {
             TalentRecommendation recommendation = new TalentRecommendation();
             recommendation.setOrganizationId(organizationId);
-            recommendation.setStudentId(studentId);
-            recommendation.setScore(score);
-            recommendation.setReason(studentReasons.get(studentId));
+            recommendation.setStudentId(match.getStudentId());
+            recommendation.setScore(match.getScore());
+            recommendation.setReason(match.getReason());
             recommendation.setStatus("new");
-            recommendation.setCreatedAt(LocalDateTime.now());
-            recommendation.setUpdatedAt(LocalDateTime.now());
-            
-            talentRecommendationMapper.insert(recommendation);
-            count++;
+            recommendation.setCreatedAt(now);
+            recommendation.setUpdatedAt(now);
+            recommendations.add(recommendation);
         }
+        talentRecommendationMapper.batchUpsert(recommendations);
         
-        return count;
+        return (int) studentIds.stream().filter(studentId -> !existingStudentIds.contains(studentId)).count();
     }
 
     @Override
@@ -466,202 +454,4 @@ public class RecommendationServiceImpl implements RecommendationService {
         
         return statistics;
     }
-    
-    /**
-     * 计算用户特征与岗位特征的匹配分数
-     */
-    private double calculateMatchScore(UserFeature userFeature, JobFeature jobFeature) {
-        double score = 0.0;
-        
-        // 1. 基于专业匹配
-        if (userFeature.getMajor() != null && jobFeature.getKeywords() != null) {
-            if (jobFeature.getKeywords().contains(userFeature.getMajor())) {
-                score += 10.0;
-            }
-        }
-        
-        // 2. 基于技能匹配
-        try {
-            if (StringUtils.hasText(userFeature.getSkills()) && StringUtils.hasText(jobFeature.getRequiredSkills())) {
-                List<String> userSkills = objectMapper.readValue(userFeature.getSkills(), new TypeReference<List<String>>() {});
-                List<String> jobSkills = objectMapper.readValue(jobFeature.getRequiredSkills(), new TypeReference<List<String>>() {});
-                
-                // 计算技能匹配度
-                int matchedSkills = 0;
-                for (String skill : userSkills) {
-                    if (jobSkills.contains(skill)) {
-                        matchedSkills++;
-                    }
-                }
-                
-                if (!jobSkills.isEmpty()) {
-                    score += 20.0 * ((double) matchedSkills / jobSkills.size());
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("解析技能JSON失败", e);
-        }
-        
-        // 3. 基于兴趣与岗位关键词匹配
-        try {
-            if (StringUtils.hasText(userFeature.getInterests()) && StringUtils.hasText(jobFeature.getKeywords())) {
-                List<String> userInterests = objectMapper.readValue(userFeature.getInterests(), new TypeReference<List<String>>() {});
-                List<String> jobKeywords = objectMapper.readValue(jobFeature.getKeywords(), new TypeReference<List<String>>() {});
-                
-                // 计算兴趣匹配度
-                int matchedInterests = 0;
-                for (String interest : userInterests) {
-                    for (String keyword : jobKeywords) {
-                        if (keyword.contains(interest) || interest.contains(keyword)) {
-                            matchedInterests++;
-                            break;
-                        }
-                    }
-                }
-                
-                if (!userInterests.isEmpty()) {
-                    score += 15.0 * ((double) matchedInterests / userInterests.size());
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("解析兴趣/关键词JSON失败", e);
-        }
-        
-        // 4. 基于学历匹配
-        if (userFeature.getEducationLevel() != null && jobFeature.getJobId() != null) {
-            Job job = jobMapper.selectById(jobFeature.getJobId());
-            if (job != null && job.getEducationRequirement() != null) {
-                // 学历等级映射
-                Map<String, Integer> eduLevels = Map.of(
-                        "bachelor", 1,
-                        "master", 2,
-                        "doctorate", 3,
-                        "any", 0
-                );
-                
-                Integer userEduLevel = eduLevels.getOrDefault(userFeature.getEducationLevel(), 0);
-                Integer jobEduLevel = eduLevels.getOrDefault(job.getEducationRequirement(), 0);
-                
-                // 如果用户学历符合或高于要求
-                if (jobEduLevel == 0 || userEduLevel >= jobEduLevel) {
-                    score += 15.0;
-                } else {
-                    // 学历不符合要求，降低分数
-                    score -= 10.0;
-                }
-            }
-        }
-        
-        // 5. 基于工作地点偏好匹配
-        if (userFeature.getPreferredLocation() != null && jobFeature.getJobId() != null) {
-            Job job = jobMapper.selectById(jobFeature.getJobId());
-            if (job != null && job.getLocation() != null) {
-                if (job.getLocation().contains(userFeature.getPreferredLocation()) || 
-                    userFeature.getPreferredLocation().contains(job.getLocation())) {
-                    score += 10.0;
-                }
-            }
-        }
-        
-        // 6. 基于工作类型偏好匹配
-        if (userFeature.getPreferredJobType() != null && jobFeature.getJobId() != null) {
-            Job job = jobMapper.selectById(jobFeature.getJobId());
-            if (job != null && job.getJobType() != null) {
-                if (job.getJobType().equals(userFeature.getPreferredJobType())) {
-                    score += 10.0;
-                }
-            }
-        }
-        
-        return Math.max(0, score);
-    }
-    
-    /**
-     * 生成推荐原因
-     */
-    private String generateRecommendationReason(UserFeature userFeature, JobFeature jobFeature) {
-        if (jobFeature == null || jobFeature.getJobId() == null) {
-            return "根据您的个人特征推荐";
-        }
-        
-        Job job = jobMapper.selectById(jobFeature.getJobId());
-        if (job == null) {
-            return "根据您的个人特征推荐";
-        }
-        
-        List<String> reasons = new ArrayList<>();
-        
-        // 1. 基于专业匹配
-        if (userFeature.getMajor() != null && jobFeature.getKeywords() != null) {
-            if (jobFeature.getKeywords().contains(userFeature.getMajor())) {
-                reasons.add("与您的专业相关");
-            }
-        }
-        
-        // 2. 基于技能匹配
-        try {
-            if (StringUtils.hasText(userFeature.getSkills()) && StringUtils.hasText(jobFeature.getRequiredSkills())) {
-                List<String> userSkills = objectMapper.readValue(userFeature.getSkills(), new TypeReference<List<String>>() {});
-                List<String> jobSkills = objectMapper.readValue(jobFeature.getRequiredSkills(), new TypeReference<List<String>>() {});
-                
-                List<String> matchedSkills = userSkills.stream()
-                        .filter(jobSkills::contains)
-                        .collect(Collectors.toList());
-                
-                if (!matchedSkills.isEmpty()) {
-                    if (matchedSkills.size() == 1) {
-                        reasons.add("需要您掌握的" + matchedSkills.get(0) + "技能");
-                    } else {
-                        reasons.add("需要您掌握的多项技能");
-                    }
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("解析技能JSON失败", e);
-        }
-        
-        // 3. 基于工作地点偏好匹配
-        if (userFeature.getPreferredLocation() != null && job.getLocation() != null) {
-            if (job.getLocation().contains(userFeature.getPreferredLocation()) || 
-                userFeature.getPreferredLocation().contains(job.getLocation())) {
-                reasons.add("位于您偏好的" + job.getLocation() + "地区");
-            }
-        }
-        
-        // 4. 基于工作类型偏好匹配
-        if (userFeature.getPreferredJobType() != null && job.getJobType() != null) {
-            if (job.getJobType().equals(userFeature.getPreferredJobType())) {
-                String jobTypeDesc = "";
-                switch (job.getJobType()) {
-                    case "full_time":
-                        jobTypeDesc = "全职";
-                        break;
-                    case "part_time":
-                        jobTypeDesc = "兼职";
-                        break;
-                    case "internship":
-                        jobTypeDesc = "实习";
-                        break;
-                    case "remote":
-                        jobTypeDesc = "远程";
-                        break;
-                    default:
-                        jobTypeDesc = job.getJobType();
-                }
-                reasons.add("符合您偏好的" + jobTypeDesc + "工作类型");
-            }
-        }
-        
-        // 如果没有具体原因，返回默认原因
-        if (reasons.isEmpty()) {
-            return "根据您的个人特征推荐";
-        }
-        
-        // 最多返回两个原因
-        if (reasons.size() > 2) {
-            reasons = reasons.subList(0, 2);
-        }
-        
-        return String.join("，", reasons);
-    }
-} 
\ No newline at end of file
+}
@@ -2,39 +2,114 @@ package com.csu.unicorp.service.impl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.csu.unicorp.common.constants.CacheConstants;
 import com.csu.unicorp.service.CacheService;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Redis缓存服务实现类
+ * <p>
+ * 采用两级缓存：<br>
+ * 1. 一级缓存（L1）为进程内的Caffeine缓存（W-TinyLFU淘汰策略），有容量上限，按条目过期时间主动清理；<br>
+ * 2. 二级缓存为Redis。<br>
+ * 只有在{@link #LOCAL_POLICIES}中配置了本地过期时间的键前缀才会在Redis正常时由L1直接响应，
+ * 其他键的L1条目只在Redis不可用时作为降级数据使用。
+ * 从Redis回填L1时，本地过期时间不超过Redis中该键的剩余过期时间，Redis中过期的键不会继续由L1响应。
+ * L1中保存的是值的JSON树快照，每次读取都会重新转换出新对象，调用方修改返回值不会影响缓存。
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RedisCacheServiceImpl implements CacheService {
 
+    /**
+     * 本地缓存键前缀与本地过期时间（秒）的对应关系，按最长前缀匹配
+     */
+    private static final Map<String, Long> LOCAL_POLICIES = new LinkedHashMap<>();
+
+    static {
+        // 分类数据
+        LOCAL_POLICIES.put(CacheConstants.CATEGORY_TREE_CACHE_KEY, CacheConstants.LOCAL_CATEGORY_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.ALL_CATEGORIES_CACHE_KEY, CacheConstants.LOCAL_CATEGORY_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.CATEGORY_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_CATEGORY_CACHE_EXPIRE_TIME);
+        // 热门/最新列表
+        LOCAL_POLICIES.put(CacheConstants.HOT_TOPICS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.LATEST_TOPICS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.FEATURED_TOPICS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.HOT_QUESTIONS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.LATEST_QUESTIONS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.UNSOLVED_QUESTIONS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.HOT_TAGS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.ALL_TAGS_CACHE_KEY, CacheConstants.LOCAL_LIST_CACHE_EXPIRE_TIME);
+        // 内容详情
+        LOCAL_POLICIES.put(CacheConstants.TOPIC_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_DETAIL_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.QUESTION_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_DETAIL_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.ANSWER_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_DETAIL_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.COMMENT_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_DETAIL_CACHE_EXPIRE_TIME);
+        LOCAL_POLICIES.put(CacheConstants.TAG_DETAIL_CACHE_KEY_PREFIX, CacheConstants.LOCAL_DETAIL_CACHE_EXPIRE_TIME);
+    }
+
+    /**
+     * 版本号分段数，必须是2的幂
+     */
+    private static final int VERSION_STRIPES = 256;
+
+    /**
+     * 表示条目永不过期
+     */
+    private static final long NEVER = Long.MAX_VALUE;
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
-    
-    // 内存缓存，用于Redis不可用时的降级处理
-    private final Map<String, Object> localCache = new HashMap<>();
-    private final Map<String, Long> localCacheExpiry = new HashMap<>();
-    
+    private final CacheKeyIndex cacheKeyIndex;
+
+    @Value("${app.cache.local.max-size:10000}")
+    private long localCacheMaxSize;
+
+    /**
+     * 一级缓存，同时用于Redis不可用时的降级处理
+     */
+    private Cache<String, LocalEntry> localCache;
+
+    /**
+     * 分段版本号，每次写入或失效时递增。
+     * 读线程从Redis回填L1前会检查版本号，避免把并发写入之前读到的旧值回填进L1
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    @PostConstruct
+    public void initLocalCache() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localCacheMaxSize)
+                .expireAfter(new LocalEntryExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
     /**
      * 执行Redis操作，如果Redis不可用则进行降级处理
      * @param redisOperation Redis操作
@@ -57,12 +132,11 @@ public class RedisCacheServiceImpl implements CacheService {
     public void set(String key, Object value, long timeout, TimeUnit unit) {
         executeWithFallback(() -> {
             redisTemplate.opsForValue().set(key, value, timeout, unit);
+            cacheKeyIndex.register(key, timeout, unit);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, value);
-            // 计算过期时间（毫秒）
-            long expireTime = System.currentTimeMillis() + unit.toMillis(timeout);
-            localCacheExpiry.put(key, expireTime);
+            putLocal(key, snapshot(value), expireAt(timeout, unit));
             return null;
         });
     }
@@ -71,31 +145,41 @@ public class RedisCacheServiceImpl implements CacheService {
     public void set(String key, Object value) {
         executeWithFallback(() -> {
             redisTemplate.opsForValue().set(key, value);
+            cacheKeyIndex.register(key, -1, TimeUnit.SECONDS);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, value);
+            putLocal(key, snapshot(value), NEVER);
             return null;
         });
     }
 
     @Override
     public <T> T get(String key, Class<T> clazz) {
+        LocalEntry fresh = getFreshLocal(key);
+        if (fresh != null && fresh.value instanceof JsonNode) {
+            T cached = fromSnapshot((JsonNode) fresh.value, clazz);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         return executeWithFallback(() -> {
+            long version = version(key);
             Object value = redisTemplate.opsForValue().get(key);
             if (value == null) {
                 return null;
             }
-            
+
+            T result;
             try {
                 // 如果需要的类型就是String，并且值也是String，直接返回
                 if (clazz == String.class && value instanceof String) {
-                    return (T) value;
-                }
-                
-                // 如果值是String类型，尝试JSON解析
-                if (value instanceof String) {
+                    result = (T) value;
+                } else if (value instanceof String) {
+                    // 如果值是String类型，尝试JSON解析
                     try {
-                        return objectMapper.readValue((String) value, clazz);
+                        result = objectMapper.readValue((String) value, clazz);
                     } catch (Exception e) {
                         // 如果JSON解析失败，但目标类型是String，直接返回原始字符串
                         if (clazz == String.class) {
@@ -105,37 +189,21 @@ public class RedisCacheServiceImpl implements CacheService {
                         throw e;
                     }
                 } else {
-                    return objectMapper.convertValue(value, clazz);
+                    result = objectMapper.convertValue(value, clazz);
                 }
             } catch (Exception e) {
                 log.error("Redis缓存转换异常: {}", e.getMessage());
                 return null;
             }
+
+            populateLocal(key, version, result);
+            return result;
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return null;
-            }
-            
-            Object value = localCache.get(key);
-            if (value == null) {
-                return null;
-            }
-            
-            try {
-                // 如果需要的类型就是String，并且值也是String，直接返回
-                if (clazz == String.class && value instanceof String) {
-                    return (T) value;
-                }
-                
-                return objectMapper.convertValue(value, clazz);
-            } catch (Exception e) {
-                log.error("本地缓存转换异常: {}", e.getMessage());
+            LocalEntry entry = getLocal(key);
+            if (entry == null || !(entry.value instanceof JsonNode)) {
                 return null;
             }
+            return fromSnapshot((JsonNode) entry.value, clazz);
         });
     }
 
@@ -143,10 +211,10 @@ public class RedisCacheServiceImpl implements CacheService {
     public boolean delete(String key) {
         return executeWithFallback(() -> {
             Boolean result = redisTemplate.delete(key);
+            invalidateLocal(key);
             return Boolean.TRUE.equals(result);
         }, () -> {
-            localCache.remove(key);
-            localCacheExpiry.remove(key);
+            invalidateLocal(key);
             return true;
         });
     }
@@ -154,33 +222,25 @@ public class RedisCacheServiceImpl implements CacheService {
     @Override
     public long deleteByPattern(String pattern) {
         return executeWithFallback(() -> {
-            Set<String> keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                Long count = redisTemplate.delete(keys);
-                return count != null ? count : 0;
-            }
-            return 0L;
-        }, () -> {
-            // 简单模式匹配实现
-            long count = 0;
-            List<String> keysToRemove = new ArrayList<>();
-            
-            for (String key : localCache.keySet()) {
-                if (matchesPattern(key, pattern)) {
-                    keysToRemove.add(key);
-                    count++;
-                }
+            Long count = cacheKeyIndex.invalidate(pattern);
+            if (count == null) {
+                log.debug("缓存模式{}没有成员索引，使用SCAN删除", pattern);
+                count = cacheKeyIndex.scanAndDelete(pattern);
             }
-            
-            for (String key : keysToRemove) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-            }
-            
+            invalidateLocalByPattern(pattern);
             return count;
-        });
+        }, () -> invalidateLocalByPattern(pattern));
+    }
+
+    @Override
+    public long deleteByScan(String pattern) {
+        return executeWithFallback(() -> {
+            long count = cacheKeyIndex.scanAndDelete(pattern);
+            invalidateLocalByPattern(pattern);
+            return count;
+        }, () -> invalidateLocalByPattern(pattern));
     }
-    
+
     /**
      * 简单的模式匹配实现
      */
@@ -196,83 +256,70 @@ public class RedisCacheServiceImpl implements CacheService {
     public boolean expire(String key, long timeout, TimeUnit unit) {
         return executeWithFallback(() -> {
             Boolean result = redisTemplate.expire(key, timeout, unit);
+            invalidateLocal(key);
             return Boolean.TRUE.equals(result);
         }, () -> {
-            if (localCache.containsKey(key)) {
-                long expireTime = System.currentTimeMillis() + unit.toMillis(timeout);
-                localCacheExpiry.put(key, expireTime);
-                return true;
-            }
-            return false;
+            bumpVersion(key);
+            LocalEntry updated = localCache.asMap().computeIfPresent(key,
+                    (k, entry) -> new LocalEntry(entry.value, expireAt(timeout, unit), 0L));
+            return updated != null;
         });
     }
 
     @Override
     public boolean hasKey(String key) {
+        // 以Redis为准，L1只在Redis不可用时使用
         return executeWithFallback(() -> {
             Boolean result = redisTemplate.hasKey(key);
             return Boolean.TRUE.equals(result);
-        }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return false;
-            }
-            return localCache.containsKey(key);
-        });
+        }, () -> getLocal(key) != null);
     }
 
     @Override
     public <T> List<T> getList(String key, Class<T> clazz) {
+        JavaType javaType = objectMapper.getTypeFactory().constructParametricType(List.class, clazz);
+
+        LocalEntry fresh = getFreshLocal(key);
+        if (fresh != null && fresh.value instanceof JsonNode && ((JsonNode) fresh.value).isArray()) {
+            List<T> cached = fromSnapshot((JsonNode) fresh.value, javaType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         return executeWithFallback(() -> {
+            long version = version(key);
             Object value = redisTemplate.opsForValue().get(key);
             if (value == null) {
                 return new ArrayList<>();
             }
-            
+
+            List<T> result;
             try {
-                JavaType javaType = objectMapper.getTypeFactory().constructParametricType(List.class, clazz);
                 if (value instanceof String) {
-                    return objectMapper.readValue((String) value, javaType);
+                    result = objectMapper.readValue((String) value, javaType);
                 } else if (value instanceof List) {
                     List<?> list = (List<?>) value;
-                    return list.stream()
+                    result = list.stream()
                             .map(item -> objectMapper.convertValue(item, clazz))
                             .collect(Collectors.toList());
+                } else {
+                    return new ArrayList<>();
                 }
-                return new ArrayList<>();
             } catch (Exception e) {
                 log.error("Redis列表缓存转换异常: {}", e.getMessage());
                 return new ArrayList<>();
             }
+
+            populateLocal(key, version, result);
+            return result;
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return new ArrayList<>();
-            }
-            
-            Object value = localCache.get(key);
-            if (value == null) {
-                return new ArrayList<>();
-            }
-            
-            try {
-                if (value instanceof List) {
-                    List<?> list = (List<?>) value;
-                    return list.stream()
-                            .map(item -> objectMapper.convertValue(item, clazz))
-                            .collect(Collectors.toList());
-                }
-                return new ArrayList<>();
-            } catch (Exception e) {
-                log.error("本地列表缓存转换异常: {}", e.getMessage());
+            LocalEntry entry = getLocal(key);
+            if (entry == null || !(entry.value instanceof JsonNode) || !((JsonNode) entry.value).isArray()) {
                 return new ArrayList<>();
             }
+            List<T> result = fromSnapshot((JsonNode) entry.value, javaType);
+            return result != null ? result : new ArrayList<>();
         });
     }
 
@@ -280,11 +327,11 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> void setList(String key, List<T> list, long timeout, TimeUnit unit) {
         executeWithFallback(() -> {
             redisTemplate.opsForValue().set(key, list, timeout, unit);
+            cacheKeyIndex.register(key, timeout, unit);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, list);
-            long expireTime = System.currentTimeMillis() + unit.toMillis(timeout);
-            localCacheExpiry.put(key, expireTime);
+            putLocal(key, snapshot(list), expireAt(timeout, unit));
             return null;
         });
     }
@@ -293,9 +340,11 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> void setList(String key, List<T> list) {
         executeWithFallback(() -> {
             redisTemplate.opsForValue().set(key, list);
+            cacheKeyIndex.register(key, -1, TimeUnit.SECONDS);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, list);
+            putLocal(key, snapshot(list), NEVER);
             return null;
         });
     }
@@ -305,19 +354,8 @@ public class RedisCacheServiceImpl implements CacheService {
         return executeWithFallback(() -> {
             return redisTemplate.opsForHash().entries(key);
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return new HashMap<>();
-            }
-            
-            Object value = localCache.get(key);
-            if (value instanceof Map) {
-                return (Map<Object, Object>) value;
-            }
-            return new HashMap<>();
+            Map<Object, Object> hash = localHash(key);
+            return hash != null ? new HashMap<>(hash) : new HashMap<>();
         });
     }
 
@@ -326,11 +364,11 @@ public class RedisCacheServiceImpl implements CacheService {
         executeWithFallback(() -> {
             redisTemplate.opsForHash().putAll(key, map);
             redisTemplate.expire(key, timeout, unit);
+            cacheKeyIndex.register(key, timeout, unit);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, map);
-            long expireTime = System.currentTimeMillis() + unit.toMillis(timeout);
-            localCacheExpiry.put(key, expireTime);
+            putLocal(key, new ConcurrentHashMap<Object, Object>(map), expireAt(timeout, unit));
             return null;
         });
     }
@@ -339,9 +377,11 @@ public class RedisCacheServiceImpl implements CacheService {
     public void setHash(String key, Map<String, Object> map) {
         executeWithFallback(() -> {
             redisTemplate.opsForHash().putAll(key, map);
+            cacheKeyIndex.register(key, -1, TimeUnit.SECONDS);
+            invalidateLocal(key);
             return null;
         }, () -> {
-            localCache.put(key, map);
+            putLocal(key, new ConcurrentHashMap<Object, Object>(map), NEVER);
             return null;
         });
     }
@@ -350,12 +390,20 @@ public class RedisCacheServiceImpl implements CacheService {
     public void setHashField(String key, String field, Object value) {
         executeWithFallback(() -> {
             redisTemplate.opsForHash().put(key, field, value);
+            invalidateLocal(key);
             return null;
         }, () -> {
+            bumpVersion(key);
             // 获取或创建哈希表
-            Map<String, Object> hash = (Map<String, Object>) localCache.getOrDefault(key, new HashMap<>());
-            hash.put(field, value);
-            localCache.put(key, hash);
+            localCache.asMap().compute(key, (k, entry) -> {
+                if (entry != null && entry.value instanceof ConcurrentHashMap) {
+                    ((Map<Object, Object>) entry.value).put(field, value);
+                    return entry;
+                }
+                Map<Object, Object> hash = new ConcurrentHashMap<>();
+                hash.put(field, value);
+                return new LocalEntry(hash, NEVER, 0L);
+            });
             return null;
         });
     }
@@ -367,7 +415,7 @@ public class RedisCacheServiceImpl implements CacheService {
             if (value == null) {
                 return null;
             }
-            
+
             try {
                 return objectMapper.convertValue(value, clazz);
             } catch (Exception e) {
@@ -375,24 +423,13 @@ public class RedisCacheServiceImpl implements CacheService {
                 return null;
             }
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return null;
-            }
-            
-            Object hashObj = localCache.get(key);
-            if (hashObj instanceof Map) {
-                Map<String, Object> hash = (Map<String, Object>) hashObj;
-                Object value = hash.get(field);
-                if (value != null) {
-                    try {
-                        return objectMapper.convertValue(value, clazz);
-                    } catch (Exception e) {
-                        log.error("本地Hash字段转换异常: {}", e.getMessage());
-                    }
+            Map<Object, Object> hash = localHash(key);
+            Object value = hash != null ? hash.get(field) : null;
+            if (value != null) {
+                try {
+                    return objectMapper.convertValue(value, clazz);
+                } catch (Exception e) {
+                    log.error("本地Hash字段转换异常: {}", e.getMessage());
                 }
             }
             return null;
@@ -402,102 +439,280 @@ public class RedisCacheServiceImpl implements CacheService {
     @Override
     public Long deleteHashFields(String key, Object... fields) {
         return executeWithFallback(() -> {
-            return redisTemplate.opsForHash().delete(key, fields);
+            Long count = redisTemplate.opsForHash().delete(key, fields);
+            invalidateLocal(key);
+            return count;
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
+            Map<Object, Object> hash = localHash(key);
+            if (hash == null) {
                 return 0L;
             }
-            
-            Object hashObj = localCache.get(key);
-            if (hashObj instanceof Map) {
-                Map<String, Object> hash = (Map<String, Object>) hashObj;
-                long count = 0;
-                for (Object field : fields) {
-                    if (hash.remove(field) != null) {
-                        count++;
-                    }
+            long count = 0;
+            for (Object field : fields) {
+                if (hash.remove(field) != null) {
+                    count++;
                 }
-                return count;
             }
-            return 0L;
+            return count;
         });
     }
 
     @Override
     public Long increment(String key, long delta) {
         return executeWithFallback(() -> {
-            return redisTemplate.opsForValue().increment(key, delta);
+            Long value = redisTemplate.opsForValue().increment(key, delta);
+            invalidateLocal(key);
+            return value;
         }, () -> {
-            // 检查本地缓存是否过期
-            if (localCacheExpiry.containsKey(key) && 
-                System.currentTimeMillis() > localCacheExpiry.get(key)) {
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                localCache.put(key, delta);
-                return delta;
-            }
-            
-            Object value = localCache.get(key);
-            long newValue;
-            if (value instanceof Number) {
-                newValue = ((Number) value).longValue() + delta;
-            } else {
-                newValue = delta;
-            }
-            localCache.put(key, newValue);
-            return newValue;
+            bumpVersion(key);
+            LocalEntry updated = localCache.asMap().compute(key, (k, entry) -> {
+                if (entry == null || entry.isExpired()) {
+                    return new LocalEntry(snapshot(delta), NEVER, 0L);
+                }
+                long current = entry.value instanceof JsonNode && ((JsonNode) entry.value).isNumber()
+                        ? ((JsonNode) entry.value).asLong() : 0L;
+                return new LocalEntry(snapshot(current + delta), entry.expireAtNanos, 0L);
+            });
+            return ((JsonNode) updated.value).asLong();
         });
     }
 
     @Override
     public Set<String> keys(String pattern) {
         return executeWithFallback(() -> {
-            return redisTemplate.keys(pattern);
+            return cacheKeyIndex.scan(pattern);
         }, () -> {
             // 简单模式匹配实现
-            return localCache.keySet().stream()
+            return localCache.asMap().keySet().stream()
                     .filter(key -> matchesPattern(key, pattern))
                     .collect(Collectors.toSet());
         });
     }
-    
+
     @Override
     public Long getExpire(String key) {
         return executeWithFallback(() -> {
             return redisTemplate.getExpire(key, TimeUnit.SECONDS);
         }, () -> {
-            // 检查本地缓存是否存在该键
-            if (!localCache.containsKey(key)) {
+            LocalEntry entry = getLocal(key);
+            if (entry == null) {
                 return -2L; // 键不存在
             }
-            
-            // 检查是否设置了过期时间
-            if (!localCacheExpiry.containsKey(key)) {
+            if (entry.expireAtNanos == NEVER) {
                 return -1L; // 键存在但没有设置过期时间
             }
-            
-            // 计算剩余过期时间（秒）
-            long expireTimeMillis = localCacheExpiry.get(key);
-            long currentTimeMillis = System.currentTimeMillis();
-            long ttlMillis = expireTimeMillis - currentTimeMillis;
-            
-            // 如果已过期，返回0
-            if (ttlMillis <= 0) {
-                // 清理过期缓存
-                localCache.remove(key);
-                localCacheExpiry.remove(key);
-                return 0L;
-            }
-            
             // 转换为秒并返回
-            return ttlMillis / 1000;
+            return TimeUnit.NANOSECONDS.toSeconds(entry.remainingNanos());
         });
     }
-    
+
+    /**
+     * 获取未过期的本地条目
+     */
+    private LocalEntry getLocal(String key) {
+        LocalEntry entry = localCache.getIfPresent(key);
+        return entry == null || entry.isExpired() ? null : entry;
+    }
+
+    /**
+     * 获取可以在Redis正常时直接使用的本地条目
+     */
+    private LocalEntry getFreshLocal(String key) {
+        LocalEntry entry = getLocal(key);
+        return entry != null && entry.isFresh() ? entry : null;
+    }
+
+    /**
+     * 获取本地哈希表
+     */
+    private Map<Object, Object> localHash(String key) {
+        LocalEntry entry = getLocal(key);
+        return entry != null && entry.value instanceof ConcurrentHashMap ? (Map<Object, Object>) entry.value : null;
+    }
+
+    /**
+     * 写入本地条目（Redis不可用时）
+     * 如果键前缀配置了本地过期时间，Redis恢复后该条目在本地过期时间内仍可直接使用
+     */
+    private void putLocal(String key, Object value, long expireAtNanos) {
+        if (value == null) {
+            return;
+        }
+        bumpVersion(key);
+        long freshUntil = Math.min(freshUntil(key), expireAtNanos);
+        localCache.put(key, new LocalEntry(value, expireAtNanos, freshUntil));
+    }
+
+    /**
+     * 用从Redis读到的值回填本地缓存
+     * 只有配置了本地过期时间的键才会回填，本地过期时间不超过Redis中的剩余过期时间；读取期间该键所在分段有写入时放弃回填
+     */
+    private void populateLocal(String key, long version, Object value) {
+        long freshUntil = freshUntil(key);
+        if (freshUntil == 0L || value == null) {
+            return;
+        }
+        // -1表示没有设置过期时间，-2表示键已不存在
+        Long ttlMillis = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        if (ttlMillis != null && ttlMillis != -1L) {
+            if (ttlMillis <= 0L) {
+                return;
+            }
+            freshUntil = Math.min(freshUntil, expireAt(ttlMillis, TimeUnit.MILLISECONDS));
+        }
+        JsonNode snapshot = snapshot(value);
+        if (snapshot == null) {
+            return;
+        }
+        long expireAtNanos = freshUntil;
+        localCache.asMap().compute(key, (k, existing) ->
+                version(key) == version ? new LocalEntry(snapshot, expireAtNanos, expireAtNanos) : existing);
+    }
+
+    /**
+     * 使本地条目失效
+     */
+    private void invalidateLocal(String key) {
+        bumpVersion(key);
+        localCache.asMap().remove(key);
+    }
+
+    /**
+     * 按模式使本地条目失效
+     *
+     * @return 失效的条目数
+     */
+    private long invalidateLocalByPattern(String pattern) {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        long count = 0;
+        for (String key : new ArrayList<>(localCache.asMap().keySet())) {
+            if (matchesPattern(key, pattern) && localCache.asMap().remove(key) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long version(String key) {
+        return versions.get(key.hashCode() & (VERSION_STRIPES - 1));
+    }
+
+    private void bumpVersion(String key) {
+        versions.incrementAndGet(key.hashCode() & (VERSION_STRIPES - 1));
+    }
+
+    /**
+     * 计算键在Redis正常时可由本地直接响应的截止时间，未配置本地过期时间的键返回0
+     */
+    private long freshUntil(String key) {
+        String matched = null;
+        for (String prefix : LOCAL_POLICIES.keySet()) {
+            if (key.startsWith(prefix) && (matched == null || prefix.length() > matched.length())) {
+                matched = prefix;
+            }
+        }
+        return matched == null ? 0L : expireAt(LOCAL_POLICIES.get(matched), TimeUnit.SECONDS);
+    }
+
+    private static long expireAt(long timeout, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    /**
+     * 生成值的JSON树快照
+     */
+    private JsonNode snapshot(Object value) {
+        try {
+            return objectMapper.valueToTree(value);
+        } catch (Exception e) {
+            log.error("本地缓存序列化异常: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T fromSnapshot(JsonNode node, Class<T> clazz) {
+        try {
+            if (clazz == String.class && node.isTextual()) {
+                return (T) node.asText();
+            }
+            return objectMapper.treeToValue(node, clazz);
+        } catch (Exception e) {
+            log.error("本地缓存转换异常: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T fromSnapshot(JsonNode node, JavaType javaType) {
+        try {
+            return objectMapper.treeToValue(node, javaType);
+        } catch (Exception e) {
+            log.error("本地列表缓存转换异常: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 本地缓存条目
+     */
+    private static final class LocalEntry {
+
+        /**
+         * JSON树快照或哈希表
+         */
+        private final Object value;
+
+        /**
+         * 条目过期时间（System.nanoTime），NEVER表示永不过期
+         */
+        private final long expireAtNanos;
+
+        /**
+         * Redis正常时可直接使用该条目的截止时间，0表示只用于降级
+         */
+        private final long freshUntilNanos;
+
+        private LocalEntry(Object value, long expireAtNanos, long freshUntilNanos) {
+            this.value = value;
+            this.expireAtNanos = expireAtNanos;
+            this.freshUntilNanos = freshUntilNanos;
+        }
+
+        private long remainingNanos() {
+            return expireAtNanos == NEVER ? Long.MAX_VALUE : Math.max(0L, expireAtNanos - System.nanoTime());
+        }
+
+        private boolean isExpired() {
+            return remainingNanos() == 0L;
+        }
+
+        private boolean isFresh() {
+            return freshUntilNanos != 0L && freshUntilNanos - System.nanoTime() > 0;
+        }
+    }
+
+    /**
+     * 按条目自身的过期时间清理本地缓存
+     */
+    private static final class LocalEntryExpiry implements Expiry<String, LocalEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, LocalEntry entry, long currentTime) {
+            return entry.remainingNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return entry.remainingNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
     /**
      * Redis操作接口
      */
@@ -505,7 +720,7 @@ public class RedisCacheServiceImpl implements CacheService {
     private interface RedisOperation<T> {
         T execute();
     }
-    
+
     /**
      * 降级操作接口
      */
@@ -513,4 +728,4 @@ public class RedisCacheServiceImpl implements CacheService {
     private interface FallbackOperation<T> {
         T execute();
     }
-} 
\ No newline at end of file
+}
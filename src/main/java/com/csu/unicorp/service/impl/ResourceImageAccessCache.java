@@ -0,0 +1,148 @@
+package com.csu.unicorp.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.csu.unicorp.entity.Resource;
+import com.csu.unicorp.mapper.ResourceMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 资源图片访问权限缓存
+ * <p>
+ * 资源列表页会同时请求几十张资源图片，每张都要校验权限。这里缓存两层结果：<br>
+ * 1. 存储路径 -> 资源（只含ID、上传者和可见性），找不到资源的路径同样缓存；<br>
+ * 2. 存储路径 + 账号 -> 是否允许访问，命中时不再查询资源和用户。
+ * <p>
+ * 资源创建、修改、删除时由 ResourceServiceImpl 按新旧存储路径失效；
+ * 其他实例上的缓存无法感知这些变更，过期时间就是跨实例不一致的最长时间。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResourceImageAccessCache {
+
+    private static final Resource NONE = new Resource();
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final ResourceMapper resourceMapper;
+
+    @Value("${app.resource-image.cache-max-size:20000}")
+    private long maxSize;
+
+    @Value("${app.resource-image.cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, Resource> resources;
+
+    private Cache<String, Boolean> decisions;
+
+    /**
+     * 失效次数，加载期间发生过失效时不写入缓存，避免写入失效之前加载的旧数据
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        resources = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        decisions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 判断账号能否访问存储路径对应的资源
+     *
+     * @param url 存储路径，如 resource_images/xxx.png
+     * @param account 当前账号，未登录时为空字符串
+     * @param rule 访问规则，找不到资源时不调用，直接拒绝
+     * @return 是否允许访问
+     */
+    public boolean isAllowed(String url, String account, Predicate<Resource> rule) {
+        String key = url + KEY_SEPARATOR + account;
+        Boolean cached = decisions.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        Resource resource = getResource(url);
+        boolean allowed = resource != null && rule.test(resource);
+        if (generation == invalidations.get()) {
+            decisions.put(key, allowed);
+            // 写入期间发生了失效，撤销本次写入
+            if (generation != invalidations.get()) {
+                decisions.invalidate(key);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * 获取存储路径对应的资源
+     *
+     * @param url 存储路径
+     * @return 资源（只含ID、上传者和可见性），不存在时返回null
+     */
+    public Resource getResource(String url) {
+        Resource cached = resources.getIfPresent(url);
+        if (cached == null) {
+            long generation = invalidations.get();
+            Resource loaded = resourceMapper.selectAccessByUrl(url);
+            cached = loaded != null ? loaded : NONE;
+            if (generation == invalidations.get()) {
+                resources.put(url, cached);
+                if (generation != invalidations.get()) {
+                    resources.invalidate(url);
+                }
+            }
+        }
+        return cached == NONE ? null : cached;
+    }
+
+    /**
+     * 使存储路径相关的缓存失效，在资源的图片、文件、可见性或上传者变更后调用
+     * 在事务中调用时，事务提交后会再失效一次，避免提交前被并发请求用旧数据重新写入缓存
+     *
+     * @param urls 变更前后的存储路径，为空的忽略
+     */
+    public void invalidate(String... urls) {
+        remove(urls);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(urls);
+                }
+            });
+        }
+    }
+
+    private void remove(String... urls) {
+        invalidations.incrementAndGet();
+        for (String url : urls) {
+            if (url == null || url.isEmpty()) {
+                continue;
+            }
+            resources.invalidate(url);
+            String prefix = url + KEY_SEPARATOR;
+            decisions.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+            log.debug("已清除资源图片{}的权限缓存", url);
+        }
+    }
+}
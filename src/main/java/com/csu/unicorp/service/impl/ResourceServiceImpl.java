@@ -4,24 +4,25 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.constants.VisibilityEnum;
 import com.csu.unicorp.common.exception.ResourceNotFoundException;
+import com.csu.unicorp.config.security.CurrentUser;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.ResourceCreationDTO;
 import com.csu.unicorp.entity.Resource;
-import com.csu.unicorp.entity.User;
 import com.csu.unicorp.mapper.ResourceMapper;
 import com.csu.unicorp.service.ResourceService;
-import com.csu.unicorp.service.UserService;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
 import com.csu.unicorp.vo.ResourceVO;
 
 import lombok.RequiredArgsConstructor;
@@ -36,12 +37,15 @@ import lombok.extern.slf4j.Slf4j;
 public class ResourceServiceImpl implements ResourceService {
     
     private final ResourceMapper resourceMapper;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ResourceImageAccessCache resourceImageAccessCache;
+    private final FullTextSearch fullTextSearch;
     
     @Override
     public IPage<ResourceVO> getResources(int page, int size, String keyword) {
         Page<ResourceVO> pagination = new Page<>(page, size);
-        return resourceMapper.selectResourcesWithUploader(pagination, keyword);
+        return resourceMapper.selectResourcesWithUploader(pagination,
+                fullTextSearch.search(FullTextSearch.Target.RESOURCE, keyword));
     }
     
     @Override
@@ -71,7 +75,7 @@ public class ResourceServiceImpl implements ResourceService {
         }
         
         // 获取当前用户
-        User user = userService.getByAccount(userDetails.getUsername());
+        CurrentUser user = currentUserResolver.resolve(userDetails);
         
         // 创建资源实体
         Resource resource = new Resource();
@@ -79,7 +83,7 @@ public class ResourceServiceImpl implements ResourceService {
         resource.setDescription(resourceDTO.getDescription());
         resource.setResourceType(resourceDTO.getResourceType());
         resource.setFileUrl(resourceDTO.getFileUrl());
-        resource.setUploadedByUserId(user.getId());
+        resource.setUploadedByUserId(user.getUserId());
         
         // 设置可见性，默认为public
         String visibility = resourceDTO.getVisibility();
@@ -107,6 +111,8 @@ public class ResourceServiceImpl implements ResourceService {
         
         // 保存资源
         resourceMapper.insert(resource);
+        resourceImageAccessCache.invalidate(resource.getImageUrl(), resource.getFileUrl());
+        fullTextSearch.refresh(FullTextSearch.Target.RESOURCE, resource.getId());
         
         // 返回资源视图对象
         return getResourceById(resource.getId());
@@ -122,14 +128,17 @@ public class ResourceServiceImpl implements ResourceService {
         }
         
         // 检查用户是否有权限更新资源（资源所有者或管理员）
-        User user = userService.getByAccount(userDetails.getUsername());
-        boolean isOwner = resource.getUploadedByUserId().equals(user.getId());
+        CurrentUser user = currentUserResolver.resolve(userDetails);
+        boolean isOwner = resource.getUploadedByUserId().equals(user.getUserId());
         boolean isAdmin = isSystemAdmin(userDetails);
         
         if (!isOwner && !isAdmin) {
             throw new AccessDeniedException("只有资源所有者或管理员可以更新资源");
         }
         
+        String oldImageUrl = resource.getImageUrl();
+        String oldFileUrl = resource.getFileUrl();
+        
         // 更新资源信息
         resource.setTitle(resourceDTO.getTitle());
         resource.setDescription(resourceDTO.getDescription());
@@ -162,6 +171,8 @@ public class ResourceServiceImpl implements ResourceService {
         
         // 保存更新
         resourceMapper.updateById(resource);
+        resourceImageAccessCache.invalidate(oldImageUrl, oldFileUrl, resource.getImageUrl(), resource.getFileUrl());
+        fullTextSearch.refresh(FullTextSearch.Target.RESOURCE, id);
         
         // 返回更新后的资源
         return getResourceById(id);
@@ -177,8 +188,8 @@ public class ResourceServiceImpl implements ResourceService {
         }
         
         // 检查用户是否有权限删除资源（资源所有者或管理员）
-        User user = userService.getByAccount(userDetails.getUsername());
-        boolean isOwner = resource.getUploadedByUserId().equals(user.getId());
+        CurrentUser user = currentUserResolver.resolve(userDetails);
+        boolean isOwner = resource.getUploadedByUserId().equals(user.getUserId());
         boolean isAdmin = isSystemAdmin(userDetails);
         
         if (!isOwner && !isAdmin) {
@@ -187,6 +198,8 @@ public class ResourceServiceImpl implements ResourceService {
         
         // 逻辑删除资源
         resourceMapper.deleteById(id);
+        resourceImageAccessCache.invalidate(resource.getImageUrl(), resource.getFileUrl());
+        fullTextSearch.refresh(FullTextSearch.Target.RESOURCE, id);
     }
     
     @Override
@@ -194,59 +207,56 @@ public class ResourceServiceImpl implements ResourceService {
         log.debug("检查资源图片访问权限: {}", filename);
         
         try {
-            // 查询使用该图片的资源
-            LambdaQueryWrapper<Resource> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(Resource::getImageUrl, "resource_images/" + filename)
-                   .or()
-                   .eq(Resource::getFileUrl, "resource_images/" + filename);
-            
-            Resource resource = resourceMapper.selectOne(wrapper);
-            
-            // 如果找不到对应的资源，拒绝访问
-            if (resource == null) {
-                log.warn("找不到与图片关联的资源: {}", filename);
-                return false;
-            }
-            
-            // 如果资源是公开的，允许访问
-            if (VisibilityEnum.PUBLIC.name().toLowerCase().equals(resource.getVisibility())) {
-                log.debug("资源是公开的，允许访问: {}", resource.getId());
-                return true;
-            }
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Object principal = authentication != null ? authentication.getPrincipal() : null;
+            UserDetails userDetails = principal instanceof UserDetails ? (UserDetails) principal : null;
+            String account = userDetails != null ? userDetails.getUsername() : "";
             
-            // 如果资源不是公开的，检查用户是否登录
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (principal == null || "anonymousUser".equals(principal)) {
-                log.debug("资源不是公开的，用户未登录，拒绝访问");
-                return false;
+            // 按存储路径和账号缓存判断结果，资源列表页并发请求几十张图片时不再逐张查询
+            boolean allowed = resourceImageAccessCache.isAllowed("resource_images/" + filename, account,
+                    resource -> canAccess(resource, userDetails));
+            if (!allowed) {
+                log.debug("用户无权访问此资源图片: {}", filename);
             }
-            
-            // 检查是否是系统管理员
-            if (principal instanceof UserDetails) {
-                UserDetails userDetails = (UserDetails) principal;
-                
-                // 如果是系统管理员，允许访问
-                if (isSystemAdmin(userDetails)) {
-                    log.debug("用户是系统管理员，允许访问");
-                    return true;
-                }
-                
-                // 检查是否是资源所有者
-                User user = userService.getByAccount(userDetails.getUsername());
-                if (user != null && resource.getUploadedByUserId().equals(user.getId())) {
-                    log.debug("用户是资源所有者，允许访问");
-                    return true;
-                }
-            }
-            
-            // 默认拒绝访问
-            log.debug("用户无权访问此资源图片");
-            return false;
+            return allowed;
         } catch (Exception e) {
             log.error("检查资源图片访问权限时发生错误", e);
             return false;
         }
     }
+
+    /**
+     * 判断用户能否访问资源
+     */
+    private boolean canAccess(Resource resource, UserDetails userDetails) {
+        // 如果资源是公开的，允许访问
+        if (VisibilityEnum.PUBLIC.name().toLowerCase().equals(resource.getVisibility())) {
+            log.debug("资源是公开的，允许访问: {}", resource.getId());
+            return true;
+        }
+        
+        // 如果资源不是公开的，检查用户是否登录
+        if (userDetails == null) {
+            log.debug("资源不是公开的，用户未登录，拒绝访问");
+            return false;
+        }
+        
+        // 如果是系统管理员，允许访问
+        if (isSystemAdmin(userDetails)) {
+            log.debug("用户是系统管理员，允许访问");
+            return true;
+        }
+        
+        // 检查是否是资源所有者
+        CurrentUser user = currentUserResolver.resolve(userDetails);
+        if (user != null && resource.getUploadedByUserId().equals(user.getUserId())) {
+            log.debug("用户是资源所有者，允许访问");
+            return true;
+        }
+        
+        // 默认拒绝访问
+        return false;
+    }
     
     /**
      * 获取当前用户上传的资源列表（分页）
@@ -254,14 +264,15 @@ public class ResourceServiceImpl implements ResourceService {
     @Override
     public IPage<ResourceVO> getCurrentUserResources(int page, int size, String keyword, UserDetails userDetails) {
         // 获取当前用户
-        User user = userService.getByAccount(userDetails.getUsername());
+        CurrentUser user = currentUserResolver.resolve(userDetails);
         if (user == null) {
             throw new AccessDeniedException("用户不存在");
         }
         
         // 分页查询该用户上传的资源
         Page<ResourceVO> pagination = new Page<>(page, size);
-        return resourceMapper.selectUserUploadedResources(pagination, user.getId(), keyword);
+        return resourceMapper.selectUserUploadedResources(pagination, user.getUserId(),
+                fullTextSearch.search(FullTextSearch.Target.RESOURCE, keyword));
     }
     
     /**
@@ -1,6 +1,7 @@
 package com.csu.unicorp.service.impl;
 
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.entity.Role;
 import com.csu.unicorp.entity.UserRole;
 import com.csu.unicorp.mapper.RoleMapper;
@@ -19,6 +20,7 @@ public class RoleServiceImpl implements RoleService {
     
     private final RoleMapper roleMapper;
     private final UserRoleMapper userRoleMapper;
+    private final AuthenticatedUserCache authenticatedUserCache;
     
     @Override
     public Role getByRoleName(String roleName) {
@@ -43,6 +45,7 @@ public class RoleServiceImpl implements RoleService {
         userRole.setRoleId(role.getId());
         
         userRoleMapper.insert(userRole);
+        authenticatedUserCache.invalidateUser(userId);
     }
     
     /**
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.common.utils.AccountGenerator;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.dto.TeacherCreationDTO;
 import com.csu.unicorp.dto.TeacherUpdateDTO;
 import com.csu.unicorp.dto.UserUpdateDTO;
@@ -33,6 +34,7 @@ import java.util.List;
 public class SchoolAdminServiceImpl implements SchoolAdminService {
 
     private final UserMapper userMapper;
+    private final AuthenticatedUserCache authenticatedUserCache;
     private final OrganizationMapper organizationMapper;
     private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
@@ -144,6 +146,7 @@ public class SchoolAdminServiceImpl implements SchoolAdminService {
         }
         
         userMapper.updateById(teacher);
+        authenticatedUserCache.invalidateUser(teacher.getId());
         
         return convertToVO(teacher);
     }
@@ -183,6 +186,7 @@ public class SchoolAdminServiceImpl implements SchoolAdminService {
         // 更新用户状态
         user.setStatus(status);
         userMapper.updateById(user);
+        authenticatedUserCache.invalidateUser(user.getId());
     }
     
     @Override
@@ -234,6 +238,7 @@ public class SchoolAdminServiceImpl implements SchoolAdminService {
         
         // 保存更新
         userMapper.updateById(user);
+        authenticatedUserCache.invalidateUser(user.getId());
         
         // 返回更新后的用户信息
         return convertToVO(user);
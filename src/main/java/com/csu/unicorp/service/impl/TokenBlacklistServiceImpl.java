@@ -5,6 +5,7 @@ import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Service;
 
 import com.csu.unicorp.common.constants.CacheConstants;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.service.CacheService;
 import com.csu.unicorp.service.TokenBlacklistService;
 
@@ -20,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 public class TokenBlacklistServiceImpl implements TokenBlacklistService {
 
     private final CacheService cacheService;
+    private final AuthenticatedUserCache authenticatedUserCache;
     
     /**
      * 黑名单键前缀
@@ -30,6 +32,7 @@ public class TokenBlacklistServiceImpl implements TokenBlacklistService {
     public void addToBlacklist(String token, String reason, long expirationTimeInSeconds) {
         String key = CacheConstants.AUTH_BLACKLIST_PREFIX + token;
         cacheService.set(key, reason, expirationTimeInSeconds, TimeUnit.SECONDS);
+        authenticatedUserCache.invalidateToken(token);
         log.info("令牌已添加到黑名单，原因: {}, 过期时间: {} 秒", reason, expirationTimeInSeconds);
     }
 
@@ -20,6 +20,7 @@ import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.common.utils.AccountGenerator;
 import com.csu.unicorp.common.utils.JwtUtil;
+import com.csu.unicorp.config.security.AuthenticatedUserCache;
 import com.csu.unicorp.dto.EnterpriseRegistrationDTO;
 import com.csu.unicorp.dto.LoginCredentialsDTO;
 import com.csu.unicorp.dto.OrgMemberCreationDTO;
@@ -78,6 +79,7 @@ import java.util.concurrent.TimeUnit;
 public class UserServiceImpl implements UserService {
     
     private final UserMapper userMapper;
+    private final AuthenticatedUserCache authenticatedUserCache;
     private final UserVerificationMapper userVerificationMapper;
     private final OrganizationService organizationService;
     private final EnterpriseService enterpriseService;
@@ -703,6 +705,7 @@ public class UserServiceImpl implements UserService {
         
         // 保存更新
         userMapper.updateById(currentUser);
+        authenticatedUserCache.invalidateUser(currentUser.getId());
         
         // 返回更新后的用户信息
         return convertToVO(currentUser);
@@ -735,6 +738,7 @@ public class UserServiceImpl implements UserService {
         
         // 保存更新
         userMapper.updateById(currentUser);
+        authenticatedUserCache.invalidateUser(currentUser.getId());
     }
     
     /**
@@ -842,6 +846,7 @@ public class UserServiceImpl implements UserService {
         }
         
         userMapper.updateById(teacher);
+        authenticatedUserCache.invalidateUser(teacher.getId());
         
         return convertToVO(teacher);
     }
@@ -880,6 +885,7 @@ public class UserServiceImpl implements UserService {
         // 禁用教师账号
         teacher.setStatus("inactive");
         userMapper.updateById(teacher);
+        authenticatedUserCache.invalidateUser(teacher.getId());
     }
     
     @Override
@@ -949,6 +955,7 @@ public class UserServiceImpl implements UserService {
         }
         
         userMapper.updateById(mentor);
+        authenticatedUserCache.invalidateUser(mentor.getId());
         
         return convertToVO(mentor);
     }
@@ -987,6 +994,7 @@ public class UserServiceImpl implements UserService {
         // 禁用导师账号
         mentor.setStatus("inactive");
         userMapper.updateById(mentor);
+        authenticatedUserCache.invalidateUser(mentor.getId());
     }
     
     @Override
@@ -1029,6 +1037,7 @@ public class UserServiceImpl implements UserService {
         user.setStatus(status);
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(user);
+        authenticatedUserCache.invalidateUser(user.getId());
         
         return convertToVO(user);
     }
@@ -1076,6 +1085,7 @@ public class UserServiceImpl implements UserService {
         
         // 保存更新
         userMapper.updateById(user);
+        authenticatedUserCache.invalidateUser(user.getId());
         
         // 返回更新后的用户信息
         return convertToVO(user);
@@ -1100,6 +1110,7 @@ public class UserServiceImpl implements UserService {
         // 更新用户头像
         user.setAvatar(avatarPath);
         userMapper.updateById(user);
+        authenticatedUserCache.invalidateUser(user.getId());
         
         // 转换为VO并返回
         UserVO userVO = convertToVO(user);
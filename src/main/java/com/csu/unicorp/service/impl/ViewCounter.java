@@ -0,0 +1,250 @@
+package com.csu.unicorp.service.impl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.entity.achievement.AchievementView;
+import com.csu.unicorp.mapper.achievement.AchievementViewMapper;
+import com.csu.unicorp.mapper.achievement.PortfolioItemMapper;
+import com.csu.unicorp.mapper.community.CommunityQuestionMapper;
+import com.csu.unicorp.mapper.community.CommunityTopicMapper;
+import com.csu.unicorp.mapper.job.JobMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 浏览次数写回计数器
+ * <p>
+ * 1. 详情页浏览只在内存中累加（LongAdder分段计数，热点记录也不会互相竞争），不再每次浏览都更新数据库行；<br>
+ * 2. 定时把累计的增量按表合并成一条批量UPDATE写回，热门岗位、话题每个周期只加一次行锁；<br>
+ * 3. 写回时减去已写回的量而不是清零，写回期间发生的浏览保留到下个周期；写回失败的增量加回计数器重试；<br>
+ * 4. 读取详情时调用{@link #pending}合并尚未写回的增量，显示的浏览次数不会落后；<br>
+ * 5. 成果访问记录同样先进入有界队列，随计数一起批量插入，队列满时丢弃访问记录但浏览次数照常累加。
+ * <p>
+ * 增量只保存在当前实例内存中，多实例部署时各实例分别写回，进程异常退出最多丢失一个写回周期的浏览次数。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViewCounter {
+
+    /**
+     * 计数对象
+     */
+    public enum Target {
+        JOB, TOPIC, QUESTION, PORTFOLIO
+    }
+
+    /**
+     * 单条批量UPDATE最多包含的记录数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final JobMapper jobMapper;
+    private final CommunityTopicMapper communityTopicMapper;
+    private final CommunityQuestionMapper communityQuestionMapper;
+    private final PortfolioItemMapper portfolioItemMapper;
+    private final AchievementViewMapper achievementViewMapper;
+
+    @Value("${app.view-counter.view-queue-capacity:10000}")
+    private int viewQueueCapacity;
+
+    private final Map<Target, ConcurrentHashMap<Long, LongAdder>> counters = new EnumMap<>(Target.class);
+    private final Map<Target, Consumer<Map<Long, Long>>> writers = new EnumMap<>(Target.class);
+
+    /**
+     * 上个写回周期增量为0的计数器，本周期仍为0时移除
+     */
+    private final Map<Target, Map<Long, LongAdder>> idle = new EnumMap<>(Target.class);
+
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong droppedViews = new AtomicLong();
+
+    private BlockingQueue<AchievementView> pendingViews;
+
+    @PostConstruct
+    public void init() {
+        for (Target target : Target.values()) {
+            counters.put(target, new ConcurrentHashMap<>());
+            idle.put(target, new ConcurrentHashMap<>());
+        }
+        writers.put(Target.JOB, jobMapper::incrementViewCounts);
+        writers.put(Target.TOPIC, communityTopicMapper::incrementViewCounts);
+        writers.put(Target.QUESTION, communityQuestionMapper::incrementViewCounts);
+        writers.put(Target.PORTFOLIO, portfolioItemMapper::incrementViewCounts);
+        pendingViews = new ArrayBlockingQueue<>(viewQueueCapacity);
+    }
+
+    /**
+     * 记录一次浏览
+     *
+     * @param target 计数对象
+     * @param id 记录ID
+     */
+    public void increment(Target target, Number id) {
+        if (id == null) {
+            return;
+        }
+        counters.get(target).computeIfAbsent(id.longValue(), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 记录一次成果访问，浏览次数与访问记录都延迟批量写入
+     *
+     * @param target 计数对象
+     * @param view 访问记录
+     */
+    public void recordAchievementView(Target target, AchievementView view) {
+        increment(target, view.getAchievementId());
+        if (!pendingViews.offer(view)) {
+            long count = droppedViews.incrementAndGet();
+            if (count % 1000 == 1) {
+                log.warn("成果访问记录队列已满，累计丢弃{}条", count);
+            }
+        }
+    }
+
+    /**
+     * 获取尚未写回数据库的浏览次数
+     *
+     * @param target 计数对象
+     * @param id 记录ID
+     * @return 未写回的增量
+     */
+    public long pending(Target target, Number id) {
+        if (id == null) {
+            return 0L;
+        }
+        LongAdder adder = counters.get(target).get(id.longValue());
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * 在数据库中的浏览次数上合并未写回的增量
+     *
+     * @param target 计数对象
+     * @param id 记录ID
+     * @param persisted 数据库中的浏览次数
+     * @return 合并后的浏览次数
+     */
+    public Integer merge(Target target, Number id, Integer persisted) {
+        long pending = pending(target, id);
+        if (pending == 0) {
+            return persisted;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (persisted == null ? 0L : persisted) + pending);
+    }
+
+    /**
+     * 写回累计的浏览次数和访问记录
+     */
+    @Scheduled(fixedDelayString = "${app.view-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        for (Target target : Target.values()) {
+            flushTarget(target);
+        }
+        flushViews();
+    }
+
+    /**
+     * 获取计数器统计信息
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (Target target : Target.values()) {
+            long pending = counters.get(target).values().stream().mapToLong(LongAdder::sum).sum();
+            statistics.put("pending" + target.name(), pending);
+        }
+        statistics.put("pendingViews", (long) pendingViews.size());
+        statistics.put("flushed", flushed.get());
+        statistics.put("droppedViews", droppedViews.get());
+        return statistics;
+    }
+
+    private void flushTarget(Target target) {
+        ConcurrentHashMap<Long, LongAdder> targetCounters = counters.get(target);
+        Map<Long, LongAdder> targetIdle = idle.get(target);
+        // 按ID排序写回，多实例同时写回时加锁顺序一致
+        Map<Long, Long> deltas = new TreeMap<>();
+        Iterator<Map.Entry<Long, LongAdder>> iterator = targetCounters.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, LongAdder> entry = iterator.next();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta > 0) {
+                // 先扣减再写回，写回期间新增的浏览留在计数器里
+                adder.add(-delta);
+                deltas.put(entry.getKey(), delta);
+                targetIdle.remove(entry.getKey());
+            } else if (targetIdle.remove(entry.getKey(), adder)) {
+                // 连续两个周期没有浏览才移除，持有该计数器的并发请求早已完成累加
+                targetCounters.remove(entry.getKey(), adder);
+            } else {
+                targetIdle.put(entry.getKey(), adder);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map<Long, Long>> batches = new ArrayList<>();
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        for (Map<Long, Long> deltaBatch : batches) {
+            try {
+                writers.get(target).accept(deltaBatch);
+                flushed.addAndGet(deltaBatch.values().stream().mapToLong(Long::longValue).sum());
+            } catch (Exception e) {
+                log.error("写回{}浏览次数失败，下个周期重试: {}", target, e.getMessage());
+                deltaBatch.forEach((id, delta) -> targetCounters.computeIfAbsent(id, k -> new LongAdder()).add(delta));
+            }
+        }
+    }
+
+    private void flushViews() {
+        List<AchievementView> views = new ArrayList<>(FLUSH_BATCH_SIZE);
+        while (pendingViews.drainTo(views, FLUSH_BATCH_SIZE) > 0) {
+            try {
+                achievementViewMapper.insertBatch(views);
+            } catch (Exception e) {
+                log.error("批量写入成果访问记录失败，丢弃{}条: {}", views.size(), e.getMessage());
+                droppedViews.addAndGet(views.size());
+            }
+            views.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        log.info("浏览次数计数器已关闭，统计: {}", getStatistics());
+    }
+}
@@ -1,11 +1,11 @@
 package com.csu.unicorp.service.impl.achievement;
 
 import com.csu.unicorp.entity.User;
+import com.csu.unicorp.entity.achievement.StudentAchievementStats;
 import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.mapper.achievement.AchievementViewMapper;
-import com.csu.unicorp.mapper.achievement.CompetitionAwardMapper;
 import com.csu.unicorp.mapper.achievement.PortfolioItemMapper;
-import com.csu.unicorp.mapper.achievement.ResearchAchievementMapper;
+import com.csu.unicorp.mapper.achievement.StudentAchievementStatsMapper;
 import com.csu.unicorp.service.AchievementStatisticsService;
 import com.csu.unicorp.service.FileService;
 import com.csu.unicorp.vo.achievement.StudentAchievementOverviewVO;
@@ -16,7 +16,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,9 +31,9 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
 
     private final UserMapper userMapper;
     private final PortfolioItemMapper portfolioItemMapper;
-    private final CompetitionAwardMapper competitionAwardMapper;
-    private final ResearchAchievementMapper researchAchievementMapper;
     private final AchievementViewMapper achievementViewMapper;
+    private final StudentAchievementStatsMapper studentAchievementStatsMapper;
+    private final StudentAchievementStatsUpdater studentAchievementStatsUpdater;
     private final FileService fileService;
     
     @Override
@@ -53,27 +53,16 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
             organizationName = userMapper.selectOrganizationNameById(user.getOrganizationId());
         }
         
-        // 查询各类成果数量
-        int portfolioCount = portfolioItemMapper.selectByUserId(userId).size();
-        int awardCount = competitionAwardMapper.selectByUserId(userId).size();
-        int researchCount = researchAchievementMapper.selectByUserId(userId).size();
-        
-        // 查询认证成果数量
-        int verifiedAwardCount = (int) competitionAwardMapper.selectByUserId(userId).stream()
-                .filter(award -> award.getIsVerified())
-                .count();
-        int verifiedResearchCount = (int) researchAchievementMapper.selectByUserId(userId).stream()
-                .filter(research -> research.getIsVerified())
-                .count();
-        int verifiedCount = verifiedAwardCount + verifiedResearchCount;
-        
-        // 查询总访问量
-        int totalViewCount = achievementViewMapper.countByUserId(userId);
-        
-        // 查询总点赞数（目前只有作品项目有点赞功能）
-        int totalLikeCount = portfolioItemMapper.selectByUserId(userId).stream()
-                .mapToInt(item -> item.getLikeCount())
-                .sum();
+        // 查询预聚合的成果数量，统计行不存在时（如新注册学生）先生成
+        StudentAchievementStats stats = studentAchievementStatsMapper.selectById(userId);
+        if (stats == null) {
+            studentAchievementStatsUpdater.refreshNow(userId);
+            stats = studentAchievementStatsMapper.selectById(userId);
+        }
+        if (stats == null) {
+            stats = StudentAchievementStats.builder().userId(userId).portfolioCount(0).awardCount(0)
+                    .verifiedAwardCount(0).researchCount(0).verifiedResearchCount(0).build();
+        }
         
         // 组装VO
         StudentAchievementOverviewVO overview = new StudentAchievementOverviewVO();
@@ -93,12 +82,13 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
         overview.setEducationLevel("本科"); // 默认值，实际应该从用户信息中获取
         
         // 设置统计数据
-        overview.setPortfolioCount(portfolioCount);
-        overview.setAwardCount(awardCount);
-        overview.setResearchCount(researchCount);
-        overview.setTotalViewCount(totalViewCount);
-        overview.setTotalLikeCount(totalLikeCount);
-        overview.setVerifiedCount(verifiedCount);
+        overview.setPortfolioCount(stats.getPortfolioCount());
+        overview.setAwardCount(stats.getAwardCount());
+        overview.setResearchCount(stats.getResearchCount());
+        overview.setVerifiedCount(stats.getVerifiedAwardCount() + stats.getVerifiedResearchCount());
+        
+        // 查询总访问量和总点赞数（目前只有作品项目有点赞功能）
+        fillViewAndLikeCounts(Collections.singletonList(overview));
         
         return overview;
     }
@@ -152,63 +142,8 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
 
     @Override
     public Map<String, Object> getOrganizationAchievementStatistics(Integer organizationId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        // 查询该组织下的所有学生ID
-        List<User> students = userMapper.selectList(null).stream()
-                .filter(user -> organizationId.equals(user.getOrganizationId()))
-                .filter(user -> userMapper.hasRole(user.getId(), "STUDENT"))
-                .toList();
-        
-        int totalStudents = students.size();
-        int totalPortfolios = 0;
-        int totalAwards = 0;
-        int totalResearch = 0;
-        int totalVerifiedAwards = 0;
-        int totalVerifiedResearch = 0;
-        
-        // 统计该组织下所有学生的成果数量
-        for (User student : students) {
-            Integer userId = student.getId();
-            
-            // 统计作品数量
-            totalPortfolios += portfolioItemMapper.selectByUserId(userId).size();
-            
-            // 统计获奖数量和认证获奖数量
-            List<com.csu.unicorp.entity.achievement.CompetitionAward> awards = competitionAwardMapper.selectByUserId(userId);
-            totalAwards += awards.size();
-            totalVerifiedAwards += awards.stream().filter(award -> award.getIsVerified()).count();
-            
-            // 统计科研成果数量和认证科研成果数量
-            List<com.csu.unicorp.entity.achievement.ResearchAchievement> researches = researchAchievementMapper.selectByUserId(userId);
-            totalResearch += researches.size();
-            totalVerifiedResearch += researches.stream().filter(research -> research.getIsVerified()).count();
-        }
-        
-        // 组装结果
-        result.put("organizationId", organizationId);
-        result.put("organizationName", userMapper.selectOrganizationNameById(organizationId));
-        result.put("totalStudents", totalStudents);
-        result.put("totalPortfolios", totalPortfolios);
-        result.put("totalAwards", totalAwards);
-        result.put("totalResearch", totalResearch);
-        result.put("totalAchievements", totalPortfolios + totalAwards + totalResearch);
-        result.put("totalVerifiedAchievements", totalVerifiedAwards + totalVerifiedResearch);
-        
-        // 计算平均值
-        if (totalStudents > 0) {
-            result.put("avgPortfoliosPerStudent", Math.round((float) totalPortfolios / totalStudents * 10) / 10.0);
-            result.put("avgAwardsPerStudent", Math.round((float) totalAwards / totalStudents * 10) / 10.0);
-            result.put("avgResearchPerStudent", Math.round((float) totalResearch / totalStudents * 10) / 10.0);
-            result.put("avgAchievementsPerStudent", Math.round((float) (totalPortfolios + totalAwards + totalResearch) / totalStudents * 10) / 10.0);
-        } else {
-            result.put("avgPortfoliosPerStudent", 0);
-            result.put("avgAwardsPerStudent", 0);
-            result.put("avgResearchPerStudent", 0);
-            result.put("avgAchievementsPerStudent", 0);
-        }
-        
-        return result;
+        Map<String, Object> summary = studentAchievementStatsMapper.selectOrganizationSummary(organizationId);
+        return buildOrganizationStatistics(organizationId, summary);
     }
     
     @Override
@@ -221,65 +156,33 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
         
         Integer organizationId = currentUser.getOrganizationId();
         
-        // 获取该组织下的所有学生
-        List<User> students = userMapper.selectList(null).stream()
-                .filter(user -> organizationId.equals(user.getOrganizationId()))
-                .filter(user -> userMapper.hasRole(user.getId(), "STUDENT"))
-                .toList();
-        
-        // 为每个学生生成成果概览
-        List<StudentAchievementOverviewVO> allOverviews = new ArrayList<>();
-        for (User student : students) {
-            StudentAchievementOverviewVO overview = getStudentAchievementOverview(student.getId());
-            if (overview != null) {
-                allOverviews.add(overview);
-            }
-        }
-        
-        // 分页处理
-        int start = page * size;
-        int end = Math.min(start + size, allOverviews.size());
-        
-        if (start >= allOverviews.size()) {
+        long total = studentAchievementStatsMapper.countStudentsByOrganizationId(organizationId);
+        long start = (long) page * size;
+        if (start >= total) {
             return Page.empty(PageRequest.of(page, size));
         }
         
-        List<StudentAchievementOverviewVO> pageContent = allOverviews.subList(start, end);
+        // 只查询当前页学生的成果概览
+        List<StudentAchievementOverviewVO> pageContent =
+                studentAchievementStatsMapper.selectOverviewPageByOrganizationId(organizationId, start, size);
+        completeOverviews(pageContent);
         
-        return new PageImpl<>(pageContent, PageRequest.of(page, size), allOverviews.size());
+        return new PageImpl<>(pageContent, PageRequest.of(page, size), total);
     }
     
     @Override
     public List<StudentAchievementOverviewVO> getSchoolTopStudents(Integer userId, int limit) {
         // 获取当前教师或管理员所属的组织ID
         User currentUser = userMapper.selectById(userId);
-        if (currentUser == null || currentUser.getOrganizationId() == null) {
+        if (currentUser == null || currentUser.getOrganizationId() == null || limit <= 0) {
             return new ArrayList<>();
         }
         
-        Integer organizationId = currentUser.getOrganizationId();
-        
-        // 获取该组织下的所有学生
-        List<User> students = userMapper.selectList(null).stream()
-                .filter(user -> organizationId.equals(user.getOrganizationId()))
-                .filter(user -> userMapper.hasRole(user.getId(), "STUDENT"))
-                .toList();
-        
-        // 为每个学生生成成果概览
-        List<StudentAchievementOverviewVO> allOverviews = new ArrayList<>();
-        for (User student : students) {
-            StudentAchievementOverviewVO overview = getStudentAchievementOverview(student.getId());
-            if (overview != null) {
-                allOverviews.add(overview);
-            }
-        }
-        
-        // 根据成果总数排序（作品数+获奖数+科研成果数）
-        return allOverviews.stream()
-                .sorted(Comparator.comparingInt(o -> 
-                    (o.getPortfolioCount() + o.getAwardCount() + o.getResearchCount()) * -1)) // 降序排序
-                .limit(limit)
-                .collect(Collectors.toList());
+        // 根据成果总数排序（作品数+获奖数+科研成果数），由数据库排序并截取
+        List<StudentAchievementOverviewVO> topStudents =
+                studentAchievementStatsMapper.selectTopByOrganizationId(currentUser.getOrganizationId(), limit);
+        completeOverviews(topStudents);
+        return topStudents;
     }
     
     @Override
@@ -292,48 +195,15 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
         
         Integer organizationId = currentUser.getOrganizationId();
         
-        // 直接调用组织成果统计方法
-        Map<String, Object> statistics = getOrganizationAchievementStatistics(organizationId);
-        
-        // 添加更多学校特有的统计数据
-        // 例如：按专业统计、按年级统计等
-        // 这里可以根据需求添加更多统计数据
-        
-        // 获取该组织下的所有学生
-        List<User> students = userMapper.selectList(null).stream()
-                .filter(user -> organizationId.equals(user.getOrganizationId()))
-                .filter(user -> userMapper.hasRole(user.getId(), "STUDENT"))
-                .toList();
+        // 组织成果统计与有成果的学生数来自同一条聚合查询
+        Map<String, Object> summary = studentAchievementStatsMapper.selectOrganizationSummary(organizationId);
+        Map<String, Object> statistics = buildOrganizationStatistics(organizationId, summary);
         
         // 统计有成果的学生数量
-        int studentsWithAchievements = 0;
-        int studentsWithPortfolios = 0;
-        int studentsWithAwards = 0;
-        int studentsWithResearch = 0;
-        
-        for (User student : students) {
-            Integer studentId = student.getId();
-            
-            int portfolioCount = portfolioItemMapper.selectByUserId(studentId).size();
-            int awardCount = competitionAwardMapper.selectByUserId(studentId).size();
-            int researchCount = researchAchievementMapper.selectByUserId(studentId).size();
-            
-            if (portfolioCount > 0 || awardCount > 0 || researchCount > 0) {
-                studentsWithAchievements++;
-            }
-            
-            if (portfolioCount > 0) {
-                studentsWithPortfolios++;
-            }
-            
-            if (awardCount > 0) {
-                studentsWithAwards++;
-            }
-            
-            if (researchCount > 0) {
-                studentsWithResearch++;
-            }
-        }
+        int studentsWithAchievements = intValue(summary, "studentsWithAchievements");
+        int studentsWithPortfolios = intValue(summary, "studentsWithPortfolios");
+        int studentsWithAwards = intValue(summary, "studentsWithAwards");
+        int studentsWithResearch = intValue(summary, "studentsWithResearch");
         
         // 添加统计数据
         statistics.put("studentsWithAchievements", studentsWithAchievements);
@@ -342,7 +212,7 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
         statistics.put("studentsWithResearch", studentsWithResearch);
         
         // 计算百分比
-        int totalStudents = students.size();
+        int totalStudents = intValue(summary, "totalStudents");
         if (totalStudents > 0) {
             statistics.put("achievementCoverage", Math.round((float) studentsWithAchievements / totalStudents * 100));
             statistics.put("portfolioCoverage", Math.round((float) studentsWithPortfolios / totalStudents * 100));
@@ -357,4 +227,85 @@ public class AchievementStatisticsServiceImpl implements AchievementStatisticsSe
         
         return statistics;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 根据组织汇总数据组装组织成果统计
+     */
+    private Map<String, Object> buildOrganizationStatistics(Integer organizationId, Map<String, Object> summary) {
+        Map<String, Object> result = new HashMap<>();
+        
+        int totalStudents = intValue(summary, "totalStudents");
+        int totalPortfolios = intValue(summary, "totalPortfolios");
+        int totalAwards = intValue(summary, "totalAwards");
+        int totalResearch = intValue(summary, "totalResearch");
+        
+        // 组装结果
+        result.put("organizationId", organizationId);
+        result.put("organizationName", userMapper.selectOrganizationNameById(organizationId));
+        result.put("totalStudents", totalStudents);
+        result.put("totalPortfolios", totalPortfolios);
+        result.put("totalAwards", totalAwards);
+        result.put("totalResearch", totalResearch);
+        result.put("totalAchievements", totalPortfolios + totalAwards + totalResearch);
+        result.put("totalVerifiedAchievements", intValue(summary, "totalVerified"));
+        
+        // 计算平均值
+        if (totalStudents > 0) {
+            result.put("avgPortfoliosPerStudent", Math.round((float) totalPortfolios / totalStudents * 10) / 10.0);
+            result.put("avgAwardsPerStudent", Math.round((float) totalAwards / totalStudents * 10) / 10.0);
+            result.put("avgResearchPerStudent", Math.round((float) totalResearch / totalStudents * 10) / 10.0);
+            result.put("avgAchievementsPerStudent", Math.round((float) (totalPortfolios + totalAwards + totalResearch) / totalStudents * 10) / 10.0);
+        } else {
+            result.put("avgPortfoliosPerStudent", 0);
+            result.put("avgAwardsPerStudent", 0);
+            result.put("avgResearchPerStudent", 0);
+            result.put("avgAchievementsPerStudent", 0);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 补全批量查询得到的成果概览：头像地址、教育水平、访问量和点赞数
+     */
+    private void completeOverviews(List<StudentAchievementOverviewVO> overviews) {
+        if (overviews.isEmpty()) {
+            return;
+        }
+        for (StudentAchievementOverviewVO overview : overviews) {
+            overview.setAvatar(fileService.getFullFileUrl(overview.getAvatar()));
+            overview.setEducationLevel("本科"); // 默认值，实际应该从用户信息中获取
+        }
+        fillViewAndLikeCounts(overviews);
+    }
+    
+    /**
+     * 用两条分组查询填充一批学生的总访问量和总点赞数
+     */
+    private void fillViewAndLikeCounts(List<StudentAchievementOverviewVO> overviews) {
+        List<Integer> userIds = overviews.stream()
+                .map(StudentAchievementOverviewVO::getUserId)
+                .collect(Collectors.toList());
+        
+        Map<Integer, Integer> viewCounts = toCountMap(achievementViewMapper.countByUserIds(userIds), "viewCount");
+        Map<Integer, Integer> likeCounts = toCountMap(portfolioItemMapper.sumLikeCountByUserIds(userIds), "likeCount");
+        
+        for (StudentAchievementOverviewVO overview : overviews) {
+            overview.setTotalViewCount(viewCounts.getOrDefault(overview.getUserId(), 0));
+            overview.setTotalLikeCount(likeCounts.getOrDefault(overview.getUserId(), 0));
+        }
+    }
+    
+    private Map<Integer, Integer> toCountMap(List<Map<String, Object>> rows, String countKey) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            counts.put(intValue(row, "userId"), intValue(row, countKey));
+        }
+        return counts;
+    }
+    
+    private int intValue(Map<String, Object> row, String key) {
+        Object value = row == null ? null : row.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
@@ -38,6 +38,7 @@ public class CompetitionAwardServiceImpl implements CompetitionAwardService {
     private final UserMapper userMapper;
     private final UserVerificationMapper userVerificationMapper;
     private final FileService fileService;
+    private final StudentAchievementStatsUpdater studentAchievementStatsUpdater;
 
     @Override
     public List<CompetitionAwardVO> getCompetitionAwards(Integer userId) {
@@ -134,6 +135,7 @@ public class CompetitionAwardServiceImpl implements CompetitionAwardService {
         award.setIsDeleted(false);
         
         competitionAwardMapper.insert(award);
+        studentAchievementStatsUpdater.refresh(userId);
         
         return convertToVO(award);
     }
@@ -178,7 +180,9 @@ public class CompetitionAwardServiceImpl implements CompetitionAwardService {
         }
         
         // 使用逻辑删除
-        return competitionAwardMapper.deleteById(id) > 0;
+        boolean deleted = competitionAwardMapper.deleteById(id) > 0;
+        studentAchievementStatsUpdater.refresh(award.getUserId());
+        return deleted;
     }
 
     @Override
@@ -235,6 +239,7 @@ public class CompetitionAwardServiceImpl implements CompetitionAwardService {
         award.setUpdatedAt(LocalDateTime.now());
         
         competitionAwardMapper.updateById(award);
+        studentAchievementStatsUpdater.refresh(award.getUserId());
         
         return convertToVO(award);
     }
@@ -9,11 +9,11 @@ import com.csu.unicorp.entity.achievement.AchievementView;
 import com.csu.unicorp.entity.achievement.PortfolioItem;
 import com.csu.unicorp.entity.achievement.PortfolioResource;
 import com.csu.unicorp.mapper.UserMapper;
-import com.csu.unicorp.mapper.achievement.AchievementViewMapper;
 import com.csu.unicorp.mapper.achievement.PortfolioItemMapper;
 import com.csu.unicorp.mapper.achievement.PortfolioResourceMapper;
 import com.csu.unicorp.service.FileService;
 import com.csu.unicorp.service.PortfolioService;
+import com.csu.unicorp.service.impl.ViewCounter;
 import com.csu.unicorp.vo.achievement.PortfolioItemVO;
 import com.csu.unicorp.vo.achievement.PortfolioResourceVO;
 import lombok.RequiredArgsConstructor;
@@ -42,8 +42,9 @@ public class PortfolioServiceImpl implements PortfolioService {
     private final PortfolioItemMapper portfolioItemMapper;
     private final PortfolioResourceMapper portfolioResourceMapper;
     private final UserMapper userMapper;
-    private final AchievementViewMapper achievementViewMapper;
     private final FileService fileService;
+    private final StudentAchievementStatsUpdater studentAchievementStatsUpdater;
+    private final ViewCounter viewCounter;
     
     @Override
     public List<PortfolioItemVO> getPortfolioItems(Integer userId) {
@@ -85,16 +86,16 @@ public class PortfolioServiceImpl implements PortfolioService {
             throw new BusinessException("作品不存在");
         }
         
-        // 增加查看次数
-        portfolioItemMapper.increaseViewCount(id);
+        // 合并尚未写回的查看次数
+        portfolioItem.setViewCount(viewCounter.merge(ViewCounter.Target.PORTFOLIO, id, portfolioItem.getViewCount()));
         
-        // 记录访问记录
+        // 增加查看次数并记录访问记录（定时批量写回数据库）
         AchievementView achievementView = new AchievementView();
         achievementView.setAchievementType("portfolio");
         achievementView.setAchievementId(id);
         achievementView.setViewerIp(viewerIp);
         achievementView.setViewTime(LocalDateTime.now());
-        achievementViewMapper.insert(achievementView);
+        viewCounter.recordAchievementView(ViewCounter.Target.PORTFOLIO, achievementView);
         
         return convertToDetailVO(portfolioItem);
     }
@@ -138,6 +139,7 @@ public class PortfolioServiceImpl implements PortfolioService {
         portfolioItem.setIsDeleted(false);
         
         portfolioItemMapper.insert(portfolioItem);
+        studentAchievementStatsUpdater.refresh(userId);
         
         return convertToVO(portfolioItem);
     }
@@ -212,6 +214,7 @@ public class PortfolioServiceImpl implements PortfolioService {
         
         // 逻辑删除作品
         portfolioItemMapper.deleteById(id);
+        studentAchievementStatsUpdater.refresh(portfolioItem.getUserId());
         
         // 检查是否有资源，并删除作品资源（物理删除）
         try {
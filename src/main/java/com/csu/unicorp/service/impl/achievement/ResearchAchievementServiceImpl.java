@@ -38,6 +38,7 @@ public class ResearchAchievementServiceImpl implements ResearchAchievementServic
     private final UserMapper userMapper;
     private final UserVerificationMapper userVerificationMapper;
     private final FileService fileService;
+    private final StudentAchievementStatsUpdater studentAchievementStatsUpdater;
 
     @Override
     public List<ResearchAchievementVO> getResearchAchievements(Integer userId) {
@@ -151,6 +152,7 @@ public class ResearchAchievementServiceImpl implements ResearchAchievementServic
         }
         
         researchAchievementMapper.insert(achievement);
+        studentAchievementStatsUpdater.refresh(userId);
         
         return convertToVO(achievement);
     }
@@ -219,7 +221,9 @@ public class ResearchAchievementServiceImpl implements ResearchAchievementServic
         }
         
         // 使用逻辑删除
-        return researchAchievementMapper.deleteById(id) > 0;
+        boolean deleted = researchAchievementMapper.deleteById(id) > 0;
+        studentAchievementStatsUpdater.refresh(achievement.getUserId());
+        return deleted;
     }
 
     @Override
@@ -248,6 +252,7 @@ public class ResearchAchievementServiceImpl implements ResearchAchievementServic
         achievement.setUpdatedAt(LocalDateTime.now());
         
         researchAchievementMapper.updateById(achievement);
+        studentAchievementStatsUpdater.refresh(achievement.getUserId());
         
         return convertToVO(achievement);
     }
@@ -0,0 +1,72 @@
+package com.csu.unicorp.service.impl.achievement;
+
+import com.csu.unicorp.mapper.achievement.StudentAchievementStatsMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 学生成果统计维护
+ * <p>
+ * 1. 成果新增、删除、认证后按成果表重新计算该学生的统计行，重算而不是增减计数，并发写入时不会累积误差；<br>
+ * 2. 在事务中调用时推迟到事务提交后执行，保证能读到已提交的成果数据；<br>
+ * 3. 统计更新失败只记录日志，不影响成果写入，由定时全量重建兜底修正。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentAchievementStatsUpdater {
+
+    private final StudentAchievementStatsMapper studentAchievementStatsMapper;
+
+    /**
+     * 重新计算学生的成果统计
+     *
+     * @param userId 学生ID
+     */
+    public void refresh(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshNow(userId);
+                }
+            });
+        } else {
+            refreshNow(userId);
+        }
+    }
+
+    /**
+     * 立即重新计算学生的成果统计
+     *
+     * @param userId 学生ID
+     */
+    public void refreshNow(Integer userId) {
+        try {
+            studentAchievementStatsMapper.refreshByUserId(userId);
+        } catch (Exception e) {
+            log.error("更新学生{}的成果统计失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建所有学生的成果统计，修正遗漏的增量更新
+     */
+    @Scheduled(cron = "${app.achievement.stats-rebuild-cron:0 30 3 * * ?}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        try {
+            int rows = studentAchievementStatsMapper.rebuildAll();
+            log.info("学生成果统计重建完成，影响{}行，耗时{}ms", rows, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("学生成果统计重建失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.csu.unicorp.service.impl.chat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.config.WebSocketUserMessageRelay;
+import com.csu.unicorp.entity.ChatMessage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 消息入库确认通知
+ * 消息先推送给接收方再异步入库，入库后通过 /user/queue/message-acks 通知发送方，
+ * 前端收到确认前可将消息显示为“发送中”。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatMessageAckNotifier {
+
+    private static final String ACK_DESTINATION = "/queue/message-acks";
+
+    private final WebSocketUserMessageRelay userMessageRelay;
+
+    @EventListener
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        for (ChatMessage message : event.getMessages()) {
+            Map<String, Object> ack = new LinkedHashMap<>();
+            ack.put("messageId", message.getId());
+            ack.put("sessionId", message.getSessionId());
+            ack.put("status", "PERSISTED");
+            try {
+                userMessageRelay.sendToUser(String.valueOf(message.getSenderId()), ACK_DESTINATION, ack);
+            } catch (Exception e) {
+                log.warn("发送消息{}的入库确认失败: {}", message.getId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.csu.unicorp.service.impl.chat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.entity.ChatMessage;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 聊天消息本地日志
+ * <p>
+ * 消息进入写入队列前先以一行JSON追加到当前段文件，段文件按序号命名（如 chat-00000012.log）。
+ * 每个段记录尚未写入数据库的消息数，段写满后切换到新段，旧段的消息全部入库后删除该段。
+ * 进程异常退出时未删除的段即为可能丢失的消息，启动时由{@link ChatMessagePipeline}读取并补写。
+ */
+@Slf4j
+@Component
+public class ChatMessageJournal {
+
+    private static final String SEGMENT_PREFIX = "chat-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Value("${app.chat.journal.dir:chat-journal}")
+    private String journalDir;
+
+    /**
+     * 单个段文件的最大字节数
+     */
+    @Value("${app.chat.journal.segment-size:8388608}")
+    private long segmentSize;
+
+    /**
+     * 每条消息追加后是否强制刷盘，关闭时依赖操作系统刷盘，进程崩溃不丢失，主机掉电可能丢失最近的消息
+     */
+    @Value("${app.chat.journal.fsync:false}")
+    private boolean fsync;
+
+    private Path directory;
+
+    /**
+     * 启动时遗留的段文件，补写完成后删除
+     */
+    private final List<Path> recoveredSegments = new ArrayList<>();
+
+    /**
+     * 段序号 -> 未入库的消息数
+     */
+    private final Map<Long, Integer> pending = new HashMap<>();
+
+    private long currentSegment;
+    private FileChannel currentChannel;
+    private long currentSize;
+
+    @PostConstruct
+    public synchronized void init() throws IOException {
+        directory = Paths.get(journalDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        long maxSegment = 0;
+        for (Map.Entry<Long, Path> entry : listSegments().entrySet()) {
+            recoveredSegments.add(entry.getValue());
+            maxSegment = Math.max(maxSegment, entry.getKey());
+        }
+        openSegment(maxSegment + 1);
+    }
+
+    /**
+     * 追加一条消息
+     *
+     * @param message 已分配ID的消息
+     * @return 消息所在段的序号，消息入库后用于{@link #acknowledge}
+     */
+    public synchronized long append(ChatMessage message) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            currentChannel.write(buffer);
+        }
+        if (fsync) {
+            currentChannel.force(false);
+        }
+        currentSize += line.length;
+        long segment = currentSegment;
+        pending.merge(segment, 1, Integer::sum);
+        if (currentSize >= segmentSize) {
+            openSegment(currentSegment + 1);
+        }
+        return segment;
+    }
+
+    /**
+     * 确认段中的消息已入库，段已切换且消息全部入库时删除段文件
+     *
+     * @param segment 段序号
+     * @param count 已入库的消息数
+     */
+    public synchronized void acknowledge(long segment, int count) {
+        Integer remaining = pending.merge(segment, -count, Integer::sum);
+        if (remaining != null && remaining <= 0 && segment != currentSegment) {
+            pending.remove(segment);
+            deleteQuietly(segmentPath(segment));
+        }
+    }
+
+    /**
+     * 读取启动时遗留的消息，末尾写了一半的行会被跳过
+     *
+     * @return 遗留的消息，按写入顺序
+     */
+    public synchronized List<ChatMessage> readRecovered() {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (Path segment : recoveredSegments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        messages.add(objectMapper.readValue(line, ChatMessage.class));
+                    } catch (IOException e) {
+                        log.warn("跳过聊天日志{}中无法解析的记录: {}", segment.getFileName(), e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                log.error("读取聊天日志{}失败: {}", segment, e.getMessage());
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * 遗留消息补写完成后删除遗留的段文件
+     */
+    public synchronized void clearRecovered() {
+        recoveredSegments.forEach(this::deleteQuietly);
+        recoveredSegments.clear();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            currentChannel.close();
+        } catch (IOException e) {
+            log.warn("关闭聊天日志失败: {}", e.getMessage());
+        }
+        // 当前段的消息已全部入库时删除，避免下次启动重复检查
+        if (pending.getOrDefault(currentSegment, 0) <= 0) {
+            deleteQuietly(segmentPath(currentSegment));
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+            if (pending.getOrDefault(currentSegment, 0) <= 0) {
+                pending.remove(currentSegment);
+                deleteQuietly(segmentPath(currentSegment));
+            }
+        }
+        currentSegment = segment;
+        currentChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSize = currentChannel.size();
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())), file);
+                    } catch (NumberFormatException ignored) {
+                        // 非日志段文件
+                    }
+                }
+            });
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除聊天日志{}失败: {}", path, e.getMessage());
+        }
+    }
+}
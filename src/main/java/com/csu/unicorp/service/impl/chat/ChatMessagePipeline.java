@@ -0,0 +1,427 @@
+package com.csu.unicorp.service.impl.chat;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.csu.unicorp.common.utils.SnowflakeIdGenerator;
+import com.csu.unicorp.entity.ChatMessage;
+import com.csu.unicorp.mapper.ChatMessageMapper;
+import com.csu.unicorp.mapper.ChatSessionMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 聊天消息写入流水线
+ * <p>
+ * 1. 消息ID在内存中按Snowflake规则分配，不依赖数据库自增，消息可以先推送再入库；<br>
+ * 2. 消息先追加到本地日志{@link ChatMessageJournal}，再放入写入队列，请求线程不等待数据库；<br>
+ * 3. 后台线程攒批后在一个事务中写入：先按会话ID顺序更新会话未读数（锁定会话行），再批量插入消息，
+ *    最后更新会话的最后一条消息，加锁顺序与标记已读一致；<br>
+ * 4. 事务提交后确认日志段并发布{@link ChatMessagesPersistedEvent}；写入失败时重试，仍失败的消息保留在日志中；<br>
+ * 5. 启动时读取上次遗留的日志，跳过已入库的消息后补写；<br>
+ * 6. 队列满时由请求线程同步写入，不丢弃消息；同步写入失败时同样保留在日志中，不向客户端报错，避免重发造成重复。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatMessagePipeline {
+
+    /**
+     * 会话列表中最后一条消息摘要的最大长度，与chat_session.last_message_snippet一致
+     */
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final ChatMessageMapper chatMessageMapper;
+    private final ChatSessionMapper chatSessionMapper;
+    private final ChatMessageJournal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 消息ID的节点号（0~31），多节点部署时必须为每个节点配置不同的值，未配置时拒绝启动；
+     * 单节点（simple代理）未配置时为0
+     */
+    @Value("${app.chat.id-node:-1}")
+    private int idNode;
+
+    /**
+     * WebSocket消息代理模式，simple为单节点部署
+     */
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.chat.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.chat.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.chat.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.chat.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.chat.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenInline = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 已接收尚未入库的消息，查询历史消息时合并
+     */
+    private final Map<Long, ChatMessage> inFlight = new ConcurrentHashMap<>();
+
+    private SnowflakeIdGenerator idGenerator;
+    private BlockingQueue<Entry> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        int node = resolveIdNode();
+        idGenerator = new SnowflakeIdGenerator(node);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        recover();
+        running = true;
+        worker = new Thread(this::run, "chat-message-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("聊天消息写入流水线已启动，ID节点号: {}", node);
+    }
+
+    /**
+     * 确定消息ID的节点号，多节点部署时节点号相同会生成重复的消息ID，因此必须显式配置
+     */
+    private int resolveIdNode() {
+        if (idNode >= 0) {
+            return idNode;
+        }
+        if ("simple".equalsIgnoreCase(brokerMode)) {
+            return 0;
+        }
+        throw new IllegalStateException("多节点部署（app.websocket.broker.mode=" + brokerMode
+                + "）必须为每个节点配置不同的 app.chat.id-node（0~" + SnowflakeIdGenerator.MAX_NODE_ID + "）");
+    }
+
+    /**
+     * 接收一条消息：分配ID、写入本地日志并排队异步入库
+     *
+     * @param message 消息，ID由本方法分配
+     * @return 已分配ID的消息
+     */
+    public ChatMessage submit(ChatMessage message) {
+        prepare(message);
+        long segment;
+        try {
+            segment = journal.append(message);
+        } catch (IOException e) {
+            log.error("写入聊天日志失败，改为同步入库: {}", e.getMessage());
+            persistNow(message);
+            return message;
+        }
+        Entry entry = new Entry(message, segment);
+        inFlight.put(message.getId(), message);
+        accepted.incrementAndGet();
+        if (!queue.offer(entry)) {
+            // 写入队列已满，由请求线程同步写入，起到背压作用
+            if (write(Collections.singletonList(entry))) {
+                writtenInline.incrementAndGet();
+            } else {
+                // 消息已在本地日志中，与后台线程写入失败相同，保留在日志中等待重启后补写，仍视为发送成功；
+                // 此时报错会让客户端重发，补写后出现重复消息
+                failed.incrementAndGet();
+                inFlight.remove(message.getId());
+                log.error("聊天消息{}同步入库失败，保留在本地日志中等待重启后补写", message.getId());
+            }
+        }
+        return message;
+    }
+
+    /**
+     * 同步写入一条消息
+     *
+     * @param message 消息，未分配ID时由本方法分配
+     * @return 已入库的消息
+     */
+    public ChatMessage persistNow(ChatMessage message) {
+        prepare(message);
+        List<ChatMessage> messages = Collections.singletonList(message);
+        transactionTemplate.executeWithoutResult(status -> writeBatch(messages));
+        eventPublisher.publishEvent(new ChatMessagesPersistedEvent(messages));
+        return message;
+    }
+
+    /**
+     * 获取会话中已接收尚未入库的消息
+     *
+     * @param sessionId 会话ID
+     * @return 消息列表
+     */
+    public List<ChatMessage> getInFlightMessages(Long sessionId) {
+        if (inFlight.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return inFlight.values().stream()
+                .filter(message -> sessionId.equals(message.getSessionId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取流水线统计信息
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("pending", (long) queue.size());
+        statistics.put("inFlight", (long) inFlight.size());
+        statistics.put("accepted", accepted.get());
+        statistics.put("written", written.get());
+        statistics.put("writtenInline", writtenInline.get());
+        statistics.put("recovered", recovered.get());
+        statistics.put("failed", failed.get());
+        return statistics;
+    }
+
+    private void prepare(ChatMessage message) {
+        if (message.getId() == null) {
+            message.setId(idGenerator.nextId());
+        }
+        if (message.getSentAt() == null) {
+            message.setSentAt(LocalDateTime.now());
+        }
+        if (message.getIsRead() == null) {
+            message.setIsRead(0);
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            flush(batch);
+        }
+        // 关闭超时被中断时，尽量写完剩余消息
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * 攒一批消息：攒满一批或距第一条消息超过刷新间隔即返回
+     */
+    private void fillBatch(List<Entry> batch) throws InterruptedException {
+        Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * 写入一批消息，整批重试失败后逐条写入，只有确实写不进去的消息留在日志中等待下次启动补写
+     */
+    private void flush(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                if (write(batch)) {
+                    return;
+                }
+                if (attempt < maxRetries) {
+                    TimeUnit.MILLISECONDS.sleep(100L * attempt);
+                }
+            }
+            for (Entry entry : batch) {
+                if (!write(Collections.singletonList(entry))) {
+                    failed.incrementAndGet();
+                    inFlight.remove(entry.message.getId());
+                    log.error("聊天消息{}入库失败，保留在本地日志中等待重启后补写", entry.message.getId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 在一个事务中写入消息，提交后确认日志并发布入库事件
+     *
+     * @return 是否写入成功
+     */
+    private boolean write(List<Entry> entries) {
+        List<ChatMessage> messages = entries.stream().map(entry -> entry.message).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeBatch(messages));
+        } catch (Exception e) {
+            log.warn("写入{}条聊天消息失败: {}", messages.size(), e.getMessage());
+            return false;
+        }
+        written.addAndGet(messages.size());
+        Map<Long, Integer> segments = new HashMap<>();
+        for (Entry entry : entries) {
+            segments.merge(entry.segment, 1, Integer::sum);
+            inFlight.remove(entry.message.getId());
+        }
+        segments.forEach(journal::acknowledge);
+        try {
+            eventPublisher.publishEvent(new ChatMessagesPersistedEvent(messages));
+        } catch (Exception e) {
+            log.warn("发布聊天消息入库事件失败: {}", e.getMessage());
+        }
+        return true;
+    }
+
+    private void writeBatch(List<ChatMessage> messages) {
+        // 按会话ID顺序加锁，多个批次之间以及与标记已读之间不会互相等待
+        Map<Long, List<ChatMessage>> bySession = new TreeMap<>();
+        for (ChatMessage message : messages) {
+            bySession.computeIfAbsent(message.getSessionId(), k -> new ArrayList<>()).add(message);
+        }
+        bySession.forEach((sessionId, sessionMessages) -> {
+            Map<Long, Integer> bySender = new TreeMap<>();
+            sessionMessages.forEach(message -> bySender.merge(message.getSenderId(), 1, Integer::sum));
+            bySender.forEach((senderId, count) -> chatSessionMapper.incrementUnreadCount(sessionId, senderId, count));
+        });
+
+        chatMessageMapper.insertBatch(messages);
+
+        bySession.forEach((sessionId, sessionMessages) -> {
+            ChatMessage last = sessionMessages.stream().max(Comparator.comparing(ChatMessage::getId)).get();
+            chatSessionMapper.updateLastMessage(sessionId, last.getId(), snippet(last.getContent()), last.getSentAt());
+        });
+    }
+
+    /**
+     * 补写上次遗留在本地日志中的消息
+     */
+    private void recover() {
+        List<ChatMessage> messages = journal.readRecovered();
+        if (messages.isEmpty()) {
+            journal.clearRecovered();
+            return;
+        }
+        try {
+            Set<Long> existing = new HashSet<>();
+            for (int i = 0; i < messages.size(); i += batchSize) {
+                List<Long> ids = messages.subList(i, Math.min(i + batchSize, messages.size())).stream()
+                        .map(ChatMessage::getId)
+                        .collect(Collectors.toList());
+                chatMessageMapper.selectBatchIds(ids).forEach(message -> existing.add(message.getId()));
+            }
+            List<ChatMessage> missing = messages.stream()
+                    .filter(message -> !existing.contains(message.getId()))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < missing.size(); i += batchSize) {
+                List<ChatMessage> chunk = missing.subList(i, Math.min(i + batchSize, missing.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeBatch(chunk));
+                    recovered.addAndGet(chunk.size());
+                } catch (Exception e) {
+                    // 整批失败时逐条补写，跳过无法写入的消息（如会话已不存在）
+                    for (ChatMessage message : chunk) {
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> writeBatch(List.of(message)));
+                            recovered.incrementAndGet();
+                        } catch (Exception ex) {
+                            failed.incrementAndGet();
+                            log.error("补写聊天消息{}失败，已放弃: {}", message.getId(), ex.getMessage());
+                        }
+                    }
+                }
+            }
+            journal.clearRecovered();
+            log.info("从本地日志补写聊天消息{}条，已入库跳过{}条", missing.size(), existing.size());
+        } catch (Exception e) {
+            // 数据库不可用时保留日志，下次启动再补写
+            log.error("补写本地日志中的聊天消息失败: {}", e.getMessage());
+        }
+    }
+
+    private static String snippet(String content) {
+        if (content == null || content.codePointCount(0, content.length()) <= SNIPPET_LENGTH) {
+            return content;
+        }
+        return content.substring(0, content.offsetByCodePoints(0, SNIPPET_LENGTH));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMs);
+            if (worker.isAlive()) {
+                worker.interrupt();
+                worker.join(shutdownTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("聊天消息写入流水线已关闭，统计: {}", getStatistics());
+    }
+
+    /**
+     * 队列中的消息及其所在的日志段
+     */
+    private static class Entry {
+
+        private final ChatMessage message;
+        private final long segment;
+
+        private Entry(ChatMessage message, long segment) {
+            this.message = message;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.csu.unicorp.service.impl.chat;
+
+import java.util.List;
+
+import com.csu.unicorp.entity.ChatMessage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 聊天消息已入库事件，在写入事务提交后发布
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessagesPersistedEvent {
+
+    /**
+     * 本批入库的消息
+     */
+    private final List<ChatMessage> messages;
+}
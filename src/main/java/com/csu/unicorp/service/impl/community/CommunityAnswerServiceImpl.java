@@ -1,7 +1,13 @@
 package com.csu.unicorp.service.impl.community;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,10 +25,7 @@ import com.csu.unicorp.entity.community.CommunityAnswer;
 import com.csu.unicorp.mapper.community.CommunityAnswerMapper;
 import com.csu.unicorp.service.CacheService;
 import com.csu.unicorp.service.CommunityAnswerService;
-import com.csu.unicorp.service.CommunityLikeService;
 import com.csu.unicorp.service.CommunityQuestionService;
-import com.csu.unicorp.service.FileService;
-import com.csu.unicorp.service.UserService;
 import com.csu.unicorp.vo.community.AnswerVO;
 
 import lombok.RequiredArgsConstructor;
@@ -38,10 +41,8 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
         implements CommunityAnswerService {
 
     private final CommunityQuestionService questionService;
-    private final CommunityLikeService likeService;
-    private final UserService userService;
-    private final FileService fileService;
     private final CacheService cacheService;
+    private final CommunityPageHydrator pageHydrator;
     
     @Override
     @Transactional
@@ -159,9 +160,7 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
                 log.debug("从缓存获取问题回答列表: {}", questionId);
                 // 更新用户交互状态
                 if (userId != null && cachedPage.getRecords() != null) {
-                    for (AnswerVO answer : cachedPage.getRecords()) {
-                        answer.setLiked(likeService.checkLike(userId, answer.getId(), "ANSWER"));
-                    }
+                    updateLikeStatus(cachedPage.getRecords(), userId);
                 }
                 return cachedPage;
             }
@@ -178,18 +177,14 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
         Page<CommunityAnswer> answerPage = page(pageParam, queryWrapper);
         
         Page<AnswerVO> voPage = new Page<>(answerPage.getCurrent(), answerPage.getSize(), answerPage.getTotal());
-        voPage.setRecords(answerPage.getRecords().stream()
-                .map(answer -> convertToVO(answer, userId))
-                .toList());
+        voPage.setRecords(convertToVOList(answerPage.getRecords(), userId));
         
         // 缓存第一页数据
         if (page == 1) {
             String cacheKey = CacheConstants.QUESTION_ANSWERS_CACHE_KEY_PREFIX + questionId + ":" + size;
             // 缓存不包含用户交互状态的数据
             Page<AnswerVO> cacheData = new Page<>(voPage.getCurrent(), voPage.getSize(), voPage.getTotal());
-            cacheData.setRecords(answerPage.getRecords().stream()
-                    .map(answer -> convertToVO(answer, null))
-                    .toList());
+            cacheData.setRecords(convertToVOList(answerPage.getRecords(), null));
             cacheService.set(cacheKey, cacheData, CacheConstants.ANSWER_CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
         }
         
@@ -206,9 +201,7 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
                 log.debug("从缓存获取用户回答列表: {}", userId);
                 // 更新用户交互状态
                 if (currentUserId != null && cachedPage.getRecords() != null) {
-                    for (AnswerVO answer : cachedPage.getRecords()) {
-                        answer.setLiked(likeService.checkLike(currentUserId, answer.getId(), "ANSWER"));
-                    }
+                    updateLikeStatus(cachedPage.getRecords(), currentUserId);
                 }
                 return cachedPage;
             }
@@ -223,18 +216,14 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
         Page<CommunityAnswer> answerPage = page(pageParam, queryWrapper);
         
         Page<AnswerVO> voPage = new Page<>(answerPage.getCurrent(), answerPage.getSize(), answerPage.getTotal());
-        voPage.setRecords(answerPage.getRecords().stream()
-                .map(answer -> convertToVO(answer, currentUserId))
-                .toList());
+        voPage.setRecords(convertToVOList(answerPage.getRecords(), currentUserId));
         
         // 缓存第一页数据
         if (page == 1) {
             String cacheKey = CacheConstants.USER_ANSWERS_CACHE_KEY_PREFIX + userId + ":" + size;
             // 缓存不包含用户交互状态的数据
             Page<AnswerVO> cacheData = new Page<>(voPage.getCurrent(), voPage.getSize(), voPage.getTotal());
-            cacheData.setRecords(answerPage.getRecords().stream()
-                    .map(answer -> convertToVO(answer, null))
-                    .toList());
+            cacheData.setRecords(convertToVOList(answerPage.getRecords(), null));
             cacheService.set(cacheKey, cacheData, CacheConstants.USER_CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
         }
         
@@ -277,37 +266,55 @@ public class CommunityAnswerServiceImpl extends ServiceImpl<CommunityAnswerMappe
         if (answer == null) {
             return null;
         }
-        
-        // 获取用户信息
-        User user = userService.getById(answer.getUserId().intValue());
-        String userName = "用户" + answer.getUserId();
-        String userAvatar = "/avatars/default/avatar.jpg";
-        
-        if (user != null) {
-            userName = user.getNickname();
-            if (user.getAvatar() != null && !user.getAvatar().isEmpty()) {
-                userAvatar = fileService.getFullFileUrl(user.getAvatar());
-            }
+        return convertToVOList(Collections.singletonList(answer), userId).get(0);
+    }
+    
+    /**
+     * 批量将实体转换为VO，作者和点赞状态各用一次查询加载
+     * @param answers 回答实体列表
+     * @param userId 当前用户ID（可选）
+     * @return 回答VO列表
+     */
+    private List<AnswerVO> convertToVOList(List<CommunityAnswer> answers, Long userId) {
+        Map<Long, User> users = pageHydrator.loadUsers(answers.stream()
+                .map(CommunityAnswer::getUserId)
+                .collect(Collectors.toList()));
+        
+        List<AnswerVO> voList = new ArrayList<>(answers.size());
+        for (CommunityAnswer answer : answers) {
+            User user = users.get(answer.getUserId());
+            voList.add(AnswerVO.builder()
+                    .id(answer.getId())
+                    .content(answer.getContent())
+                    .userId(answer.getUserId())
+                    .userName(pageHydrator.displayName(user, answer.getUserId()))
+                    .userAvatar(pageHydrator.avatarUrl(user))
+                    .questionId(answer.getQuestionId())
+                    .likeCount(answer.getLikeCount())
+                    .isAccepted(answer.getIsAccepted())
+                    .createdAt(answer.getCreatedAt())
+                    .updatedAt(answer.getUpdatedAt())
+                    .build());
         }
         
-        AnswerVO vo = AnswerVO.builder()
-                .id(answer.getId())
-                .content(answer.getContent())
-                .userId(answer.getUserId())
-                .userName(userName)
-                .userAvatar(userAvatar)
-                .questionId(answer.getQuestionId())
-                .likeCount(answer.getLikeCount())
-                .isAccepted(answer.getIsAccepted())
-                .createdAt(answer.getCreatedAt())
-                .updatedAt(answer.getUpdatedAt())
-                .build();
-        
         // 检查当前用户是否已点赞
-        if (userId != null) {
-            vo.setLiked(likeService.checkLike(userId, answer.getId(), "ANSWER"));
+        updateLikeStatus(voList, userId);
+        return voList;
+    }
+    
+    /**
+     * 批量更新回答列表中当前用户的点赞状态
+     * @param answers 回答VO列表
+     * @param userId 当前用户ID（可选）
+     */
+    private void updateLikeStatus(List<AnswerVO> answers, Long userId) {
+        if (answers.isEmpty() || userId == null) {
+            return;
+        }
+        Set<Long> likedAnswerIds = pageHydrator.likedIds(userId, "ANSWER",
+                answers.stream().map(AnswerVO::getId).collect(Collectors.toList()));
+        for (AnswerVO answer : answers) {
+            answer.setLiked(likedAnswerIds.contains(answer.getId()));
         }
-        
-        return vo;
     }
 } 
\ No newline at end of file
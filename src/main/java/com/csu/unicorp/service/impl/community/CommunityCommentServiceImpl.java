@@ -2,7 +2,11 @@ package com.csu.unicorp.service.impl.community;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -24,7 +28,6 @@ import com.csu.unicorp.service.CacheService;
 import com.csu.unicorp.service.CommunityCommentService;
 import com.csu.unicorp.service.CommunityLikeService;
 import com.csu.unicorp.service.CommunityNotificationService;
-import com.csu.unicorp.service.FileService;
 import com.csu.unicorp.service.UserService;
 import com.csu.unicorp.vo.community.CommentVO;
 
@@ -43,9 +46,9 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
     private final CommunityCommentMapper commentMapper;
     private final CommunityLikeService likeService;
     private final UserService userService;
-    private final FileService fileService;
     private final CommunityNotificationService notificationService;
     private final CacheService cacheService;
+    private final CommunityPageHydrator pageHydrator;
 
     @Override
     @Transactional
@@ -154,13 +157,15 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
                 log.debug("从缓存获取话题评论列表: {}", topicId);
                 // 更新用户交互状态
                 if (userId != null && cachedPage.getRecords() != null) {
-                    for (CommentVO comment : cachedPage.getRecords()) {
-                        comment.setLiked(likeService.checkLike(userId, comment.getId(), "COMMENT"));
-                        // 递归更新回复的点赞状态
+                    // 评论和回复的点赞状态合并为一次批量查询
+                    List<CommentVO> comments = cachedPage.getRecords();
+                    List<CommentVO> commentsAndReplies = new ArrayList<>(comments);
+                    for (CommentVO comment : comments) {
                         if (comment.getReplies() != null) {
-                            updateRepliesLikeStatus(comment.getReplies(), userId);
+                            commentsAndReplies.addAll(comment.getReplies());
                         }
                     }
+                    updateRepliesLikeStatus(commentsAndReplies, userId);
                 }
                 return cachedPage;
             }
@@ -179,18 +184,29 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
         // 执行分页查询
         Page<CommunityComment> commentPage = page(pageParam, queryWrapper);
         
-        // 转换为VO并加载回复
-        Page<CommentVO> voPage = new Page<>(commentPage.getCurrent(), commentPage.getSize(), commentPage.getTotal());
-        List<CommentVO> voList = commentPage.getRecords().stream()
-                .map(comment -> {
-                    CommentVO vo = convertToVO(comment, userId);
-                    // 获取评论的回复
-                    List<CommentVO> replies = getCommentReplies(comment.getId(), userId);
-                    vo.setReplies(replies);
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        // 一次查询整页评论的回复，再与评论一起批量转换为VO
+        List<CommunityComment> comments = commentPage.getRecords();
+        List<CommunityComment> commentsAndReplies = new ArrayList<>(comments);
+        if (!comments.isEmpty()) {
+            LambdaQueryWrapper<CommunityComment> replyQuery = new LambdaQueryWrapper<>();
+            replyQuery.in(CommunityComment::getParentId,
+                            comments.stream().map(CommunityComment::getId).collect(Collectors.toList()))
+                     .eq(CommunityComment::getStatus, "NORMAL")
+                     .orderByAsc(CommunityComment::getCreatedAt);
+            commentsAndReplies.addAll(list(replyQuery));
+        }
+        List<CommentVO> converted = convertToVOList(commentsAndReplies, userId);
+        
+        Map<Long, List<CommentVO>> repliesByParent = new HashMap<>();
+        for (CommentVO reply : converted.subList(comments.size(), converted.size())) {
+            repliesByParent.computeIfAbsent(reply.getParentId(), k -> new ArrayList<>()).add(reply);
+        }
+        List<CommentVO> voList = new ArrayList<>(converted.subList(0, comments.size()));
+        for (CommentVO vo : voList) {
+            vo.setReplies(repliesByParent.getOrDefault(vo.getId(), new ArrayList<>()));
+        }
         
+        Page<CommentVO> voPage = new Page<>(commentPage.getCurrent(), commentPage.getSize(), commentPage.getTotal());
         voPage.setRecords(voList);
         
         // 缓存第一页数据
@@ -245,14 +261,12 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
         List<CommunityComment> replyList = list(queryWrapper);
         
         // 转换为VO
-        List<CommentVO> result = replyList.stream()
-                .map(reply -> convertToVO(reply, userId))
-                .collect(Collectors.toList());
+        List<CommentVO> result = convertToVOList(replyList, userId);
         
         // 缓存结果（不包含用户交互状态）
-        List<CommentVO> cacheList = replyList.stream()
+        List<CommentVO> cacheList = result.stream()
                 .map(reply -> {
-                    CommentVO vo = convertToVO(reply, null);
+                    CommentVO vo = cloneCommentVO(reply);
                     vo.setLiked(false);
                     return vo;
                 })
@@ -288,9 +302,7 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
         
         // 转换为VO
         Page<CommentVO> voPage = new Page<>(commentPage.getCurrent(), commentPage.getSize(), commentPage.getTotal());
-        List<CommentVO> voList = commentPage.getRecords().stream()
-                .map(comment -> convertToVO(comment, userId))
-                .collect(Collectors.toList());
+        List<CommentVO> voList = convertToVOList(commentPage.getRecords(), userId);
         
         voPage.setRecords(voList);
         
@@ -451,9 +463,7 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
         
         // 转换为VO
         Page<CommentVO> voPage = new Page<>(commentPage.getCurrent(), commentPage.getSize(), commentPage.getTotal());
-        List<CommentVO> voList = commentPage.getRecords().stream()
-                .map(comment -> convertToVO(comment, null))
-                .collect(Collectors.toList());
+        List<CommentVO> voList = convertToVOList(commentPage.getRecords(), null);
         
         voPage.setRecords(voList);
         
@@ -476,55 +486,77 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
         if (comment == null) {
             return null;
         }
+        return convertToVOList(Collections.singletonList(comment), userId).get(0);
+    }
+    
+    /**
+     * 批量将评论实体转换为VO，顺序与入参一致
+     * <p>
+     * 不在列表中的父评论用一次查询补齐，评论和父评论的作者用一次查询加载，点赞状态用一次查询获取。
+     * @param comments 评论实体列表
+     * @param userId 当前用户ID（可选）
+     * @return 评论VO列表
+     */
+    private List<CommentVO> convertToVOList(List<CommunityComment> comments, Long userId) {
+        if (comments.isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        // 获取评论用户信息
-        User user = userService.getById(comment.getUserId().intValue());
-        String userName = "用户" + comment.getUserId();
-        String userAvatar = "/avatars/default/avatar.jpg";
-        
-        if (user != null) {
-            userName = user.getNickname();
-            if (user.getAvatar() != null && !user.getAvatar().isEmpty()) {
-                userAvatar = fileService.getFullFileUrl(user.getAvatar());
+        // 收集父评论，已在列表中的不再查询
+        Map<Long, CommunityComment> parents = new HashMap<>();
+        for (CommunityComment comment : comments) {
+            parents.put(comment.getId(), comment);
+        }
+        Set<Long> missingParentIds = comments.stream()
+                .map(CommunityComment::getParentId)
+                .filter(parentId -> parentId != null && !parents.containsKey(parentId))
+                .collect(Collectors.toSet());
+        if (!missingParentIds.isEmpty()) {
+            for (CommunityComment parent : listByIds(missingParentIds)) {
+                parents.put(parent.getId(), parent);
             }
         }
         
-        // 构建评论VO
-        CommentVO vo = CommentVO.builder()
-                .id(comment.getId())
-                .content(comment.getContent())
-                .userId(comment.getUserId())
-                .userName(userName)
-                .userAvatar(userAvatar)
-                .topicId(comment.getTopicId())
-                .parentId(comment.getParentId())
-                .likeCount(comment.getLikeCount())
-                .status(comment.getStatus())
-                .createdAt(comment.getCreatedAt())
-                .updatedAt(comment.getUpdatedAt())
-                .build();
+        // 批量加载评论和父评论的作者
+        Map<Long, User> users = pageHydrator.loadUsers(parents.values().stream()
+                .map(CommunityComment::getUserId)
+                .collect(Collectors.toList()));
+        Set<Long> likedCommentIds = pageHydrator.likedIds(userId, "COMMENT",
+                comments.stream().map(CommunityComment::getId).collect(Collectors.toList()));
         
-        // 如果有父评论，获取父评论用户名
-        if (comment.getParentId() != null) {
-            CommunityComment parentComment = getById(comment.getParentId());
-            if (parentComment != null) {
-                User parentUser = userService.getById(parentComment.getUserId().intValue());
-                if (parentUser != null) {
-                    vo.setParentUserName(parentUser.getNickname());
-                } else {
-                    vo.setParentUserName("用户" + parentComment.getUserId());
+        List<CommentVO> voList = new ArrayList<>(comments.size());
+        for (CommunityComment comment : comments) {
+            User user = users.get(comment.getUserId());
+            
+            // 构建评论VO
+            CommentVO vo = CommentVO.builder()
+                    .id(comment.getId())
+                    .content(comment.getContent())
+                    .userId(comment.getUserId())
+                    .userName(pageHydrator.displayName(user, comment.getUserId()))
+                    .userAvatar(pageHydrator.avatarUrl(user))
+                    .topicId(comment.getTopicId())
+                    .parentId(comment.getParentId())
+                    .likeCount(comment.getLikeCount())
+                    .status(comment.getStatus())
+                    .createdAt(comment.getCreatedAt())
+                    .updatedAt(comment.getUpdatedAt())
+                    .build();
+            
+            // 如果有父评论，设置父评论用户名
+            if (comment.getParentId() != null) {
+                CommunityComment parentComment = parents.get(comment.getParentId());
+                if (parentComment != null) {
+                    vo.setParentUserName(pageHydrator.displayName(
+                            users.get(parentComment.getUserId()), parentComment.getUserId()));
                 }
             }
+            
+            // 设置当前用户是否已点赞
+            vo.setLiked(likedCommentIds.contains(comment.getId()));
+            voList.add(vo);
         }
-        
-        // 设置当前用户是否已点赞
-        if (userId != null) {
-            vo.setLiked(checkUserLikedComment(userId, comment.getId()));
-        } else {
-            vo.setLiked(false);
-        }
-        
-        return vo;
+        return voList;
     }
 
     /**
@@ -556,8 +588,10 @@ public class CommunityCommentServiceImpl extends ServiceImpl<CommunityCommentMap
             return;
         }
         
+        Set<Long> likedCommentIds = pageHydrator.likedIds(userId, "COMMENT",
+                replies.stream().map(CommentVO::getId).collect(Collectors.toList()));
         for (CommentVO reply : replies) {
-            reply.setLiked(likeService.checkLike(userId, reply.getId(), "COMMENT"));
+            reply.setLiked(likedCommentIds.contains(reply.getId()));
         }
     }
     
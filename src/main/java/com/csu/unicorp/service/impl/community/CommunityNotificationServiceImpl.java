@@ -111,7 +111,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
             CommunityNotification notification = getById(notificationId);
             if (notification != null) {
                 cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + notification.getUserId());
-                cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + notification.getUserId() + ":*");
+                cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + notification.getUserId() + ":*");
             }
         }
         
@@ -139,7 +139,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
         
         // 清除相关缓存
         cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + userId);
-        cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
+        cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
     }
 
     @Override
@@ -152,7 +152,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
         if (result) {
             // 清除相关缓存
             cacheService.delete(CacheConstants.COMMENT_DETAIL_CACHE_KEY_PREFIX + notificationId);
-            cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
+            cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
             cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + userId);
         }
         
@@ -166,7 +166,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
                 .eq(CommunityNotification::getUserId, userId));
         
         // 清除相关缓存
-        cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
+        cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
         cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + userId);
     }
 
@@ -211,7 +211,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
         
         // 清除相关缓存
         cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + userId);
-        cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
+        cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
         
         return notification.getId();
     }
@@ -249,7 +249,7 @@ public class CommunityNotificationServiceImpl extends ServiceImpl<CommunityNotif
         // 清除相关缓存
         for (Long userId : userIds) {
             cacheService.delete(CacheConstants.UNREAD_NOTIFICATION_COUNT_CACHE_KEY_PREFIX + userId);
-            cacheService.delete(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
+            cacheService.deleteByPattern(CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + userId + ":*");
         }
     }
     
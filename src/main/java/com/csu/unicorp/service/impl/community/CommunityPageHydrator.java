@@ -0,0 +1,171 @@
+package com.csu.unicorp.service.impl.community;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.csu.unicorp.entity.User;
+import com.csu.unicorp.entity.community.CommunityContentTag;
+import com.csu.unicorp.entity.community.CommunityTag;
+import com.csu.unicorp.mapper.UserMapper;
+import com.csu.unicorp.mapper.community.CommunityContentTagMapper;
+import com.csu.unicorp.mapper.community.CommunityTagMapper;
+import com.csu.unicorp.service.CommunityFavoriteService;
+import com.csu.unicorp.service.CommunityLikeService;
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.vo.community.TagVO;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 社区列表页数据装配
+ * <p>
+ * 先收集一页内容（含回复）的作者ID和内容ID，再按类型各用一条批量查询加载作者、标签、点赞和收藏状态，
+ * 结果放入哈希表/哈希集合供逐条组装VO时查找，避免每条内容单独查询用户和交互状态。
+ */
+@Component
+@RequiredArgsConstructor
+public class CommunityPageHydrator {
+
+    /**
+     * 默认头像
+     */
+    public static final String DEFAULT_AVATAR = "/avatars/default/avatar.jpg";
+
+    private final UserMapper userMapper;
+    private final CommunityContentTagMapper contentTagMapper;
+    private final CommunityTagMapper tagMapper;
+    private final CommunityLikeService likeService;
+    private final CommunityFavoriteService favoriteService;
+    private final FileService fileService;
+
+    /**
+     * 批量加载作者
+     *
+     * @param userIds 用户ID，可包含重复值和null
+     * @return 用户ID到用户的映射，不存在的用户不在结果中
+     */
+    public Map<Long, User> loadUsers(Collection<Long> userIds) {
+        Set<Integer> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .map(Long::intValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userMapper.selectBatchIds(ids)) {
+            users.put(user.getId().longValue(), user);
+        }
+        return users;
+    }
+
+    /**
+     * 用户显示名称，用户不存在时使用“用户+ID”
+     */
+    public String displayName(User user, Long userId) {
+        return user != null ? user.getNickname() : "用户" + userId;
+    }
+
+    /**
+     * 用户头像完整地址，用户不存在或未设置头像时使用默认头像
+     */
+    public String avatarUrl(User user) {
+        if (user == null || user.getAvatar() == null || user.getAvatar().isEmpty()) {
+            return DEFAULT_AVATAR;
+        }
+        return fileService.getFullFileUrl(user.getAvatar());
+    }
+
+    /**
+     * 批量查询当前用户点赞过的内容
+     *
+     * @param userId 当前用户ID，为null时返回空集合
+     * @param contentType 内容类型
+     * @param contentIds 内容ID
+     * @return 已点赞的内容ID集合
+     */
+    public Set<Long> likedIds(Long userId, String contentType, Collection<Long> contentIds) {
+        if (userId == null || contentIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(likeService.batchCheckUserLiked(userId, contentType, distinct(contentIds)));
+    }
+
+    /**
+     * 批量查询当前用户收藏过的内容
+     *
+     * @param userId 当前用户ID，为null时返回空集合
+     * @param contentType 内容类型
+     * @param contentIds 内容ID
+     * @return 已收藏的内容ID集合
+     */
+    public Set<Long> favoritedIds(Long userId, String contentType, Collection<Long> contentIds) {
+        if (userId == null || contentIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(favoriteService.batchCheckUserFavorited(userId, contentType, distinct(contentIds)));
+    }
+
+    /**
+     * 批量加载内容标签，共两条查询：内容标签关联、标签
+     *
+     * @param contentType 内容类型
+     * @param contentIds 内容ID
+     * @return 内容ID到标签列表的映射，没有标签的内容不在结果中
+     */
+    public Map<Long, List<TagVO>> loadTags(String contentType, Collection<Long> contentIds) {
+        if (contentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LambdaQueryWrapper<CommunityContentTag> contentTagQuery = new LambdaQueryWrapper<>();
+        contentTagQuery.eq(CommunityContentTag::getContentType, contentType)
+                      .in(CommunityContentTag::getContentId, distinct(contentIds));
+        List<CommunityContentTag> contentTags = contentTagMapper.selectList(contentTagQuery);
+        if (contentTags.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Set<Long> tagIds = contentTags.stream()
+                .map(CommunityContentTag::getTagId)
+                .collect(Collectors.toSet());
+        Map<Long, TagVO> tags = new HashMap<>();
+        for (CommunityTag tag : tagMapper.selectBatchIds(tagIds)) {
+            tags.put(tag.getId(), convertToTagVO(tag));
+        }
+
+        Map<Long, List<TagVO>> result = new HashMap<>();
+        for (CommunityContentTag contentTag : contentTags) {
+            TagVO tag = tags.get(contentTag.getTagId());
+            if (tag != null) {
+                result.computeIfAbsent(contentTag.getContentId(), k -> new ArrayList<>()).add(tag);
+            }
+        }
+        return result;
+    }
+
+    private List<Long> distinct(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    }
+
+    private TagVO convertToTagVO(CommunityTag tag) {
+        TagVO tagVO = new TagVO();
+        tagVO.setId(tag.getId());
+        tagVO.setName(tag.getName());
+        tagVO.setDescription(tag.getDescription());
+        tagVO.setUsageCount(tag.getUsageCount());
+        tagVO.setCreatedAt(tag.getCreatedAt());
+        return tagVO;
+    }
+}
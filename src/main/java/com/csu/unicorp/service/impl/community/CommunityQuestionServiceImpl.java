@@ -2,7 +2,10 @@ package com.csu.unicorp.service.impl.community;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -29,6 +32,8 @@ import com.csu.unicorp.service.CommunityNotificationService;
 import com.csu.unicorp.service.CommunityQuestionService;
 import com.csu.unicorp.service.CommunityTagService;
 import com.csu.unicorp.service.UserService;
+import com.csu.unicorp.service.impl.ViewCounter;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
 import com.csu.unicorp.vo.community.QuestionVO;
 import com.csu.unicorp.vo.community.TagVO;
 
@@ -52,6 +57,9 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
     private final CommunityNotificationService notificationService;
     private final UserService userService;
     private final CacheService cacheService;
+    private final ViewCounter viewCounter;
+    private final CommunityPageHydrator pageHydrator;
+    private final FullTextSearch fullTextSearch;
     
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -69,6 +77,7 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         
         save(question);
         Long questionId = question.getId();
+        fullTextSearch.refresh(FullTextSearch.Target.QUESTION, questionId);
         
         // 保存问题标签关联
         if (!CollectionUtils.isEmpty(questionDTO.getTagIds())) {
@@ -98,6 +107,7 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         question.setUpdatedAt(LocalDateTime.now());
         
         boolean result = updateById(question);
+        fullTextSearch.refresh(FullTextSearch.Target.QUESTION, questionId);
         
         // 更新问题标签关联
         tagService.updateContentTags("QUESTION", questionId, questionDTO.getTagIds());
@@ -126,6 +136,7 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         CommunityQuestion question = getById(questionId);
         if (question != null) {
             boolean result = removeById(questionId);
+            fullTextSearch.refresh(FullTextSearch.Target.QUESTION, questionId);
             
             if (result) {
                 // 清除相关缓存
@@ -165,6 +176,9 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         String cacheKey = CacheConstants.QUESTION_DETAIL_CACHE_KEY_PREFIX + questionId;
         cacheService.set(cacheKey, questionVO, CacheConstants.QUESTION_CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
         
+        // 合并尚未写回的浏览次数
+        questionVO.setViewCount(viewCounter.merge(ViewCounter.Target.QUESTION, questionId, questionVO.getViewCount()));
+        
         return questionVO;
     }
     
@@ -386,21 +400,21 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
     
     @Override
     public void incrementViewCount(Long questionId) {
-        CommunityQuestion question = getById(questionId);
-        if (question != null) {
-            question.setViewCount(question.getViewCount() + 1);
-            updateById(question);
-        }
+        viewCounter.increment(ViewCounter.Target.QUESTION, questionId);
     }
     
     @Override
     public Page<QuestionVO> searchQuestions(String keyword, int page, int size, Long userId) {
         Page<CommunityQuestion> pageParam = new Page<>(page, size);
         
+        // 关键词先在全文索引中匹配，没有匹配的问题时不再查询数据库
+        List<Long> matchedIds = fullTextSearch.search(FullTextSearch.Target.QUESTION, keyword);
+        if (matchedIds != null && matchedIds.isEmpty()) {
+            return new Page<>(page, size, 0);
+        }
+        
         LambdaQueryWrapper<CommunityQuestion> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.like(CommunityQuestion::getTitle, keyword)
-                   .or()
-                   .like(CommunityQuestion::getContent, keyword)
+        queryWrapper.in(matchedIds != null, CommunityQuestion::getId, matchedIds)
                    .orderByDesc(CommunityQuestion::getCreatedAt);
         
         Page<CommunityQuestion> questionPage = page(pageParam, queryWrapper);
@@ -419,9 +433,7 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         
         Page<CommunityQuestion> questionPage = page(pageParam, queryWrapper);
         
-        return questionPage.getRecords().stream()
-                .map(question -> convertToQuestionVO(question, userId))
-                .collect(Collectors.toList());
+        return convertToQuestionVOList(questionPage.getRecords(), userId);
     }
     
     @Override
@@ -611,36 +623,54 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
         if (question == null) {
             return null;
         }
-        
-        QuestionVO questionVO = new QuestionVO();
-        questionVO.setId(question.getId());
-        questionVO.setTitle(question.getTitle());
-        questionVO.setContent(question.getContent());
-        questionVO.setUserId(question.getUserId());
-        
-        // TODO: 获取用户信息，需要用户服务
-        questionVO.setUserName("用户" + question.getUserId());
-        questionVO.setUserAvatar("/avatars/default/avatar.jpg");
-        
-        questionVO.setViewCount(question.getViewCount());
-        questionVO.setAnswerCount(question.getAnswerCount());
-        questionVO.setStatus(question.getStatus());
-        questionVO.setBestAnswerId(question.getBestAnswerId());
-        questionVO.setCreatedAt(question.getCreatedAt());
-        questionVO.setUpdatedAt(question.getUpdatedAt());
-        
-        // 获取标签列表
-        List<TagVO> tagList = tagService.getQuestionTags(question.getId());
-        questionVO.setTags(tagList != null ? tagList : new ArrayList<>());
-        
-        // 设置当前用户是否已收藏
-        if (userId != null) {
-            questionVO.setFavorited(checkUserFavoritedQuestion(userId, question.getId()));
-        } else {
-            questionVO.setFavorited(false);
+        return convertToQuestionVOList(Collections.singletonList(question), userId).get(0);
+    }
+    
+    /**
+     * 批量转换问题实体为问题VO，作者、标签和收藏状态按整页批量加载
+     * @param questions 问题实体列表
+     * @param userId 当前用户ID
+     * @return 问题VO列表
+     */
+    private List<QuestionVO> convertToQuestionVOList(List<CommunityQuestion> questions, Long userId) {
+        if (CollectionUtils.isEmpty(questions)) {
+            return new ArrayList<>();
         }
-        
-        return questionVO;
+        List<Long> questionIds = questions.stream().map(CommunityQuestion::getId).collect(Collectors.toList());
+        Map<Long, User> users = pageHydrator.loadUsers(
+                questions.stream().map(CommunityQuestion::getUserId).collect(Collectors.toList()));
+        Map<Long, List<TagVO>> tags = pageHydrator.loadTags("QUESTION", questionIds);
+        Set<Long> favoritedQuestionIds = pageHydrator.favoritedIds(userId, "QUESTION", questionIds);
+        
+        List<QuestionVO> voList = new ArrayList<>(questions.size());
+        for (CommunityQuestion question : questions) {
+            QuestionVO questionVO = new QuestionVO();
+            questionVO.setId(question.getId());
+            questionVO.setTitle(question.getTitle());
+            questionVO.setContent(question.getContent());
+            questionVO.setUserId(question.getUserId());
+            
+            // 设置用户信息
+            User user = users.get(question.getUserId());
+            questionVO.setUserName(pageHydrator.displayName(user, question.getUserId()));
+            questionVO.setUserAvatar(pageHydrator.avatarUrl(user));
+            
+            questionVO.setViewCount(question.getViewCount());
+            questionVO.setAnswerCount(question.getAnswerCount());
+            questionVO.setStatus(question.getStatus());
+            questionVO.setBestAnswerId(question.getBestAnswerId());
+            questionVO.setCreatedAt(question.getCreatedAt());
+            questionVO.setUpdatedAt(question.getUpdatedAt());
+            
+            // 设置标签列表
+            questionVO.setTags(new ArrayList<>(tags.getOrDefault(question.getId(), Collections.emptyList())));
+            
+            // 设置当前用户是否已收藏
+            questionVO.setFavorited(favoritedQuestionIds.contains(question.getId()));
+            
+            voList.add(questionVO);
+        }
+        return voList;
     }
     
     /**
@@ -651,12 +681,7 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
      */
     private Page<QuestionVO> convertToQuestionVOPage(Page<CommunityQuestion> questionPage, Long userId) {
         Page<QuestionVO> voPage = new Page<>(questionPage.getCurrent(), questionPage.getSize(), questionPage.getTotal());
-        
-        List<QuestionVO> voList = questionPage.getRecords().stream()
-                .map(question -> convertToQuestionVO(question, userId))
-                .collect(Collectors.toList());
-        
-        voPage.setRecords(voList);
+        voPage.setRecords(convertToQuestionVOList(questionPage.getRecords(), userId));
         return voPage;
     }
     
@@ -670,8 +695,10 @@ public class CommunityQuestionServiceImpl extends ServiceImpl<CommunityQuestionM
             return;
         }
         
+        List<Long> questionIds = questionVOs.stream().map(QuestionVO::getId).collect(Collectors.toList());
+        Set<Long> favoritedQuestionIds = pageHydrator.favoritedIds(userId, "QUESTION", questionIds);
         for (QuestionVO questionVO : questionVOs) {
-            questionVO.setFavorited(checkUserFavoritedQuestion(userId, questionVO.getId()));
+            questionVO.setFavorited(favoritedQuestionIds.contains(questionVO.getId()));
         }
     }
     
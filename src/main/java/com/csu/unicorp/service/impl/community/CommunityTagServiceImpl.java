@@ -20,6 +20,7 @@ import com.csu.unicorp.mapper.community.CommunityContentTagMapper;
 import com.csu.unicorp.mapper.community.CommunityTagMapper;
 import com.csu.unicorp.service.CacheService;
 import com.csu.unicorp.service.CommunityTagService;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
 import com.csu.unicorp.vo.community.TagVO;
 
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,7 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
     private final CommunityTagMapper tagMapper;
     private final CommunityContentTagMapper contentTagMapper;
     private final CacheService cacheService;
+    private final SearchSuggester searchSuggester;
     
     @Override
     @Transactional
@@ -49,6 +51,7 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
         tag.setUpdatedAt(LocalDateTime.now());
         
         save(tag);
+        searchSuggester.refresh(SearchSuggester.Source.TAG, name);
         
         // 清除热门标签缓存
         cacheService.delete(CacheConstants.HOT_TAGS_CACHE_KEY);
@@ -64,6 +67,7 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
             return false;
         }
         
+        String oldName = tag.getName();
         tag.setName(name);
         tag.setDescription(description);
         tag.setUpdatedAt(LocalDateTime.now());
@@ -71,6 +75,7 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
         boolean result = updateById(tag);
         
         if (result) {
+            searchSuggester.refresh(SearchSuggester.Source.TAG, oldName, name);
             // 清除相关缓存
             cacheService.delete(CacheConstants.TAG_DETAIL_CACHE_KEY_PREFIX + tagId);
             cacheService.delete(CacheConstants.HOT_TAGS_CACHE_KEY);
@@ -82,9 +87,13 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
     @Override
     @Transactional
     public boolean deleteTag(Long tagId) {
+        CommunityTag tag = getById(tagId);
         boolean result = removeById(tagId);
         
         if (result) {
+            if (tag != null) {
+                searchSuggester.refresh(SearchSuggester.Source.TAG, tag.getName());
+            }
             // 清除相关缓存
             cacheService.delete(CacheConstants.TAG_DETAIL_CACHE_KEY_PREFIX + tagId);
             cacheService.delete(CacheConstants.HOT_TAGS_CACHE_KEY);
@@ -292,6 +301,7 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
             return Collections.emptyList();
         }
         
+        // 标签搜索返回全部包含关键词的标签，按使用次数排序；输入提示见 /v1/search/suggestions
         // 搜索结果不缓存，因为关键词变化较多
         LambdaQueryWrapper<CommunityTag> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.like(CommunityTag::getName, keyword)
@@ -406,6 +416,8 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
         if (tag != null) {
             tag.setUsageCount(tag.getUsageCount() + 1);
             updateById(tag);
+            // 使用次数是输入提示的排序权重
+            searchSuggester.refresh(SearchSuggester.Source.TAG, tag.getName());
             
             // 清除标签缓存
             cacheService.delete(CacheConstants.TAG_DETAIL_CACHE_KEY_PREFIX + tagId);
@@ -422,6 +434,8 @@ public class CommunityTagServiceImpl extends ServiceImpl<CommunityTagMapper, Com
         if (tag != null && tag.getUsageCount() > 0) {
             tag.setUsageCount(tag.getUsageCount() - 1);
             updateById(tag);
+            // 使用次数是输入提示的排序权重
+            searchSuggester.refresh(SearchSuggester.Source.TAG, tag.getName());
             
             // 清除标签缓存
             cacheService.delete(CacheConstants.TAG_DETAIL_CACHE_KEY_PREFIX + tagId);
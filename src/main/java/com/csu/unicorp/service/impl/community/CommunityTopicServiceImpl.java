@@ -3,7 +3,11 @@ package com.csu.unicorp.service.impl.community;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -14,20 +18,21 @@ import org.springframework.util.CollectionUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.csu.unicorp.common.constants.CacheConstants;
+import com.csu.unicorp.common.utils.SeekCursor;
 import com.csu.unicorp.dto.community.TopicDTO;
 import com.csu.unicorp.entity.User;
 import com.csu.unicorp.entity.community.CommunityContentTag;
 import com.csu.unicorp.entity.community.CommunityTopic;
-import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.mapper.community.CommunityContentTagMapper;
 import com.csu.unicorp.mapper.community.CommunityTopicMapper;
 import com.csu.unicorp.service.CacheService;
 import com.csu.unicorp.service.CommunityCategoryService;
-import com.csu.unicorp.service.CommunityFavoriteService;
-import com.csu.unicorp.service.CommunityLikeService;
 import com.csu.unicorp.service.CommunityTagService;
 import com.csu.unicorp.service.CommunityTopicService;
-import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.PageCountCache;
+import com.csu.unicorp.service.impl.ViewCounter;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.community.CategoryVO;
 import com.csu.unicorp.vo.community.TagVO;
 import com.csu.unicorp.vo.community.TopicVO;
@@ -42,16 +47,21 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper, CommunityTopic> implements CommunityTopicService {
+    
+    /**
+     * 最新话题总数缓存键
+     */
+    private static final String LATEST_TOPICS_COUNT_KEY = "topics:latest";
 
     private final CommunityTopicMapper topicMapper;
     private final CommunityContentTagMapper contentTagMapper;
     private final CommunityTagService tagService;
     private final CommunityCategoryService categoryService;
-    private final CommunityLikeService likeService;
-    private final CommunityFavoriteService favoriteService;
     private final CacheService cacheService;
-    private final UserMapper userMapper;
-    private final FileService fileService;
+    private final ViewCounter viewCounter;
+    private final CommunityPageHydrator pageHydrator;
+    private final PageCountCache pageCountCache;
+    private final FullTextSearch fullTextSearch;
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long createTopic(Long userId, TopicDTO topicDTO) {
@@ -72,6 +82,7 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         
         topicMapper.insert(topic);
         Long topicId = topic.getId();
+        fullTextSearch.refresh(FullTextSearch.Target.TOPIC, topicId);
         
         // 保存标签关联
         saveTopicTags(topicId, topicDTO.getTagIds());
@@ -96,6 +107,7 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         topic.setUpdatedAt(LocalDateTime.now());
         
         topicMapper.updateById(topic);
+        fullTextSearch.refresh(FullTextSearch.Target.TOPIC, topicId);
         
         // 更新标签关联
         tagService.updateContentTags("TOPIC", topicId, topicDTO.getTagIds());
@@ -118,6 +130,7 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         topic.setUpdatedAt(LocalDateTime.now());
         
         boolean result = topicMapper.updateById(topic) > 0;
+        fullTextSearch.refresh(FullTextSearch.Target.TOPIC, topicId);
         
         if (result) {
             // 清除话题缓存
@@ -143,8 +156,8 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         String cacheKey = CacheConstants.TOPIC_DETAIL_CACHE_KEY_PREFIX + topicId;
         cacheService.set(cacheKey, topicVO, CacheConstants.TOPIC_CACHE_EXPIRE_TIME, TimeUnit.SECONDS);
         
-        // 增加浏览次数
-        incrementViewCount(topicId);
+        // 合并尚未写回的浏览次数，浏览次数由控制器在查看详情时增加
+        topicVO.setViewCount(viewCounter.merge(ViewCounter.Target.TOPIC, topicId, topicVO.getViewCount()));
         
         return topicVO;
     }
@@ -224,12 +237,24 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
             return voPage;
         }
         
-        // 非第一页直接查询数据库
+        // 非第一页直接查询数据库，总数使用缓存
         Page<CommunityTopic> topicPage = new Page<>(page, size);
-        Page<CommunityTopic> resultPage = topicMapper.selectLatestTopics(topicPage);
+        Page<CommunityTopic> resultPage = pageCountCache.page(LATEST_TOPICS_COUNT_KEY, topicPage,
+                topicMapper::selectLatestTopics);
         
         return convertToTopicVOPage(resultPage, userId);
     }
+    
+    @Override
+    public CursorPageVO<TopicVO> getLatestTopicsByCursor(String cursor, int size, Long userId) {
+        SeekCursor seek = SeekCursor.decode(cursor);
+        size = CursorPageVO.limitSize(size);
+        List<CommunityTopic> rows = topicMapper.selectLatestTopicsBefore(
+                seek != null ? seek.getTime() : null, seek != null ? seek.getId() : null, size + 1);
+        CursorPageVO<CommunityTopic> page = CursorPageVO.of(rows, size,
+                topic -> SeekCursor.of(topic.getCreatedAt(), topic.getId()));
+        return new CursorPageVO<>(convertToTopicVOList(page.getRecords(), userId), page.getNextCursor(), page.isHasMore());
+    }
 
     @Override
     public Page<TopicVO> getEssenceTopics(int page, int size, Long userId) {
@@ -316,13 +341,14 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
 
     @Override
     public void incrementViewCount(Long topicId) {
-        topicMapper.incrementViewCount(topicId);
+        viewCounter.increment(ViewCounter.Target.TOPIC, topicId);
     }
 
     @Override
     public Page<TopicVO> searchTopics(String keyword, int page, int size, Long userId) {
         Page<CommunityTopic> topicPage = new Page<>(page, size);
-        Page<CommunityTopic> resultPage = topicMapper.searchTopics(topicPage, keyword);
+        Page<CommunityTopic> resultPage = topicMapper.searchTopics(topicPage,
+                fullTextSearch.search(FullTextSearch.Target.TOPIC, keyword));
         
         return convertToTopicVOPage(resultPage, userId);
     }
@@ -333,12 +359,7 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         Page<CommunityTopic> topicPage = new Page<>(1, limit);
         Page<CommunityTopic> resultPage = topicMapper.selectHotTopics(topicPage);
         
-        List<TopicVO> topicVOList = new ArrayList<>();
-        for (CommunityTopic topic : resultPage.getRecords()) {
-            topicVOList.add(convertToTopicVO(topic, userId));
-        }
-        
-        return topicVOList;
+        return convertToTopicVOList(resultPage.getRecords(), userId);
     }
 
     @Override
@@ -373,59 +394,67 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
      * @return 话题VO
      */
     private TopicVO convertToTopicVO(CommunityTopic topic, Long userId) {
-        TopicVO topicVO = new TopicVO();
-        topicVO.setId(topic.getId());
-        topicVO.setTitle(topic.getTitle());
-        topicVO.setContent(topic.getContent());
-        topicVO.setUserId(topic.getUserId());
-        topicVO.setCategoryId(topic.getCategoryId());
-        topicVO.setViewCount(topic.getViewCount());
-        topicVO.setCommentCount(topic.getCommentCount());
-        topicVO.setLikeCount(topic.getLikeCount());
-        topicVO.setIsSticky(topic.getIsSticky());
-        topicVO.setIsEssence(topic.getIsEssence());
-        topicVO.setStatus(topic.getStatus());
-        topicVO.setCreatedAt(topic.getCreatedAt());
-        topicVO.setUpdatedAt(topic.getUpdatedAt());
-        
-        // 获取板块信息
-        CategoryVO categoryVO = categoryService.getCategoryDetail(topic.getCategoryId());
-        if (categoryVO != null) {
-            topicVO.setCategoryName(categoryVO.getName());
+        return convertToTopicVOList(Collections.singletonList(topic), userId).get(0);
+    }
+    
+    /**
+     * 批量转换话题实体为话题VO，作者、标签、板块和交互状态按整页批量加载
+     * @param topics 话题实体列表
+     * @param userId 当前用户ID
+     * @return 话题VO列表
+     */
+    private List<TopicVO> convertToTopicVOList(List<CommunityTopic> topics, Long userId) {
+        if (CollectionUtils.isEmpty(topics)) {
+            return new ArrayList<>();
         }
-        
-        // 获取用户信息
-        User user = userMapper.selectById(topic.getUserId());
-        if (user != null) {
-            topicVO.setUserName(user.getNickname());
-            if (user.getAvatar() != null && !user.getAvatar().isEmpty()) {
-                topicVO.setUserAvatar(fileService.getFullFileUrl(user.getAvatar()));
-            } else {    
-                topicVO.setUserAvatar("/avatars/default/avatar.jpg");
+        List<Long> topicIds = topics.stream().map(CommunityTopic::getId).collect(Collectors.toList());
+        Map<Long, User> users = pageHydrator.loadUsers(
+                topics.stream().map(CommunityTopic::getUserId).collect(Collectors.toList()));
+        Map<Long, List<TagVO>> tags = pageHydrator.loadTags("TOPIC", topicIds);
+        Set<Long> likedTopicIds = pageHydrator.likedIds(userId, "TOPIC", topicIds);
+        Set<Long> favoritedTopicIds = pageHydrator.favoritedIds(userId, "TOPIC", topicIds);
+        // 同一页的话题大多属于少数几个板块，每个板块只查询一次
+        Map<Long, Optional<CategoryVO>> categories = new HashMap<>();
+        
+        List<TopicVO> topicVOList = new ArrayList<>(topics.size());
+        for (CommunityTopic topic : topics) {
+            TopicVO topicVO = new TopicVO();
+            topicVO.setId(topic.getId());
+            topicVO.setTitle(topic.getTitle());
+            topicVO.setContent(topic.getContent());
+            topicVO.setUserId(topic.getUserId());
+            topicVO.setCategoryId(topic.getCategoryId());
+            topicVO.setViewCount(topic.getViewCount());
+            topicVO.setCommentCount(topic.getCommentCount());
+            topicVO.setLikeCount(topic.getLikeCount());
+            topicVO.setIsSticky(topic.getIsSticky());
+            topicVO.setIsEssence(topic.getIsEssence());
+            topicVO.setStatus(topic.getStatus());
+            topicVO.setCreatedAt(topic.getCreatedAt());
+            topicVO.setUpdatedAt(topic.getUpdatedAt());
+            
+            // 获取板块信息
+            if (topic.getCategoryId() != null) {
+                categories.computeIfAbsent(topic.getCategoryId(),
+                                id -> Optional.ofNullable(categoryService.getCategoryDetail(id)))
+                        .ifPresent(categoryVO -> topicVO.setCategoryName(categoryVO.getName()));
             }
-        } else {
-            topicVO.setUserName("用户" + topic.getUserId());
-            topicVO.setUserAvatar("/avatars/default/avatar.jpg");
-        }
-        
-        // 获取标签列表
-        List<TagVO> tagList = tagService.getTopicTags(topic.getId());
-        topicVO.setTags(tagList != null ? tagList : Collections.emptyList());
-
-        log.info("convertToTopicVO: topic={}", topic);
-        // 设置当前用户是否已点赞、收藏
-        log.info("checkLike1: userId={}, topicId={}", userId, topic.getId());
-        if (userId != null) {
-            log.info("checkLike2: userId={}, topicId={}", userId, topic.getId());
-            topicVO.setLiked(likeService.checkLike(userId, topic.getId(), "topic"));
-            topicVO.setFavorited(favoriteService.checkFavorite(userId, topic.getId(), "topic"));
-            log.info("checkFavorite: userId={}, topicId={}", userId, topic.getId());
-        } else {
-            topicVO.setLiked(false);
-            topicVO.setFavorited(false);
+            
+            // 设置用户信息
+            User user = users.get(topic.getUserId());
+            topicVO.setUserName(pageHydrator.displayName(user, topic.getUserId()));
+            topicVO.setUserAvatar(pageHydrator.avatarUrl(user));
+            
+            // 设置标签列表
+            topicVO.setTags(tags.getOrDefault(topic.getId(), Collections.emptyList()));
+            
+            // 设置当前用户是否已点赞、收藏
+            topicVO.setLiked(likedTopicIds.contains(topic.getId()));
+            topicVO.setFavorited(favoritedTopicIds.contains(topic.getId()));
+            
+            topicVOList.add(topicVO);
         }
-        
-        return topicVO;
+        return topicVOList;
     }
     
     /**
@@ -436,12 +465,7 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
      */
     private Page<TopicVO> convertToTopicVOPage(Page<CommunityTopic> topicPage, Long userId) {
         Page<TopicVO> topicVOPage = new Page<>(topicPage.getCurrent(), topicPage.getSize(), topicPage.getTotal());
-        
-        List<TopicVO> topicVOList = topicPage.getRecords().stream()
-                .map(topic -> convertToTopicVO(topic, userId))
-                .collect(Collectors.toList());
-        
-        topicVOPage.setRecords(topicVOList);
+        topicVOPage.setRecords(convertToTopicVOList(topicPage.getRecords(), userId));
         return topicVOPage;
     }
 
@@ -460,11 +484,9 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
                 .map(TopicVO::getId)
                 .collect(Collectors.toList());
         
-        // 批量查询用户点赞状态
-        List<Long> likedTopicIds = likeService.batchCheckUserLiked(userId, "TOPIC", topicIds);
-        
-        // 批量查询用户收藏状态
-        List<Long> favoritedTopicIds = favoriteService.batchCheckUserFavorited(userId, "TOPIC", topicIds);
+        // 批量查询用户点赞、收藏状态，结果放入哈希集合逐条查找
+        Set<Long> likedTopicIds = pageHydrator.likedIds(userId, "TOPIC", topicIds);
+        Set<Long> favoritedTopicIds = pageHydrator.favoritedIds(userId, "TOPIC", topicIds);
         
         // 设置交互状态
         for (TopicVO topic : topicVOList) {
@@ -507,6 +529,8 @@ public class CommunityTopicServiceImpl extends ServiceImpl<CommunityTopicMapper,
         cacheService.deleteByPattern(CacheConstants.LATEST_TOPICS_CACHE_KEY + "*");
         // 清除精华话题缓存
         cacheService.deleteByPattern(CacheConstants.FEATURED_TOPICS_CACHE_KEY + "*");
+        // 清除话题总数缓存
+        pageCountCache.invalidate(LATEST_TOPICS_COUNT_KEY);
         log.debug("清除话题列表缓存");
     }
 } 
\ No newline at end of file
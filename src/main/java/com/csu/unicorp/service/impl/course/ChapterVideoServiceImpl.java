@@ -2,9 +2,11 @@ package com.csu.unicorp.service.impl.course;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.ChapterVideoDTO;
 import com.csu.unicorp.entity.course.ChapterVideo;
 import com.csu.unicorp.entity.course.CourseChapter;
+import com.csu.unicorp.entity.course.MediaTranscodeJob;
 import com.csu.unicorp.entity.course.VideoWatchRecord;
 import com.csu.unicorp.entity.User;
 import com.csu.unicorp.mapper.course.ChapterVideoMapper;
@@ -14,6 +16,7 @@ import com.csu.unicorp.service.ChapterVideoService;
 import com.csu.unicorp.service.FileService;
 import com.csu.unicorp.service.UserService;
 import com.csu.unicorp.vo.ChapterVideoVO;
+import com.csu.unicorp.vo.MediaTranscodeJobVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -23,20 +26,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
-import ws.schild.jave.EncoderException;
-import ws.schild.jave.MultimediaObject;
-import ws.schild.jave.info.MultimediaInfo;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 章节视频服务实现类
@@ -51,10 +46,9 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
     private final CourseChapterMapper chapterMapper;
     private final UserService userService;
     private final FileService fileService;
-    
-    // 视频存储路径
-    private static final String VIDEO_UPLOAD_PATH = "courses/videos/";
-    private static final String VIDEO_COVER_PATH = "courses/videos/covers/";
+    private final MediaTranscodeQueue mediaTranscodeQueue;
+    private final WatchProgressTracker watchProgressTracker;
+    private final CurrentUserResolver currentUserResolver;
     
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -66,8 +60,7 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         }
         
         // 检查上传权限
-        String username = userDetails.getUsername();
-        Integer userId = getUserId(username);
+        Integer userId = getUserId(userDetails);
         
         // 检查是否已有视频，如果有则先删除
         ChapterVideo existingVideo = videoMapper.selectByChapterId(videoDTO.getChapterId());
@@ -85,59 +78,17 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
                 log.error("删除旧视频文件失败", e);
                 // 文件删除失败不影响业务逻辑
             }
+            mediaTranscodeQueue.cancel(existingVideo.getId());
+            watchProgressTracker.invalidateVideo(existingVideo.getId());
             
             // 逻辑删除数据库记录
             existingVideo.setIsDeleted(true);
             videoMapper.updateById(existingVideo);
         }
         
-        // 上传视频文件
+        // 上传视频文件，时长、封面和HLS由后台转码任务生成
         String videoPath = fileService.uploadFile(file, "video");
         
-        // 获取视频时长
-        Integer duration = 0;
-        try {
-            Path filePath = Paths.get("upload", videoPath);
-            duration = getVideoDuration(filePath.toFile());
-        } catch (Exception e) {
-            log.error("获取视频时长失败", e);
-        }
-        
-        // 生成封面图（从第一帧提取）
-        String coverImage = null;
-        try {
-            // 使用视频文件名创建封面图名称
-            String videoFileName = videoPath.substring(videoPath.lastIndexOf('/') + 1);
-            String coverFileName = videoFileName.substring(0, videoFileName.lastIndexOf('.')) + ".jpg";
-            Path coverPath = Paths.get("upload", VIDEO_COVER_PATH, coverFileName);
-            
-            // 确保目录存在
-            Files.createDirectories(coverPath.getParent());
-            
-            // 使用Java的ProcessBuilder调用FFmpeg提取视频第一帧作为封面
-            ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg", 
-                "-i", Paths.get("upload", videoPath).toString(),
-                "-ss", "00:00:01", // 从1秒处截取
-                "-vframes", "1", // 只截取1帧
-                "-q:v", "2", // 质量设置
-                coverPath.toString()
-            );
-            
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            
-            if (exitCode == 0) {
-                // FFmpeg成功生成封面
-                coverImage = VIDEO_COVER_PATH + coverFileName;
-                log.info("成功生成视频封面: {}", coverImage);
-            } else {
-                log.error("生成视频封面失败，FFmpeg返回码: {}", exitCode);
-            }
-        } catch (Exception e) {
-            log.error("生成视频封面失败", e);
-        }
-        
         // 保存视频信息到数据库
         ChapterVideo video = new ChapterVideo();
         video.setChapterId(videoDTO.getChapterId());
@@ -145,14 +96,15 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         video.setDescription(videoDTO.getDescription());
         video.setFilePath(videoPath);
         video.setFileSize(file.getSize());
-        video.setDuration(duration);
-        video.setCoverImage(coverImage);
+        video.setDuration(0);
+        video.setTranscodeStatus(MediaTranscodeJob.STATUS_PENDING);
         video.setUploaderId(userId);
         video.setCreatedAt(LocalDateTime.now());
         video.setUpdatedAt(LocalDateTime.now());
         video.setIsDeleted(false);
         
         videoMapper.insert(video);
+        mediaTranscodeQueue.submit(video.getId(), videoPath);
         
         // 转换为VO并返回
         ChapterVideoVO vo = convertToVO(video);
@@ -182,8 +134,10 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         
         // 如果是学生，获取观看进度
         if (isStudent(userDetails)) {
-            Integer userId = getUserId(userDetails.getUsername());
-            VideoWatchRecord watchRecord = watchRecordMapper.selectByVideoAndUser(videoId, userId);
+            Integer userId = getUserId(userDetails);
+            // 合并尚未写回数据库的进度
+            VideoWatchRecord watchRecord = watchProgressTracker.merge(userId, videoId,
+                    watchRecordMapper.selectByVideoAndUser(videoId, userId));
             if (watchRecord != null) {
                 vo.setWatchProgress(watchRecord.getWatchProgress());
                 vo.setIsCompleted(watchRecord.getIsCompleted());
@@ -219,8 +173,10 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         
         // 如果是学生，获取观看进度
         if (isStudent(userDetails)) {
-            Integer userId = getUserId(userDetails.getUsername());
-            VideoWatchRecord watchRecord = watchRecordMapper.selectByVideoAndUser(video.getId(), userId);
+            Integer userId = getUserId(userDetails);
+            // 合并尚未写回数据库的进度
+            VideoWatchRecord watchRecord = watchProgressTracker.merge(userId, video.getId(),
+                    watchRecordMapper.selectByVideoAndUser(video.getId(), userId));
             if (watchRecord != null) {
                 vo.setWatchProgress(watchRecord.getWatchProgress());
                 vo.setIsCompleted(watchRecord.getIsCompleted());
@@ -244,8 +200,7 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         }
         
         // 检查删除权限
-        String username = userDetails.getUsername();
-        Integer userId = getUserId(username);
+        Integer userId = getUserId(userDetails);
         
         // 检查是否有权限删除（教师或上传者）
         boolean isTeacher = hasRole(userDetails, "TEACHER");
@@ -269,10 +224,12 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
             log.error("删除视频文件失败", e);
             // 文件删除失败不影响业务逻辑
         }
+        mediaTranscodeQueue.cancel(videoId);
         
         // 逻辑删除视频记录
         video.setIsDeleted(true);
         videoMapper.deleteById(video);
+        watchProgressTracker.invalidateVideo(videoId);
         
         return true;
     }
@@ -286,8 +243,7 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
         }
         
         // 检查更新权限
-        String username = userDetails.getUsername();
-        Integer userId = getUserId(username);
+        Integer userId = getUserId(userDetails);
         
         // 检查是否有权限更新（教师或上传者）
         boolean isTeacher = hasRole(userDetails, "TEACHER");
@@ -317,51 +273,21 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public boolean updateWatchProgress(Integer videoId, Integer position, UserDetails userDetails) {
         if (!isStudent(userDetails)) {
             throw new BusinessException("只有学生可以更新观看进度");
         }
         
-        ChapterVideo video = videoMapper.selectById(videoId);
-        if (video == null || video.getIsDeleted()) {
+        // 视频时长走缓存，进度只记录在内存中，由WatchProgressTracker定时批量写回
+        Integer duration = watchProgressTracker.getDuration(videoId);
+        if (duration == null) {
             throw new BusinessException("视频不存在");
         }
-        
-        Integer userId = getUserId(userDetails.getUsername());
-        
-        // 查询是否已有观看记录
-        VideoWatchRecord watchRecord = watchRecordMapper.selectByVideoAndUser(videoId, userId);
-        
-        if (watchRecord == null) {
-            // 创建新的观看记录
-            watchRecord = new VideoWatchRecord();
-            watchRecord.setVideoId(videoId);
-            watchRecord.setUserId(userId);
-            watchRecord.setWatchProgress(position);
-            watchRecord.setLastPosition(position);
-            watchRecord.setIsCompleted(false);
-            watchRecord.setCreatedAt(LocalDateTime.now());
-            watchRecord.setUpdatedAt(LocalDateTime.now());
-            
-            watchRecordMapper.insert(watchRecord);
-        } else {
-            // 更新现有观看记录
-            watchRecord.setWatchProgress(Math.max(watchRecord.getWatchProgress(), position));
-            watchRecord.setLastPosition(position);
-            watchRecord.setUpdatedAt(LocalDateTime.now());
-            
-            // 如果进度接近视频结尾，标记为已完成
-            if (video.getDuration() != null && video.getDuration() > 0) {
-                // 如果观看进度超过95%，视为已完成
-                if (position >= video.getDuration() * 0.95) {
-                    watchRecord.setIsCompleted(true);
-                }
-            }
-            
-            watchRecordMapper.updateById(watchRecord);
+        if (position == null || position < 0) {
+            throw new BusinessException("观看位置不正确");
         }
         
+        watchProgressTracker.report(getUserId(userDetails), videoId, position, duration);
         return true;
     }
 
@@ -377,7 +303,7 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
             throw new BusinessException("视频不存在");
         }
         
-        Integer userId = getUserId(userDetails.getUsername());
+        Integer userId = getUserId(userDetails);
         
         // 查询是否已有观看记录
         VideoWatchRecord watchRecord = watchRecordMapper.selectByVideoAndUser(videoId, userId);
@@ -393,7 +319,8 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
             watchRecord.setCreatedAt(LocalDateTime.now());
             watchRecord.setUpdatedAt(LocalDateTime.now());
             
-            watchRecordMapper.insert(watchRecord);
+            // 定时写回可能已并发插入了同一条记录
+            watchRecordMapper.upsertProgressBatch(List.of(watchRecord));
         } else {
             // 更新现有观看记录
             watchRecord.setIsCompleted(true);
@@ -404,10 +331,28 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
             
             watchRecordMapper.updateById(watchRecord);
         }
+        watchProgressTracker.markCompleted(userId, videoId,
+                watchRecord.getWatchProgress() != null ? watchRecord.getWatchProgress() : 0);
         
         return true;
     }
     
+    @Override
+    public MediaTranscodeJobVO getTranscodeJob(Integer videoId) {
+        ChapterVideo video = videoMapper.selectById(videoId);
+        if (video == null || video.getIsDeleted()) {
+            throw new BusinessException("视频不存在");
+        }
+        
+        MediaTranscodeJob job = mediaTranscodeQueue.getLatestJob(videoId);
+        if (job == null) {
+            return null; // 转码功能上线前上传的视频
+        }
+        MediaTranscodeJobVO vo = new MediaTranscodeJobVO();
+        BeanUtils.copyProperties(job, vo);
+        return vo;
+    }
+    
     /**
      * 将实体转换为VO
      */
@@ -425,6 +370,14 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
             vo.setCoverImage(fileService.getFullFileUrl(video.getCoverImage()));
         }
         
+        // 转码完成后提供HLS播放列表和缩略图索引
+        if (StringUtils.hasText(video.getHlsPlaylist())) {
+            vo.setHlsPlaylist(fileService.getFullFileUrl(video.getHlsPlaylist()));
+        }
+        if (StringUtils.hasText(video.getThumbnailTrack())) {
+            vo.setThumbnailTrack(fileService.getFullFileUrl(video.getThumbnailTrack()));
+        }
+        
         return vo;
     }
     
@@ -440,23 +393,14 @@ public class ChapterVideoServiceImpl extends ServiceImpl<ChapterVideoMapper, Cha
     }
     
     /**
-     * 获取视频时长（秒）
-     */
-    private Integer getVideoDuration(File file) throws EncoderException {
-        MultimediaObject multimediaObject = new MultimediaObject(file);
-        MultimediaInfo info = multimediaObject.getInfo();
-        return (int) (info.getDuration() / 1000);
-    }
-    
-    /**
-     * 从用户名获取用户ID
+     * 获取当前用户ID
      */
-    private Integer getUserId(String username) {
-        User user = userService.getByAccount(username);
-        if (user == null) {
+    private Integer getUserId(UserDetails userDetails) {
+        Integer userId = currentUserResolver.getUserId(userDetails);
+        if (userId == null) {
             throw new BusinessException("用户不存在");
         }
-        return user.getId();
+        return userId;
     }
     
     /**
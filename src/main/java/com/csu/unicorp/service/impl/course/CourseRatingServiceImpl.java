@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.CourseRatingDTO;
 import com.csu.unicorp.entity.course.CourseEnrollment;
 import com.csu.unicorp.entity.course.CourseRating;
@@ -38,6 +39,7 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
     private final DualTeacherCourseMapper courseMapper;
     private final CourseEnrollmentMapper enrollmentMapper;
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -49,8 +51,7 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
         }
         
         // 获取学生ID
-        String username = userDetails.getUsername();
-        Integer studentId = getStudentId(username);
+        Integer studentId = getStudentId(userDetails);
         
         // 检查学生是否已报名该课程
         LambdaQueryWrapper<CourseEnrollment> enrollmentQuery = new LambdaQueryWrapper<>();
@@ -99,7 +100,7 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
         }
         
         // 检查是否是本人的评价
-        Integer studentId = getStudentId(userDetails.getUsername());
+        Integer studentId = getStudentId(userDetails);
         if (!Objects.equals(rating.getStudentId(), studentId)) {
             throw new BusinessException("无权修改他人的评价");
         }
@@ -126,7 +127,7 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
         }
         
         // 检查是否是本人的评价
-        Integer studentId = getStudentId(userDetails.getUsername());
+        Integer studentId = getStudentId(userDetails);
         if (!Objects.equals(rating.getStudentId(), studentId)) {
             throw new BusinessException("无权删除他人的评价");
         }
@@ -174,7 +175,7 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
 
     @Override
     public boolean hasRated(Integer courseId, UserDetails userDetails) {
-        Integer studentId = getStudentId(userDetails.getUsername());
+        Integer studentId = getStudentId(userDetails);
         Integer count = ratingMapper.countByCourseIdAndStudentId(courseId, studentId);
         return count != null && count > 0;
     }
@@ -206,13 +207,13 @@ public class CourseRatingServiceImpl extends ServiceImpl<CourseRatingMapper, Cou
     }
     
     /**
-     * 从用户名获取学生ID
+     * 获取当前学生ID
      */
-    private Integer getStudentId(String username) {
-        User user = userService.getByAccount(username);
-        if (user == null) {
+    private Integer getStudentId(UserDetails userDetails) {
+        Integer studentId = currentUserResolver.getUserId(userDetails);
+        if (studentId == null) {
             throw new BusinessException("用户不存在");
         }
-        return user.getId();
+        return studentId;
     }
 } 
\ No newline at end of file
@@ -1,17 +1,21 @@
 package com.csu.unicorp.service.impl.course;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.CourseResourceDTO;
 import com.csu.unicorp.entity.course.CourseResource;
 import com.csu.unicorp.entity.DualTeacherCourse;
 import com.csu.unicorp.entity.User;
 import com.csu.unicorp.mapper.course.CourseResourceMapper;
 import com.csu.unicorp.mapper.course.DualTeacherCourseMapper;
+import com.csu.unicorp.entity.FileUploadSession;
 import com.csu.unicorp.service.CourseResourceService;
+import com.csu.unicorp.service.FileUploadSessionService;
 import com.csu.unicorp.service.UserService;
 import com.csu.unicorp.vo.CourseResourceVO;
 import lombok.RequiredArgsConstructor;
@@ -46,6 +50,8 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
     private final CourseResourceMapper resourceMapper;
     private final DualTeacherCourseMapper courseMapper;
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final FileUploadSessionService fileUploadSessionService;
     
     // 课程资源存储路径
     private static final String RESOURCE_UPLOAD_PATH = "upload/courses/resources/";
@@ -53,6 +59,34 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
     @Override
     @Transactional(rollbackFor = Exception.class)
     public CourseResourceVO uploadResource(MultipartFile file, CourseResourceDTO resourceDTO, UserDetails userDetails) throws IOException {
+        Integer userId = checkUploadPermission(resourceDTO, userDetails);
+        
+        // 处理文件上传
+        String originalFilename = file.getOriginalFilename();
+        Path filePath = prepareResourcePath(originalFilename);
+        
+        // 保存文件：使用绝对路径时容器直接移动已落盘的临时文件，不再复制一次
+        file.transferTo(filePath.toAbsolutePath().toFile());
+        
+        return saveResource(resourceDTO, filePath, file.getSize(), file.getContentType(), userId, getUserType(userDetails));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public CourseResourceVO uploadResource(String uploadId, CourseResourceDTO resourceDTO, UserDetails userDetails) {
+        Integer userId = checkUploadPermission(resourceDTO, userDetails);
+
+        FileUploadSession session = fileUploadSessionService.completeSession(uploadId, userDetails.getUsername(),
+                uploadSession -> prepareResourcePath(uploadSession.getOriginalName()));
+        Path filePath = Paths.get(session.getStoredName());
+        
+        return saveResource(resourceDTO, filePath, session.getTotalSize(), session.getContentType(), userId, getUserType(userDetails));
+    }
+
+    /**
+     * 检查课程是否存在以及当前用户是否有上传权限，返回当前用户ID
+     */
+    private Integer checkUploadPermission(CourseResourceDTO resourceDTO, UserDetails userDetails) {
         // 检查课程是否存在
         DualTeacherCourse course = courseMapper.selectById(resourceDTO.getCourseId());
         if (course == null) {
@@ -60,8 +94,7 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
         }
         
         // 检查上传权限
-        String username = userDetails.getUsername();
-        Integer userId = getUserId(username);
+        Integer userId = getUserId(userDetails);
         String userType = getUserType(userDetails);
         log.info("课程资源上传权限检查 - 用户ID: {}, 用户类型: {}", userId, userType);
         log.info("课程资源上传权限检查 - 课程教师ID: {}, 课程导师ID: {}", course.getTeacherId(), course.getMentorId());
@@ -72,9 +105,13 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
         if (!isTeacher && !isMentor) {
             throw new BusinessException("无权上传课程资源");
         }
-        
-        // 处理文件上传
-        String originalFilename = file.getOriginalFilename();
+        return userId;
+    }
+
+    /**
+     * 生成资源文件的存储路径
+     */
+    private Path prepareResourcePath(String originalFilename) {
         String fileExtension = getFileExtension(originalFilename);
         String newFilename = UUID.randomUUID().toString() + fileExtension;
         
@@ -83,20 +120,22 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
         if (!uploadDir.exists()) {
             uploadDir.mkdirs();
         }
-        
-        // 保存文件
-        Path filePath = Paths.get(RESOURCE_UPLOAD_PATH, newFilename);
-        Files.copy(file.getInputStream(), filePath);
-        
-        // 保存资源信息到数据库
+        return Paths.get(RESOURCE_UPLOAD_PATH, newFilename);
+    }
+
+    /**
+     * 保存资源信息到数据库
+     */
+    private CourseResourceVO saveResource(CourseResourceDTO resourceDTO, Path filePath, long fileSize,
+                                          String fileType, Integer userId, String userType) {
         CourseResource resource = new CourseResource();
         resource.setCourseId(resourceDTO.getCourseId());
         resource.setTitle(resourceDTO.getTitle());
         resource.setDescription(resourceDTO.getDescription());
         resource.setResourceType(resourceDTO.getResourceType());
-        resource.setFilePath(RESOURCE_UPLOAD_PATH + newFilename);
-        resource.setFileSize(file.getSize());
-        resource.setFileType(file.getContentType());
+        resource.setFilePath(RESOURCE_UPLOAD_PATH + filePath.getFileName());
+        resource.setFileSize(fileSize);
+        resource.setFileType(fileType);
         resource.setUploaderId(userId);
         resource.setUploaderType(userType);
         resource.setDownloadCount(0);
@@ -122,8 +161,7 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
         }
         
         // 检查删除权限
-        String username = userDetails.getUsername();
-        Integer userId = getUserId(username);
+        Integer userId = getUserId(userDetails);
         String userType = getUserType(userDetails);
         
         boolean isUploader = Objects.equals(resource.getUploaderId(), userId) && 
@@ -193,12 +231,35 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
         }
         
         // 增加下载次数
-        resource.setDownloadCount(resource.getDownloadCount() + 1);
-        resourceMapper.updateById(resource);
+        incrementDownloadCount(resourceId);
         
         return resource.getFilePath();
     }
     
+    @Override
+    public CourseResourceVO getResourceForDownload(Integer resourceId, boolean countDownload) {
+        CourseResource resource = resourceMapper.selectById(resourceId);
+        if (resource == null) {
+            throw new BusinessException("资源不存在");
+        }
+        if (countDownload) {
+            incrementDownloadCount(resourceId);
+        }
+        
+        CourseResourceVO vo = new CourseResourceVO();
+        BeanUtils.copyProperties(resource, vo);
+        return vo;
+    }
+    
+    /**
+     * 原子地增加下载次数，并发下载不会互相覆盖
+     */
+    private void incrementDownloadCount(Integer resourceId) {
+        resourceMapper.update(null, new LambdaUpdateWrapper<CourseResource>()
+                .setSql("download_count = download_count + 1")
+                .eq(CourseResource::getId, resourceId));
+    }
+    
     /**
      * 将实体转换为VO
      */
@@ -227,14 +288,14 @@ public class CourseResourceServiceImpl extends ServiceImpl<CourseResourceMapper,
     }
     
     /**
-     * 从用户名获取用户ID
+     * 获取当前用户ID
      */
-    private Integer getUserId(String username) {
-        User user = userService.getByAccount(username);
-        if (user == null) {
+    private Integer getUserId(UserDetails userDetails) {
+        Integer userId = currentUserResolver.getUserId(userDetails);
+        if (userId == null) {
             throw new BusinessException("用户不存在");
         }
-        return user.getId();
+        return userId;
     }
     
     /**
@@ -5,6 +5,8 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.security.CurrentUser;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.CourseEnrollmentDTO;
 import com.csu.unicorp.dto.DualTeacherCourseDTO;
 import com.csu.unicorp.entity.course.CourseEnrollment;
@@ -40,18 +42,19 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     private final CourseEnrollmentMapper enrollmentMapper;
     private final UserService userService;
     private final OrganizationService organizationService;
+    private final CurrentUserResolver currentUserResolver;
 
     @Override
     @Transactional
     public DualTeacherCourseVO createCourse(DualTeacherCourseDTO courseDTO, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_TEACHER.equals(role) && !RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role)) {
             throw new BusinessException("权限不足，只有教师或学校管理员可以创建双师课堂");
         }
@@ -76,7 +79,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         // 如果没有指定教师，则设置为当前用户
         if (course.getTeacherId() == null) {
             if (RoleConstants.DB_ROLE_TEACHER.equals(role)) {
-                course.setTeacherId(currentUser.getId());
+                course.setTeacherId(currentUser.getUserId());
             } else {
                 throw new BusinessException("请指定课程负责教师");
             }
@@ -99,7 +102,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public DualTeacherCourseVO updateCourse(Integer id, DualTeacherCourseDTO courseDTO, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -112,11 +115,11 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
 
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         log.info("Role: {}", role);
         log.info("TeacherId: {}", course.getTeacherId());
         log.info("MentorId: {}", course.getMentorId());
-        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getId().equals(course.getTeacherId());
+        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getUserId().equals(course.getTeacherId());
         boolean isSchoolAdmin = RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role)
                 && currentUser.getOrganizationId() != null
                 && currentUser.getOrganizationId().equals(getUserOrganizationId(course.getTeacherId()));
@@ -164,7 +167,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public void deleteCourse(Integer id, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -176,8 +179,8 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
 
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
-        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getId().equals(course.getTeacherId());
+        String role = currentUser.getRole();
+        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getUserId().equals(course.getTeacherId());
         boolean isSchoolAdmin = RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role) 
                 && currentUser.getOrganizationId() != null
                 && currentUser.getOrganizationId().equals(getUserOrganizationId(course.getTeacherId()));
@@ -193,20 +196,20 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Override
     public IPage<DualTeacherCourseVO> getTeacherCourses(int page, int size, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 检查用户角色
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_TEACHER.equals(role)) {
             throw new BusinessException("权限不足，只有教师可以查看自己的课程");
         }
 
         // 获取教师课程列表
         Page<DualTeacherCourse> pageParam = new Page<>(page, size);
-        IPage<DualTeacherCourse> courseIPage = courseMapper.selectCoursesByTeacherId(currentUser.getId(), pageParam);
+        IPage<DualTeacherCourse> courseIPage = courseMapper.selectCoursesByTeacherId(currentUser.getUserId(), pageParam);
         
         // 转换为VO
         return courseIPage.convert(this::convertToVO);
@@ -215,20 +218,20 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Override
     public IPage<DualTeacherCourseVO> getMentorCourses(int page, int size, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 检查用户角色
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_ENTERPRISE_MENTOR.equals(role)) {
             throw new BusinessException("权限不足，只有企业导师可以查看自己的课程");
         }
 
         // 获取企业导师课程列表
         Page<DualTeacherCourse> pageParam = new Page<>(page, size);
-        IPage<DualTeacherCourse> courseIPage = courseMapper.selectCoursesByMentorId(currentUser.getId(), pageParam);
+        IPage<DualTeacherCourse> courseIPage = courseMapper.selectCoursesByMentorId(currentUser.getUserId(), pageParam);
         
         // 转换为VO
         return courseIPage.convert(this::convertToVO);
@@ -248,13 +251,13 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public CourseEnrollment enrollCourse(CourseEnrollmentDTO enrollmentDTO, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 检查用户角色
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_STUDENT.equals(role)) {
             throw new BusinessException("权限不足，只有学生可以报名课程");
         }
@@ -272,7 +275,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
 
         // 检查是否已经有有效报名记录
         CourseEnrollment validEnrollment = enrollmentMapper.selectEnrollmentByCourseIdAndStudentId(
-                enrollmentDTO.getCourseId(), currentUser.getId());
+                enrollmentDTO.getCourseId(), currentUser.getUserId());
         
         if (validEnrollment != null) {
             throw new BusinessException("您已经报名了该课程");
@@ -287,7 +290,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         // 查询是否有已取消的报名记录，我们需要额外进行查询
         LambdaQueryWrapper<CourseEnrollment> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CourseEnrollment::getCourseId, enrollmentDTO.getCourseId())
-               .eq(CourseEnrollment::getStudentId, currentUser.getId())
+               .eq(CourseEnrollment::getStudentId, currentUser.getUserId())
                .eq(CourseEnrollment::getStatus, "cancelled")
                .eq(CourseEnrollment::getIsDeleted, false);
         CourseEnrollment cancelledEnrollment = enrollmentMapper.selectOne(wrapper);
@@ -306,7 +309,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
             // 创建新的报名记录
             enrollment = new CourseEnrollment();
             enrollment.setCourseId(enrollmentDTO.getCourseId());
-            enrollment.setStudentId(currentUser.getId());
+            enrollment.setStudentId(currentUser.getUserId());
             enrollment.setStatus("enrolled");
             enrollment.setEnrollmentTime(LocalDateTime.now());
             enrollment.setIsDeleted(false);
@@ -322,13 +325,13 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public void cancelEnrollment(Integer courseId, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 获取报名记录
-        CourseEnrollment enrollment = enrollmentMapper.selectEnrollmentByCourseIdAndStudentId(courseId, currentUser.getId());
+        CourseEnrollment enrollment = enrollmentMapper.selectEnrollmentByCourseIdAndStudentId(courseId, currentUser.getUserId());
         if (enrollment == null) {
             throw new BusinessException("您未报名该课程");
         }
@@ -352,20 +355,20 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Override
     public IPage<DualTeacherCourseVO> getStudentEnrolledCourses(int page, int size, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
 
         // 检查用户角色
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_STUDENT.equals(role)) {
             throw new BusinessException("权限不足，只有学生可以查看自己报名的课程");
         }
 
         // 获取学生报名的课程列表
         Page<CourseEnrollment> pageParam = new Page<>(page, size);
-        IPage<CourseEnrollment> enrollmentIPage = enrollmentMapper.selectEnrollmentsByStudentId(currentUser.getId(), pageParam);
+        IPage<CourseEnrollment> enrollmentIPage = enrollmentMapper.selectEnrollmentsByStudentId(currentUser.getUserId(), pageParam);
         
         // 转换为课程VO
         return enrollmentIPage.convert(enrollment -> {
@@ -378,7 +381,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public DualTeacherCourseVO updateCourseStatus(Integer id, String status, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -392,8 +395,8 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
 
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
-        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getId().equals(course.getTeacherId());
+        String role = currentUser.getRole();
+        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getUserId().equals(course.getTeacherId());
         boolean isSchoolAdmin = RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role) 
                 && currentUser.getOrganizationId() != null
                 && currentUser.getOrganizationId().equals(getUserOrganizationId(course.getTeacherId()));
@@ -419,7 +422,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Transactional
     public void updateEnrollmentStatus(Integer enrollmentId, String status, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -437,8 +440,8 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
         
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
-        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getId().equals(course.getTeacherId());
+        String role = currentUser.getRole();
+        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getUserId().equals(course.getTeacherId());
         boolean isSchoolAdmin = RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role) 
                 && currentUser.getOrganizationId() != null
                 && currentUser.getOrganizationId().equals(getUserOrganizationId(course.getTeacherId()));
@@ -539,7 +542,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Override
     public List<UserVO> getCourseStudents(Integer courseId, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -551,9 +554,9 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
         
         // 检查用户权限
-        String role = userService.getUserRole(currentUser.getId());
-        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getId().equals(course.getTeacherId());
-        boolean isMentor = RoleConstants.DB_ROLE_ENTERPRISE_MENTOR.equals(role) && currentUser.getId().equals(course.getMentorId());
+        String role = currentUser.getRole();
+        boolean isTeacher = RoleConstants.DB_ROLE_TEACHER.equals(role) && currentUser.getUserId().equals(course.getTeacherId());
+        boolean isMentor = RoleConstants.DB_ROLE_ENTERPRISE_MENTOR.equals(role) && currentUser.getUserId().equals(course.getMentorId());
         boolean isSchoolAdmin = RoleConstants.DB_ROLE_SCHOOL_ADMIN.equals(role) 
                 && currentUser.getOrganizationId() != null
                 && currentUser.getOrganizationId().equals(getUserOrganizationId(course.getTeacherId()));
@@ -627,7 +630,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
     @Override
     public boolean isStudentEnrolled(Integer courseId, UserDetails userDetails) {
         // 获取当前用户信息
-        User currentUser = userService.getByAccount(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
         if (currentUser == null) {
             throw new BusinessException("用户不存在");
         }
@@ -639,7 +642,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         }
         
         // 检查用户是否是学生
-        String role = userService.getUserRole(currentUser.getId());
+        String role = currentUser.getRole();
         if (!RoleConstants.DB_ROLE_STUDENT.equals(role)) {
             throw new BusinessException("只有学生可以查询报名状态");
         }
@@ -647,7 +650,7 @@ public class DualTeacherCourseServiceImpl implements DualTeacherCourseService {
         // 查询报名记录
         LambdaQueryWrapper<CourseEnrollment> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CourseEnrollment::getCourseId, courseId)
-               .eq(CourseEnrollment::getStudentId, currentUser.getId())
+               .eq(CourseEnrollment::getStudentId, currentUser.getUserId())
                .ne(CourseEnrollment::getStatus, "cancelled");
         
         return enrollmentMapper.selectCount(wrapper) > 0;
@@ -0,0 +1,405 @@
+package com.csu.unicorp.service.impl.course;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import ws.schild.jave.EncoderException;
+import ws.schild.jave.MultimediaObject;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HLS转码
+ * <p>
+ * 封装ffmpeg调用：探测源文件、截取封面、生成进度条预览缩略图和WebVTT索引、按清晰度生成HLS分片和播放列表。
+ * 各清晰度按相同的时间点强制关键帧，分片边界对齐，播放器切换码率时不会跳帧。
+ * 未配置ffmpeg路径时优先使用PATH中的ffmpeg，找不到时使用JAVE自带的ffmpeg。
+ */
+@Slf4j
+@Component
+public class HlsTranscoder {
+
+    public static final String MASTER_PLAYLIST = "master.m3u8";
+    public static final String THUMBNAIL_TRACK = "thumbs.vtt";
+    private static final String THUMBNAIL_DIR = "thumbs";
+    private static final String VARIANT_PLAYLIST = "index.m3u8";
+
+    /**
+     * 进度回调
+     */
+    public interface ProgressListener {
+        /**
+         * @param fraction 当前步骤的完成比例，0~1
+         * @return 是否继续执行，返回false时终止ffmpeg并抛出CancellationException
+         */
+        boolean onProgress(double fraction);
+    }
+
+    /**
+     * 源文件信息
+     */
+    @Data
+    @AllArgsConstructor
+    public static class SourceInfo {
+        private long durationMs;
+        private int width;
+        private int height;
+        private boolean hasAudio;
+    }
+
+    /**
+     * 清晰度
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Rendition {
+        private int height;
+        private int videoBitrateKbps;
+
+        public String getName() {
+            return height + "p";
+        }
+    }
+
+    @Value("${app.media.transcode.ffmpeg:}")
+    private String ffmpegPath;
+
+    /**
+     * 清晰度列表，格式为 高度:视频码率(kbps)，只生成不高于源视频的清晰度
+     */
+    @Value("${app.media.transcode.renditions:1080:5000,720:2800,480:1400,360:800}")
+    private String renditionSpec;
+
+    @Value("${app.media.transcode.audio-bitrate-kbps:128}")
+    private int audioBitrateKbps;
+
+    @Value("${app.media.transcode.segment-seconds:6}")
+    private int segmentSeconds;
+
+    @Value("${app.media.transcode.preset:veryfast}")
+    private String preset;
+
+    @Value("${app.media.transcode.thumbnail-interval-seconds:10}")
+    private int thumbnailIntervalSeconds;
+
+    @Value("${app.media.transcode.thumbnail-width:160}")
+    private int thumbnailWidth;
+
+    /**
+     * 单次ffmpeg调用的最长执行时间
+     */
+    @Value("${app.media.transcode.process-timeout-minutes:180}")
+    private long processTimeoutMinutes;
+
+    private List<Rendition> renditions;
+
+    /**
+     * 终止超时的ffmpeg进程
+     */
+    private ScheduledExecutorService timeoutWatchdog;
+
+    @PostConstruct
+    public void init() {
+        timeoutWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ffmpeg-timeout-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renditions = parseRenditions(renditionSpec);
+        if (!StringUtils.hasText(ffmpegPath)) {
+            ffmpegPath = isOnPath("ffmpeg") ? "ffmpeg" : new DefaultFFMPEGLocator().getExecutablePath();
+        }
+        log.info("HLS转码使用ffmpeg: {}, 清晰度: {}", ffmpegPath, renditionSpec);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutWatchdog.shutdownNow();
+    }
+
+    /**
+     * 探测源文件
+     */
+    public SourceInfo probe(Path source) throws EncoderException, IOException {
+        MultimediaInfo info = new MultimediaObject(source.toFile()).getInfo();
+        if (info.getVideo() == null || info.getVideo().getSize() == null) {
+            throw new IOException("文件中没有视频流");
+        }
+        return new SourceInfo(info.getDuration(), info.getVideo().getSize().getWidth(),
+                info.getVideo().getSize().getHeight(), info.getAudio() != null);
+    }
+
+    /**
+     * 选择要生成的清晰度，源视频低于所有配置时按源高度生成一路
+     */
+    public List<Rendition> selectRenditions(SourceInfo source) {
+        List<Rendition> selected = new ArrayList<>();
+        for (Rendition rendition : renditions) {
+            if (rendition.getHeight() <= source.getHeight()) {
+                selected.add(rendition);
+            }
+        }
+        if (selected.isEmpty()) {
+            Rendition lowest = renditions.get(renditions.size() - 1);
+            selected.add(new Rendition(Math.max(2, source.getHeight() & ~1), lowest.getVideoBitrateKbps()));
+        }
+        return selected;
+    }
+
+    /**
+     * 截取封面
+     */
+    public void extractCover(Path source, SourceInfo info, Path target, Consumer<Process> started)
+            throws IOException, InterruptedException {
+        Files.createDirectories(target.getParent());
+        // 1秒处截取，不足1秒的视频截取第一帧
+        String offset = info.getDurationMs() > 1000 ? "1" : "0";
+        List<String> command = List.of(ffmpegPath, "-y", "-hide_banner", "-loglevel", "error",
+                "-ss", offset, "-i", source.toString(), "-frames:v", "1", "-q:v", "2", target.toString());
+        run(command, 0, null, started);
+    }
+
+    /**
+     * 生成进度条预览缩略图和WebVTT索引
+     *
+     * @return WebVTT文件路径
+     */
+    public Path extractThumbnails(Path source, SourceInfo info, Path outputDir, ProgressListener listener,
+                                  Consumer<Process> started) throws IOException, InterruptedException {
+        Path thumbnailDir = outputDir.resolve(THUMBNAIL_DIR);
+        Files.createDirectories(thumbnailDir);
+        List<String> command = List.of(ffmpegPath, "-y", "-hide_banner", "-loglevel", "error",
+                "-nostats", "-progress", "pipe:1", "-i", source.toString(),
+                "-vf", "fps=1/" + thumbnailIntervalSeconds + ",scale=" + thumbnailWidth + ":-2",
+                "-q:v", "5", thumbnailDir.resolve("%04d.jpg").toString());
+        run(command, info.getDurationMs(), listener, started);
+
+        long count;
+        try (Stream<Path> files = Files.list(thumbnailDir)) {
+            count = files.count();
+        }
+        Path track = outputDir.resolve(THUMBNAIL_TRACK);
+        Files.writeString(track, thumbnailTrack((int) count, thumbnailIntervalSeconds, info.getDurationMs()),
+                StandardCharsets.UTF_8);
+        return track;
+    }
+
+    /**
+     * 生成一路清晰度的HLS分片和播放列表
+     */
+    public void transcode(Path source, SourceInfo info, Rendition rendition, Path outputDir,
+                          ProgressListener listener, Consumer<Process> started)
+            throws IOException, InterruptedException {
+        Path variantDir = outputDir.resolve(rendition.getName());
+        Files.createDirectories(variantDir);
+        run(renditionCommand(source, info, rendition, variantDir), info.getDurationMs(), listener, started);
+    }
+
+    /**
+     * 写入主播放列表
+     *
+     * @return 主播放列表路径
+     */
+    public Path writeMasterPlaylist(Path outputDir, SourceInfo info, List<Rendition> generated) throws IOException {
+        Path master = outputDir.resolve(MASTER_PLAYLIST);
+        Files.writeString(master, masterPlaylist(info, generated), StandardCharsets.UTF_8);
+        return master;
+    }
+
+    List<String> renditionCommand(Path source, SourceInfo info, Rendition rendition, Path variantDir) {
+        int bitrate = rendition.getVideoBitrateKbps();
+        List<String> command = new ArrayList<>(List.of(ffmpegPath, "-y", "-hide_banner", "-loglevel", "error",
+                "-nostats", "-progress", "pipe:1", "-i", source.toString(),
+                "-map", "0:v:0", "-vf", "scale=-2:" + rendition.getHeight(),
+                "-c:v", "libx264", "-preset", preset, "-profile:v", "main", "-pix_fmt", "yuv420p",
+                "-b:v", bitrate + "k", "-maxrate", (bitrate * 107 / 100) + "k", "-bufsize", (bitrate * 3 / 2) + "k",
+                "-force_key_frames", "expr:gte(t,n_forced*" + segmentSeconds + ")", "-sc_threshold", "0"));
+        if (info.isHasAudio()) {
+            command.addAll(List.of("-map", "0:a:0", "-c:a", "aac", "-b:a", audioBitrateKbps + "k", "-ac", "2"));
+        }
+        command.addAll(List.of("-f", "hls", "-hls_time", String.valueOf(segmentSeconds),
+                "-hls_playlist_type", "vod",
+                "-hls_segment_filename", variantDir.resolve("seg_%05d.ts").toString(),
+                variantDir.resolve(VARIANT_PLAYLIST).toString()));
+        return command;
+    }
+
+    String masterPlaylist(SourceInfo info, List<Rendition> generated) {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+        for (Rendition rendition : generated) {
+            int width = info.getHeight() > 0
+                    ? (int) Math.round((double) info.getWidth() * rendition.getHeight() / info.getHeight() / 2) * 2
+                    : rendition.getHeight() * 16 / 9;
+            int bandwidth = (rendition.getVideoBitrateKbps() + (info.isHasAudio() ? audioBitrateKbps : 0)) * 1000;
+            playlist.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(bandwidth)
+                    .append(",RESOLUTION=").append(width).append('x').append(rendition.getHeight())
+                    .append('\n')
+                    .append(rendition.getName()).append('/').append(VARIANT_PLAYLIST).append('\n');
+        }
+        return playlist.toString();
+    }
+
+    static String thumbnailTrack(int count, int intervalSeconds, long durationMs) {
+        StringBuilder track = new StringBuilder("WEBVTT\n");
+        for (int i = 0; i < count; i++) {
+            long start = (long) i * intervalSeconds * 1000;
+            long end = Math.min(start + intervalSeconds * 1000L, Math.max(durationMs, start + 1));
+            track.append('\n').append(vttTime(start)).append(" --> ").append(vttTime(end)).append('\n')
+                    .append(THUMBNAIL_DIR).append('/').append(String.format("%04d.jpg", i + 1)).append('\n');
+        }
+        return track.toString();
+    }
+
+    static List<Rendition> parseRenditions(String spec) {
+        List<Rendition> parsed = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length == 2) {
+                parsed.add(new Rendition(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())));
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("未配置转码清晰度: " + spec);
+        }
+        parsed.sort((a, b) -> Integer.compare(b.getHeight(), a.getHeight()));
+        return parsed;
+    }
+
+    /**
+     * 解析ffmpeg -progress输出中的已处理时长
+     *
+     * @return 已处理的微秒数，不是时长行时返回-1
+     */
+    static long parseOutTimeMicros(String line) {
+        // out_time_us和out_time_ms的单位都是微秒（后者是ffmpeg的历史命名）
+        if (line.startsWith("out_time_us=") || line.startsWith("out_time_ms=")) {
+            try {
+                return Long.parseLong(line.substring(line.indexOf('=') + 1).trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static String vttTime(long ms) {
+        return String.format("%02d:%02d:%02d.%03d", ms / 3_600_000, ms / 60_000 % 60, ms / 1000 % 60, ms % 1000);
+    }
+
+    /**
+     * 执行ffmpeg，标准输出读取进度，错误输出写入临时文件，失败时作为异常信息。
+     * 读取标准输出会一直阻塞到ffmpeg退出，超时由看门狗线程终止进程，进程退出后读取随即结束
+     */
+    private void run(List<String> command, long durationMs, ProgressListener listener, Consumer<Process> started)
+            throws IOException, InterruptedException {
+        Path errorLog = Files.createTempFile("ffmpeg-", ".log");
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectError(errorLog.toFile())
+                    .start();
+            if (started != null) {
+                started.accept(process);
+            }
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> watchdog = timeoutWatchdog.schedule(() -> {
+                if (process.isAlive()) {
+                    timedOut.set(true);
+                    destroy(process);
+                }
+            }, processTimeoutMinutes, TimeUnit.MINUTES);
+            boolean aborted = false;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long outTime = parseOutTimeMicros(line);
+                    if (outTime >= 0 && listener != null && durationMs > 0 && !aborted
+                            && !listener.onProgress(Math.min(1.0, outTime / 1000.0 / durationMs))) {
+                        aborted = true;
+                        destroy(process);
+                    }
+                }
+            } catch (IOException e) {
+                // 进程被终止时读取可能以异常结束，其他情况按ffmpeg执行失败处理
+                if (!timedOut.get() && !aborted) {
+                    destroy(process);
+                    throw e;
+                }
+            } finally {
+                watchdog.cancel(false);
+            }
+            process.waitFor();
+            if (timedOut.get()) {
+                throw new IOException("ffmpeg执行超时");
+            }
+            if (aborted) {
+                throw new CancellationException("转码任务已取消");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("ffmpeg返回码" + process.exitValue() + ": " + tail(errorLog));
+            }
+        } finally {
+            Files.deleteIfExists(errorLog);
+        }
+    }
+
+    private static String tail(Path errorLog) {
+        try {
+            String output = Files.readString(errorLog, StandardCharsets.UTF_8).trim();
+            return output.length() > 300 ? output.substring(output.length() - 300) : output;
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * 终止进程，连同其子进程（如经脚本启动的ffmpeg），确保标准输出的写入端被关闭
+     */
+    private static void destroy(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static boolean isOnPath(String executable) {
+        try {
+            Process process = new ProcessBuilder(executable, "-version")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.csu.unicorp.service.impl.course;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.FileSystemUtils;
+
+import com.csu.unicorp.entity.course.ChapterVideo;
+import com.csu.unicorp.entity.course.MediaTranscodeJob;
+import com.csu.unicorp.mapper.course.ChapterVideoMapper;
+import com.csu.unicorp.mapper.course.MediaTranscodeJobMapper;
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.course.HlsTranscoder.Rendition;
+import com.csu.unicorp.service.impl.course.HlsTranscoder.SourceInfo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 章节视频转码任务队列
+ * <p>
+ * 1. 上传请求只写入一条PENDING任务，事务提交后唤醒调度，不再在请求线程中执行ffmpeg；<br>
+ * 2. 固定数量的工作线程执行任务，有空闲线程时才从数据库领取任务，领取通过带状态条件的UPDATE完成，多节点不会重复执行；<br>
+ * 3. 执行过程中定期上报进度，进度更新同时作为心跳，心跳超时的任务由任意节点放回待执行；
+ * 任务被取消（视频被删除或替换）后进度更新失败，工作线程随即终止ffmpeg；<br>
+ * 4. 失败的任务按配置次数重试，最终失败时视频仍可播放原始文件。
+ * <p>
+ * 生成的文件位于 上传目录/courses/videos/hls/{视频ID}/，由上传文件访问接口提供，播放器通过主播放列表按带宽选择清晰度。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaTranscodeQueue {
+
+    public static final String HLS_PATH = "courses/videos/hls/";
+    private static final String COVER_PATH = "courses/videos/covers/";
+
+    /**
+     * 进度分配：封面和缩略图占前10%，各清晰度平分80%，最后10%为写入播放列表和更新视频
+     */
+    private static final int PREPARE_WEIGHT = 10;
+    private static final int TRANSCODE_WEIGHT = 80;
+
+    private final MediaTranscodeJobMapper jobMapper;
+    private final ChapterVideoMapper videoMapper;
+    private final HlsTranscoder transcoder;
+    private final FileService fileService;
+    private final WatchProgressTracker watchProgressTracker;
+
+    @Value("${app.upload.dir:upload}")
+    private String uploadDir;
+
+    @Value("${app.media.transcode.workers:2}")
+    private int workers;
+
+    @Value("${app.media.transcode.max-attempts:2}")
+    private int maxAttempts;
+
+    /**
+     * 心跳超时时间，超过该时间没有上报进度的任务视为执行节点已宕机
+     */
+    @Value("${app.media.transcode.stale-minutes:10}")
+    private int staleMinutes;
+
+    /**
+     * 进度上报的最小间隔
+     */
+    @Value("${app.media.transcode.progress-interval-ms:3000}")
+    private long progressIntervalMs;
+
+    private final String workerNode = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong canceled = new AtomicLong();
+
+    /**
+     * 本节点正在执行的任务ID -> 当前ffmpeg进程，取消时直接终止
+     */
+    private final Map<Long, Process> processes = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "media-transcode-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 提交转码任务，在事务中调用时提交后才开始调度
+     *
+     * @param videoId 章节视频ID
+     * @param sourcePath 原始文件相对路径
+     */
+    public void submit(Integer videoId, String sourcePath) {
+        MediaTranscodeJob job = new MediaTranscodeJob();
+        job.setVideoId(videoId);
+        job.setSourcePath(sourcePath);
+        job.setStatus(MediaTranscodeJob.STATUS_PENDING);
+        job.setProgress(0);
+        job.setAttempts(0);
+        job.setCreatedAt(LocalDateTime.now());
+        jobMapper.insert(job);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatchQuietly();
+                }
+            });
+        } else {
+            dispatchQuietly();
+        }
+    }
+
+    /**
+     * 取消视频的转码任务并删除已生成的文件，在事务中调用时提交后才终止ffmpeg和删除文件，回滚时不影响原有的转码结果
+     *
+     * @param videoId 章节视频ID
+     */
+    public void cancel(Integer videoId) {
+        if (jobMapper.cancelByVideoId(videoId) > 0) {
+            canceled.incrementAndGet();
+        }
+        MediaTranscodeJob latest = jobMapper.selectLatestByVideoId(videoId);
+        Long latestJobId = latest != null ? latest.getId() : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stopAndDeleteOutputs(videoId, latestJobId);
+                }
+            });
+        } else {
+            stopAndDeleteOutputs(videoId, latestJobId);
+        }
+    }
+
+    private void stopAndDeleteOutputs(Integer videoId, Long jobId) {
+        // 本节点正在执行时立即终止，其他节点在下次上报进度时发现任务已取消
+        if (jobId != null) {
+            Process process = processes.get(jobId);
+            if (process != null) {
+                process.destroyForcibly();
+            }
+        }
+        deleteOutputs(videoId);
+    }
+
+    /**
+     * 查询视频最近一次转码任务
+     */
+    public MediaTranscodeJob getLatestJob(Integer videoId) {
+        return jobMapper.selectLatestByVideoId(videoId);
+    }
+
+    /**
+     * 获取队列统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("workerNode", workerNode);
+        statistics.put("workers", workers);
+        statistics.put("running", running.get());
+        statistics.put("succeeded", succeeded.get());
+        statistics.put("failed", failed.get());
+        statistics.put("canceled", canceled.get());
+        return statistics;
+    }
+
+    /**
+     * 定时放回心跳超时的任务并领取待执行的任务，覆盖其他节点提交、重试和宕机接管的任务
+     */
+    @Scheduled(fixedDelayString = "${app.media.transcode.poll-interval-ms:10000}")
+    public void poll() {
+        try {
+            int requeued = jobMapper.requeueStale(staleMinutes);
+            if (requeued > 0) {
+                log.warn("{}个转码任务心跳超时，已放回待执行", requeued);
+            }
+        } catch (Exception e) {
+            log.error("放回超时的转码任务失败: {}", e.getMessage());
+        }
+        dispatchQuietly();
+    }
+
+    /**
+     * 调度失败时任务保持PENDING，由下次定时调度领取
+     */
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (Exception e) {
+            log.error("调度转码任务失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按空闲工作线程数领取任务
+     */
+    synchronized void dispatch() {
+        int idle = workers - running.get();
+        if (idle <= 0) {
+            return;
+        }
+        for (Long jobId : jobMapper.selectPendingIds(idle)) {
+            if (jobMapper.claim(jobId, workerNode) == 1) {
+                running.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        process(jobId);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        processes.values().forEach(Process::destroyForcibly);
+        try {
+            // 未完成的任务放回待执行，由重启后的节点或其他节点继续
+            int requeued = jobMapper.requeueByNode(workerNode);
+            if (requeued > 0) {
+                log.info("关闭前放回{}个未完成的转码任务", requeued);
+            }
+        } catch (Exception e) {
+            log.warn("放回未完成的转码任务失败: {}", e.getMessage());
+        }
+    }
+
+    private void process(Long jobId) {
+        MediaTranscodeJob job = jobMapper.selectById(jobId);
+        // 领取时已增加执行次数，本次执行的进度和结果都以节点和执行次数为条件
+        int attempt = job.getAttempts();
+        Progress progress = new Progress(jobId, attempt);
+        List<Rendition> generated = new ArrayList<>();
+        try {
+            Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            Path source = fileService.resolveFile(job.getSourcePath());
+            if (source == null) {
+                throw new IOException("原始文件路径无效: " + job.getSourcePath());
+            }
+            Path outputDir = root.resolve(HLS_PATH + job.getVideoId());
+            FileSystemUtils.deleteRecursively(outputDir);
+            Files.createDirectories(outputDir);
+            updateVideoStatus(job.getVideoId(), MediaTranscodeJob.STATUS_RUNNING);
+
+            progress.checkpoint("PROBE", 0);
+            SourceInfo info = transcoder.probe(source);
+            List<Rendition> renditions = transcoder.selectRenditions(info);
+
+            progress.checkpoint("COVER", 1);
+            String sourceName = Paths.get(job.getSourcePath()).getFileName().toString();
+            int dot = sourceName.lastIndexOf('.');
+            String coverImage = COVER_PATH + (dot > 0 ? sourceName.substring(0, dot) : sourceName) + ".jpg";
+            transcoder.extractCover(source, info, root.resolve(coverImage), process -> processes.put(jobId, process));
+
+            progress.checkpoint("THUMBNAILS", 2);
+            transcoder.extractThumbnails(source, info, outputDir,
+                    fraction -> progress.report("THUMBNAILS", 2 + (int) (fraction * (PREPARE_WEIGHT - 2))),
+                    process -> processes.put(jobId, process));
+
+            for (int i = 0; i < renditions.size(); i++) {
+                Rendition rendition = renditions.get(i);
+                int base = PREPARE_WEIGHT + TRANSCODE_WEIGHT * i / renditions.size();
+                int span = TRANSCODE_WEIGHT / renditions.size();
+                progress.checkpoint(rendition.getName(), base);
+                transcoder.transcode(source, info, rendition, outputDir,
+                        fraction -> progress.report(rendition.getName(), base + (int) (fraction * span)),
+                        process -> processes.put(jobId, process));
+                generated.add(rendition);
+            }
+
+            progress.checkpoint("PLAYLIST", PREPARE_WEIGHT + TRANSCODE_WEIGHT);
+            transcoder.writeMasterPlaylist(outputDir, info, generated);
+
+            ChapterVideo update = new ChapterVideo();
+            update.setId(job.getVideoId());
+            update.setDuration((int) (info.getDurationMs() / 1000));
+            update.setCoverImage(coverImage);
+            update.setHlsPlaylist(HLS_PATH + job.getVideoId() + "/" + HlsTranscoder.MASTER_PLAYLIST);
+            update.setThumbnailTrack(HLS_PATH + job.getVideoId() + "/" + HlsTranscoder.THUMBNAIL_TRACK);
+            update.setTranscodeStatus(MediaTranscodeJob.STATUS_SUCCEEDED);
+            update.setUpdatedAt(LocalDateTime.now());
+
+            if (jobMapper.finish(jobId, MediaTranscodeJob.STATUS_SUCCEEDED, renditionNames(generated), null,
+                    workerNode, attempt) == 1) {
+                videoMapper.updateById(update);
+                // 时长已更新，95%完成规则重新读取
+                watchProgressTracker.invalidateVideo(job.getVideoId());
+                succeeded.incrementAndGet();
+                log.info("视频{}转码完成，清晰度: {}", job.getVideoId(), renditionNames(generated));
+            }
+        } catch (CancellationException e) {
+            log.info("视频{}的转码任务已取消或被其他节点接管", job.getVideoId());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (message.length() > 500) {
+                message = message.substring(0, 500);
+            }
+            boolean retry = attempt < maxAttempts && !executor.isShutdown();
+            String status = retry ? MediaTranscodeJob.STATUS_PENDING : MediaTranscodeJob.STATUS_FAILED;
+            if (jobMapper.finish(jobId, status, renditionNames(generated), message, workerNode, attempt) == 0) {
+                // 执行期间任务被取消或被其他节点接管，ffmpeg被终止导致的失败
+                log.info("视频{}的转码任务已取消或被其他节点接管", job.getVideoId());
+                return;
+            }
+            if (!retry) {
+                updateVideoStatus(job.getVideoId(), MediaTranscodeJob.STATUS_FAILED);
+                failed.incrementAndGet();
+            }
+            log.error("视频{}转码失败（第{}次）: {}", job.getVideoId(), attempt, message);
+        } finally {
+            processes.remove(jobId);
+        }
+    }
+
+    private void updateVideoStatus(Integer videoId, String status) {
+        ChapterVideo update = new ChapterVideo();
+        update.setId(videoId);
+        update.setTranscodeStatus(status);
+        videoMapper.updateById(update);
+    }
+
+    private void deleteOutputs(Integer videoId) {
+        try {
+            FileSystemUtils.deleteRecursively(Paths.get(uploadDir).toAbsolutePath().normalize()
+                    .resolve(HLS_PATH + videoId));
+        } catch (IOException e) {
+            log.warn("删除视频{}的转码文件失败: {}", videoId, e.getMessage());
+        }
+    }
+
+    private static String renditionNames(List<Rendition> renditions) {
+        if (renditions.isEmpty()) {
+            return null;
+        }
+        StringBuilder names = new StringBuilder();
+        for (Rendition rendition : renditions) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(rendition.getName());
+        }
+        return names.toString();
+    }
+
+    /**
+     * 节流的进度上报
+     */
+    private class Progress {
+        /**
+         * 进度没有变化时的心跳间隔，需明显小于心跳超时时间
+         */
+        private static final long HEARTBEAT_MS = 60_000;
+
+        private final Long jobId;
+        private final int attempt;
+        private int lastPercent = -1;
+        private long lastReportAt;
+
+        Progress(Long jobId, int attempt) {
+            this.jobId = jobId;
+            this.attempt = attempt;
+        }
+
+        /**
+         * 进入新步骤时立即上报
+         *
+         * @throws CancellationException 任务已取消或被其他节点接管
+         */
+        void checkpoint(String stage, int percent) {
+            if (!update(stage, percent)) {
+                throw new CancellationException("转码任务已取消");
+            }
+        }
+
+        /**
+         * ffmpeg执行中上报，按间隔节流
+         *
+         * @return 任务是否仍在执行，返回false时由转码器终止ffmpeg
+         */
+        boolean report(String stage, int percent) {
+            long elapsed = System.currentTimeMillis() - lastReportAt;
+            if (elapsed < progressIntervalMs || (percent <= lastPercent && elapsed < HEARTBEAT_MS)) {
+                return true;
+            }
+            return update(stage, percent);
+        }
+
+        private boolean update(String stage, int percent) {
+            if (jobMapper.updateProgress(jobId, stage, percent, workerNode, attempt) == 0) {
+                return false;
+            }
+            lastPercent = Math.max(lastPercent, percent);
+            lastReportAt = System.currentTimeMillis();
+            return true;
+        }
+    }
+}
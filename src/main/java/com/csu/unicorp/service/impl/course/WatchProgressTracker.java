@@ -0,0 +1,396 @@
+package com.csu.unicorp.service.impl.course;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.csu.unicorp.entity.course.ChapterVideo;
+import com.csu.unicorp.entity.course.VideoWatchRecord;
+import com.csu.unicorp.mapper.course.ChapterVideoMapper;
+import com.csu.unicorp.mapper.course.VideoWatchRecordMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 视频观看进度写回缓冲
+ * <p>
+ * 1. 播放器每隔几秒上报一次进度，上报只更新内存中（用户, 视频）的最新位置、最大进度和完成状态，不访问数据库；<br>
+ * 2. 同一周期内的多次上报合并为一条，定时只把有变化的记录按（视频, 用户）排序后批量 INSERT ... ON DUPLICATE KEY UPDATE 写回；<br>
+ * 3. 写回时进度取数据库与内存的较大值、完成状态只会从未完成变为完成，多实例或写回重试不会让进度倒退；<br>
+ * 4. 95%完成规则使用缓存的视频时长，视频不存在的结果同样缓存，上报进度时不再查询视频表；<br>
+ * 5. 读取观看进度时调用{@link #merge}合并尚未写回的进度；<br>
+ * 6. 批量写回连续失败{@code app.watch-progress.max-flush-attempts}次后拆成两半分别写回，找出无法写入的记录（如外键失效）
+ * 丢弃并记录日志，不再拖累同批的其他记录；数据库不可用等临时错误一直整批重试，不拆分也不丢弃。
+ * <p>
+ * 进度只保存在当前实例内存中，进程异常退出最多丢失一个写回周期的进度，下次上报时即可恢复。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WatchProgressTracker {
+
+    /**
+     * 看到视频时长的该比例即视为看完
+     */
+    public static final double COMPLETION_RATIO = 0.95;
+
+    /**
+     * 单条批量写入最多包含的记录数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 视频不存在或已删除
+     */
+    private static final int MISSING = -1;
+
+    private final VideoWatchRecordMapper watchRecordMapper;
+    private final ChapterVideoMapper videoMapper;
+
+    @Value("${app.watch-progress.duration-cache-max-size:10000}")
+    private long durationCacheMaxSize;
+
+    @Value("${app.watch-progress.duration-cache-ttl-seconds:600}")
+    private long durationCacheTtlSeconds;
+
+    /**
+     * 批量写回连续失败该次数后拆分批次，单条记录失败该次数后丢弃
+     */
+    @Value("${app.watch-progress.max-flush-attempts:3}")
+    private int maxFlushAttempts;
+
+    /**
+     * (用户ID, 视频ID) -> 未写回或刚写回的进度
+     */
+    private final ConcurrentHashMap<Long, Progress> progresses = new ConcurrentHashMap<>();
+
+    /**
+     * 视频ID -> 时长（秒），视频不存在时为MISSING
+     */
+    private Cache<Integer, Integer> durations;
+
+    private final AtomicLong reported = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        durations = Caffeine.newBuilder()
+                .maximumSize(durationCacheMaxSize)
+                .expireAfterWrite(durationCacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 获取视频时长
+     *
+     * @param videoId 视频ID
+     * @return 时长（秒），转码完成前为0；视频不存在或已删除时返回null
+     */
+    public Integer getDuration(Integer videoId) {
+        int duration = durations.get(videoId, id -> {
+            ChapterVideo video = videoMapper.selectById(id);
+            if (video == null || Boolean.TRUE.equals(video.getIsDeleted())) {
+                return MISSING;
+            }
+            return video.getDuration() != null ? video.getDuration() : 0;
+        });
+        return duration == MISSING ? null : duration;
+    }
+
+    /**
+     * 视频时长变化或视频删除后调用
+     *
+     * @param videoId 视频ID
+     */
+    public void invalidateVideo(Integer videoId) {
+        if (videoId != null) {
+            durations.invalidate(videoId);
+        }
+    }
+
+    /**
+     * 记录一次进度上报
+     *
+     * @param userId 用户ID
+     * @param videoId 视频ID
+     * @param position 当前播放位置（秒）
+     * @param duration 视频时长（秒）
+     */
+    public void report(Integer userId, Integer videoId, int position, int duration) {
+        boolean completed = isCompleted(position, duration);
+        progresses.compute(key(userId, videoId), (key, progress) -> {
+            if (progress == null) {
+                progress = new Progress();
+            }
+            synchronized (progress) {
+                progress.lastPosition = position;
+                progress.watchProgress = Math.max(progress.watchProgress, position);
+                progress.completed |= completed;
+                progress.version++;
+                progress.idle = false;
+            }
+            return progress;
+        });
+        reported.incrementAndGet();
+    }
+
+    /**
+     * 手动标记看完后调用，内存中的完成状态与数据库保持一致
+     *
+     * @param userId 用户ID
+     * @param videoId 视频ID
+     * @param watchProgress 标记后的观看进度（秒）
+     */
+    public void markCompleted(Integer userId, Integer videoId, int watchProgress) {
+        progresses.computeIfPresent(key(userId, videoId), (key, progress) -> {
+            synchronized (progress) {
+                progress.watchProgress = Math.max(progress.watchProgress, watchProgress);
+                progress.completed = true;
+            }
+            return progress;
+        });
+    }
+
+    /**
+     * 在数据库中的观看记录上合并未写回的进度
+     *
+     * @param userId 用户ID
+     * @param videoId 视频ID
+     * @param persisted 数据库中的观看记录，可以为null
+     * @return 合并后的观看记录，都没有时返回null
+     */
+    public VideoWatchRecord merge(Integer userId, Integer videoId, VideoWatchRecord persisted) {
+        Progress progress = progresses.get(key(userId, videoId));
+        if (progress == null) {
+            return persisted;
+        }
+        VideoWatchRecord merged = new VideoWatchRecord();
+        merged.setVideoId(videoId);
+        merged.setUserId(userId);
+        synchronized (progress) {
+            int persistedProgress = persisted != null && persisted.getWatchProgress() != null
+                    ? persisted.getWatchProgress() : 0;
+            merged.setWatchProgress(Math.max(persistedProgress, progress.watchProgress));
+            merged.setLastPosition(progress.lastPosition);
+            merged.setIsCompleted(progress.completed
+                    || (persisted != null && Boolean.TRUE.equals(persisted.getIsCompleted())));
+        }
+        return merged;
+    }
+
+    /**
+     * 写回有变化的观看进度
+     */
+    @Scheduled(fixedDelayString = "${app.watch-progress.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        // 按（视频, 用户）排序写回，多实例同时写回时加锁顺序与唯一索引一致
+        Map<Long, Snapshot> changed = new TreeMap<>();
+        Iterator<Map.Entry<Long, Progress>> iterator = progresses.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Progress> entry = iterator.next();
+            Progress progress = entry.getValue();
+            boolean expired;
+            synchronized (progress) {
+                expired = progress.idle && progress.version == progress.flushedVersion;
+                if (progress.version != progress.flushedVersion) {
+                    changed.put(sortKey(entry.getKey()), new Snapshot(entry.getKey(), progress));
+                } else {
+                    progress.idle = true;
+                }
+            }
+            if (expired) {
+                // 连续两个周期没有上报才移除，之后读取直接使用数据库中已写回的进度；
+                // 与上报一样先锁映射再锁进度，移除前再确认期间没有新的上报
+                progresses.computeIfPresent(entry.getKey(), (key, current) -> {
+                    synchronized (current) {
+                        return current == progress && current.idle
+                                && current.version == current.flushedVersion ? null : current;
+                    }
+                });
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Snapshot> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        for (Snapshot snapshot : changed.values()) {
+            batch.add(snapshot);
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+                writeBatch(batch, now);
+                batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, now);
+        }
+    }
+
+    /**
+     * 获取写回统计信息
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("tracked", (long) progresses.size());
+        statistics.put("reported", reported.get());
+        statistics.put("flushed", flushed.get());
+        statistics.put("dropped", dropped.get());
+        return statistics;
+    }
+
+    private void writeBatch(List<Snapshot> batch, LocalDateTime now) {
+        List<VideoWatchRecord> records = new ArrayList<>(batch.size());
+        for (Snapshot snapshot : batch) {
+            records.add(snapshot.toRecord(now));
+        }
+        try {
+            watchRecordMapper.upsertProgressBatch(records);
+        } catch (Exception e) {
+            int attempts = recordFailure(batch);
+            if (attempts < maxFlushAttempts || isTransient(e)) {
+                // 未标记为已写回，下个周期重试
+                log.error("写回{}条观看进度失败，下个周期重试: {}", batch.size(), e.getMessage());
+                return;
+            }
+            if (batch.size() == 1) {
+                Snapshot snapshot = batch.get(0);
+                log.error("观看进度写回{}次均失败，丢弃: userId={}, videoId={}, {}", attempts,
+                        snapshot.key >>> 32, (int) snapshot.key, e.getMessage());
+                markFlushed(snapshot);
+                dropped.incrementAndGet();
+                return;
+            }
+            // 拆成两半分别写回，找出无法写入的记录
+            int middle = batch.size() / 2;
+            writeBatch(new ArrayList<>(batch.subList(0, middle)), now);
+            writeBatch(new ArrayList<>(batch.subList(middle, batch.size())), now);
+            return;
+        }
+        for (Snapshot snapshot : batch) {
+            markFlushed(snapshot);
+        }
+        flushed.addAndGet(batch.size());
+    }
+
+    /**
+     * 记录批次中各条进度的写回失败次数
+     *
+     * @return 批次中最大的连续失败次数
+     */
+    private int recordFailure(List<Snapshot> batch) {
+        int attempts = 0;
+        for (Snapshot snapshot : batch) {
+            Progress progress = progresses.get(snapshot.key);
+            if (progress != null) {
+                synchronized (progress) {
+                    attempts = Math.max(attempts, ++progress.failures);
+                }
+            }
+        }
+        return attempts;
+    }
+
+    private void markFlushed(Snapshot snapshot) {
+        Progress progress = progresses.get(snapshot.key);
+        if (progress != null) {
+            synchronized (progress) {
+                // 写回期间又有上报时版本号已变化，留到下个周期
+                progress.flushedVersion = Math.max(progress.flushedVersion, snapshot.version);
+                progress.failures = 0;
+            }
+        }
+    }
+
+    /**
+     * 数据库不可用等临时错误，与记录内容无关
+     */
+    private static boolean isTransient(Exception e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        log.info("观看进度写回缓冲已关闭，统计: {}", getStatistics());
+    }
+
+    static boolean isCompleted(int position, int duration) {
+        return duration > 0 && position >= duration * COMPLETION_RATIO;
+    }
+
+    static long key(Integer userId, Integer videoId) {
+        return ((long) userId << 32) | (videoId & 0xFFFFFFFFL);
+    }
+
+    private static long sortKey(long key) {
+        return (key << 32) | (key >>> 32);
+    }
+
+    /**
+     * 单个（用户, 视频）的进度，读写时以自身为锁；需要同时修改映射时先锁映射再锁进度
+     */
+    private static class Progress {
+        private int lastPosition;
+        private int watchProgress;
+        private boolean completed;
+        private long version;
+        private long flushedVersion;
+        private boolean idle;
+
+        /**
+         * 连续写回失败次数
+         */
+        private int failures;
+    }
+
+    private static class Snapshot {
+        private final long key;
+        private final int lastPosition;
+        private final int watchProgress;
+        private final boolean completed;
+        private final long version;
+
+        private Snapshot(long key, Progress progress) {
+            this.key = key;
+            this.lastPosition = progress.lastPosition;
+            this.watchProgress = progress.watchProgress;
+            this.completed = progress.completed;
+            this.version = progress.version;
+        }
+
+        private VideoWatchRecord toRecord(LocalDateTime now) {
+            VideoWatchRecord record = new VideoWatchRecord();
+            record.setUserId((int) (key >>> 32));
+            record.setVideoId((int) key);
+            record.setLastPosition(lastPosition);
+            record.setWatchProgress(watchProgress);
+            record.setIsCompleted(completed);
+            record.setCreatedAt(now);
+            record.setUpdatedAt(now);
+            return record;
+        }
+    }
+}
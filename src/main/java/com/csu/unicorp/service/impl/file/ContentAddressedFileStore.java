@@ -0,0 +1,211 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.csu.unicorp.mapper.FileBlobMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按内容寻址的文件存储
+ * <p>
+ * 文件按内容SHA-256保存为 {blob-dir}/ab/cd/{sha256}，相同内容只保存一份，file_blobs记录引用数。
+ * 上传时先读一遍计算摘要，内容已存在时只增加引用，不再写入文件；不存在时把容器的临时文件直接移动过来。
+ * 引用数降为0且超过保留时间的内容由后台任务清理，清理后通过{@link FileCacheInvalidationRelay}通知各节点删除该内容的缩略图等派生缓存。
+ * 存储目录不在上传根目录下，只能通过file_mapping中的存储文件名访问。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentAddressedFileStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GC_BATCH_SIZE = 200;
+
+    private final FileBlobMapper blobMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final FileCacheInvalidationRelay invalidationRelay;
+
+    @Value("${app.upload.blob.dir:upload-blobs}")
+    private String blobDir;
+
+    /**
+     * 引用数降为0后保留的时间，期间重新上传相同内容可直接复用
+     */
+    @Value("${app.upload.blob.gc-grace-minutes:60}")
+    private int gcGraceMinutes;
+
+    /**
+     * 保存上传的文件
+     *
+     * @param file 上传的文件
+     * @return 文件内容SHA-256
+     */
+    public String put(MultipartFile file) throws IOException {
+        String contentHash;
+        try (InputStream input = file.getInputStream()) {
+            contentHash = digest(input);
+        }
+        boolean acquired = blobMapper.acquire(contentHash) > 0;
+        if (acquired && Files.exists(blobPath(contentHash))) {
+            return contentHash;
+        }
+
+        Path temp = tempFile();
+        try {
+            // 使用绝对路径时容器直接移动已落盘的临时文件
+            file.transferTo(temp.toFile());
+            publish(contentHash, file.getSize(), temp, acquired);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return contentHash;
+    }
+
+    /**
+     * 保存服务器磁盘上的文件，保存后源文件不再存在
+     *
+     * @param source 源文件
+     * @return 文件内容SHA-256
+     */
+    public String put(Path source) throws IOException {
+        String contentHash;
+        try (InputStream input = Files.newInputStream(source)) {
+            contentHash = digest(input);
+        }
+        boolean acquired = blobMapper.acquire(contentHash) > 0;
+        if (acquired && Files.exists(blobPath(contentHash))) {
+            Files.delete(source);
+            return contentHash;
+        }
+        publish(contentHash, Files.size(source), source, acquired);
+        return contentHash;
+    }
+
+    /**
+     * 减少内容的引用
+     *
+     * @param contentHash 文件内容SHA-256
+     */
+    public void release(String contentHash) {
+        blobMapper.release(contentHash);
+    }
+
+    /**
+     * 获取内容的存储路径
+     *
+     * @param contentHash 文件内容SHA-256
+     * @return 存储路径
+     */
+    public Path resolve(String contentHash) {
+        return blobPath(contentHash);
+    }
+
+    /**
+     * 清理不再被引用的内容
+     */
+    @Scheduled(fixedDelayString = "${app.upload.blob.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        List<String> contentHashes = blobMapper.selectCollectable(gcGraceMinutes, GC_BATCH_SIZE);
+        int removed = 0;
+        for (String contentHash : contentHashes) {
+            try {
+                Boolean deleted = transactionTemplate.execute(status -> {
+                    // 锁定期间增加引用的请求会等待，删除后按新内容重新写入
+                    if (blobMapper.lockUnreferenced(contentHash) == null) {
+                        return false;
+                    }
+                    try {
+                        Files.deleteIfExists(blobPath(contentHash));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return blobMapper.deleteUnreferenced(contentHash) > 0;
+                });
+                if (Boolean.TRUE.equals(deleted)) {
+                    removed++;
+                    invalidationRelay.invalidate(FileCacheInvalidationRelay.CONTENT, contentHash);
+                }
+            } catch (Exception e) {
+                log.warn("清理文件内容失败: {}, {}", contentHash, e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            log.info("清理了{}个不再被引用的文件内容", removed);
+        }
+    }
+
+    /**
+     * 把文件移动到内容存储路径。引用记录先于文件写入，清理任务看到引用后不会删除刚写入的文件
+     */
+    private void publish(String contentHash, long size, Path source, boolean acquired) throws IOException {
+        if (!acquired) {
+            blobMapper.upsert(contentHash, size);
+        }
+        try {
+            Path target = blobPath(contentHash);
+            Files.createDirectories(target.getParent());
+            moveInto(source, target);
+        } catch (IOException | RuntimeException e) {
+            blobMapper.release(contentHash);
+            throw e;
+        }
+    }
+
+    private static void moveInto(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // 并发写入了相同内容
+            Files.delete(source);
+        }
+    }
+
+    private Path tempFile() throws IOException {
+        Path directory = Paths.get(blobDir, "tmp").toAbsolutePath();
+        Files.createDirectories(directory);
+        return directory.resolve(UUID.randomUUID() + ".tmp");
+    }
+
+    private Path blobPath(String contentHash) {
+        return Paths.get(blobDir, contentHash.substring(0, 2), contentHash.substring(2, 4), contentHash)
+                .toAbsolutePath();
+    }
+
+    static String digest(InputStream input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
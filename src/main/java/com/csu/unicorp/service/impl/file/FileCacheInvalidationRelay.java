@@ -0,0 +1,168 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文件相关本地缓存的跨节点失效
+ * <p>
+ * 存储文件名映射、缩略图等缓存保存在各节点内存（缩略图还在各节点磁盘）中，
+ * 某个节点删除文件或清理文件内容时，除了处理本节点的缓存，还通过Redis频道通知其他节点处理各自的缓存。
+ * 各缓存在启动时用{@link #subscribe}登记失效处理；Redis不可用时只处理本节点，其他节点的缓存按各自的过期时间失效。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileCacheInvalidationRelay implements MessageListener {
+
+    /**
+     * 存储文件名映射，键为存储文件名
+     */
+    public static final String STORED_NAME = "stored-name";
+
+    /**
+     * 已清理的文件内容，键为内容SHA-256
+     */
+    public static final String CONTENT = "content";
+
+    private static final String CHANNEL = "file:cache-invalidations";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${app.upload.cache-broadcast:true}")
+    private boolean broadcast;
+
+    /**
+     * 本节点标识，收到自己发布的消息时跳过
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        if (!broadcast) {
+            return;
+        }
+        try {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(redisConnectionFactory);
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+            log.info("文件缓存失效通过Redis频道{}通知其他节点", CHANNEL);
+        } catch (Exception e) {
+            log.warn("订阅文件缓存失效频道失败，只处理本节点缓存: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 登记缓存的失效处理
+     *
+     * @param cache 缓存名称，如{@link #STORED_NAME}
+     * @param handler 失效处理，参数为缓存键
+     */
+    public void subscribe(String cache, Consumer<String> handler) {
+        handlers.computeIfAbsent(cache, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * 使所有节点上的缓存条目失效，本节点立即处理
+     *
+     * @param cache 缓存名称
+     * @param key 缓存键
+     */
+    public void invalidate(String cache, String key) {
+        dispatch(cache, key);
+        if (!broadcast) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation();
+        invalidation.setOriginNode(nodeId);
+        invalidation.setCache(cache);
+        invalidation.setKey(key);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, invalidation);
+        } catch (Exception e) {
+            log.warn("通知其他节点文件缓存失效失败: {} {}, {}", cache, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object value = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (value == null) {
+                return;
+            }
+            Invalidation invalidation = value instanceof Invalidation
+                    ? (Invalidation) value : OBJECT_MAPPER.convertValue(value, Invalidation.class);
+            if (nodeId.equals(invalidation.getOriginNode())) {
+                return;
+            }
+            dispatch(invalidation.getCache(), invalidation.getKey());
+        } catch (Exception e) {
+            log.error("处理文件缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    private void dispatch(String cache, String key) {
+        if (cache == null || key == null) {
+            return;
+        }
+        for (Consumer<String> handler : handlers.getOrDefault(cache, List.of())) {
+            try {
+                handler.accept(key);
+            } catch (Exception e) {
+                log.warn("文件缓存失效处理失败: {} {}, {}", cache, key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 跨节点发送的失效消息
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Invalidation {
+        private String originNode;
+        private String cache;
+        private String key;
+    }
+}
@@ -0,0 +1,230 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地文件发送
+ * <p>
+ * 1. 条件请求：以文件修改时间和大小生成ETag，配合Last-Modified处理If-None-Match、If-Modified-Since、
+ * If-Match、If-Unmodified-Since，文件未变化时返回304，不再重传；<br>
+ * 2. 断点续传：支持单个Range请求返回206，多个范围合并为覆盖它们的一个范围；
+ * If-Range与当前ETag或修改时间不一致时忽略Range返回整个文件；范围无法满足时返回416；<br>
+ * 3. 零拷贝：Tomcat支持sendfile时把文件名和范围交给容器，由容器直接从文件发送到套接字；
+ * 不支持时用FileChannel.transferTo写出，不经过应用层缓冲区。
+ * <p>
+ * 上传的文件名唯一且上传后不再修改，修改时间+大小足以区分文件内容，不必为几百MB的文件计算摘要。
+ */
+@Slf4j
+@Component
+public class FileRangeSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 使用sendfile的最小字节数，小文件直接写出更快
+     */
+    @Value("${app.file-serving.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    /**
+     * 发送文件
+     *
+     * @param request 请求
+     * @param response 响应
+     * @param file 文件路径
+     * @param contentType 内容类型，为null时按扩展名推断
+     * @param attachmentName 下载文件名，为null时按inline返回，浏览器直接显示或播放
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, Path file,
+                     MediaType contentType, String attachmentName) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etagOf(length, lastModified);
+
+        // 设置ETag、Last-Modified，条件满足时设置304或412状态
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType((contentType != null ? contentType : contentTypeOf(file)).toString());
+        if (attachmentName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(attachmentName, StandardCharsets.UTF_8).build().toString());
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && isRangeApplicable(request, etag, lastModified)) {
+            long[] range = resolveRange(rangeHeader, length);
+            if (range == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range.length == 2) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count <= 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response);
+    }
+
+    /**
+     * 判断请求是否从文件开头读取，用于只在首次请求时统计下载次数，拖动进度、断点续传的后续请求不重复统计
+     */
+    public boolean isInitialRequest(HttpServletRequest request) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return true;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.isEmpty() || ranges.get(0).getRangeStart(Long.MAX_VALUE) == 0;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 按扩展名推断内容类型
+     */
+    public MediaType contentTypeOf(Path file) {
+        return contentTypeOf(file.getFileName().toString());
+    }
+
+    /**
+     * 按文件名的扩展名推断内容类型，用于实际存储路径没有扩展名的文件（如按内容保存的文件）
+     *
+     * @param fileName 文件名或带扩展名的路径
+     */
+    public MediaType contentTypeOf(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    static String etagOf(long length, long lastModified) {
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+    }
+
+    /**
+     * 解析Range请求头
+     *
+     * @return 起止位置（含）；格式错误时返回空数组，按整个文件返回；范围全部无法满足时返回null
+     */
+    static long[] resolveRange(String rangeHeader, long length) {
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return new long[0];
+        }
+        if (ranges.isEmpty()) {
+            return new long[0];
+        }
+        long start = Long.MAX_VALUE;
+        long end = -1;
+        for (HttpRange range : ranges) {
+            long rangeStart = range.getRangeStart(length);
+            long rangeEnd = range.getRangeEnd(length);
+            if (rangeStart >= length || rangeStart > rangeEnd) {
+                continue;
+            }
+            start = Math.min(start, rangeStart);
+            end = Math.max(end, rangeEnd);
+        }
+        return end < 0 ? null : new long[] {start, end};
+    }
+
+    /**
+     * If-Range为ETag时要求完全一致（弱ETag不匹配），为日期时要求与修改时间在同一秒
+     */
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void transfer(Path file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // 发送期间文件被截断
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } catch (IOException e) {
+            // 拖动进度条、暂停下载时客户端会主动断开连接
+            log.debug("文件{}发送中断: {}", file.getFileName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.dto.FileUploadSessionDTO;
+import com.csu.unicorp.entity.FileUploadSession;
+import com.csu.unicorp.mapper.FileUploadSessionMapper;
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.FileUploadSessionService;
+import com.csu.unicorp.vo.FileUploadSessionVO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 分片上传服务实现类
+ * <p>
+ * 创建会话时按文件大小预分配临时文件，每个分片用FileChannel按偏移量直接写入对应位置，
+ * 分片之间互不依赖，可以乱序、并发、重传。分片边写边计算SHA-256，校验通过并落盘后才记录为已接收；
+ * 重传的分片写入前先删除原有的接收记录，写入或校验失败时该分片需要重新上传，不会带着被覆盖的内容完成。
+ * 提交时临时文件直接重命名到存储目录，整个过程文件内容只写一次；提交事务回滚时恢复临时文件，可以重新提交。
+ * 临时文件目录不在上传根目录下，未完成的文件不会被访问到。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileUploadSessionServiceImpl implements FileUploadSessionService {
+
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final FileUploadSessionMapper sessionMapper;
+    private final FileService fileService;
+
+    @Value("${app.upload.max-size:10485760}")
+    private long maxFileSize;
+
+    @Value("${app.upload.session.dir:upload-sessions}")
+    private String sessionDir;
+
+    @Value("${app.upload.session.chunk-size:5242880}")
+    private int defaultChunkSize;
+
+    @Value("${app.upload.session.expire-hours:24}")
+    private int expireHours;
+
+    @Override
+    public FileUploadSessionVO createSession(FileUploadSessionDTO sessionDTO, String account) {
+        long totalSize = sessionDTO.getTotalSize();
+        if (totalSize > maxFileSize) {
+            throw new BusinessException("文件大小超过限制，最大允许" + (maxFileSize / 1024 / 1024) + "MB");
+        }
+        String originalName = StringUtils.cleanPath(sessionDTO.getFileName());
+        if (!originalName.contains(".")) {
+            throw new BusinessException("文件名缺少扩展名");
+        }
+
+        int chunkSize = sessionDTO.getChunkSize() != null ? sessionDTO.getChunkSize() : defaultChunkSize;
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+
+        FileUploadSession session = new FileUploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwnerAccount(account);
+        session.setType(StringUtils.hasText(sessionDTO.getType()) ? sessionDTO.getType() : "resource");
+        session.setOriginalName(originalName);
+        session.setContentType(sessionDTO.getContentType());
+        session.setTotalSize(totalSize);
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) ((totalSize + chunkSize - 1) / chunkSize));
+        session.setStatus(FileUploadSession.STATUS_UPLOADING);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setExpiresAt(session.getCreatedAt().plusHours(expireHours));
+
+        // 预分配临时文件，分片按偏移量写入
+        try {
+            Path directory = Paths.get(sessionDir);
+            Files.createDirectories(directory);
+            if (Files.getFileStore(directory).getUsableSpace() < totalSize) {
+                throw new BusinessException("服务器存储空间不足，请稍后再试");
+            }
+            try (RandomAccessFile file = new RandomAccessFile(partFile(session.getId()).toFile(), "rw")) {
+                file.setLength(totalSize);
+            }
+        } catch (IOException e) {
+            log.error("创建上传临时文件失败", e);
+            throw new BusinessException("创建上传会话失败: " + e.getMessage());
+        }
+
+        sessionMapper.insert(session);
+        return convertToVO(session, List.of());
+    }
+
+    @Override
+    public FileUploadSessionVO getSession(String uploadId, String account) {
+        FileUploadSession session = getOwnSession(uploadId, account);
+        List<Integer> receivedChunks = FileUploadSession.STATUS_UPLOADING.equals(session.getStatus())
+                ? sessionMapper.selectChunkIndexes(uploadId) : List.of();
+        return convertToVO(session, receivedChunks);
+    }
+
+    @Override
+    public void uploadChunk(String uploadId, int chunkIndex, String checksum, InputStream input, String account) {
+        FileUploadSession session = getUploadingSession(uploadId, account);
+        if (chunkIndex < 0 || chunkIndex >= session.getChunkCount()) {
+            throw new BusinessException("分片序号超出范围");
+        }
+        if (!StringUtils.hasText(checksum)) {
+            throw new BusinessException("缺少分片校验和");
+        }
+
+        long offset = (long) chunkIndex * session.getChunkSize();
+        long expectedSize = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        // 写入会覆盖该分片原有的内容，先取消接收记录
+        sessionMapper.deleteChunk(uploadId, chunkIndex);
+        String actual;
+        try {
+            actual = writeChunk(partFile(uploadId), offset, expectedSize, input);
+        } catch (IOException e) {
+            log.warn("分片写入失败: uploadId={}, chunk={}", uploadId, chunkIndex, e);
+            throw new BusinessException("分片写入失败，请重新上传该分片");
+        }
+        if (!actual.equalsIgnoreCase(checksum.trim())) {
+            throw new BusinessException("分片校验失败，请重新上传该分片");
+        }
+
+        sessionMapper.upsertChunk(uploadId, chunkIndex, actual);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileUploadSessionVO completeSession(String uploadId, String account) {
+        FileUploadSession session = claimCompleted(uploadId, account);
+        restorePartOnRollback(uploadId, null);
+        String storedName = fileService.storeFile(partFile(uploadId), session.getOriginalName(), session.getType());
+
+        FileUploadSession update = new FileUploadSession();
+        update.setId(uploadId);
+        update.setStoredName(storedName);
+        sessionMapper.updateById(update);
+
+        session.setStatus(FileUploadSession.STATUS_COMPLETED);
+        session.setStoredName(storedName);
+        return convertToVO(session, List.of());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileUploadSession completeSession(String uploadId, String account,
+                                             Function<FileUploadSession, Path> targetResolver) {
+        FileUploadSession session = claimCompleted(uploadId, account);
+        Path target = targetResolver.apply(session);
+        restorePartOnRollback(uploadId, target);
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try {
+                Files.move(partFile(uploadId), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partFile(uploadId), target);
+            }
+        } catch (IOException e) {
+            log.error("保存上传文件失败: {}", target, e);
+            throw new BusinessException("文件保存失败: " + e.getMessage());
+        }
+
+        FileUploadSession update = new FileUploadSession();
+        update.setId(uploadId);
+        update.setStoredName(target.toString());
+        sessionMapper.updateById(update);
+
+        session.setStatus(FileUploadSession.STATUS_COMPLETED);
+        session.setStoredName(target.toString());
+        return session;
+    }
+
+    @Override
+    public void cancelSession(String uploadId, String account) {
+        getUploadingSession(uploadId, account);
+        removeSession(uploadId);
+    }
+
+    /**
+     * 清理过期的上传会话和临时文件
+     */
+    @Scheduled(fixedDelayString = "${app.upload.session.cleanup-interval-ms:3600000}")
+    public void cleanupExpiredSessions() {
+        List<String> expiredIds;
+        do {
+            expiredIds = sessionMapper.selectExpiredIds(CLEANUP_BATCH_SIZE);
+            expiredIds.forEach(this::removeSession);
+        } while (expiredIds.size() == CLEANUP_BATCH_SIZE);
+    }
+
+    /**
+     * 把分片写入临时文件的对应位置，返回分片内容的SHA-256
+     */
+    static String writeChunk(Path part, long offset, long expectedSize, InputStream input) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] bytes = new byte[BUFFER_SIZE];
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = input.read(bytes)) != -1) {
+                if (written + read > expectedSize) {
+                    throw new BusinessException("分片大小不正确，应为" + expectedSize + "字节");
+                }
+                digest.update(bytes, 0, read);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, read);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+            }
+            if (written != expectedSize) {
+                throw new BusinessException("分片大小不正确，应为" + expectedSize + "字节");
+            }
+            // 落盘后再记录为已接收，进程崩溃后续传不会漏掉分片
+            channel.force(false);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 提交事务回滚时会话回到上传中，但临时文件已被移走。移走前为其建立硬链接（与存储目录在同一文件系统，不复制内容），
+     * 回滚时用硬链接恢复临时文件并删除已移动到目标位置的文件，提交后删除硬链接
+     *
+     * @param uploadId 上传会话ID
+     * @param target 临时文件的目标位置，由文件服务保存时为空
+     */
+    private void restorePartOnRollback(String uploadId, Path target) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Path part = partFile(uploadId);
+        Path backup = Paths.get(sessionDir, uploadId + ".part.bak");
+        try {
+            Files.deleteIfExists(backup);
+            try {
+                Files.createLink(backup, part);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(part, backup);
+            }
+        } catch (IOException e) {
+            log.error("备份上传临时文件失败: {}", uploadId, e);
+            throw new BusinessException("文件保存失败: " + e.getMessage());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        Files.deleteIfExists(backup);
+                        return;
+                    }
+                    if (target != null) {
+                        Files.deleteIfExists(target);
+                        Files.move(backup, part, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        // 内容存储中的文件可能与硬链接是同一份数据，复制一份，续传写入分片时不会改到存储的内容
+                        Files.copy(backup, part, StandardCopyOption.REPLACE_EXISTING);
+                        Files.delete(backup);
+                    }
+                } catch (IOException e) {
+                    log.warn("恢复上传临时文件失败: {}", uploadId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 校验分片是否到齐并把会话标记为已完成，并发提交时只有一次成功
+     */
+    private FileUploadSession claimCompleted(String uploadId, String account) {
+        FileUploadSession session = getUploadingSession(uploadId, account);
+        int received = sessionMapper.countChunks(uploadId);
+        if (received < session.getChunkCount()) {
+            throw new BusinessException("还有" + (session.getChunkCount() - received) + "个分片未上传");
+        }
+        if (sessionMapper.complete(uploadId, null) == 0) {
+            throw new BusinessException("上传已完成");
+        }
+        return session;
+    }
+
+    private FileUploadSession getOwnSession(String uploadId, String account) {
+        FileUploadSession session = sessionMapper.selectById(uploadId);
+        if (session == null || !session.getOwnerAccount().equals(account)) {
+            throw new BusinessException("上传会话不存在");
+        }
+        return session;
+    }
+
+    private FileUploadSession getUploadingSession(String uploadId, String account) {
+        FileUploadSession session = getOwnSession(uploadId, account);
+        if (!FileUploadSession.STATUS_UPLOADING.equals(session.getStatus())) {
+            throw new BusinessException("上传已完成");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("上传会话已过期，请重新上传");
+        }
+        return session;
+    }
+
+    private void removeSession(String uploadId) {
+        try {
+            Files.deleteIfExists(partFile(uploadId));
+            Files.deleteIfExists(Paths.get(sessionDir, uploadId + ".part.bak"));
+        } catch (IOException e) {
+            log.warn("删除上传临时文件失败: {}", uploadId, e);
+        }
+        sessionMapper.deleteSession(uploadId);
+    }
+
+    private Path partFile(String uploadId) {
+        return Paths.get(sessionDir, uploadId + ".part");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private FileUploadSessionVO convertToVO(FileUploadSession session, List<Integer> receivedChunks) {
+        FileUploadSessionVO vo = new FileUploadSessionVO();
+        vo.setUploadId(session.getId());
+        vo.setFileName(session.getOriginalName());
+        vo.setTotalSize(session.getTotalSize());
+        vo.setChunkSize(session.getChunkSize());
+        vo.setChunkCount(session.getChunkCount());
+        vo.setReceivedChunks(receivedChunks);
+        vo.setStatus(session.getStatus());
+        vo.setFileUrl(session.getStoredName());
+        vo.setExpiresAt(session.getExpiresAt());
+        return vo;
+    }
+}
@@ -0,0 +1,357 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 图片缩略图服务
+ * <p>
+ * 1. 按预设尺寸（最长边像素）生成缩略图，头像、机构Logo、资源图片在列表页只需传输几KB；<br>
+ * 2. 缩略图在固定大小的线程池中生成，请求线程最多等待一小段时间，超时或队列已满时先返回原图，生成完成后后续请求直接命中；<br>
+ * 3. 缩略图按源文件摘要和预设保存在磁盘缓存目录，按内容保存的文件直接使用内容SHA-256，相同内容的文件共用缩略图；<br>
+ * 4. 解码前先读取图片尺寸，像素数过大的图片不处理，并按目标尺寸降采样读取，避免大图占用过多内存。
+ * <p>
+ * 无法解码的文件（格式不支持、已损坏）会记住一段时间，不再重复尝试。
+ * 按内容保存的文件被清理后，各节点删除该内容的缩略图（见{@link FileCacheInvalidationRelay#CONTENT}）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageDerivativeService {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Path UNSUPPORTED = Paths.get("");
+
+    private final FileCacheInvalidationRelay invalidationRelay;
+
+    /**
+     * 预设尺寸列表，格式为 名称:最长边像素
+     */
+    @Value("${app.image.presets:xs:48,sm:96,md:320,lg:960}")
+    private String presetSpec;
+
+    @Value("${app.image.cache-dir:upload-derivatives}")
+    private String cacheDir;
+
+    @Value("${app.image.workers:2}")
+    private int workers;
+
+    @Value("${app.image.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 请求线程等待缩略图生成的最长时间
+     */
+    @Value("${app.image.wait-millis:1500}")
+    private long waitMillis;
+
+    /**
+     * 处理的最大像素数，超过时直接返回原图
+     */
+    @Value("${app.image.max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    @Value("${app.image.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    private Map<String, Integer> presets;
+
+    private ExecutorService executor;
+
+    /**
+     * 正在生成的缩略图，同一缩略图并发请求时只生成一次
+     */
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存键 -> 缩略图路径（源图已足够小时为源文件路径，无法处理时为UNSUPPORTED），命中时不再访问磁盘缓存目录
+     */
+    private final Cache<String, Path> resolved = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+
+    @PostConstruct
+    public void start() {
+        presets = parsePresets(presetSpec);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        invalidationRelay.subscribe(FileCacheInvalidationRelay.CONTENT, this::evict);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 是否为已配置的预设尺寸
+     */
+    public boolean isPreset(String preset) {
+        return presets.containsKey(preset);
+    }
+
+    /**
+     * 获取缩略图
+     *
+     * @param source 源图片文件
+     * @param preset 预设名称
+     * @return 缩略图路径；源图不超过预设尺寸时返回源文件；无法处理或尚未生成完成时返回null，调用方返回原图
+     */
+    public Path getDerivative(Path source, String preset) throws IOException {
+        int size = presets.get(preset);
+        String key = preset + "/" + sourceDigest(source);
+        Path cached = resolved.getIfPresent(key);
+        if (cached != null) {
+            return cached == UNSUPPORTED ? null : cached;
+        }
+
+        Path existing = findCached(key);
+        if (existing != null) {
+            resolved.put(key, existing);
+            return existing;
+        }
+
+        CompletableFuture<Path> future;
+        try {
+            future = inFlight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> generate(source, size, k), executor));
+        } catch (RejectedExecutionException e) {
+            log.debug("缩略图队列已满，返回原图: {}", source);
+            return null;
+        }
+        future.whenComplete((result, error) -> inFlight.remove(key, future));
+
+        try {
+            Path result = future.get(waitMillis, TimeUnit.MILLISECONDS);
+            return result == UNSUPPORTED ? null : result;
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("生成缩略图失败: {}, {}", source, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 删除内容的全部缩略图
+     *
+     * @param contentHash 文件内容SHA-256
+     */
+    void evict(String contentHash) {
+        if (!CONTENT_HASH.matcher(contentHash).matches()) {
+            return;
+        }
+        for (String preset : presets.keySet()) {
+            String key = preset + "/" + contentHash;
+            resolved.invalidate(key);
+            for (String extension : new String[] {"jpg", "png"}) {
+                try {
+                    Files.deleteIfExists(cachePath(key, extension));
+                } catch (IOException e) {
+                    log.warn("删除缩略图失败: {}, {}", key, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Path generate(Path source, int size, String key) {
+        Path result;
+        try {
+            result = resize(source, size, key);
+        } catch (IOException e) {
+            log.warn("生成缩略图失败: {}, {}", source, e.getMessage());
+            result = null;
+        }
+        resolved.put(key, result != null ? result : UNSUPPORTED);
+        return result != null ? result : UNSUPPORTED;
+    }
+
+    private Path resize(Path source, int size, String key) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    return null;
+                }
+                if (Math.max(width, height) <= size) {
+                    return source;
+                }
+                // 按整数倍降采样读取，保留至少两倍目标尺寸再缩放，兼顾内存和画质
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (size * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = scale(image, size, alpha);
+        Path target = cachePath(key, alpha ? "png" : "jpg");
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            if (alpha) {
+                ImageIO.write(scaled, "png", temp.toFile());
+            } else {
+                writeJpeg(scaled, temp);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    static BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        double ratio = (double) size / Math.max(image.getWidth(), image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path findCached(String key) {
+        for (String extension : new String[] {"jpg", "png"}) {
+            Path path = cachePath(key, extension);
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private Path cachePath(String key, String extension) {
+        int slash = key.indexOf('/');
+        String digest = key.substring(slash + 1);
+        return Paths.get(cacheDir, key.substring(0, slash), digest.substring(0, 2), digest + "." + extension)
+                .toAbsolutePath();
+    }
+
+    /**
+     * 源文件摘要：按内容保存的文件名即内容SHA-256；旧文件用路径、大小和修改时间计算，文件被替换后自动失效
+     */
+    static String sourceDigest(Path source) throws IOException {
+        String fileName = source.getFileName().toString();
+        if (CONTENT_HASH.matcher(fileName).matches()) {
+            return fileName;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        String identity = source.toAbsolutePath().normalize() + ":" + attributes.size() + ":"
+                + attributes.lastModifiedTime().toMillis();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(identity.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Map<String, Integer> parsePresets(String spec) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length == 2) {
+                parsed.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("未配置图片预设尺寸: " + spec);
+        }
+        return parsed;
+    }
+}
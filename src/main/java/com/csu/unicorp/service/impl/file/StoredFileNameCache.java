@@ -0,0 +1,86 @@
+package com.csu.unicorp.service.impl.file;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.csu.unicorp.entity.FileMapping;
+import com.csu.unicorp.mapper.FileMappingMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 存储文件名到文件映射的缓存
+ * <p>
+ * 存储文件名唯一且映射写入后不再修改，下载时从缓存获取原始文件名和内容SHA-256，拖动进度、断点续传的每个请求不再查询file_mapping。
+ * 没有映射的旧文件同样缓存（空映射），上传新文件时由{@link #register}写入缓存，删除文件时由{@link #invalidate}移除，
+ * 并通过{@link FileCacheInvalidationRelay}通知其他节点移除。
+ */
+@Component
+@RequiredArgsConstructor
+public class StoredFileNameCache {
+
+    private static final FileMapping MISSING = new FileMapping();
+
+    private final FileMappingMapper fileMappingMapper;
+    private final FileCacheInvalidationRelay invalidationRelay;
+
+    private final Cache<String, FileMapping> mappings = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        invalidationRelay.subscribe(FileCacheInvalidationRelay.STORED_NAME, mappings::invalidate);
+    }
+
+    /**
+     * 获取原始文件名
+     *
+     * @param storedName 存储文件名，如 resources/xxx.pdf
+     * @return 原始文件名，没有映射时返回null
+     */
+    public String getOriginalName(String storedName) {
+        return mappings.get(storedName, this::load).getOriginalName();
+    }
+
+    /**
+     * 获取文件内容SHA-256
+     *
+     * @param storedName 存储文件名，如 resources/xxx.pdf
+     * @return 文件内容SHA-256，旧文件或没有映射时返回null
+     */
+    public String getContentHash(String storedName) {
+        return mappings.get(storedName, this::load).getContentHash();
+    }
+
+    /**
+     * 上传文件后记录映射
+     */
+    public void register(String storedName, String originalName, String contentHash) {
+        FileMapping mapping = new FileMapping();
+        mapping.setStoredName(storedName);
+        mapping.setOriginalName(originalName);
+        mapping.setContentHash(contentHash);
+        mappings.put(storedName, mapping);
+    }
+
+    /**
+     * 删除文件后移除所有节点上的映射
+     */
+    public void invalidate(String storedName) {
+        invalidationRelay.invalidate(FileCacheInvalidationRelay.STORED_NAME, storedName);
+    }
+
+    private FileMapping load(String storedName) {
+        FileMapping mapping = fileMappingMapper.selectOne(new LambdaQueryWrapper<FileMapping>()
+                .eq(FileMapping::getStoredName, storedName)
+                .last("LIMIT 1"));
+        return mapping != null ? mapping : MISSING;
+    }
+}
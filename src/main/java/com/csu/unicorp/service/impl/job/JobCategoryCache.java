@@ -0,0 +1,102 @@
+package com.csu.unicorp.service.impl.job;
+
+import com.csu.unicorp.entity.job.JobCategory;
+import com.csu.unicorp.mapper.job.JobCategoryMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 岗位分类本地缓存
+ * 分类树很少变化，整棵树以不可变快照的形式保存在内存中，读操作无锁；
+ * 分类增删改时由 JobCategoryServiceImpl 主动失效，另设过期时间兜底多实例部署下的数据同步。
+ * 返回的实体为共享对象，调用方只能读取，不能修改。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobCategoryCache {
+
+    /**
+     * 快照过期时间（毫秒），10分钟
+     */
+    private static final long EXPIRE_MILLIS = 10 * 60 * 1000L;
+
+    private final JobCategoryMapper jobCategoryMapper;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 根据ID获取分类
+     *
+     * @param categoryId 分类ID
+     * @return 分类，不存在时返回null
+     */
+    public JobCategory get(Integer categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return currentSnapshot().categories.get(categoryId);
+    }
+
+    /**
+     * 获取全部分类（ID -> 分类）
+     *
+     * @return 只读的分类映射
+     */
+    public Map<Integer, JobCategory> getAll() {
+        return currentSnapshot().categories;
+    }
+
+    /**
+     * 使缓存失效，下次读取时重新加载
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.isExpired()) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        List<JobCategory> categories = jobCategoryMapper.selectList(null);
+        Map<Integer, JobCategory> map = new HashMap<>(categories.size() * 2);
+        for (JobCategory category : categories) {
+            map.put(category.getId(), category);
+        }
+        log.debug("加载岗位分类缓存，共{}个分类", map.size());
+        return new Snapshot(Collections.unmodifiableMap(map), System.currentTimeMillis());
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Integer, JobCategory> categories;
+        private final long loadedAt;
+
+        private Snapshot(Map<Integer, JobCategory> categories, long loadedAt) {
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > EXPIRE_MILLIS;
+        }
+    }
+}
@@ -29,6 +29,7 @@ public class JobCategoryServiceImpl extends ServiceImpl<JobCategoryMapper, JobCa
 
     private final JobCategoryMapper jobCategoryMapper;
     private final JobCategoryRelationMapper jobCategoryRelationMapper;
+    private final JobCategoryCache jobCategoryCache;
 
     @Override
     public List<JobCategoryVO> getRootCategories() {
@@ -156,6 +157,7 @@ public class JobCategoryServiceImpl extends ServiceImpl<JobCategoryMapper, JobCa
         category.setIsDeleted(false);
         
         save(category);
+        jobCategoryCache.invalidate();
         return convertToCategoryVO(category);
     }
 
@@ -178,6 +180,7 @@ public class JobCategoryServiceImpl extends ServiceImpl<JobCategoryMapper, JobCa
         
         category.setUpdatedAt(LocalDateTime.now());
         updateById(category);
+        jobCategoryCache.invalidate();
         
         return convertToCategoryVO(category);
     }
@@ -204,6 +207,7 @@ public class JobCategoryServiceImpl extends ServiceImpl<JobCategoryMapper, JobCa
 
         // 删除分类
         removeById(id);
+        jobCategoryCache.invalidate();
     }
 
     @Override
@@ -7,6 +7,9 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.csu.unicorp.common.constants.RoleConstants;
 import com.csu.unicorp.common.exception.BusinessException;
 import com.csu.unicorp.common.exception.ResourceNotFoundException;
+import com.csu.unicorp.common.utils.SeekCursor;
+import com.csu.unicorp.config.security.CurrentUser;
+import com.csu.unicorp.config.security.CurrentUserResolver;
 import com.csu.unicorp.dto.JobCreationDTO;
 import com.csu.unicorp.entity.job.Job;
 import com.csu.unicorp.entity.job.JobCategory;
@@ -22,6 +25,12 @@ import com.csu.unicorp.mapper.UserMapper;
 import com.csu.unicorp.mapper.EnterpriseDetailMapper;
 import com.csu.unicorp.service.JobFeatureService;
 import com.csu.unicorp.service.JobService;
+import com.csu.unicorp.service.impl.PageCountCache;
+import com.csu.unicorp.service.impl.ViewCounter;
+import com.csu.unicorp.service.impl.recommendation.JobRecommendationIndex;
+import com.csu.unicorp.service.impl.search.FullTextSearch;
+import com.csu.unicorp.service.impl.search.SearchSuggester;
+import com.csu.unicorp.vo.CursorPageVO;
 import com.csu.unicorp.vo.JobCategoryVO;
 import com.csu.unicorp.vo.JobVO;
 import com.csu.unicorp.vo.UserVO;
@@ -38,7 +47,13 @@ import org.springframework.util.CollectionUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 岗位服务实现类
@@ -48,13 +63,25 @@ import java.util.List;
 @Slf4j
 public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobService {
     
+    /**
+     * 岗位列表总数缓存键前缀
+     */
+    private static final String JOB_COUNT_PREFIX = "jobs:";
+    
     private final JobMapper jobMapper;
     private final UserMapper userMapper;
     private final OrganizationMapper organizationMapper;
     private final JobCategoryMapper jobCategoryMapper;
     private final JobCategoryRelationMapper jobCategoryRelationMapper;
+    private final JobCategoryCache jobCategoryCache;
     private final EnterpriseDetailMapper enterpriseDetailMapper;
     private final JobFeatureService jobFeatureService;
+    private final JobRecommendationIndex jobRecommendationIndex;
+    private final ViewCounter viewCounter;
+    private final CurrentUserResolver currentUserResolver;
+    private final PageCountCache pageCountCache;
+    private final FullTextSearch fullTextSearch;
+    private final SearchSuggester searchSuggester;
     
     /**
      * 分页查询岗位列表
@@ -63,28 +90,10 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
     public IPage<JobVO> pageJobs(int page, int size, String keyword) {
         Page<JobVO> pageParam = new Page<>(page, size);
         pageParam.setSearchCount(true);
-        IPage<JobVO> jobList = jobMapper.pageJobs(pageParam, keyword);
-        
-        // 为每个岗位加载分类信息
-        if (!CollectionUtils.isEmpty(jobList.getRecords())) {
-            for (JobVO job : jobList.getRecords()) {
-                // 获取岗位分类（三级分类）
-                List<Integer> categoryIds = jobCategoryRelationMapper.selectCategoryIdsByJobId(job.getId());
-                if (!CollectionUtils.isEmpty(categoryIds)) {
-                    // 查询所有分类
-                    List<JobCategory> allCategories = jobCategoryMapper.selectBatchIds(categoryIds);
-                    // 找到三级分类
-                    JobCategory jobCategory = allCategories.stream()
-                            .filter(category -> category.getLevel() == 3)
-                            .findFirst()
-                            .orElse(null);
-                    
-                    if (jobCategory != null) {
-                        job.setCategory(convertToCategoryVO(jobCategory));
-                    }
-                }
-            }
-        }
+        IPage<JobVO> jobList = jobMapper.pageJobs(pageParam, fullTextSearch.search(FullTextSearch.Target.JOB, keyword));
+        
+        // 批量加载本页岗位的分类信息
+        loadCategoriesForJobs(jobList.getRecords());
         
         log.info("pageParam: {}", jobList);
         return jobList;
@@ -99,15 +108,12 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
                                 Integer salaryMin, Integer salaryMax, String sortBy) {
         Page<JobVO> pageParam = new Page<>(page, size);
         pageParam.setSearchCount(true);
+        List<Long> matchedIds = searchJobs(keyword, sortBy);
         IPage<JobVO> jobList = jobMapper.pageJobsWithFilters(
-                pageParam, keyword, location, jobType, educationRequirement, salaryMin, salaryMax, sortBy);
+                pageParam, matchedIds, location, jobType, educationRequirement, salaryMin, salaryMax, sortBy);
         
-        // 为每个岗位加载分类信息
-        if (!CollectionUtils.isEmpty(jobList.getRecords())) {
-            for (JobVO job : jobList.getRecords()) {
-                loadCategoryForJob(job);
-            }
-        }
+        // 批量加载本页岗位的分类信息
+        loadCategoriesForJobs(jobList.getRecords());
         
         log.info("pageParam with filters and sorting: {}, sortBy: {}", jobList, sortBy);
         return jobList;
@@ -122,23 +128,45 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
                                 Integer salaryMin, Integer salaryMax, String sortBy,
                                 Integer organizeId, Integer posterId) {
         Page<JobVO> pageParam = new Page<>(page, size);
-        pageParam.setSearchCount(true);
-        IPage<JobVO> jobList = jobMapper.pageJobsWithAdvancedFilters(
-                pageParam, keyword, location, jobType, educationRequirement, 
-                salaryMin, salaryMax, sortBy, organizeId, posterId);
-        
-        // 为每个岗位加载分类信息
-        if (!CollectionUtils.isEmpty(jobList.getRecords())) {
-            for (JobVO job : jobList.getRecords()) {
-                loadCategoryForJob(job);
-            }
-        }
+        // 按相关度排序时只取相关度最高的岗位，总数不同；其他排序方式不影响总数
+        String countKey = JOB_COUNT_PREFIX + String.join("|", String.valueOf(keyword), String.valueOf(location),
+                String.valueOf(jobType), String.valueOf(educationRequirement), String.valueOf(salaryMin),
+                String.valueOf(salaryMax), String.valueOf(organizeId), String.valueOf(posterId),
+                String.valueOf(isRelevanceSort(sortBy)));
+        List<Long> matchedIds = searchJobs(keyword, sortBy);
+        IPage<JobVO> jobList = pageCountCache.page(countKey, pageParam, p -> jobMapper.pageJobsWithAdvancedFilters(
+                p, matchedIds, location, jobType, educationRequirement,
+                salaryMin, salaryMax, sortBy, organizeId, posterId));
+        
+        // 批量加载本页岗位的分类信息
+        loadCategoriesForJobs(jobList.getRecords());
         
         log.info("pageParam with advanced filters: {}, organizeId: {}, posterId: {}", 
                 jobList, organizeId, posterId);
         return jobList;
     }
     
+    /**
+     * 按发布时间倒序的游标分页查询岗位列表
+     */
+    @Override
+    public CursorPageVO<JobVO> getJobFeed(String cursor, int size, String keyword, String location,
+                                          String jobType, String educationRequirement,
+                                          Integer salaryMin, Integer salaryMax,
+                                          Integer organizeId, Integer posterId) {
+        SeekCursor seek = SeekCursor.decode(cursor);
+        size = CursorPageVO.limitSize(size);
+        List<JobVO> rows = jobMapper.selectJobFeed(fullTextSearch.search(FullTextSearch.Target.JOB, keyword), location, jobType, educationRequirement,
+                salaryMin, salaryMax, organizeId, posterId,
+                seek != null ? seek.getTime() : null, seek != null ? seek.getId() : null, size + 1);
+        CursorPageVO<JobVO> result = CursorPageVO.of(rows, size, job -> SeekCursor.of(job.getCreatedAt(), job.getId()));
+        
+        // 批量加载本页岗位的分类信息
+        loadCategoriesForJobs(result.getRecords());
+        
+        return result;
+    }
+    
     /**
      * 根据分类ID分页查询岗位列表
      */
@@ -148,26 +176,8 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         pageParam.setSearchCount(true);
         IPage<JobVO> jobList = jobMapper.pageJobsByCategory(pageParam, categoryId);
         
-        // 为每个岗位加载分类信息
-        if (!CollectionUtils.isEmpty(jobList.getRecords())) {
-            for (JobVO job : jobList.getRecords()) {
-                // 获取岗位分类（三级分类）
-                List<Integer> categoryIds = jobCategoryRelationMapper.selectCategoryIdsByJobId(job.getId());
-                if (!CollectionUtils.isEmpty(categoryIds)) {
-                    // 查询所有分类
-                    List<JobCategory> allCategories = jobCategoryMapper.selectBatchIds(categoryIds);
-                    // 找到三级分类
-                    JobCategory jobCategory = allCategories.stream()
-                            .filter(category -> category.getLevel() == 3)
-                            .findFirst()
-                            .orElse(null);
-                    
-                    if (jobCategory != null) {
-                        job.setCategory(convertToCategoryVO(jobCategory));
-                    }
-                }
-            }
-        }
+        // 批量加载本页岗位的分类信息
+        loadCategoriesForJobs(jobList.getRecords());
         
         return jobList;
     }
@@ -214,12 +224,15 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         job.setViewCount(0);
         
         save(job);
+        fullTextSearch.refresh(FullTextSearch.Target.JOB, job.getId());
+        searchSuggester.refresh(SearchSuggester.Source.JOB_TITLE, job.getTitle());
         
         // 保存岗位分类关系（只保存一个三级分类）
         JobCategoryRelation relation = new JobCategoryRelation();
         relation.setJobId(job.getId());
         relation.setCategoryId(dto.getCategoryId());
         jobCategoryRelationMapper.insert(relation);
+        pageCountCache.invalidate(JOB_COUNT_PREFIX);
         
         // 自动生成岗位特征
         try {
@@ -243,25 +256,12 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
             throw new ResourceNotFoundException("岗位不存在或已被删除");
         }
         
-        // 增加浏览量
-        jobMapper.incrementViewCount(id);
+        // 合并尚未写回的浏览量，并记录本次浏览（定时批量写回数据库）
+        jobVO.setViewCount(viewCounter.merge(ViewCounter.Target.JOB, id, jobVO.getViewCount()));
+        viewCounter.increment(ViewCounter.Target.JOB, id);
         
         // 获取岗位分类（三级分类）
-        // 查询关联的分类ID
-        List<Integer> categoryIds = jobCategoryRelationMapper.selectCategoryIdsByJobId(id);
-        if (!CollectionUtils.isEmpty(categoryIds)) {
-            // 查询所有分类
-            List<JobCategory> allCategories = jobCategoryMapper.selectBatchIds(categoryIds);
-            // 找到三级分类
-            JobCategory jobCategory = allCategories.stream()
-                    .filter(category -> category.getLevel() == 3)
-                    .findFirst()
-                    .orElse(null);
-            
-            if (jobCategory != null) {
-                jobVO.setCategory(convertToCategoryVO(jobCategory));
-            }
-        }
+        loadCategoryForJob(jobVO);
         
         // 加载发布者信息
         if (jobVO.getPostedByUserId() != null) {
@@ -347,8 +347,11 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
             throw new BusinessException("经验要求必须是以下值之一: fresh_graduate, less_than_1_year, 1_to_3_years, any");
         }
         
+        String oldTitle = job.getTitle();
         BeanUtils.copyProperties(dto, job);
         boolean updated = updateById(job);
+        fullTextSearch.refresh(FullTextSearch.Target.JOB, id);
+        searchSuggester.refresh(SearchSuggester.Source.JOB_TITLE, oldTitle, job.getTitle());
         
         // 先删除现有关联
         LambdaQueryWrapper<JobCategoryRelation> queryWrapper = new LambdaQueryWrapper<>();
@@ -360,6 +363,7 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         relation.setJobId(id);
         relation.setCategoryId(dto.getCategoryId());
         jobCategoryRelationMapper.insert(relation);
+        pageCountCache.invalidate(JOB_COUNT_PREFIX);
         
         // 更新岗位特征
         try {
@@ -394,6 +398,12 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         queryWrapper.eq(JobCategoryRelation::getJobId, id);
         jobCategoryRelationMapper.delete(queryWrapper);
         
+        // 从岗位推荐索引中移除
+        jobRecommendationIndex.removeJob(id);
+        pageCountCache.invalidate(JOB_COUNT_PREFIX);
+        fullTextSearch.refresh(FullTextSearch.Target.JOB, id);
+        searchSuggester.refresh(SearchSuggester.Source.JOB_TITLE, job.getTitle());
+        
         return removeById(id);
     }
     
@@ -408,10 +418,13 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         }
         
         // 获取当前登录用户
-        User currentUser = getUserByUsername(userDetails.getUsername());
+        CurrentUser currentUser = currentUserResolver.resolve(userDetails);
+        if (currentUser == null) {
+            return false;
+        }
         
         // 岗位发布者可以操作
-        if (job.getPostedByUserId().equals(currentUser.getId())) {
+        if (job.getPostedByUserId().equals(currentUser.getUserId())) {
             return true;
         }
         
@@ -442,20 +455,7 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
         }
         
         // 获取岗位分类（三级分类）
-        List<Integer> categoryIds = jobCategoryRelationMapper.selectCategoryIdsByJobId(job.getId());
-        if (!CollectionUtils.isEmpty(categoryIds)) {
-            // 查询所有分类
-            List<JobCategory> allCategories = jobCategoryMapper.selectBatchIds(categoryIds);
-            // 找到三级分类
-            JobCategory jobCategory = allCategories.stream()
-                    .filter(category -> category.getLevel() == 3)
-                    .findFirst()
-                    .orElse(null);
-        
-            if (jobCategory != null) {
-                vo.setCategory(convertToCategoryVO(jobCategory));
-            }
-        }
+        loadCategoryForJob(vo);
         
         return vo;
     }
@@ -470,30 +470,57 @@ public class JobServiceImpl extends ServiceImpl<JobMapper, Job> implements JobSe
     }
     
     /**
-     * 根据用户名获取用户
+     * 按关键词匹配岗位：按相关度排序时取相关度最高的岗位，其他排序方式取全部匹配的岗位，
+     * 避免筛选条件在截取之后执行时漏掉匹配的岗位
      */
-    private User getUserByUsername(String username) {
-        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(User::getAccount, username);
-        return userMapper.selectOne(queryWrapper);
+    private List<Long> searchJobs(String keyword, String sortBy) {
+        return isRelevanceSort(sortBy)
+                ? fullTextSearch.searchRelevant(FullTextSearch.Target.JOB, keyword)
+                : fullTextSearch.search(FullTextSearch.Target.JOB, keyword);
+    }
+    
+    private static boolean isRelevanceSort(String sortBy) {
+        return "relevance".equals(sortBy);
     }
     
-    // 添加辅助方法，提取公共代码，减少重复
+    /**
+     * 加载单个岗位的分类信息
+     */
     private void loadCategoryForJob(JobVO job) {
-        // 获取岗位分类（三级分类）
-        List<Integer> categoryIds = jobCategoryRelationMapper.selectCategoryIdsByJobId(job.getId());
-        if (!CollectionUtils.isEmpty(categoryIds)) {
-            // 查询所有分类
-            List<JobCategory> allCategories = jobCategoryMapper.selectBatchIds(categoryIds);
-            // 找到三级分类
-            JobCategory jobCategory = allCategories.stream()
-                    .filter(category -> category.getLevel() == 3)
-                    .findFirst()
-                    .orElse(null);
-            
+        loadCategoriesForJobs(Collections.singletonList(job));
+    }
+    
+    /**
+     * 批量加载岗位的分类信息（三级分类）
+     * 一次查询取出所有岗位的分类关联，分类详情从本地分类缓存中读取，避免逐条查询
+     */
+    private void loadCategoriesForJobs(List<JobVO> jobs) {
+        if (CollectionUtils.isEmpty(jobs)) {
+            return;
+        }
+        
+        Set<Integer> jobIds = jobs.stream()
+                .map(JobVO::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        
+        // 每个岗位只保留一个三级分类
+        Map<Integer, JobCategory> categoryByJobId = new HashMap<>();
+        for (JobCategoryRelation relation : jobCategoryRelationMapper.selectByJobIds(jobIds)) {
+            JobCategory category = jobCategoryCache.get(relation.getCategoryId());
+            if (category != null && category.getLevel() != null && category.getLevel() == 3) {
+                categoryByJobId.putIfAbsent(relation.getJobId(), category);
+            }
+        }
+        
+        for (JobVO job : jobs) {
+            JobCategory jobCategory = categoryByJobId.get(job.getId());
             if (jobCategory != null) {
                 job.setCategory(convertToCategoryVO(jobCategory));
             }
         }
     }
-} 
\ No newline at end of file
+}
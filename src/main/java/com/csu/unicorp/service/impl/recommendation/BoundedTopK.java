@@ -0,0 +1,83 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 固定容量的前K名容器
+ * 内部是以最差元素为堆顶的小顶堆，插入和淘汰都是O(log K)。非线程安全。
+ *
+ * @param <T> 元素类型
+ */
+public class BoundedTopK<T> {
+
+    private final int capacity;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param capacity 容量K
+     * @param order    元素优劣比较器，越大越优
+     */
+    public BoundedTopK(int capacity, Comparator<? super T> order) {
+        this.capacity = capacity;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, capacity + 1), order);
+    }
+
+    /**
+     * 尝试加入元素，容量已满且不优于当前最差元素时丢弃
+     *
+     * @param element 元素
+     * @return 是否加入
+     */
+    public boolean offer(T element) {
+        if (capacity <= 0) {
+            return false;
+        }
+        if (heap.size() < capacity) {
+            heap.add(element);
+            return true;
+        }
+        if (order.compare(element, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(element);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 合并另一个容器中的元素
+     */
+    public void addAll(BoundedTopK<? extends T> other) {
+        for (T element : other.heap) {
+            offer(element);
+        }
+    }
+
+    /**
+     * 当前最差的元素，容器为空时返回null
+     */
+    public T worst() {
+        return heap.peek();
+    }
+
+    /**
+     * 是否已达到容量
+     */
+    public boolean isFull() {
+        return heap.size() >= capacity;
+    }
+
+    /**
+     * 按从优到劣排序的结果
+     */
+    public List<T> toSortedList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order.reversed());
+        return result;
+    }
+}
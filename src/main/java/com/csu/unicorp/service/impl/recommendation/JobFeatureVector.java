@@ -0,0 +1,74 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import com.csu.unicorp.entity.job.Job;
+import com.csu.unicorp.entity.recommendation.JobFeature;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预解析的岗位特征向量
+ * 将JobFeature中JSON格式的技能和关键词解析一次后缓存，并带上评分所需的岗位字段，
+ * 评分时不再需要重复解析JSON或回表查询岗位
+ */
+@Slf4j
+@Getter
+public class JobFeatureVector {
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<List<String>>() {};
+
+    private final Integer jobId;
+    private final Integer organizationId;
+    private final String title;
+    private final Integer categoryId;
+    private final List<String> requiredSkills;
+    private final List<String> keywords;
+    private final String educationRequirement;
+    private final String location;
+    private final String jobType;
+
+    private JobFeatureVector(JobFeature feature, Job job, List<String> requiredSkills, List<String> keywords) {
+        this.jobId = feature.getJobId();
+        this.organizationId = job != null ? job.getOrganizationId() : null;
+        this.title = job != null ? job.getTitle() : null;
+        this.categoryId = feature.getCategoryId();
+        this.requiredSkills = requiredSkills;
+        this.keywords = keywords;
+        this.educationRequirement = job != null ? job.getEducationRequirement() : null;
+        this.location = job != null ? job.getLocation() : null;
+        this.jobType = job != null ? job.getJobType() : null;
+    }
+
+    /**
+     * 根据岗位特征和岗位信息构建特征向量
+     *
+     * @param feature      岗位特征
+     * @param job          岗位信息，可以为null
+     * @param objectMapper JSON解析器
+     * @return 特征向量
+     */
+    public static JobFeatureVector of(JobFeature feature, Job job, ObjectMapper objectMapper) {
+        return new JobFeatureVector(feature, job,
+                parseList(feature.getRequiredSkills(), objectMapper),
+                parseList(feature.getKeywords(), objectMapper));
+    }
+
+    static List<String> parseList(String json, ObjectMapper objectMapper) {
+        if (!StringUtils.hasText(json)) {
+            return Collections.emptyList();
+        }
+        try {
+            List<String> values = objectMapper.readValue(json, STRING_LIST);
+            return values == null ? Collections.emptyList() : Collections.unmodifiableList(values);
+        } catch (JsonProcessingException e) {
+            log.error("解析特征JSON失败: {}", json, e);
+            return Collections.emptyList();
+        }
+    }
+}
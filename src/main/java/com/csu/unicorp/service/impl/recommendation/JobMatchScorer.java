@@ -0,0 +1,230 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 用户与岗位匹配度评分规则
+ * 评分由六部分组成：专业、技能、兴趣、学历、工作地点、工作类型。
+ * 前三部分依赖技能/关键词，可以通过倒排索引累加；后三部分只依赖岗位属性。
+ */
+public final class JobMatchScorer {
+
+    /**
+     * 默认推荐原因
+     */
+    public static final String DEFAULT_REASON = "根据您的个人特征推荐";
+
+    private static final double MAJOR_SCORE = 10.0;
+    private static final double SKILL_SCORE = 20.0;
+    private static final double INTEREST_SCORE = 15.0;
+    private static final double EDUCATION_MATCH_SCORE = 15.0;
+    private static final double EDUCATION_MISMATCH_PENALTY = -10.0;
+    private static final double LOCATION_SCORE = 10.0;
+    private static final double JOB_TYPE_SCORE = 10.0;
+
+    /**
+     * 学历等级映射
+     */
+    private static final Map<String, Integer> EDU_LEVELS = Map.of(
+            "bachelor", 1,
+            "master", 2,
+            "doctorate", 3,
+            "any", 0
+    );
+
+    private JobMatchScorer() {
+    }
+
+    /**
+     * 计算用户与岗位的完整匹配分数
+     */
+    public static double score(UserFeatureVector user, JobFeatureVector job) {
+        double score = 0.0;
+
+        // 1. 基于专业匹配
+        if (user.getMajor() != null) {
+            for (String keyword : job.getKeywords()) {
+                if (majorMatches(user.getMajor(), keyword)) {
+                    score += MAJOR_SCORE;
+                    break;
+                }
+            }
+        }
+
+        // 2. 基于技能匹配
+        if (!job.getRequiredSkills().isEmpty()) {
+            int matchedSkills = 0;
+            for (String skill : user.getSkills()) {
+                if (job.getRequiredSkills().contains(skill)) {
+                    matchedSkills++;
+                }
+            }
+            score += skillScore(matchedSkills, job.getRequiredSkills().size());
+        }
+
+        // 3. 基于兴趣与岗位关键词匹配
+        if (!user.getInterests().isEmpty()) {
+            int matchedInterests = 0;
+            for (String interest : user.getInterests()) {
+                for (String keyword : job.getKeywords()) {
+                    if (interestMatches(interest, keyword)) {
+                        matchedInterests++;
+                        break;
+                    }
+                }
+            }
+            score += interestScore(matchedInterests, user.getInterests().size());
+        }
+
+        // 4~6. 基于学历、工作地点、工作类型匹配
+        score += attributeScore(user, job.getEducationRequirement(), job.getLocation(), job.getJobType());
+
+        return clamp(score);
+    }
+
+    /**
+     * 专业是否与岗位关键词匹配
+     */
+    public static boolean majorMatches(String major, String keyword) {
+        return keyword != null && keyword.contains(major);
+    }
+
+    /**
+     * 兴趣是否与岗位关键词匹配
+     */
+    public static boolean interestMatches(String interest, String keyword) {
+        return keyword != null && interest != null && (keyword.contains(interest) || interest.contains(keyword));
+    }
+
+    /**
+     * 技能匹配得分
+     */
+    public static double skillScore(int matchedSkills, int requiredSkillCount) {
+        return requiredSkillCount == 0 ? 0.0 : SKILL_SCORE * ((double) matchedSkills / requiredSkillCount);
+    }
+
+    /**
+     * 兴趣匹配得分
+     */
+    public static double interestScore(int matchedInterests, int interestCount) {
+        return interestCount == 0 ? 0.0 : INTEREST_SCORE * ((double) matchedInterests / interestCount);
+    }
+
+    /**
+     * 专业匹配得分
+     */
+    public static double majorScore() {
+        return MAJOR_SCORE;
+    }
+
+    /**
+     * 学历、工作地点、工作类型三项属性的得分
+     */
+    public static double attributeScore(UserFeatureVector user, String educationRequirement,
+                                        String location, String jobType) {
+        double score = 0.0;
+
+        if (user.getEducationLevel() != null && educationRequirement != null) {
+            int userEduLevel = EDU_LEVELS.getOrDefault(user.getEducationLevel(), 0);
+            int jobEduLevel = EDU_LEVELS.getOrDefault(educationRequirement, 0);
+            // 如果用户学历符合或高于要求
+            if (jobEduLevel == 0 || userEduLevel >= jobEduLevel) {
+                score += EDUCATION_MATCH_SCORE;
+            } else {
+                // 学历不符合要求，降低分数
+                score += EDUCATION_MISMATCH_PENALTY;
+            }
+        }
+
+        if (locationMatches(user.getPreferredLocation(), location)) {
+            score += LOCATION_SCORE;
+        }
+
+        if (user.getPreferredJobType() != null && user.getPreferredJobType().equals(jobType)) {
+            score += JOB_TYPE_SCORE;
+        }
+
+        return score;
+    }
+
+    /**
+     * 分数下限为0
+     */
+    public static double clamp(double score) {
+        return Math.max(0, score);
+    }
+
+    /**
+     * 生成推荐原因
+     */
+    public static String reason(UserFeatureVector user, JobFeatureVector job) {
+        if (job == null) {
+            return DEFAULT_REASON;
+        }
+
+        List<String> reasons = new ArrayList<>();
+
+        // 1. 基于专业匹配
+        if (user.getMajor() != null
+                && job.getKeywords().stream().anyMatch(keyword -> majorMatches(user.getMajor(), keyword))) {
+            reasons.add("与您的专业相关");
+        }
+
+        // 2. 基于技能匹配
+        List<String> matchedSkills = user.getSkills().stream()
+                .filter(job.getRequiredSkills()::contains)
+                .collect(Collectors.toList());
+        if (!matchedSkills.isEmpty()) {
+            if (matchedSkills.size() == 1) {
+                reasons.add("需要您掌握的" + matchedSkills.get(0) + "技能");
+            } else {
+                reasons.add("需要您掌握的多项技能");
+            }
+        }
+
+        // 3. 基于工作地点偏好匹配
+        if (locationMatches(user.getPreferredLocation(), job.getLocation())) {
+            reasons.add("位于您偏好的" + job.getLocation() + "地区");
+        }
+
+        // 4. 基于工作类型偏好匹配
+        if (user.getPreferredJobType() != null && user.getPreferredJobType().equals(job.getJobType())) {
+            reasons.add("符合您偏好的" + describeJobType(job.getJobType()) + "工作类型");
+        }
+
+        // 如果没有具体原因，返回默认原因
+        if (reasons.isEmpty()) {
+            return DEFAULT_REASON;
+        }
+
+        // 最多返回两个原因
+        if (reasons.size() > 2) {
+            reasons = reasons.subList(0, 2);
+        }
+
+        return String.join("，", reasons);
+    }
+
+    private static boolean locationMatches(String preferredLocation, String location) {
+        return preferredLocation != null && location != null
+                && (location.contains(preferredLocation) || preferredLocation.contains(location));
+    }
+
+    private static String describeJobType(String jobType) {
+        switch (jobType) {
+            case "full_time":
+                return "全职";
+            case "part_time":
+                return "兼职";
+            case "internship":
+                return "实习";
+            case "remote":
+                return "远程";
+            default:
+                return jobType;
+        }
+    }
+}
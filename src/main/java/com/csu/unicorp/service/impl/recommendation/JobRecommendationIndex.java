@@ -0,0 +1,362 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.csu.unicorp.entity.job.Job;
+import com.csu.unicorp.entity.recommendation.JobFeature;
+import com.csu.unicorp.mapper.job.JobMapper;
+import com.csu.unicorp.mapper.recommendation.JobFeatureMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 岗位推荐内存索引
+ * <p>
+ * 为所有开放岗位维护三类结构：
+ * <ul>
+ *     <li>预解析的岗位特征向量（jobId -> JobFeatureVector）</li>
+ *     <li>技能、关键词到岗位ID的倒排索引，用于累加专业/技能/兴趣得分</li>
+ *     <li>按（学历要求, 工作地点, 工作类型）分组的岗位桶，未命中倒排索引的岗位只有属性分，按桶取最高分即可</li>
+ * </ul>
+ * 通过BoundedTopK选出得分最高的岗位，结果与逐个岗位打分一致，但不需要全量扫描。
+ * 岗位特征生成或岗位删除时增量更新，另有定时任务全量重建兜底。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobRecommendationIndex {
+
+    /**
+     * 全量重建间隔（毫秒），30分钟
+     */
+    private static final long REBUILD_INTERVAL_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * 岗位优劣顺序：分数高者更优，分数相同时岗位ID小者更优
+     */
+    private static final Comparator<ScoredJob> ORDER = Comparator
+            .comparingDouble(ScoredJob::getScore)
+            .thenComparing(ScoredJob::getJobId, Comparator.reverseOrder());
+
+    private final JobFeatureMapper jobFeatureMapper;
+    private final JobMapper jobMapper;
+    private final ObjectMapper objectMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Integer, JobFeatureVector> vectors = new HashMap<>();
+    private Map<String, Set<Integer>> skillPostings = new HashMap<>();
+    private Map<String, Set<Integer>> keywordPostings = new HashMap<>();
+    private Map<AttributeKey, TreeSet<Integer>> attributeBuckets = new HashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * 计算与用户最匹配的前K个岗位
+     *
+     * @param user 用户特征向量
+     * @param k    返回数量
+     * @return 按分数降序排列的岗位
+     */
+    public List<ScoredJob> topK(UserFeatureVector user, int k) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BoundedTopK<ScoredJob> topK = new BoundedTopK<>(k, ORDER);
+
+            // 1. 通过倒排索引累加专业、技能、兴趣得分
+            Set<Integer> majorHits = user.getMajor() == null
+                    ? Collections.emptySet()
+                    : collectKeywordHits(keyword -> JobMatchScorer.majorMatches(user.getMajor(), keyword));
+
+            Map<Integer, Integer> matchedSkills = new HashMap<>();
+            for (String skill : user.getSkills()) {
+                for (Integer jobId : skillPostings.getOrDefault(skill, Collections.emptySet())) {
+                    matchedSkills.merge(jobId, 1, Integer::sum);
+                }
+            }
+
+            Map<Integer, Integer> matchedInterests = new HashMap<>();
+            for (String interest : user.getInterests()) {
+                for (Integer jobId : collectKeywordHits(keyword -> JobMatchScorer.interestMatches(interest, keyword))) {
+                    matchedInterests.merge(jobId, 1, Integer::sum);
+                }
+            }
+
+            Set<Integer> candidates = new HashSet<>(majorHits);
+            candidates.addAll(matchedSkills.keySet());
+            candidates.addAll(matchedInterests.keySet());
+
+            for (Integer jobId : candidates) {
+                JobFeatureVector vector = vectors.get(jobId);
+                double score = majorHits.contains(jobId) ? JobMatchScorer.majorScore() : 0.0;
+                score += JobMatchScorer.skillScore(matchedSkills.getOrDefault(jobId, 0), vector.getRequiredSkills().size());
+                score += JobMatchScorer.interestScore(matchedInterests.getOrDefault(jobId, 0), user.getInterests().size());
+                score += JobMatchScorer.attributeScore(user, vector.getEducationRequirement(),
+                        vector.getLocation(), vector.getJobType());
+                topK.offer(new ScoredJob(vector, JobMatchScorer.clamp(score)));
+            }
+
+            // 2. 其余岗位只有属性分，按桶得分从高到低补足
+            List<Map.Entry<AttributeKey, Double>> bucketScores = new ArrayList<>(attributeBuckets.size());
+            for (AttributeKey key : attributeBuckets.keySet()) {
+                double score = JobMatchScorer.clamp(JobMatchScorer.attributeScore(user,
+                        key.educationRequirement, key.location, key.jobType));
+                bucketScores.add(Map.entry(key, score));
+            }
+            bucketScores.sort(Map.Entry.<AttributeKey, Double>comparingByValue().reversed());
+
+            for (Map.Entry<AttributeKey, Double> bucket : bucketScores) {
+                double score = bucket.getValue();
+                if (topK.isFull() && score < topK.worst().getScore()) {
+                    break;
+                }
+                for (Integer jobId : attributeBuckets.get(bucket.getKey())) {
+                    if (candidates.contains(jobId)) {
+                        continue;
+                    }
+                    ScoredJob worst = topK.worst();
+                    // 桶内岗位ID升序，同分时后面的岗位不会更优
+                    if (topK.isFull() && score == worst.getScore() && jobId > worst.getJobId()) {
+                        break;
+                    }
+                    topK.offer(new ScoredJob(vectors.get(jobId), score));
+                }
+            }
+
+            return topK.toSortedList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取岗位特征向量
+     *
+     * @param jobId 岗位ID
+     * @return 特征向量，岗位不在索引中时返回null
+     */
+    public JobFeatureVector get(Integer jobId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return vectors.get(jobId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 重新加载单个岗位的特征，岗位不再开放时从索引中移除
+     *
+     * @param jobId 岗位ID
+     */
+    public void refreshJob(Integer jobId) {
+        if (!loaded) {
+            return;
+        }
+        JobFeature feature = jobFeatureMapper.selectByJobId(jobId);
+        Job job = jobMapper.selectById(jobId);
+        lock.writeLock().lock();
+        try {
+            removeInternal(jobId);
+            if (feature != null && job != null && "open".equals(job.getStatus())) {
+                addInternal(JobFeatureVector.of(feature, job, objectMapper));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除岗位
+     *
+     * @param jobId 岗位ID
+     */
+    public void removeJob(Integer jobId) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(jobId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 定时全量重建索引
+     */
+    @Scheduled(initialDelay = REBUILD_INTERVAL_MILLIS, fixedDelay = REBUILD_INTERVAL_MILLIS)
+    public void rebuild() {
+        List<JobFeature> features = jobFeatureMapper.selectAllActiveJobFeatures();
+        Map<Integer, Job> jobs = jobMapper.selectList(new LambdaQueryWrapper<Job>()
+                        .select(Job::getId, Job::getOrganizationId, Job::getTitle,
+                                Job::getEducationRequirement, Job::getLocation, Job::getJobType)
+                        .eq(Job::getStatus, "open"))
+                .stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity(), (a, b) -> a));
+
+        lock.writeLock().lock();
+        try {
+            vectors = new HashMap<>(features.size() * 2);
+            skillPostings = new HashMap<>();
+            keywordPostings = new HashMap<>();
+            attributeBuckets = new HashMap<>();
+            for (JobFeature feature : features) {
+                Job job = jobs.get(feature.getJobId());
+                if (job != null) {
+                    addInternal(JobFeatureVector.of(feature, job, objectMapper));
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("岗位推荐索引重建完成，岗位数={}，技能词={}，关键词={}",
+                vectors.size(), skillPostings.size(), keywordPostings.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private Set<Integer> collectKeywordHits(Predicate<String> matcher) {
+        Set<Integer> hits = new HashSet<>();
+        for (Map.Entry<String, Set<Integer>> posting : keywordPostings.entrySet()) {
+            if (matcher.test(posting.getKey())) {
+                hits.addAll(posting.getValue());
+            }
+        }
+        return hits;
+    }
+
+    private void addInternal(JobFeatureVector vector) {
+        Integer jobId = vector.getJobId();
+        vectors.put(jobId, vector);
+        for (String skill : vector.getRequiredSkills()) {
+            skillPostings.computeIfAbsent(skill, key -> new HashSet<>()).add(jobId);
+        }
+        for (String keyword : vector.getKeywords()) {
+            keywordPostings.computeIfAbsent(keyword, key -> new HashSet<>()).add(jobId);
+        }
+        attributeBuckets.computeIfAbsent(AttributeKey.of(vector), key -> new TreeSet<>()).add(jobId);
+    }
+
+    private void removeInternal(Integer jobId) {
+        JobFeatureVector vector = vectors.remove(jobId);
+        if (vector == null) {
+            return;
+        }
+        for (String skill : vector.getRequiredSkills()) {
+            removePosting(skillPostings, skill, jobId);
+        }
+        for (String keyword : vector.getKeywords()) {
+            removePosting(keywordPostings, keyword, jobId);
+        }
+        AttributeKey key = AttributeKey.of(vector);
+        TreeSet<Integer> bucket = attributeBuckets.get(key);
+        if (bucket != null) {
+            bucket.remove(jobId);
+            if (bucket.isEmpty()) {
+                attributeBuckets.remove(key);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> postings, String token, Integer jobId) {
+        Set<Integer> jobIds = postings.get(token);
+        if (jobIds != null) {
+            jobIds.remove(jobId);
+            if (jobIds.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * 带分数的岗位
+     */
+    @Getter
+    public static class ScoredJob {
+
+        private final JobFeatureVector vector;
+        private final double score;
+
+        public ScoredJob(JobFeatureVector vector, double score) {
+            this.vector = vector;
+            this.score = score;
+        }
+
+        public Integer getJobId() {
+            return vector.getJobId();
+        }
+    }
+
+    /**
+     * 岗位属性分组键
+     */
+    private static final class AttributeKey {
+
+        private final String educationRequirement;
+        private final String location;
+        private final String jobType;
+
+        private AttributeKey(String educationRequirement, String location, String jobType) {
+            this.educationRequirement = educationRequirement;
+            this.location = location;
+            this.jobType = jobType;
+        }
+
+        private static AttributeKey of(JobFeatureVector vector) {
+            return new AttributeKey(vector.getEducationRequirement(), vector.getLocation(), vector.getJobType());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AttributeKey)) {
+                return false;
+            }
+            AttributeKey that = (AttributeKey) o;
+            return Objects.equals(educationRequirement, that.educationRequirement)
+                    && Objects.equals(location, that.location)
+                    && Objects.equals(jobType, that.jobType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(educationRequirement, location, jobType);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import com.csu.unicorp.entity.recommendation.UserFeature;
+import com.csu.unicorp.mapper.recommendation.UserFeatureMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 人才匹配流水线
+ * <p>
+ * 1. 调用方一次性预加载企业所有岗位的特征向量；<br>
+ * 2. 学生特征从数据库流式读取，按固定大小分块；<br>
+ * 3. 每块在有界的ForkJoinPool上并行打分，块内保留局部前K名；<br>
+ * 4. 局部结果合并到全局前K名，同时在途的块数有上限，读取速度超过打分速度时阻塞读取线程，
+ * 因此内存中最多只有少量学生数据，不会加载整张学生表。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TalentMatchingPipeline {
+
+    /**
+     * 每块学生数量
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * 打分并行度
+     */
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * 同时在途的最大块数
+     */
+    private static final int MAX_IN_FLIGHT_CHUNKS = PARALLELISM * 2;
+
+    /**
+     * 学生优劣顺序：分数高者更优，分数相同时学生ID小者更优
+     */
+    private static final Comparator<TalentMatch> ORDER = Comparator
+            .comparingDouble(TalentMatch::getScore)
+            .thenComparing(TalentMatch::getStudentId, Comparator.reverseOrder());
+
+    private final UserFeatureMapper userFeatureMapper;
+    private final ObjectMapper objectMapper;
+
+    private final ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+
+    /**
+     * 计算与企业岗位最匹配的前K名学生
+     * 需要在事务中调用，以保证流式读取期间占用同一个数据库连接
+     *
+     * @param jobs 企业岗位特征向量
+     * @param k    返回数量
+     * @return 按分数降序排列的学生
+     */
+    public List<TalentMatch> match(List<JobFeatureVector> jobs, int k) {
+        BoundedTopK<TalentMatch> topK = new BoundedTopK<>(k, ORDER);
+        if (jobs.isEmpty() || k <= 0) {
+            return topK.toSortedList();
+        }
+
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_CHUNKS);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        List<UserFeature> chunk = new ArrayList<>(CHUNK_SIZE);
+        int[] studentCount = {0};
+
+        userFeatureMapper.streamAllStudentFeatures(context -> {
+            chunk.add(context.getResultObject());
+            studentCount[0]++;
+            if (chunk.size() >= CHUNK_SIZE) {
+                tasks.add(submit(new ArrayList<>(chunk), jobs, k, topK, inFlight));
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            tasks.add(submit(new ArrayList<>(chunk), jobs, k, topK, inFlight));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        log.debug("人才匹配完成，学生数={}，岗位数={}，分块数={}", studentCount[0], jobs.size(), tasks.size());
+
+        synchronized (topK) {
+            return topK.toSortedList();
+        }
+    }
+
+    private ForkJoinTask<?> submit(List<UserFeature> students, List<JobFeatureVector> jobs, int k,
+                                   BoundedTopK<TalentMatch> topK, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        return pool.submit(() -> {
+            try {
+                BoundedTopK<TalentMatch> local = scoreChunk(students, jobs, k);
+                synchronized (topK) {
+                    topK.addAll(local);
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private BoundedTopK<TalentMatch> scoreChunk(List<UserFeature> students, List<JobFeatureVector> jobs, int k) {
+        BoundedTopK<TalentMatch> local = new BoundedTopK<>(k, ORDER);
+        for (UserFeature student : students) {
+            UserFeatureVector studentVector = UserFeatureVector.of(student, objectMapper);
+            double maxScore = 0.0;
+            JobFeatureVector bestJob = null;
+            for (JobFeatureVector job : jobs) {
+                double score = JobMatchScorer.score(studentVector, job);
+                if (score > maxScore) {
+                    maxScore = score;
+                    bestJob = job;
+                }
+            }
+            if (bestJob != null) {
+                local.offer(new TalentMatch(student.getUserId(), maxScore, bestJob));
+            }
+        }
+        return local;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * 学生匹配结果
+     */
+    @Getter
+    public static class TalentMatch {
+
+        private final Integer studentId;
+        private final double score;
+        private final JobFeatureVector bestJob;
+
+        public TalentMatch(Integer studentId, double score, JobFeatureVector bestJob) {
+            this.studentId = studentId;
+            this.score = score;
+            this.bestJob = bestJob;
+        }
+
+        /**
+         * 推荐原因
+         */
+        public String getReason() {
+            return "与贵公司的 " + bestJob.getTitle() + " 岗位匹配度高";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import com.csu.unicorp.entity.recommendation.UserFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 预解析的用户特征向量
+ * 一次推荐计算中用户特征只解析一次，供所有候选岗位复用
+ */
+@Getter
+public class UserFeatureVector {
+
+    private final Integer userId;
+    private final String major;
+    private final List<String> skills;
+    private final List<String> interests;
+    private final String educationLevel;
+    private final String preferredLocation;
+    private final String preferredJobType;
+
+    private UserFeatureVector(UserFeature feature, List<String> skills, List<String> interests) {
+        this.userId = feature.getUserId();
+        this.major = feature.getMajor();
+        this.skills = skills;
+        this.interests = interests;
+        this.educationLevel = feature.getEducationLevel();
+        this.preferredLocation = feature.getPreferredLocation();
+        this.preferredJobType = feature.getPreferredJobType();
+    }
+
+    /**
+     * 根据用户特征构建特征向量
+     *
+     * @param feature      用户特征
+     * @param objectMapper JSON解析器
+     * @return 特征向量
+     */
+    public static UserFeatureVector of(UserFeature feature, ObjectMapper objectMapper) {
+        return new UserFeatureVector(feature,
+                JobFeatureVector.parseList(feature.getSkills(), objectMapper),
+                JobFeatureVector.parseList(feature.getInterests(), objectMapper));
+    }
+}
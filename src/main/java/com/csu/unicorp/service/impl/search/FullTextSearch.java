@@ -0,0 +1,223 @@
+package com.csu.unicorp.service.impl.search;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.csu.unicorp.mapper.SearchDocumentMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 全文检索
+ * <p>
+ * 关键词搜索原先使用 LIKE '%关键词%'，前导通配符无法使用索引，每次都扫描全表。
+ * 这里为岗位、资源、话题、问题、项目各维护一个内存倒排索引（见{@link InvertedIndex}），
+ * 搜索先在索引中按相关度取出匹配的ID，其余筛选、排序和分页仍由数据库按ID完成。
+ * <p>
+ * 索引在首次搜索时从数据库加载；记录新增、修改、删除时调用{@link #refresh}，事务提交后按ID重新读取该记录；
+ * 另有定时任务全量重建兜底（如组织改名后岗位的组织名称），管理员也可以手动重建。
+ * <p>
+ * 注意：索引保存在各节点的内存中，{@link #refresh}只更新执行写操作的节点。多节点部署时，
+ * 其他节点要等下次定时重建（{@code app.search.rebuild-interval-ms}，默认30分钟）才能搜到新增或修改的记录，
+ * 已删除的记录在此期间仍可能命中ID，但会被数据库按ID查询时过滤掉。对时效要求高的部署应缩短重建间隔。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FullTextSearch {
+
+    /**
+     * 索引对象
+     */
+    public enum Target {
+        JOB, RESOURCE, TOPIC, QUESTION, PROJECT
+    }
+
+    private final SearchDocumentMapper searchDocumentMapper;
+
+    /**
+     * 按相关度排序时最多返回的ID数，按相关度截取
+     */
+    @Value("${app.search.max-hits:1000}")
+    private int maxHits;
+
+    private final Map<Target, Function<Long, List<SearchDocument>>> loaders = new EnumMap<>(Target.class);
+    private final Map<Target, InvertedIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 正在重建的索引期间变更的记录，新索引替换后重新读取
+     */
+    private final Map<Target, Set<Long>> changedDuringRebuild = new ConcurrentHashMap<>();
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        loaders.put(Target.JOB, searchDocumentMapper::selectJobDocuments);
+        loaders.put(Target.RESOURCE, searchDocumentMapper::selectResourceDocuments);
+        loaders.put(Target.TOPIC, searchDocumentMapper::selectTopicDocuments);
+        loaders.put(Target.QUESTION, searchDocumentMapper::selectQuestionDocuments);
+        loaders.put(Target.PROJECT, searchDocumentMapper::selectProjectDocuments);
+    }
+
+    /**
+     * 按关键词搜索全部匹配的记录，用于数据库按ID筛选后再按其他条件筛选、排序
+     *
+     * @param target 索引对象
+     * @param keyword 关键词
+     * @return 按相关度降序的全部匹配记录ID；关键词为空时返回null，表示不按关键词筛选
+     */
+    public List<Long> search(Target target, String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return null;
+        }
+        searches.incrementAndGet();
+        // 作为筛选条件时前缀不限制展开词数，避免漏掉匹配记录
+        return index(target).search(keyword, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按关键词搜索相关度最高的记录，用于按相关度排序，结果最多{@code app.search.max-hits}条
+     *
+     * @param target 索引对象
+     * @param keyword 关键词
+     * @return 按相关度降序的记录ID；关键词为空时返回null，表示不按关键词筛选
+     */
+    public List<Long> searchRelevant(Target target, String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return null;
+        }
+        searches.incrementAndGet();
+        return index(target).search(keyword, maxHits);
+    }
+
+    /**
+     * 记录新增、修改或删除后更新索引，在事务中调用时等事务提交后执行
+     *
+     * @param target 索引对象
+     * @param id 记录ID
+     */
+    public void refresh(Target target, Number id) {
+        if (id == null) {
+            return;
+        }
+        long recordId = id.longValue();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshNow(target, recordId);
+                }
+            });
+        } else {
+            refreshNow(target, recordId);
+        }
+    }
+
+    /**
+     * 定时全量重建已加载的索引
+     */
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval-ms:1800000}",
+            fixedDelayString = "${app.search.rebuild-interval-ms:1800000}")
+    public void rebuildLoaded() {
+        for (Target target : Target.values()) {
+            if (indexes.containsKey(target)) {
+                rebuild(target);
+            }
+        }
+    }
+
+    /**
+     * 从数据库全量重建索引，重建期间仍使用旧索引搜索
+     *
+     * @param target 索引对象
+     */
+    public synchronized void rebuild(Target target) {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.put(target, ConcurrentHashMap.newKeySet());
+        InvertedIndex index = new InvertedIndex();
+        try {
+            for (SearchDocument document : loaders.get(target).apply(null)) {
+                index.put(document);
+            }
+            indexes.put(target, index);
+        } finally {
+            Set<Long> changed = changedDuringRebuild.remove(target);
+            for (Long id : changed) {
+                refreshNow(target, id);
+            }
+        }
+        rebuilds.incrementAndGet();
+        log.info("全文索引重建完成，对象={}，文档数={}，词项数={}，耗时{}ms",
+                target, index.size(), index.termCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (Target target : Target.values()) {
+            InvertedIndex index = indexes.get(target);
+            statistics.put("documents" + target.name(), index != null ? (long) index.size() : -1L);
+        }
+        statistics.put("searches", searches.get());
+        statistics.put("refreshes", refreshes.get());
+        statistics.put("rebuilds", rebuilds.get());
+        return statistics;
+    }
+
+    private InvertedIndex index(Target target) {
+        InvertedIndex index = indexes.get(target);
+        if (index == null) {
+            synchronized (this) {
+                index = indexes.get(target);
+                if (index == null) {
+                    rebuild(target);
+                    index = indexes.get(target);
+                }
+            }
+        }
+        return index;
+    }
+
+    private void refreshNow(Target target, long id) {
+        Set<Long> changed = changedDuringRebuild.get(target);
+        if (changed != null) {
+            changed.add(id);
+        }
+        InvertedIndex index = indexes.get(target);
+        if (index == null) {
+            // 尚未加载，首次搜索时全量加载
+            return;
+        }
+        try {
+            List<SearchDocument> documents = loaders.get(target).apply(id);
+            if (documents.isEmpty()) {
+                index.remove(id);
+            } else {
+                index.put(documents.get(0));
+            }
+            refreshes.incrementAndGet();
+        } catch (RuntimeException e) {
+            // 记录已提交，索引更新失败不影响业务，等待定时重建
+            log.warn("全文索引更新失败，对象={}，ID={}", target, id, e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.csu.unicorp.service.impl.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.csu.unicorp.service.impl.recommendation.BoundedTopK;
+
+/**
+ * 内存倒排索引
+ * <p>
+ * 词项 -> (文档ID -> 加权词频)。标题、关键字段、正文的词频分别按3、2、1加权，
+ * 查询时文档需要匹配全部词项，按BM25累加各词项得分排序，同分时ID大（较新）的在前。
+ * 前缀词项在词典中按范围展开，非完全匹配的词得分打折扣。线程安全，读多写少。
+ */
+public class InvertedIndex {
+
+    static final float TITLE_BOOST = 3f;
+    static final float KEYWORDS_BOOST = 2f;
+    static final float CONTENT_BOOST = 1f;
+
+    /**
+     * BM25参数
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 单个前缀词项最多展开的词数
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /**
+     * 前缀展开出的词（非完全匹配）的得分系数
+     */
+    private static final double PREFIX_FACTOR = 0.8;
+
+    private static final Comparator<Hit> ORDER = Comparator
+            .comparingDouble(Hit::getScore)
+            .thenComparingLong(Hit::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private double totalLength;
+
+    /**
+     * 添加或替换文档
+     *
+     * @param document 文档
+     */
+    public void put(SearchDocument document) {
+        Map<String, Float> frequencies = new HashMap<>();
+        addField(frequencies, document.getTitle(), TITLE_BOOST);
+        addField(frequencies, document.getKeywords(), KEYWORDS_BOOST);
+        addField(frequencies, document.getContent(), CONTENT_BOOST);
+        float length = 0f;
+        for (float frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        long id = document.getId();
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(id, entry.getValue());
+            }
+            documents.put(id, new IndexedDocument(frequencies.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索
+     *
+     * @param query 查询文本
+     * @param limit 最多返回的文档数
+     * @return 按相关度降序排列的文档ID，查询没有可用词项时返回空列表
+     */
+    public List<Long> search(String query, int limit) {
+        return search(query, limit, MAX_PREFIX_EXPANSIONS);
+    }
+
+    /**
+     * 搜索，指定单个前缀词项最多展开的词数
+     * <p>
+     * 按相关度截取时展开前{@link #MAX_PREFIX_EXPANSIONS}个词即可；需要全部匹配记录时（如作为数据库筛选条件）
+     * 应传入{@link Integer#MAX_VALUE}，否则较短的字母或数字前缀会漏掉词典序靠后的匹配词
+     *
+     * @param query 查询文本
+     * @param limit 最多返回的文档数
+     * @param maxExpansions 单个前缀词项最多展开的词数
+     * @return 按相关度降序排列的文档ID，查询没有可用词项时返回空列表
+     */
+    public List<Long> search(String query, int limit, int maxExpansions) {
+        List<TextAnalyzer.QueryTerm> terms = TextAnalyzer.parseQuery(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double averageLength = totalLength / documents.size();
+            List<Map<Long, Double>> termScores = new ArrayList<>(terms.size());
+            for (TextAnalyzer.QueryTerm term : terms) {
+                Map<Long, Double> scores = scoreTerm(term, averageLength, maxExpansions);
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                termScores.add(scores);
+            }
+
+            // 从命中文档最少的词项开始求交集
+            termScores.sort(Comparator.comparingInt(Map::size));
+            Map<Long, Double> candidates = new HashMap<>(termScores.get(0));
+            for (int i = 1; i < termScores.size() && !candidates.isEmpty(); i++) {
+                Map<Long, Double> scores = termScores.get(i);
+                Iterator<Map.Entry<Long, Double>> it = candidates.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, Double> candidate = it.next();
+                    Double score = scores.get(candidate.getKey());
+                    if (score == null) {
+                        it.remove();
+                    } else {
+                        candidate.setValue(candidate.getValue() + score);
+                    }
+                }
+            }
+
+            BoundedTopK<Hit> topK = new BoundedTopK<>(Math.min(limit, candidates.size()), ORDER);
+            for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+                topK.offer(new Hit(candidate.getKey(), candidate.getValue()));
+            }
+            List<Hit> hits = topK.toSortedList();
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                ids.add(hit.getId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 词典中的词项数
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(TextAnalyzer.QueryTerm term, double averageLength, int maxExpansions) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (!term.isPrefix()) {
+            addScores(scores, postings.get(term.getText()), 1.0, averageLength);
+            return scores;
+        }
+        NavigableMap<String, Map<Long, Float>> expansions =
+                postings.subMap(term.getText(), true, term.getText() + Character.MAX_VALUE, false);
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry : expansions.entrySet()) {
+            if (expanded++ >= maxExpansions) {
+                break;
+            }
+            double factor = entry.getKey().equals(term.getText()) ? 1.0 : PREFIX_FACTOR;
+            addScores(scores, entry.getValue(), factor, averageLength);
+        }
+        return scores;
+    }
+
+    /**
+     * 计算词项在各文档的BM25得分，同一文档命中多个展开词时取最高分
+     */
+    private void addScores(Map<Long, Double> scores, Map<Long, Float> posting, double factor, double averageLength) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        int n = documents.size();
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            double tf = entry.getValue();
+            double length = documents.get(entry.getKey()).length;
+            double score = factor * idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            scores.merge(entry.getKey(), score, Math::max);
+        }
+    }
+
+    private static void addField(Map<String, Float> frequencies, String text, float boost) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            frequencies.merge(token, boost, Float::sum);
+        }
+    }
+
+    private void removeInternal(long id) {
+        IndexedDocument document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 已索引文档的词项和加权长度，删除时据此清理倒排表
+     */
+    private static final class IndexedDocument {
+
+        private final String[] terms;
+        private final float length;
+
+        private IndexedDocument(String[] terms, float length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 命中的文档
+     */
+    private static final class Hit {
+
+        private final long id;
+        private final double score;
+
+        private Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+}
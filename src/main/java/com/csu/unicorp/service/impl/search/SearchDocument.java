@@ -0,0 +1,34 @@
+package com.csu.unicorp.service.impl.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 待索引的文档，由各业务表的标题、关键字段和正文组成
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchDocument {
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 标题，权重最高
+     */
+    private String title;
+
+    /**
+     * 标签、组织名称、类型等短字段，空格分隔
+     */
+    private String keywords;
+
+    /**
+     * 正文或描述
+     */
+    private String content;
+}
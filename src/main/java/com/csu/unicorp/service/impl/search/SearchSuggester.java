@@ -0,0 +1,272 @@
+package com.csu.unicorp.service.impl.search;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.csu.unicorp.mapper.SuggestionSourceMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 搜索输入提示
+ * <p>
+ * 输入框每次按键都要给出提示，原先直接对岗位和标签表执行 LIKE 查询。这里为岗位标题、社区标签、组织名称、
+ * 近期热门搜索词各维护一棵内存前缀树（见{@link SuggestionTrie}），按键时只查内存，支持一定程度的输错纠正。
+ * <p>
+ * 前缀树在首次提示时从数据库加载。岗位、标签、组织变更时调用{@link #refresh}，事务提交后按文本重新查询其权重；
+ * 记录搜索行为时调用{@link #recordSearch}累加已有搜索词的搜索人数。另有定时任务全量重建，同时淘汰过期的搜索词。
+ * <p>
+ * 搜索词是用户输入的原文，而提示接口匿名可访问，因此只提示足够多不同用户搜索过的词：
+ * 权重按搜索人数而非次数统计，同一用户重复搜索只计一次；两次重建之间只累加已有搜索词，新词要等重建时达到人数门槛才会加入。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchSuggester {
+
+    /**
+     * 候选词来源
+     */
+    public enum Source {
+        JOB_TITLE, TAG, ORGANIZATION, KEYWORD
+    }
+
+    private final SuggestionSourceMapper suggestionSourceMapper;
+
+    /**
+     * 单次提示的最大条数，也是前缀树每个节点缓存的候选词数
+     */
+    @Value("${app.suggestion.max-limit:20}")
+    private int maxLimit;
+
+    /**
+     * 统计热门搜索词的天数
+     */
+    @Value("${app.suggestion.keyword-days:30}")
+    private int keywordDays;
+
+    /**
+     * 搜索人数达到该值的搜索词才会被提示
+     */
+    @Value("${app.suggestion.keyword-min-count:3}")
+    private int keywordMinCount;
+
+    /**
+     * 重建时最多加载的热门搜索词数
+     */
+    @Value("${app.suggestion.keyword-max-size:20000}")
+    private int keywordMaxSize;
+
+    /**
+     * 记录的（用户, 搜索词）数上限
+     */
+    @Value("${app.suggestion.keyword-searchers-max-size:200000}")
+    private long keywordSearchersMaxSize;
+
+    /**
+     * 已计入搜索人数的（用户, 搜索词），同一用户重复搜索不再累加；与统计窗口同样保留keywordDays天，
+     * 重建后数据库统计的人数已包含这些用户，不清空
+     */
+    private Cache<String, Boolean> keywordSearchers;
+
+    private final Map<Source, Function<String, List<Suggestion>>> loaders = new EnumMap<>(Source.class);
+    private final Map<Source, SuggestionTrie> tries = new ConcurrentHashMap<>();
+
+    /**
+     * 正在重建的前缀树期间变更的文本，新树替换后重新查询
+     */
+    private final Map<Source, Set<String>> changedDuringRebuild = new ConcurrentHashMap<>();
+
+    private final AtomicLong suggestions = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        loaders.put(Source.JOB_TITLE, suggestionSourceMapper::selectJobTitles);
+        loaders.put(Source.TAG, suggestionSourceMapper::selectTags);
+        loaders.put(Source.ORGANIZATION, suggestionSourceMapper::selectOrganizations);
+        loaders.put(Source.KEYWORD, text -> suggestionSourceMapper.selectSearchKeywords(
+                LocalDateTime.now().minusDays(keywordDays), keywordMinCount, keywordMaxSize));
+        keywordSearchers = Caffeine.newBuilder()
+                .maximumSize(keywordSearchersMaxSize)
+                .expireAfterWrite(keywordDays, TimeUnit.DAYS)
+                .build();
+    }
+
+    /**
+     * 输入提示
+     *
+     * @param source 候选词来源
+     * @param prefix 用户已输入的文本
+     * @param limit 最多返回的条数，超过上限时按上限
+     * @return 候选词，前缀匹配的在前，纠错得到的在后
+     */
+    public List<Suggestion> suggest(Source source, String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        suggestions.incrementAndGet();
+        return trie(source).suggest(prefix, Math.min(limit, maxLimit));
+    }
+
+    /**
+     * 岗位、标签、组织新增、修改或删除后更新候选词，在事务中调用时等事务提交后执行
+     *
+     * @param source 候选词来源，不支持搜索词
+     * @param texts 受影响的文本，如修改前后的名称
+     */
+    public void refresh(Source source, String... texts) {
+        if (source == Source.KEYWORD) {
+            throw new IllegalArgumentException("搜索词请使用recordSearch更新");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshNow(source, texts);
+                }
+            });
+        } else {
+            refreshNow(source, texts);
+        }
+    }
+
+    /**
+     * 记录一次搜索，已有搜索词的搜索人数加一；同一用户重复搜索、尚未达到人数门槛的新词不累加
+     *
+     * @param userId 搜索的用户ID
+     * @param keyword 搜索词
+     */
+    public void recordSearch(Integer userId, String keyword) {
+        if (userId == null || keyword == null || keyword.trim().isEmpty()) {
+            return;
+        }
+        SuggestionTrie trie = tries.get(Source.KEYWORD);
+        if (trie == null || !trie.contains(keyword)) {
+            return;
+        }
+        String searcher = userId + ":" + SuggestionTrie.normalize(keyword);
+        if (keywordSearchers.asMap().putIfAbsent(searcher, Boolean.TRUE) == null) {
+            trie.adjustIfPresent(keyword, 1);
+        }
+    }
+
+    /**
+     * 定时全量重建已加载的前缀树
+     */
+    @Scheduled(initialDelayString = "${app.suggestion.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.suggestion.rebuild-interval-ms:600000}")
+    public void rebuildLoaded() {
+        for (Source source : Source.values()) {
+            if (tries.containsKey(source)) {
+                rebuild(source);
+            }
+        }
+    }
+
+    /**
+     * 从数据库全量重建前缀树，重建期间仍使用旧树提示
+     *
+     * @param source 候选词来源
+     */
+    public synchronized void rebuild(Source source) {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.put(source, ConcurrentHashMap.newKeySet());
+        SuggestionTrie trie = new SuggestionTrie(maxLimit, source != Source.KEYWORD);
+        try {
+            trie.putAll(loaders.get(source).apply(null));
+            tries.put(source, trie);
+        } finally {
+            Set<String> changed = changedDuringRebuild.remove(source);
+            if (source != Source.KEYWORD) {
+                refreshNow(source, changed.toArray(new String[0]));
+            }
+        }
+        rebuilds.incrementAndGet();
+        log.info("输入提示重建完成，来源={}，候选词数={}，节点数={}，耗时{}ms",
+                source, trie.size(), trie.nodeCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (Source source : Source.values()) {
+            SuggestionTrie trie = tries.get(source);
+            statistics.put("entries" + source.name(), trie != null ? (long) trie.size() : -1L);
+        }
+        statistics.put("suggestions", suggestions.get());
+        statistics.put("refreshes", refreshes.get());
+        statistics.put("rebuilds", rebuilds.get());
+        return statistics;
+    }
+
+    private SuggestionTrie trie(Source source) {
+        SuggestionTrie trie = tries.get(source);
+        if (trie == null) {
+            synchronized (this) {
+                trie = tries.get(source);
+                if (trie == null) {
+                    rebuild(source);
+                    trie = tries.get(source);
+                }
+            }
+        }
+        return trie;
+    }
+
+    private void refreshNow(Source source, String... texts) {
+        Set<String> changed = changedDuringRebuild.get(source);
+        if (changed != null) {
+            for (String text : texts) {
+                if (text != null) {
+                    changed.add(text);
+                }
+            }
+        }
+        SuggestionTrie trie = tries.get(source);
+        if (trie == null) {
+            // 尚未加载，首次提示时全量加载
+            return;
+        }
+        for (String text : texts) {
+            if (text == null || text.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                List<Suggestion> rows = loaders.get(source).apply(text);
+                if (rows.isEmpty()) {
+                    trie.remove(text);
+                } else {
+                    Suggestion row = rows.get(0);
+                    trie.put(row.getText(), row.getWeight(), row.getRefId());
+                }
+                refreshes.incrementAndGet();
+            } catch (RuntimeException e) {
+                // 记录已提交，提示更新失败不影响业务，等待定时重建
+                log.warn("输入提示更新失败，来源={}，文本={}", source, text, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.csu.unicorp.service.impl.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 输入提示候选词
+ * <p>
+ * 数据库查询出的候选词只有文本、权重和关联ID，提示结果另外带上与输入的编辑距离
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    /**
+     * 展示文本
+     */
+    private String text;
+
+    /**
+     * 权重，越大越靠前，如岗位数、标签使用次数、搜索次数
+     */
+    private Long weight;
+
+    /**
+     * 关联记录ID，如标签ID、组织ID；岗位标题和搜索词为空
+     */
+    private Long refId;
+
+    /**
+     * 与输入的编辑距离，0表示前缀完全匹配，大于0表示纠错得到
+     */
+    private int distance;
+
+    public Suggestion(String text, Long weight, Long refId) {
+        this(text, weight, refId, 0);
+    }
+}
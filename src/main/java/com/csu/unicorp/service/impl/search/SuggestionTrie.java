@@ -0,0 +1,652 @@
+package com.csu.unicorp.service.impl.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 输入提示前缀树
+ * <p>
+ * 压缩前缀树（基数树），单链路径合并为一条边，每个节点缓存其子树中权重最高的K个候选词，
+ * 前缀查询只需沿输入走到对应节点，耗时与输入长度成正比，与候选词总数无关。
+ * 候选词除整体文本外，还以其中每个词的开头（中文为每个字）作为键插入，输入"工程师"可以提示"Java开发工程师"。
+ * <p>
+ * 前缀匹配结果不足时按编辑距离纠错：输入至少{@value #FUZZY_MIN_LENGTH}个字符时允许1处错误，
+ * 至少{@value #TWO_EDITS_MIN_LENGTH}个字符时允许2处，错误包括替换、多字、漏字和相邻两字颠倒。
+ * <p>
+ * 权重变化时沿该候选词各个键的路径自底向上更新缓存的前K个，不需要重建。线程安全，读多写少。
+ */
+public class SuggestionTrie {
+
+    static final int MAX_KEY_LENGTH = 64;
+    static final int MAX_KEYS_PER_ENTRY = 16;
+    static final int FUZZY_MIN_LENGTH = 3;
+    static final int TWO_EDITS_MIN_LENGTH = 7;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    /**
+     * 权重高的在前，同权重按文本排序
+     */
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry entry) -> -entry.weight)
+            .thenComparing(entry -> entry.key);
+
+    private final int topK;
+    private final boolean infix;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int nodeCount = 1;
+
+    /**
+     * @param topK 每个节点缓存的候选词数，即单次提示的最大条数
+     * @param infix 是否以文本中每个词的开头作为键，为false时只按整体文本的前缀匹配
+     */
+    public SuggestionTrie(int topK, boolean infix) {
+        this.topK = topK;
+        this.infix = infix;
+    }
+
+    /**
+     * 规范化文本：NFKC规范化、转小写、连续空白合并为一个空格，超长截断
+     *
+     * @param text 文本
+     * @return 规范化后的文本，不会为null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = normalized.trim().replaceAll("\\s+", " ");
+        if (normalized.length() > MAX_KEY_LENGTH) {
+            normalized = normalized.substring(0, MAX_KEY_LENGTH).trim();
+        }
+        return normalized;
+    }
+
+    /**
+     * 添加候选词或更新其权重，规范化后相同的文本视为同一候选词
+     *
+     * @param text 文本
+     * @param weight 权重，不大于0时移除
+     * @param refId 关联记录ID
+     */
+    public void put(String text, long weight, Long refId) {
+        lock.writeLock().lock();
+        try {
+            putInternal(text, weight, refId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 增减候选词的权重，不存在时以增量为权重添加
+     *
+     * @param text 文本
+     * @param delta 权重增量
+     */
+    public void adjust(String text, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(normalize(text));
+            if (entry == null) {
+                putInternal(text, delta, null);
+            } else {
+                putInternal(entry.text, entry.weight + delta, entry.refId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 增减已有候选词的权重，不存在时不添加
+     *
+     * @param text 文本
+     * @param delta 权重增量
+     * @return 候选词是否存在
+     */
+    public boolean adjustIfPresent(String text, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(normalize(text));
+            if (entry == null) {
+                return false;
+            }
+            putInternal(entry.text, entry.weight + delta, entry.refId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 是否包含候选词
+     *
+     * @param text 文本
+     */
+    public boolean contains(String text) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(normalize(text));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 移除候选词
+     *
+     * @param text 文本
+     */
+    public void remove(String text) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(normalize(text));
+            if (entry != null) {
+                removeEntry(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 批量添加候选词，添加完成后统一计算各节点的前K个，用于全量构建
+     *
+     * @param suggestions 候选词，规范化后相同的只保留权重最高的
+     */
+    public void putAll(Collection<Suggestion> suggestions) {
+        lock.writeLock().lock();
+        try {
+            for (Suggestion suggestion : suggestions) {
+                String key = normalize(suggestion.getText());
+                long weight = suggestion.getWeight() != null ? suggestion.getWeight() : 0L;
+                if (key.isEmpty() || weight <= 0) {
+                    continue;
+                }
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    entry = new Entry(key, suggestion.getText().trim(), weight, suggestion.getRefId(), keysOf(key));
+                    entries.put(key, entry);
+                    for (String entryKey : entry.keys) {
+                        insertKey(entryKey, entry);
+                    }
+                } else if (weight > entry.weight) {
+                    entry.text = suggestion.getText().trim();
+                    entry.weight = weight;
+                    entry.refId = suggestion.getRefId();
+                }
+            }
+            recomputeAll(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 输入提示
+     *
+     * @param prefix 用户已输入的文本
+     * @param limit 最多返回的条数，不超过构造时的K
+     * @return 前缀匹配的候选词按权重降序在前，纠错得到的按编辑距离、权重排在其后
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String query = normalize(prefix);
+        int size = Math.min(limit, topK);
+        if (query.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Entry, Integer> hits = new LinkedHashMap<>();
+            Node node = find(query);
+            if (node != null) {
+                for (Entry entry : node.top) {
+                    if (hits.size() >= size) {
+                        break;
+                    }
+                    hits.put(entry, 0);
+                }
+            }
+            if (hits.size() < size && query.length() >= FUZZY_MIN_LENGTH) {
+                int maxEdits = query.length() >= TWO_EDITS_MIN_LENGTH ? 2 : 1;
+                Map<Entry, Integer> corrected = new IdentityHashMap<>();
+                fuzzy(query, maxEdits, corrected);
+                List<Map.Entry<Entry, Integer>> ranked = new ArrayList<>(corrected.entrySet());
+                ranked.sort(Comparator.<Map.Entry<Entry, Integer>>comparingInt(Map.Entry::getValue)
+                        .thenComparing(Map.Entry::getKey, ORDER));
+                for (Map.Entry<Entry, Integer> hit : ranked) {
+                    if (hits.size() >= size) {
+                        break;
+                    }
+                    hits.putIfAbsent(hit.getKey(), hit.getValue());
+                }
+            }
+            List<Suggestion> suggestions = new ArrayList<>(hits.size());
+            for (Map.Entry<Entry, Integer> hit : hits.entrySet()) {
+                Entry entry = hit.getKey();
+                suggestions.add(new Suggestion(entry.text, entry.weight, entry.refId, hit.getValue()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 候选词数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 节点数
+     */
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(String text, long weight, Long refId) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry entry = entries.get(key);
+        if (weight <= 0) {
+            if (entry != null) {
+                entries.remove(key);
+                removeEntry(entry);
+            }
+            return;
+        }
+        boolean increased;
+        if (entry == null) {
+            entry = new Entry(key, text.trim(), weight, refId, keysOf(key));
+            entries.put(key, entry);
+            for (String entryKey : entry.keys) {
+                insertKey(entryKey, entry);
+            }
+            increased = true;
+        } else {
+            increased = weight >= entry.weight;
+            entry.text = text.trim();
+            entry.weight = weight;
+            entry.refId = refId;
+        }
+        for (Node node : pathNodes(entry)) {
+            if (increased) {
+                offer(node, entry);
+            } else if (indexOf(node.top, entry) >= 0) {
+                recompute(node);
+            }
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        List<Node> nodes = pathNodes(entry);
+        for (String entryKey : entry.keys) {
+            Node node = find(entryKey);
+            if (node != null && node.terminals != null) {
+                node.terminals.remove(entry);
+            }
+        }
+        for (Node node : nodes) {
+            if (indexOf(node.top, entry) >= 0) {
+                recompute(node);
+            }
+        }
+        for (String entryKey : entry.keys) {
+            prune(root, entryKey, 0);
+        }
+    }
+
+    /**
+     * 候选词各个键路径上的全部节点，按深度从深到浅排列，保证更新某节点时其子节点已经更新
+     */
+    private List<Node> pathNodes(Entry entry) {
+        Map<Node, Integer> depths = new IdentityHashMap<>();
+        for (String entryKey : entry.keys) {
+            Node node = root;
+            int depth = 0;
+            int i = 0;
+            depths.put(node, depth);
+            while (i < entryKey.length()) {
+                Node child = node.child(entryKey.charAt(i));
+                if (child == null) {
+                    break;
+                }
+                node = child;
+                i += child.label.length();
+                depths.put(node, ++depth);
+            }
+        }
+        List<Node> nodes = new ArrayList<>(depths.keySet());
+        nodes.sort(Comparator.comparingInt(depths::get).reversed());
+        return nodes;
+    }
+
+    /**
+     * 以文本本身以及其中每个词的开头作为键：字母数字按连续片段，中日韩文字按单字
+     */
+    private String[] keysOf(String key) {
+        if (!infix) {
+            return new String[] {key};
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        int previous = -1;
+        int i = 0;
+        while (i < key.length() && keys.size() < MAX_KEYS_PER_ENTRY) {
+            int cp = key.codePointAt(i);
+            if (i > 0 && Character.isLetterOrDigit(cp)
+                    && (isCjk(cp) || !Character.isLetterOrDigit(previous) || isCjk(previous))) {
+                keys.add(key.substring(i));
+            }
+            previous = cp;
+            i += Character.charCount(cp);
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private void insertKey(String key, Entry entry) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            char c = key.charAt(i);
+            Node child = node.child(c);
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.putChild(child);
+                nodeCount++;
+                node = child;
+                break;
+            }
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // 在公共前缀处拆分边，新节点的子树与原节点相同
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.putChild(child);
+                middle.top = child.top;
+                node.putChild(middle);
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.terminals == null) {
+            node.terminals = new ArrayList<>(1);
+        }
+        if (!node.terminals.contains(entry)) {
+            node.terminals.add(entry);
+        }
+    }
+
+    /**
+     * 移除不再有候选词的叶子节点，并合并只剩一个子节点的中间节点
+     *
+     * @return 节点是否应从父节点移除
+     */
+    private boolean prune(Node node, String key, int offset) {
+        if (offset < key.length()) {
+            Node child = node.child(key.charAt(offset));
+            if (child != null && key.startsWith(child.label, offset)
+                    && prune(child, key, offset + child.label.length())) {
+                node.children.remove(child.label.charAt(0));
+                nodeCount--;
+            }
+        }
+        if (node == root) {
+            return false;
+        }
+        boolean noTerminals = node.terminals == null || node.terminals.isEmpty();
+        if (noTerminals && (node.children == null || node.children.isEmpty())) {
+            return true;
+        }
+        if (noTerminals && node.children.size() == 1) {
+            Node only = node.children.values().iterator().next();
+            node.label = node.label + only.label;
+            node.children = only.children;
+            node.terminals = only.terminals;
+            node.top = only.top;
+            nodeCount--;
+        }
+        return false;
+    }
+
+    /**
+     * 输入对应的节点，输入在某条边的中间结束时返回该边指向的节点
+     */
+    private Node find(String query) {
+        Node node = root;
+        int i = 0;
+        while (i < query.length()) {
+            Node child = node.child(query.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefixLength(child.label, query, i);
+            if (i + common == query.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    /**
+     * 按Damerau-Levenshtein距离遍历前缀树，每走一个字符计算一行动态规划表，
+     * 整行最小值超过允许的错误数时剪枝；输入与当前路径的距离在允许范围内时，该节点子树的前K个均为候选
+     */
+    private void fuzzy(String query, int maxEdits, Map<Entry, Integer> hits) {
+        int[] first = new int[query.length() + 1];
+        for (int j = 0; j < first.length; j++) {
+            first[j] = j;
+        }
+        walk(root, query, maxEdits, first, null, (char) 0, hits);
+    }
+
+    private void walk(Node node, String query, int maxEdits, int[] previousRow, int[] earlierRow,
+                      char previousChar, Map<Entry, Integer> hits) {
+        if (node.children == null) {
+            return;
+        }
+        int m = query.length();
+        for (Node child : node.children.values()) {
+            int[] previous = previousRow;
+            int[] earlier = earlierRow;
+            char last = previousChar;
+            boolean descend = true;
+            for (int k = 0; k < child.label.length() && descend; k++) {
+                char c = child.label.charAt(k);
+                int[] row = new int[m + 1];
+                row[0] = previous[0] + 1;
+                int min = row[0];
+                for (int j = 1; j <= m; j++) {
+                    int cost = query.charAt(j - 1) == c ? 0 : 1;
+                    int distance = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+                    if (j > 1 && earlier != null && query.charAt(j - 1) == last && query.charAt(j - 2) == c) {
+                        distance = Math.min(distance, earlier[j - 2] + 1);
+                    }
+                    row[j] = distance;
+                    min = Math.min(min, distance);
+                }
+                if (row[m] <= maxEdits) {
+                    for (Entry entry : child.top) {
+                        hits.merge(entry, row[m], Math::min);
+                    }
+                    // 子树已全部计入，只有更深处可能得到更小的距离时才继续
+                    descend = min < row[m];
+                } else {
+                    descend = min <= maxEdits;
+                }
+                earlier = previous;
+                previous = row;
+                last = c;
+            }
+            if (descend) {
+                walk(child, query, maxEdits, previous, earlier, last, hits);
+            }
+        }
+    }
+
+    private void offer(Node node, Entry entry) {
+        Entry[] top = node.top;
+        int index = indexOf(top, entry);
+        if (index < 0 && top.length >= topK && ORDER.compare(entry, top[top.length - 1]) >= 0) {
+            return;
+        }
+        List<Entry> merged = new ArrayList<>(top.length + 1);
+        for (Entry each : top) {
+            if (each != entry) {
+                merged.add(each);
+            }
+        }
+        int position = 0;
+        while (position < merged.size() && ORDER.compare(merged.get(position), entry) < 0) {
+            position++;
+        }
+        merged.add(position, entry);
+        node.top = trim(merged);
+    }
+
+    private void recompute(Node node) {
+        List<Entry> candidates = new ArrayList<>();
+        if (node.terminals != null) {
+            candidates.addAll(node.terminals);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+        }
+        candidates.sort(ORDER);
+        List<Entry> distinct = new ArrayList<>(Math.min(candidates.size(), topK));
+        for (Entry candidate : candidates) {
+            if (distinct.size() >= topK) {
+                break;
+            }
+            if (distinct.isEmpty() || distinct.get(distinct.size() - 1) != candidate) {
+                distinct.add(candidate);
+            }
+        }
+        node.top = distinct.isEmpty() ? EMPTY : distinct.toArray(new Entry[0]);
+    }
+
+    private void recomputeAll(Node node) {
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                recomputeAll(child);
+            }
+        }
+        recompute(node);
+    }
+
+    private Entry[] trim(List<Entry> entries) {
+        int size = Math.min(entries.size(), topK);
+        return entries.subList(0, size).toArray(new Entry[0]);
+    }
+
+    private static int indexOf(Entry[] top, Entry entry) {
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 候选词，各键路径上的节点共享同一对象
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String[] keys;
+        private String text;
+        private long weight;
+        private Long refId;
+
+        private Entry(String key, String text, long weight, Long refId, String[] keys) {
+            this.key = key;
+            this.text = text;
+            this.weight = weight;
+            this.refId = refId;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * 树节点，label为从父节点到本节点的边上的字符
+     */
+    private static final class Node {
+
+        private String label;
+        private Map<Character, Node> children;
+        private List<Entry> terminals;
+        private Entry[] top = EMPTY;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            return children != null ? children.get(c) : null;
+        }
+
+        private void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            children.put(child.label.charAt(0), child);
+        }
+    }
+}
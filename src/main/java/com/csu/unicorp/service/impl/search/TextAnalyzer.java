@@ -0,0 +1,184 @@
+package com.csu.unicorp.service.impl.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 全文检索分词器
+ * <p>
+ * 中文没有空格分隔，按字切分：连续的中日韩文字索引每个单字和相邻两字（二元组），
+ * 字母和数字按连续片段作为一个词，其余字符作为分隔符。文本先做NFKC规范化并转小写，
+ * 全角字母数字与半角等同。
+ * <p>
+ * 查询时中文片段取其二元组（单字片段取单字），文档包含全部二元组即视为匹配；
+ * 字母数字词按前缀匹配，"jav" 可以匹配 "java"。
+ */
+public final class TextAnalyzer {
+
+    /**
+     * 单个字母数字词的最大长度，超出部分截断
+     */
+    static final int MAX_WORD_LENGTH = 32;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * 索引分词
+     *
+     * @param text 文本
+     * @return 词项，保留重复以统计词频
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        for (Run run : split(text)) {
+            if (run.cjk) {
+                int[] chars = run.text.codePoints().toArray();
+                for (int i = 0; i < chars.length; i++) {
+                    tokens.add(new String(chars, i, 1));
+                    if (i + 1 < chars.length) {
+                        tokens.add(new String(chars, i, 2));
+                    }
+                }
+            } else {
+                tokens.add(run.text);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 查询分词
+     *
+     * @param query 查询文本
+     * @return 去重后的查询词项，文档需要匹配全部词项
+     */
+    public static List<QueryTerm> parseQuery(String query) {
+        Set<QueryTerm> terms = new LinkedHashSet<>();
+        if (query == null || query.isEmpty()) {
+            return new ArrayList<>(terms);
+        }
+        for (Run run : split(query)) {
+            if (run.cjk) {
+                int[] chars = run.text.codePoints().toArray();
+                if (chars.length == 1) {
+                    terms.add(new QueryTerm(run.text, false));
+                }
+                for (int i = 0; i + 1 < chars.length; i++) {
+                    terms.add(new QueryTerm(new String(chars, i, 2), false));
+                }
+            } else {
+                terms.add(new QueryTerm(run.text, true));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static List<Run> split(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        List<Run> runs = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            boolean cjk = isCjk(cp);
+            boolean word = !cjk && Character.isLetterOrDigit(cp);
+            if (!cjk && !word) {
+                flush(runs, current, currentCjk);
+                continue;
+            }
+            if (current.length() > 0 && cjk != currentCjk) {
+                flush(runs, current, currentCjk);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(cp);
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() == 0) {
+            return;
+        }
+        String text = current.toString();
+        if (!cjk && text.length() > MAX_WORD_LENGTH) {
+            text = text.substring(0, MAX_WORD_LENGTH);
+        }
+        runs.add(new Run(text, cjk));
+        current.setLength(0);
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 连续的同类字符
+     */
+    private static final class Run {
+
+        private final String text;
+        private final boolean cjk;
+
+        private Run(String text, boolean cjk) {
+            this.text = text;
+            this.cjk = cjk;
+        }
+    }
+
+    /**
+     * 查询词项
+     */
+    public static final class QueryTerm {
+
+        private final String text;
+        private final boolean prefix;
+
+        public QueryTerm(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * 是否按前缀匹配
+         */
+        public boolean isPrefix() {
+            return prefix;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryTerm)) {
+                return false;
+            }
+            QueryTerm that = (QueryTerm) o;
+            return prefix == that.prefix && text.equals(that.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode() * 31 + (prefix ? 1 : 0);
+        }
+    }
+}
@@ -66,6 +66,24 @@ public class ChapterVideoVO {
     @Schema(description = "视频封面图片路径", example = "upload/courses/videos/covers/chapter1_cover.jpg")
     private String coverImage;
     
+    /**
+     * HLS主播放列表地址
+     */
+    @Schema(description = "HLS主播放列表地址，转码完成前为空，此时播放原始文件", example = "http://localhost:8081/api/v1/files/courses/videos/hls/1/master.m3u8")
+    private String hlsPlaylist;
+    
+    /**
+     * 进度条预览缩略图地址
+     */
+    @Schema(description = "进度条预览缩略图WebVTT地址", example = "http://localhost:8081/api/v1/files/courses/videos/hls/1/thumbs.vtt")
+    private String thumbnailTrack;
+    
+    /**
+     * 转码状态
+     */
+    @Schema(description = "转码状态：PENDING/RUNNING/SUCCEEDED/FAILED", example = "SUCCEEDED")
+    private String transcodeStatus;
+    
     /**
      * 上传者ID
      */
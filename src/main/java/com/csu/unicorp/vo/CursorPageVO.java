@@ -0,0 +1,70 @@
+package com.csu.unicorp.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 游标分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "游标分页结果")
+public class CursorPageVO<T> {
+
+    /**
+     * 每页最大记录数，查询时多查一条，请求的每页大小超过时按此截取
+     */
+    public static final int MAX_SIZE = 100;
+
+    @Schema(description = "本页记录")
+    private List<T> records;
+
+    @Schema(description = "下一页游标，请求下一页时原样传回；没有更多记录时为null")
+    private String nextCursor;
+
+    @Schema(description = "是否还有更多记录")
+    private boolean hasMore;
+
+    /**
+     * 由多查询一条的结果创建分页，多出的一条只用于判断是否还有下一页
+     *
+     * @param rows 按游标顺序查询的最多 size + 1 条记录
+     * @param size 每页大小
+     * @param cursorOf 由记录生成游标
+     * @return 分页结果
+     */
+    public static <T> CursorPageVO<T> of(List<T> rows, int size, Function<? super T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> records = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(records.get(records.size() - 1)) : null;
+        return new CursorPageVO<>(records, nextCursor, hasMore);
+    }
+
+    /**
+     * 将请求的每页大小限制在 1 ~ {@link #MAX_SIZE} 之间
+     *
+     * @param size 请求的每页大小
+     * @return 实际的每页大小
+     */
+    public static int limitSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * 转换本页记录，游标不变
+     */
+    public <R> CursorPageVO<R> convert(Function<? super T, ? extends R> mapper) {
+        List<R> converted = new ArrayList<>(records.size());
+        for (T record : records) {
+            converted.add(mapper.apply(record));
+        }
+        return new CursorPageVO<>(converted, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,69 @@
+package com.csu.unicorp.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传会话视图对象
+ */
+@Data
+@Schema(description = "分片上传会话视图对象")
+public class FileUploadSessionVO {
+
+    /**
+     * 上传会话ID
+     */
+    @Schema(description = "上传会话ID", example = "3f2b8c1e-5d4a-4e7b-9c0d-1a2b3c4d5e6f")
+    private String uploadId;
+
+    /**
+     * 原始文件名
+     */
+    @Schema(description = "原始文件名", example = "第一章课件.pptx")
+    private String fileName;
+
+    /**
+     * 文件总大小
+     */
+    @Schema(description = "文件总大小（字节）", example = "104857600")
+    private Long totalSize;
+
+    /**
+     * 分片大小
+     */
+    @Schema(description = "分片大小（字节），除最后一个分片外每个分片都必须是这个大小", example = "5242880")
+    private Integer chunkSize;
+
+    /**
+     * 分片数量
+     */
+    @Schema(description = "分片数量", example = "20")
+    private Integer chunkCount;
+
+    /**
+     * 已接收的分片序号
+     */
+    @Schema(description = "已接收并校验通过的分片序号，断点续传时只需上传其余分片")
+    private List<Integer> receivedChunks;
+
+    /**
+     * 会话状态
+     */
+    @Schema(description = "会话状态：UPLOADING/COMPLETED", example = "UPLOADING")
+    private String status;
+
+    /**
+     * 文件相对路径
+     */
+    @Schema(description = "完成后的文件相对路径，与普通上传返回的file_url相同", example = "resources/1a2b3c4d_20250101120000.pptx")
+    private String fileUrl;
+
+    /**
+     * 过期时间
+     */
+    @Schema(description = "过期时间，过期前未完成的上传会被清理")
+    private LocalDateTime expiresAt;
+}
@@ -35,4 +35,9 @@ public class LogStatisticsVO {
      * 日期统计
      */
     private List<Map<String, Object>> dateStatistics;
-} 
\ No newline at end of file
+    
+    /**
+     * 异步写入器统计（排队中、已接收、已写入、已丢弃、写入失败）
+     */
+    private Map<String, Long> writerStatistics;
+}
@@ -0,0 +1,80 @@
+package com.csu.unicorp.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 媒体转码任务视图对象
+ */
+@Data
+@Schema(description = "媒体转码任务视图对象")
+public class MediaTranscodeJobVO {
+
+    /**
+     * 任务ID
+     */
+    @Schema(description = "任务ID", example = "1")
+    private Long id;
+
+    /**
+     * 章节视频ID
+     */
+    @Schema(description = "章节视频ID", example = "1")
+    private Integer videoId;
+
+    /**
+     * 任务状态
+     */
+    @Schema(description = "任务状态：PENDING/RUNNING/SUCCEEDED/FAILED/CANCELED", example = "RUNNING")
+    private String status;
+
+    /**
+     * 当前步骤
+     */
+    @Schema(description = "当前步骤：PROBE/COVER/THUMBNAILS/清晰度/PLAYLIST", example = "720p")
+    private String stage;
+
+    /**
+     * 进度百分比
+     */
+    @Schema(description = "进度百分比", example = "45")
+    private Integer progress;
+
+    /**
+     * 已执行次数
+     */
+    @Schema(description = "已执行次数", example = "1")
+    private Integer attempts;
+
+    /**
+     * 已生成的清晰度
+     */
+    @Schema(description = "已生成的清晰度，逗号分隔", example = "720p,480p,360p")
+    private String renditions;
+
+    /**
+     * 失败原因
+     */
+    @Schema(description = "失败原因")
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    @Schema(description = "创建时间", example = "2024-06-01T10:15:30")
+    private LocalDateTime createdAt;
+
+    /**
+     * 开始执行时间
+     */
+    @Schema(description = "开始执行时间", example = "2024-06-01T10:15:31")
+    private LocalDateTime startedAt;
+
+    /**
+     * 结束时间
+     */
+    @Schema(description = "结束时间", example = "2024-06-01T10:20:02")
+    private LocalDateTime finishedAt;
+}
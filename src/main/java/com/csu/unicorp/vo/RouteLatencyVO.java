@@ -0,0 +1,62 @@
+package com.csu.unicorp.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 接口延迟统计视图对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteLatencyVO {
+    /**
+     * 接口路由，格式为“请求方法 路由模板”
+     */
+    private String route;
+
+    /**
+     * 请求数
+     */
+    private Long count;
+
+    /**
+     * 失败请求数（状态码>=500）
+     */
+    private Long errorCount;
+
+    /**
+     * 平均耗时（毫秒）
+     */
+    private Double meanMillis;
+
+    /**
+     * 50分位耗时（毫秒）
+     */
+    private Double p50Millis;
+
+    /**
+     * 90分位耗时（毫秒）
+     */
+    private Double p90Millis;
+
+    /**
+     * 99分位耗时（毫秒）
+     */
+    private Double p99Millis;
+
+    /**
+     * 最大耗时（毫秒）
+     */
+    private Double maxMillis;
+
+    /**
+     * 各耗时区间的请求数
+     */
+    private Map<String, Long> buckets;
+}
@@ -0,0 +1,40 @@
+package com.csu.unicorp.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索输入提示VO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "搜索输入提示VO")
+public class SuggestionVO {
+
+    /**
+     * 提示文本
+     */
+    @Schema(description = "提示文本")
+    private String text;
+
+    /**
+     * 来源
+     */
+    @Schema(description = "来源：JOB_TITLE-岗位标题，TAG-社区标签，ORGANIZATION-组织名称，KEYWORD-热门搜索词")
+    private String type;
+
+    /**
+     * 关联记录ID
+     */
+    @Schema(description = "关联记录ID，标签和组织为其ID，岗位标题和搜索词为空")
+    private Long refId;
+
+    /**
+     * 是否纠错得到
+     */
+    @Schema(description = "是否由输错纠正得到，而非前缀完全匹配")
+    private Boolean corrected;
+}
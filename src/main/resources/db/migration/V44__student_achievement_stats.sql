@@ -0,0 +1,30 @@
+-- 学生成果统计表：按学生预聚合的成果数量，由成果写入路径维护，并定时全量重建
+CREATE TABLE IF NOT EXISTS student_achievement_stats (
+    user_id INT PRIMARY KEY,
+    portfolio_count INT NOT NULL DEFAULT 0 COMMENT '作品数量',
+    award_count INT NOT NULL DEFAULT 0 COMMENT '竞赛获奖数量',
+    verified_award_count INT NOT NULL DEFAULT 0 COMMENT '已认证竞赛获奖数量',
+    research_count INT NOT NULL DEFAULT 0 COMMENT '科研成果数量',
+    verified_research_count INT NOT NULL DEFAULT 0 COMMENT '已认证科研成果数量',
+    updated_at DATETIME NOT NULL,
+    CONSTRAINT fk_student_achievement_stats_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='学生成果统计表';
+
+-- 初始化已有学生的统计数据
+INSERT INTO student_achievement_stats
+    (user_id, portfolio_count, award_count, verified_award_count, research_count, verified_research_count, updated_at)
+SELECT u.id,
+       COALESCE(p.total, 0),
+       COALESCE(a.total, 0), COALESCE(a.verified, 0),
+       COALESCE(r.total, 0), COALESCE(r.verified, 0),
+       NOW()
+FROM users u
+JOIN user_roles ur ON ur.user_id = u.id
+JOIN roles ro ON ro.id = ur.role_id AND ro.role_name = 'STUDENT'
+LEFT JOIN (SELECT user_id, COUNT(*) AS total FROM portfolio_items
+           WHERE is_deleted = 0 GROUP BY user_id) p ON p.user_id = u.id
+LEFT JOIN (SELECT user_id, COUNT(*) AS total, SUM(is_verified) AS verified FROM competition_awards
+           WHERE is_deleted = 0 GROUP BY user_id) a ON a.user_id = u.id
+LEFT JOIN (SELECT user_id, COUNT(*) AS total, SUM(is_verified) AS verified FROM research_achievements
+           WHERE is_deleted = 0 GROUP BY user_id) r ON r.user_id = u.id;
+
@@ -0,0 +1,31 @@
+-- 聊天会话冗余最后一条消息和双方未读数，会话列表只需读取会话表
+ALTER TABLE chat_session
+    ADD COLUMN last_message_id BIGINT NULL COMMENT '最后一条消息ID',
+    ADD COLUMN last_message_snippet VARCHAR(200) NULL COMMENT '最后一条消息摘要',
+    ADD COLUMN last_message_time DATETIME NULL COMMENT '最后一条消息时间，没有消息时为会话创建时间',
+    ADD COLUMN user1_unread_count INT NOT NULL DEFAULT 0 COMMENT 'user1的未读消息数',
+    ADD COLUMN user2_unread_count INT NOT NULL DEFAULT 0 COMMENT 'user2的未读消息数';
+
+CREATE INDEX idx_chat_session_user1_last ON chat_session (user1_id, last_message_time);
+CREATE INDEX idx_chat_session_user2_last ON chat_session (user2_id, last_message_time);
+CREATE INDEX idx_chat_message_session_sent ON chat_message (session_id, sent_at);
+
+-- 初始化已有会话的最后一条消息
+UPDATE chat_session s
+SET s.last_message_id = (SELECT m.id FROM chat_message m
+                         WHERE m.session_id = s.id
+                         ORDER BY m.sent_at DESC, m.id DESC LIMIT 1);
+
+UPDATE chat_session s
+JOIN chat_message m ON m.id = s.last_message_id
+SET s.last_message_snippet = LEFT(m.content, 200),
+    s.last_message_time = m.sent_at;
+
+UPDATE chat_session SET last_message_time = created_at WHERE last_message_time IS NULL;
+
+-- 初始化已有会话的未读数
+UPDATE chat_session s
+SET s.user1_unread_count = (SELECT COUNT(*) FROM chat_message m
+                            WHERE m.session_id = s.id AND m.sender_id != s.user1_id AND m.is_read = 0),
+    s.user2_unread_count = (SELECT COUNT(*) FROM chat_message m
+                            WHERE m.session_id = s.id AND m.sender_id != s.user2_id AND m.is_read = 0);
@@ -0,0 +1,26 @@
+-- 章节视频转码：上传后由后台任务生成多码率HLS和缩略图，原始文件仍保留作为回退
+ALTER TABLE course_chapter_videos
+    ADD COLUMN hls_playlist VARCHAR(255) NULL COMMENT 'HLS主播放列表路径' AFTER cover_image,
+    ADD COLUMN thumbnail_track VARCHAR(255) NULL COMMENT '进度条预览缩略图WebVTT路径' AFTER hls_playlist,
+    ADD COLUMN transcode_status VARCHAR(20) NULL COMMENT '转码状态：PENDING/RUNNING/SUCCEEDED/FAILED' AFTER thumbnail_track;
+
+-- 转码任务表：任务状态持久化，进程重启或节点宕机后由其他工作线程接管
+CREATE TABLE IF NOT EXISTS media_transcode_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    video_id INT NOT NULL COMMENT '章节视频ID',
+    source_path VARCHAR(255) NOT NULL COMMENT '原始文件相对路径',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING/RUNNING/SUCCEEDED/FAILED/CANCELED',
+    stage VARCHAR(30) NULL COMMENT '当前步骤',
+    progress INT NOT NULL DEFAULT 0 COMMENT '进度百分比',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已执行次数',
+    worker_node VARCHAR(100) NULL COMMENT '执行节点',
+    renditions VARCHAR(100) NULL COMMENT '已生成的清晰度，如 720p,480p',
+    error_message VARCHAR(500) NULL COMMENT '失败原因',
+    created_at DATETIME NOT NULL,
+    started_at DATETIME NULL,
+    heartbeat_at DATETIME NULL COMMENT '执行节点最后一次上报进度的时间',
+    finished_at DATETIME NULL,
+    INDEX idx_media_transcode_jobs_status (status, id),
+    INDEX idx_media_transcode_jobs_video (video_id),
+    CONSTRAINT fk_media_transcode_jobs_video FOREIGN KEY (video_id) REFERENCES course_chapter_videos(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='媒体转码任务表';
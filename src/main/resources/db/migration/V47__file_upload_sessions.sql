@@ -0,0 +1,27 @@
+-- 分片上传会话：大文件按分片上传，网络中断后只需补传缺失的分片
+CREATE TABLE IF NOT EXISTS file_upload_sessions (
+    id VARCHAR(36) NOT NULL PRIMARY KEY COMMENT '上传会话ID',
+    owner_account VARCHAR(100) NOT NULL COMMENT '创建会话的账号',
+    type VARCHAR(20) NOT NULL COMMENT '文件类型标识：avatar/resume/logo/resource',
+    original_name VARCHAR(255) NOT NULL COMMENT '原始文件名',
+    content_type VARCHAR(100) NULL COMMENT '文件MIME类型',
+    total_size BIGINT NOT NULL COMMENT '文件总大小（字节）',
+    chunk_size INT NOT NULL COMMENT '分片大小（字节），最后一个分片可以更小',
+    chunk_count INT NOT NULL COMMENT '分片数量',
+    status VARCHAR(20) NOT NULL DEFAULT 'UPLOADING' COMMENT 'UPLOADING/COMPLETED',
+    stored_name VARCHAR(255) NULL COMMENT '完成后的文件相对路径',
+    created_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL COMMENT '过期时间，过期未完成的会话连同临时文件一起清理',
+    completed_at DATETIME NULL,
+    INDEX idx_file_upload_sessions_expires (status, expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传会话表';
+
+-- 已接收的分片，校验通过后才写入，断点续传时据此返回缺失的分片
+CREATE TABLE IF NOT EXISTS file_upload_chunks (
+    upload_id VARCHAR(36) NOT NULL COMMENT '上传会话ID',
+    chunk_index INT NOT NULL COMMENT '分片序号，从0开始',
+    checksum CHAR(64) NOT NULL COMMENT '分片SHA-256',
+    received_at DATETIME NOT NULL,
+    PRIMARY KEY (upload_id, chunk_index),
+    CONSTRAINT fk_file_upload_chunks_session FOREIGN KEY (upload_id) REFERENCES file_upload_sessions(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传分片表';
@@ -0,0 +1,15 @@
+-- 按内容寻址存储上传文件：相同内容只保存一份，file_mapping通过content_hash引用
+CREATE TABLE IF NOT EXISTS file_blobs (
+    content_hash CHAR(64) NOT NULL PRIMARY KEY COMMENT '文件内容SHA-256',
+    size BIGINT NOT NULL COMMENT '文件大小（字节）',
+    ref_count INT NOT NULL DEFAULT 0 COMMENT '引用该内容的file_mapping数量',
+    created_at DATETIME NOT NULL,
+    released_at DATETIME NULL COMMENT '引用数降为0的时间，超过保留时间后由后台清理',
+    INDEX idx_file_blobs_released (ref_count, released_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件内容表';
+
+-- content_hash为空的是旧文件，仍按stored_name存放在上传目录下
+ALTER TABLE file_mapping
+    ADD COLUMN content_hash CHAR(64) NULL COMMENT '文件内容SHA-256' AFTER type,
+    ADD INDEX idx_file_mapping_stored_name (stored_name),
+    ADD INDEX idx_file_mapping_content_hash (content_hash);
@@ -0,0 +1,3 @@
+-- 资源图片权限校验按存储路径查找资源，分别为两列建立索引
+CREATE INDEX idx_resources_image_url ON resources(image_url);
+CREATE INDEX idx_resources_file_url ON resources(file_url);
@@ -0,0 +1,4 @@
+-- 游标分页按（创建时间, ID）倒序查询，索引覆盖筛选条件和排序列，从游标位置直接开始扫描
+-- 审计日志(timestamp)和聊天消息(session_id, sent_at)已有索引，InnoDB二级索引末尾自带主键，无需新建
+CREATE INDEX idx_jobs_open_created ON jobs(is_deleted, status, created_at, id);
+CREATE INDEX idx_community_topic_status_created ON community_topic(status, created_at, id);
@@ -0,0 +1,2 @@
+-- 输入提示按（行为类型, 发生时间）统计近期的搜索词，原有的 idx_behavior_type 需要回表过滤全部历史搜索记录
+CREATE INDEX idx_user_behaviors_type_occurred ON user_behaviors(behavior_type, occurred_at);
@@ -0,0 +1,37 @@
+package com.csu.unicorp.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesFollowBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3), false);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(150), true);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(10, histogram.getErrorCount());
+        assertEquals(5.0, histogram.percentileMillis(0.5));
+        assertEquals(5.0, histogram.percentileMillis(0.9));
+        assertEquals(150.0, histogram.percentileMillis(0.99));
+        assertEquals(150.0, histogram.getMaxMillis());
+        assertEquals(90L, histogram.getBuckets().get("<=5ms"));
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0.0, histogram.percentileMillis(0.99));
+        assertEquals(0.0, histogram.getMeanMillis());
+    }
+}
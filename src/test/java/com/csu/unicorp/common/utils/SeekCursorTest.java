@@ -0,0 +1,51 @@
+package com.csu.unicorp.common.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.vo.CursorPageVO;
+
+/**
+ * 分页游标测试
+ */
+public class SeekCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 12, 30, 5, 123000000);
+        SeekCursor cursor = SeekCursor.decode(SeekCursor.of(time, 987L));
+
+        assertEquals(time, cursor.getTime());
+        assertEquals(987L, cursor.getId());
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertNull(SeekCursor.decode(null));
+        assertNull(SeekCursor.decode(""));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(BusinessException.class, () -> SeekCursor.decode("not-a-cursor"));
+        assertThrows(BusinessException.class, () -> SeekCursor.decode("%%%"));
+    }
+
+    @Test
+    void extraRowOnlyMarksNextPage() {
+        CursorPageVO<Integer> full = CursorPageVO.of(List.of(5, 4, 3), 2, String::valueOf);
+        assertEquals(List.of(5, 4), full.getRecords());
+        assertTrue(full.isHasMore());
+        assertEquals("4", full.getNextCursor());
+
+        CursorPageVO<Integer> last = CursorPageVO.of(List.of(2, 1), 2, String::valueOf);
+        assertEquals(List.of(2, 1), last.getRecords());
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+}
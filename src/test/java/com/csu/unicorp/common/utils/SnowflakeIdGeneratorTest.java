@@ -0,0 +1,50 @@
+package com.csu.unicorp.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueIncreasingAndJavaScriptSafe() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 10000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id <= (1L << 53) - 1);
+            ids.add(id);
+            previous = id;
+        }
+        assertEquals(10000, ids.size());
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsIdsIncreasing() {
+        long[] now = {1_800_000_000_000L};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1) {
+            @Override
+            protected long currentTimeMillis() {
+                return now[0];
+            }
+        };
+        long first = generator.nextId();
+        now[0] -= 5000;
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+        assertEquals(1_800_000_000_000L, SnowflakeIdGenerator.timestampOf(first));
+    }
+
+    @Test
+    void rejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(32));
+    }
+}
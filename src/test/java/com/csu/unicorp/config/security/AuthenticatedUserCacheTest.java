@@ -0,0 +1,79 @@
+package com.csu.unicorp.config.security;
+
+import com.csu.unicorp.common.utils.JwtUtil;
+import com.csu.unicorp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 已验证令牌缓存测试
+ */
+public class AuthenticatedUserCacheTest {
+
+    private UserDetailsService userDetailsService;
+    private JwtUtil jwtUtil;
+    private AuthenticatedUserCache cache;
+    private CustomUserDetails student;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test_jwt_secret_key_must_be_at_least_32_bytes");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        jwtUtil.init();
+
+        User user = new User();
+        user.setId(7);
+        user.setAccount("student7");
+        user.setStatus("active");
+        student = new CustomUserDetails(user, "STUDENT");
+
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("student7")).thenReturn(student);
+
+        cache = new AuthenticatedUserCache(jwtUtil, userDetailsService);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = jwtUtil.generateToken(student);
+
+        UserDetails first = cache.resolve(token);
+        UserDetails second = cache.resolve(token);
+
+        assertSame(student, first);
+        assertSame(student, second);
+        verify(userDetailsService, times(1)).loadUserByUsername("student7");
+    }
+
+    @Test
+    void invalidationForcesReload() {
+        String token = jwtUtil.generateToken(student);
+        cache.resolve(token);
+
+        cache.invalidateUser(7);
+        cache.resolve(token);
+        cache.invalidateToken(token);
+        cache.resolve(token);
+
+        verify(userDetailsService, times(3)).loadUserByUsername("student7");
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken(student);
+        cache.resolve(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> cache.resolve(tampered));
+    }
+}
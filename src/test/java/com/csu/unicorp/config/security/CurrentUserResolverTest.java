@@ -0,0 +1,80 @@
+package com.csu.unicorp.config.security;
+
+import com.csu.unicorp.common.constants.RoleConstants;
+import com.csu.unicorp.entity.User;
+import com.csu.unicorp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 当前登录用户解析器测试
+ */
+public class CurrentUserResolverTest {
+
+    private UserService userService;
+    private CurrentUserResolver resolver;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(7);
+        user.setAccount("teacher7");
+        user.setOrganizationId(3);
+        user.setStatus("active");
+
+        userService = mock(UserService.class);
+        resolver = new CurrentUserResolver(userService);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void customUserDetailsDoNotQueryUsers() {
+        CurrentUser currentUser = resolver.resolve(new CustomUserDetails(user, RoleConstants.DB_ROLE_TEACHER));
+
+        assertEquals(7, currentUser.getUserId());
+        assertEquals(3, currentUser.getOrganizationId());
+        assertTrue(currentUser.hasRole(RoleConstants.DB_ROLE_TEACHER));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void otherPrincipalsAreLoadedOncePerRequest() {
+        when(userService.getByAccount("teacher7")).thenReturn(user);
+        when(userService.getUserRole(7)).thenReturn(RoleConstants.DB_ROLE_TEACHER);
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("teacher7").password("").roles(RoleConstants.ROLE_TEACHER).build();
+
+        assertEquals(7, resolver.getUserId(userDetails));
+        assertEquals(7, resolver.getUserId(userDetails));
+        assertEquals(RoleConstants.DB_ROLE_TEACHER, resolver.resolve(userDetails).getRole());
+        verify(userService, times(1)).getByAccount("teacher7");
+
+        // 其他请求重新加载
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        resolver.getUserId(userDetails);
+        verify(userService, times(2)).getByAccount("teacher7");
+    }
+
+    @Test
+    void missingUserResolvesToNull() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("ghost").password("").roles(RoleConstants.ROLE_STUDENT).build();
+
+        assertNull(resolver.resolve(userDetails));
+        assertNull(resolver.getUserId(userDetails));
+    }
+}
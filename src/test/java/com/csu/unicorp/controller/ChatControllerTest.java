@@ -0,0 +1,69 @@
+package com.csu.unicorp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.config.WebSocketPresenceRegistry;
+import com.csu.unicorp.config.WebSocketUserMessageRelay;
+import com.csu.unicorp.config.security.CustomUserDetails;
+import com.csu.unicorp.entity.User;
+import com.csu.unicorp.service.ChatService;
+
+/**
+ * 聊天控制器测试
+ */
+public class ChatControllerTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final WebSocketPresenceRegistry presenceRegistry = mock(WebSocketPresenceRegistry.class);
+    private final ChatController controller = new ChatController(chatService,
+            mock(WebSocketUserMessageRelay.class), presenceRegistry);
+
+    private static CustomUserDetails currentUser(int userId) {
+        User user = new User();
+        user.setId(userId);
+        return new CustomUserDetails(user, "STUDENT");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void presenceOnlyCoversChatContacts() {
+        when(chatService.filterContacts(eq(1L), anyCollection())).thenReturn(Set.of(2L, 4L));
+        when(presenceRegistry.getOnlineStatus(anyList())).thenAnswer(invocation -> {
+            Map<String, Boolean> status = new LinkedHashMap<>();
+            for (String userId : (List<String>) invocation.getArgument(0)) {
+                status.put(userId, true);
+            }
+            return status;
+        });
+
+        Map<String, Boolean> presence = controller.getPresence(List.of("4", "3", "x", "2", "4"), currentUser(1))
+                .getData();
+
+        assertEquals(List.of("4", "2"), new ArrayList<>(presence.keySet()));
+        verify(chatService).filterContacts(eq(1L), argThat((Collection<Long> ids) ->
+                new ArrayList<>(ids).equals(List.of(4L, 3L, 2L))));
+    }
+
+    @Test
+    void rejectsTooManyPresenceUsers() {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < 201; i++) {
+            userIds.add(String.valueOf(i));
+        }
+
+        assertThrows(BusinessException.class, () -> controller.getPresence(userIds, currentUser(1)));
+        verifyNoInteractions(chatService, presenceRegistry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.csu.unicorp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.csu.unicorp.mapper.FileBlobMapper;
+import com.csu.unicorp.service.impl.FileServiceImpl;
+import com.csu.unicorp.service.impl.file.ContentAddressedFileStore;
+import com.csu.unicorp.service.impl.file.FileCacheInvalidationRelay;
+import com.csu.unicorp.service.impl.file.FileRangeSender;
+import com.csu.unicorp.service.impl.file.ImageDerivativeService;
+import com.csu.unicorp.service.impl.file.StoredFileNameCache;
+
+/**
+ * 上传文件访问控制器测试，文件经FileServiceImpl.resolveFile映射到没有扩展名的内容存储路径
+ */
+public class UploadedFileControllerTest {
+
+    private static final String IMAGE_HASH = "ab".repeat(32);
+    private static final String VIDEO_HASH = "cd".repeat(32);
+
+    @TempDir
+    Path tempDir;
+
+    private StoredFileNameCache storedFileNameCache;
+    private ContentAddressedFileStore contentAddressedFileStore;
+    private ImageDerivativeService imageDerivativeService;
+    private UploadedFileController controller;
+
+    @BeforeEach
+    void setUp() {
+        storedFileNameCache = mock(StoredFileNameCache.class);
+        contentAddressedFileStore = new ContentAddressedFileStore(mock(FileBlobMapper.class), mock(TransactionTemplate.class),
+                mock(FileCacheInvalidationRelay.class));
+        ReflectionTestUtils.setField(contentAddressedFileStore, "blobDir", tempDir.resolve("blobs").toString());
+
+        FileServiceImpl fileService = new FileServiceImpl(storedFileNameCache, contentAddressedFileStore);
+        ReflectionTestUtils.setField(fileService, "uploadBaseDir", tempDir.resolve("upload").toString());
+
+        FileRangeSender fileRangeSender = new FileRangeSender();
+        ReflectionTestUtils.setField(fileRangeSender, "sendfileMinSize", Long.MAX_VALUE);
+
+        imageDerivativeService = new ImageDerivativeService(mock(FileCacheInvalidationRelay.class));
+        ReflectionTestUtils.setField(imageDerivativeService, "presetSpec", "xs:48,sm:96");
+        ReflectionTestUtils.setField(imageDerivativeService, "cacheDir", tempDir.resolve("derivatives").toString());
+        ReflectionTestUtils.setField(imageDerivativeService, "workers", 1);
+        ReflectionTestUtils.setField(imageDerivativeService, "queueCapacity", 4);
+        ReflectionTestUtils.setField(imageDerivativeService, "waitMillis", 10_000L);
+        ReflectionTestUtils.setField(imageDerivativeService, "maxSourcePixels", 50_000_000L);
+        ReflectionTestUtils.setField(imageDerivativeService, "jpegQuality", 0.85f);
+        imageDerivativeService.start();
+
+        controller = new UploadedFileController(fileRangeSender, fileService, imageDerivativeService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageDerivativeService.shutdown();
+    }
+
+    private void storeBlob(String storedName, String contentHash, byte[] content) throws Exception {
+        Path blob = contentAddressedFileStore.resolve(contentHash);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, content);
+        when(storedFileNameCache.getContentHash(storedName)).thenReturn(contentHash);
+    }
+
+    private byte[] png(int width, int height) throws Exception {
+        Path file = tempDir.resolve("source.png");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return Files.readAllBytes(file);
+    }
+
+    @Test
+    void servesContentAddressedFilesWithTypeOfRequestedName() throws Exception {
+        byte[] image = png(40, 40);
+        storeBlob("avatars/a1b2c3d4_20250101000000.png", IMAGE_HASH, image);
+        byte[] video = "not really a video".getBytes(StandardCharsets.UTF_8);
+        storeBlob("resources/e5f6a7b8_20250101000000.mp4", VIDEO_HASH, video);
+
+        MockHttpServletResponse imageResponse = new MockHttpServletResponse();
+        controller.serveFile("/avatars/a1b2c3d4_20250101000000.png", null,
+                new MockHttpServletRequest("GET", "/v1/files/avatars/a1b2c3d4_20250101000000.png"), imageResponse);
+        assertEquals(200, imageResponse.getStatus());
+        assertEquals("image/png", imageResponse.getContentType());
+        assertArrayEquals(image, imageResponse.getContentAsByteArray());
+
+        MockHttpServletResponse videoResponse = new MockHttpServletResponse();
+        controller.serveFile("/resources/e5f6a7b8_20250101000000.mp4", null,
+                new MockHttpServletRequest("GET", "/v1/files/resources/e5f6a7b8_20250101000000.mp4"), videoResponse);
+        assertEquals("video/mp4", videoResponse.getContentType());
+        assertArrayEquals(video, videoResponse.getContentAsByteArray());
+    }
+
+    @Test
+    void servesDerivativesOfContentAddressedImages() throws Exception {
+        storeBlob("avatars/a1b2c3d4_20250101000000.png", IMAGE_HASH, png(400, 200));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serveFile("/avatars/a1b2c3d4_20250101000000.png", "sm",
+                new MockHttpServletRequest("GET", "/v1/files/avatars/a1b2c3d4_20250101000000.png"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/jpeg", response.getContentType());
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray()));
+        assertEquals(96, scaled.getWidth());
+        assertEquals(48, scaled.getHeight());
+        // 缩略图按内容SHA-256缓存
+        assertTrue(Files.isDirectory(tempDir.resolve("derivatives").resolve("sm").resolve(IMAGE_HASH.substring(0, 2))));
+    }
+
+    @Test
+    void servesSmallContentAddressedImagesAsOriginal() throws Exception {
+        byte[] image = png(40, 40);
+        storeBlob("avatars/a1b2c3d4_20250101000000.png", IMAGE_HASH, image);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serveFile("/avatars/a1b2c3d4_20250101000000.png", "sm",
+                new MockHttpServletRequest("GET", "/v1/files/avatars/a1b2c3d4_20250101000000.png"), response);
+
+        assertEquals("image/png", response.getContentType());
+        assertArrayEquals(image, response.getContentAsByteArray());
+    }
+
+    @Test
+    void rejectsPathsOutsideUploadDirectory() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serveFile("/../secret.txt", null, new MockHttpServletRequest("GET", "/v1/files/../secret.txt"), response);
+        assertEquals(404, response.getStatus());
+    }
+}
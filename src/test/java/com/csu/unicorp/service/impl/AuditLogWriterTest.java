@@ -0,0 +1,87 @@
+package com.csu.unicorp.service.impl;
+
+import com.csu.unicorp.entity.AuditLog;
+import com.csu.unicorp.mapper.AuditLogMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 审计日志异步写入器测试
+ */
+public class AuditLogWriterTest {
+
+    private AuditLogWriter newWriter(AuditLogMapper mapper, int capacity, int batchSize) {
+        AuditLogWriter writer = new AuditLogWriter(mapper);
+        ReflectionTestUtils.setField(writer, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 5000L);
+        writer.start();
+        return writer;
+    }
+
+    @Test
+    void writesInBatchesAndFlushesOnShutdown() throws InterruptedException {
+        AuditLogMapper mapper = mock(AuditLogMapper.class);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(mapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            int size = ((List<?>) invocation.getArgument(0)).size();
+            batchSizes.add(size);
+            blocked.countDown();
+            release.await();
+            return size;
+        });
+        AuditLogWriter writer = newWriter(mapper, 1000, 10);
+
+        // 第一条单独成批并阻塞在写入中，其余94条在此期间排队，放行后按批大小写入
+        assertTrue(writer.submit(AuditLog.builder().action("LOGIN").build()));
+        blocked.await();
+        for (int i = 1; i < 95; i++) {
+            assertTrue(writer.submit(AuditLog.builder().action("LOGIN").build()));
+        }
+        release.countDown();
+        writer.shutdown();
+
+        assertEquals(List.of(1, 10, 10, 10, 10, 10, 10, 10, 10, 10, 4), batchSizes);
+        verify(mapper, times(11)).insertBatch(anyList());
+        verify(mapper, never()).insert(any(AuditLog.class));
+        Map<String, Long> statistics = writer.getStatistics();
+        assertEquals(95L, statistics.get("written"));
+        assertEquals(0L, statistics.get("pending"));
+    }
+
+    @Test
+    void dropsWhenQueueIsFull() throws InterruptedException {
+        AuditLogMapper mapper = mock(AuditLogMapper.class);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+        AuditLogWriter writer = newWriter(mapper, 2, 1);
+
+        writer.submit(AuditLog.builder().build());
+        blocked.await();
+        writer.submit(AuditLog.builder().build());
+        writer.submit(AuditLog.builder().build());
+        assertFalse(writer.submit(AuditLog.builder().build()));
+        release.countDown();
+        writer.shutdown();
+
+        assertEquals(1L, writer.getStatistics().get("dropped"));
+        assertEquals(3L, writer.getStatistics().get("written"));
+    }
+}
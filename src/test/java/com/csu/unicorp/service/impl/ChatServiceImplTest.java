@@ -0,0 +1,83 @@
+package com.csu.unicorp.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.csu.unicorp.entity.ChatMessage;
+import com.csu.unicorp.entity.ChatSession;
+import com.csu.unicorp.mapper.ChatMessageMapper;
+import com.csu.unicorp.mapper.ChatSessionMapper;
+import com.csu.unicorp.service.impl.chat.ChatMessagePipeline;
+import com.csu.unicorp.vo.CursorPageVO;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 聊天服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+public class ChatServiceImplTest {
+
+    @Mock
+    private ChatSessionMapper chatSessionMapper;
+
+    @Mock
+    private ChatMessageMapper chatMessageMapper;
+
+    @Mock
+    private ChatMessagePipeline chatMessagePipeline;
+
+    @InjectMocks
+    private ChatServiceImpl chatService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // Lambda条件构造器解析列名需要实体的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), ChatMessage.class);
+    }
+
+    private static ChatSession session(long user1Id, long user2Id) {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setUser1Id(user1Id);
+        session.setUser2Id(user2Id);
+        return session;
+    }
+
+    @Test
+    void rejectsHistoryRequestsFromNonMembers() {
+        when(chatSessionMapper.selectById(1L)).thenReturn(session(10L, 20L));
+
+        assertThrows(AccessDeniedException.class,
+                () -> chatService.getSessionMessagesByCursor(1L, 30L, null, 20));
+        verify(chatMessageMapper, never()).selectList(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void capsHistoryPageSize() {
+        when(chatSessionMapper.selectById(1L)).thenReturn(session(10L, 20L));
+        when(chatMessageMapper.selectList(any())).thenReturn(Collections.emptyList());
+        when(chatMessagePipeline.getInFlightMessages(1L)).thenReturn(Collections.emptyList());
+
+        chatService.getSessionMessagesByCursor(1L, 20L, null, 1_000_000);
+
+        ArgumentCaptor<Wrapper<ChatMessage>> wrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(chatMessageMapper).selectList(wrapper.capture());
+        assertTrue(wrapper.getValue().getSqlSegment().endsWith("LIMIT " + (CursorPageVO.MAX_SIZE + 1)),
+                wrapper.getValue().getSqlSegment());
+    }
+}
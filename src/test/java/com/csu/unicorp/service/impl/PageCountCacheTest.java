@@ -0,0 +1,67 @@
+package com.csu.unicorp.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 分页总数缓存测试
+ */
+public class PageCountCacheTest {
+
+    private PageCountCache cache;
+    private List<Boolean> searchCounts;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PageCountCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+        searchCounts = new ArrayList<>();
+    }
+
+    private Page<String> query(Page<String> page) {
+        searchCounts.add(page.searchCount());
+        if (page.searchCount()) {
+            page.setTotal(42);
+        }
+        return page;
+    }
+
+    @Test
+    void secondPageReusesCachedTotal() {
+        cache.page("jobs:java", new Page<>(1, 10), this::query);
+        Page<String> second = cache.page("jobs:java", new Page<>(2, 10), this::query);
+
+        assertEquals(List.of(true, false), searchCounts);
+        assertEquals(42, second.getTotal());
+        assertEquals(5, second.getPages());
+    }
+
+    @Test
+    void differentFiltersAreCountedSeparately() {
+        cache.page("jobs:java", new Page<>(1, 10), this::query);
+        cache.page("jobs:go", new Page<>(1, 10), this::query);
+
+        assertEquals(List.of(true, true), searchCounts);
+    }
+
+    @Test
+    void invalidateByPrefix() {
+        cache.page("jobs:java", new Page<>(1, 10), this::query);
+        cache.page("audit:1", new Page<>(1, 10), this::query);
+        cache.invalidate("jobs:");
+        cache.page("jobs:java", new Page<>(2, 10), this::query);
+        cache.page("audit:1", new Page<>(2, 10), this::query);
+
+        assertEquals(List.of(true, true, true, false), searchCounts);
+    }
+}
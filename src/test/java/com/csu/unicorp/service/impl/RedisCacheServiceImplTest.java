@@ -0,0 +1,172 @@
+package com.csu.unicorp.service.impl;
+
+import com.csu.unicorp.common.constants.CacheConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两级缓存测试
+ */
+public class RedisCacheServiceImplTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private RedisCacheServiceImpl cacheService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // 默认Redis中的键没有设置过期时间
+        when(redisTemplate.getExpire(anyString(), any(TimeUnit.class))).thenReturn(-1L);
+
+        cacheService = new RedisCacheServiceImpl(redisTemplate, new ObjectMapper(), new CacheKeyIndex(redisTemplate));
+        ReflectionTestUtils.setField(cacheService, "localCacheMaxSize", 100L);
+        cacheService.initLocalCache();
+    }
+
+    @Test
+    void hotKeyIsServedFromLocalCacheAsCopies() {
+        String key = CacheConstants.HOT_TOPICS_CACHE_KEY + ":10";
+        when(valueOperations.get(key)).thenReturn(List.of(topic(1, "a"), topic(2, "b")));
+
+        List<Map> first = cacheService.getList(key, Map.class);
+        first.get(0).put("title", "changed");
+        List<Map> second = cacheService.getList(key, Map.class);
+
+        assertEquals("a", second.get(0).get("title"));
+        verify(valueOperations, times(1)).get(key);
+    }
+
+    @Test
+    void writeInvalidatesLocalCache() {
+        String key = CacheConstants.CATEGORY_TREE_CACHE_KEY;
+        when(valueOperations.get(key)).thenReturn(topic(1, "old"), topic(1, "new"));
+
+        assertEquals("old", cacheService.get(key, Map.class).get("title"));
+        cacheService.set(key, topic(1, "new"), 1, TimeUnit.HOURS);
+
+        assertEquals("new", cacheService.get(key, Map.class).get("title"));
+        verify(valueOperations, times(2)).get(key);
+    }
+
+    @Test
+    void localCopyDoesNotOutliveRedisTtl() throws Exception {
+        String key = CacheConstants.HOT_TOPICS_CACHE_KEY + ":10";
+        when(valueOperations.get(key)).thenReturn(List.of(topic(1, "a")));
+        when(redisTemplate.getExpire(key, TimeUnit.MILLISECONDS)).thenReturn(50L);
+
+        cacheService.getList(key, Map.class);
+        cacheService.getList(key, Map.class);
+        verify(valueOperations, times(1)).get(key);
+
+        // Redis中的键过期后不再由L1响应
+        Thread.sleep(100);
+        cacheService.getList(key, Map.class);
+        verify(valueOperations, times(2)).get(key);
+    }
+
+    @Test
+    void hasKeyAsksRedisEvenWhenCachedLocally() {
+        String key = CacheConstants.CATEGORY_TREE_CACHE_KEY;
+        when(valueOperations.get(key)).thenReturn(topic(1, "a"));
+        cacheService.get(key, Map.class);
+
+        when(redisTemplate.hasKey(key)).thenReturn(false);
+        assertFalse(cacheService.hasKey(key));
+    }
+
+    @Test
+    void keysWithoutPolicyAlwaysGoToRedis() {
+        String key = CacheConstants.USER_NOTIFICATIONS_CACHE_KEY_PREFIX + "1";
+        when(valueOperations.get(key)).thenReturn(new ArrayList<>(List.of(topic(1, "a"))));
+
+        cacheService.getList(key, Map.class);
+        cacheService.getList(key, Map.class);
+
+        verify(valueOperations, times(2)).get(key);
+    }
+
+    @Test
+    void fallsBackToLocalCacheWhenRedisIsDown() {
+        String key = CacheConstants.AUTH_ATTEMPTS_PREFIX + "user";
+        when(valueOperations.increment(anyString(), anyLong()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(valueOperations.get(key)).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(1L, cacheService.increment(key, 1));
+        assertEquals(2L, cacheService.increment(key, 1));
+        assertEquals(2L, cacheService.get(key, Long.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void patternDeleteUsesMemberIndexInsteadOfKeys() {
+        String namespace = CacheConstants.TOPIC_COMMENTS_CACHE_KEY_PREFIX;
+        byte[] members = bytes(CacheConstants.CACHE_INDEX_KEY_PREFIX + namespace + "|5");
+        List<String> cached = List.of(namespace + "5:1", namespace + "5:2", namespace + "5:3");
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisSetCommands setCommands = mock(RedisSetCommands.class);
+        when(connection.setCommands()).thenReturn(setCommands);
+        when(setCommands.sMembers(aryEq(members)))
+                .thenReturn(cached.stream().map(RedisCacheServiceImplTest::bytes).collect(Collectors.toSet()));
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        Set<String> deleted = new HashSet<>();
+        when(redisTemplate.delete(anyCollection())).thenAnswer(invocation -> {
+            deleted.addAll(invocation.getArgument(0));
+            return 3L;
+        });
+
+        assertEquals(3L, cacheService.deleteByPattern(namespace + "5*"));
+        assertEquals(Set.copyOf(cached), deleted);
+        // 只移除已删除的成员，每条命令只访问一个键
+        verify(setCommands).sRem(aryEq(members), any(byte[][].class));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class));
+        verify(redisTemplate, never()).keys(anyString());
+        verify(redisTemplate, never()).scan(any());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> topic(int id, String title) {
+        Map<String, Object> topic = new LinkedHashMap<>();
+        topic.put("id", id);
+        topic.put("title", title);
+        return topic;
+    }
+}
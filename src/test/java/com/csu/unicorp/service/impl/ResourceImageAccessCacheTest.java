@@ -0,0 +1,83 @@
+package com.csu.unicorp.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.csu.unicorp.entity.Resource;
+import com.csu.unicorp.mapper.ResourceMapper;
+
+/**
+ * 资源图片访问权限缓存测试
+ */
+public class ResourceImageAccessCacheTest {
+
+    private static final String URL = "resource_images/1a2b3c4d_20250101120000.png";
+
+    private ResourceMapper resourceMapper;
+    private ResourceImageAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        resourceMapper = mock(ResourceMapper.class);
+        cache = new ResourceImageAccessCache(resourceMapper);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        cache.init();
+    }
+
+    private static Resource resource(String visibility, int ownerId) {
+        Resource resource = new Resource();
+        resource.setId(1);
+        resource.setVisibility(visibility);
+        resource.setUploadedByUserId(ownerId);
+        return resource;
+    }
+
+    @Test
+    void cachesDecisionsPerAccount() {
+        when(resourceMapper.selectAccessByUrl(URL)).thenReturn(resource("private", 7));
+        AtomicInteger evaluations = new AtomicInteger();
+
+        assertTrue(cache.isAllowed(URL, "owner", r -> evaluations.incrementAndGet() > 0));
+        assertTrue(cache.isAllowed(URL, "owner", r -> evaluations.incrementAndGet() > 0));
+        assertFalse(cache.isAllowed(URL, "", r -> evaluations.incrementAndGet() < 0));
+
+        assertEquals(2, evaluations.get());
+        verify(resourceMapper, times(1)).selectAccessByUrl(URL);
+    }
+
+    @Test
+    void missingResourceIsDeniedUntilInvalidated() {
+        assertFalse(cache.isAllowed(URL, "teacher", r -> true));
+        assertFalse(cache.isAllowed(URL, "teacher", r -> true));
+        verify(resourceMapper, times(1)).selectAccessByUrl(URL);
+
+        // 创建资源后失效，之前缓存的拒绝结果不再生效
+        when(resourceMapper.selectAccessByUrl(URL)).thenReturn(resource("public", 7));
+        cache.invalidate(URL, null);
+
+        assertTrue(cache.isAllowed(URL, "teacher", r -> true));
+    }
+
+    @Test
+    void invalidationOnlyAffectsGivenUrls() {
+        String other = "resource_images/9f8e7d6c_20250101120000.png";
+        when(resourceMapper.selectAccessByUrl(URL)).thenReturn(resource("public", 7));
+        when(resourceMapper.selectAccessByUrl(other)).thenReturn(resource("public", 8));
+        cache.isAllowed(URL, "a", r -> true);
+        cache.isAllowed(other, "a", r -> true);
+
+        cache.invalidate(URL);
+        cache.isAllowed(URL, "a", r -> true);
+        cache.isAllowed(other, "a", r -> true);
+
+        verify(resourceMapper, times(2)).selectAccessByUrl(URL);
+        verify(resourceMapper, times(1)).selectAccessByUrl(other);
+    }
+}
@@ -0,0 +1,87 @@
+package com.csu.unicorp.service.impl;
+
+import com.csu.unicorp.entity.achievement.AchievementView;
+import com.csu.unicorp.mapper.achievement.AchievementViewMapper;
+import com.csu.unicorp.mapper.achievement.PortfolioItemMapper;
+import com.csu.unicorp.mapper.community.CommunityQuestionMapper;
+import com.csu.unicorp.mapper.community.CommunityTopicMapper;
+import com.csu.unicorp.mapper.job.JobMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * 浏览次数写回计数器测试
+ */
+public class ViewCounterTest {
+
+    private JobMapper jobMapper;
+    private PortfolioItemMapper portfolioItemMapper;
+    private AchievementViewMapper achievementViewMapper;
+    private ViewCounter viewCounter;
+
+    @BeforeEach
+    void setUp() {
+        jobMapper = mock(JobMapper.class);
+        portfolioItemMapper = mock(PortfolioItemMapper.class);
+        achievementViewMapper = mock(AchievementViewMapper.class);
+        viewCounter = new ViewCounter(jobMapper, mock(CommunityTopicMapper.class), mock(CommunityQuestionMapper.class),
+                portfolioItemMapper, achievementViewMapper);
+        ReflectionTestUtils.setField(viewCounter, "viewQueueCapacity", 100);
+        viewCounter.init();
+    }
+
+    @Test
+    void aggregatesIncrementsIntoOneBatchUpdate() {
+        for (int i = 0; i < 50; i++) {
+            viewCounter.increment(ViewCounter.Target.JOB, 1);
+        }
+        viewCounter.increment(ViewCounter.Target.JOB, 2);
+
+        assertEquals(60, viewCounter.merge(ViewCounter.Target.JOB, 1, 10));
+        viewCounter.flush();
+
+        verify(jobMapper, times(1)).incrementViewCounts(Map.of(1L, 50L, 2L, 1L));
+        assertEquals(0L, viewCounter.pending(ViewCounter.Target.JOB, 1));
+
+        // 没有新的浏览时不再写数据库
+        viewCounter.flush();
+        verify(jobMapper, times(1)).incrementViewCounts(anyMap());
+    }
+
+    @Test
+    void keepsDeltasWhenFlushFails() {
+        when(jobMapper.incrementViewCounts(anyMap())).thenThrow(new RuntimeException("db down")).thenReturn(1);
+        viewCounter.increment(ViewCounter.Target.JOB, 7);
+        viewCounter.increment(ViewCounter.Target.JOB, 7);
+
+        viewCounter.flush();
+        assertEquals(2L, viewCounter.pending(ViewCounter.Target.JOB, 7));
+
+        viewCounter.flush();
+        verify(jobMapper, times(2)).incrementViewCounts(Map.of(7L, 2L));
+        assertEquals(0L, viewCounter.pending(ViewCounter.Target.JOB, 7));
+    }
+
+    @Test
+    void batchesAchievementViews() {
+        for (int i = 0; i < 3; i++) {
+            AchievementView view = new AchievementView();
+            view.setAchievementType("portfolio");
+            view.setAchievementId(5);
+            viewCounter.recordAchievementView(ViewCounter.Target.PORTFOLIO, view);
+        }
+
+        viewCounter.flush();
+
+        verify(portfolioItemMapper).incrementViewCounts(Map.of(5L, 3L));
+        verify(achievementViewMapper, times(1)).insertBatch(anyList());
+    }
+}
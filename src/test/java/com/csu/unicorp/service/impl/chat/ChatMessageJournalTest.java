@@ -0,0 +1,112 @@
+package com.csu.unicorp.service.impl.chat;
+
+import com.csu.unicorp.entity.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 聊天消息本地日志测试
+ */
+public class ChatMessageJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private ChatMessageJournal newJournal(long segmentSize) throws IOException {
+        ChatMessageJournal journal = new ChatMessageJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(journal, "fsync", false);
+        journal.init();
+        return journal;
+    }
+
+    private static ChatMessage message(long id) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSessionId(1L);
+        message.setSenderId(2L);
+        message.setContent("消息" + id);
+        message.setSentAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        message.setIsRead(0);
+        return message;
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void rotatesSegmentsAndDeletesThemOnceAcknowledged() throws IOException {
+        // 每条消息都超过段大小，每次追加后切换到新段
+        ChatMessageJournal journal = newJournal(1);
+
+        long first = journal.append(message(1));
+        long second = journal.append(message(2));
+        assertEquals(1L, first);
+        assertEquals(2L, second);
+        assertEquals(List.of("chat-00000001.log", "chat-00000002.log", "chat-00000003.log"), segmentFiles());
+
+        journal.acknowledge(second, 1);
+        assertEquals(List.of("chat-00000001.log", "chat-00000003.log"), segmentFiles());
+        journal.acknowledge(first, 1);
+        assertEquals(List.of("chat-00000003.log"), segmentFiles());
+
+        // 当前段没有未入库的消息，关闭时删除
+        journal.close();
+        assertEquals(List.of(), segmentFiles());
+    }
+
+    @Test
+    void keepsCurrentSegmentUntilRotated() throws IOException {
+        ChatMessageJournal journal = newJournal(1 << 20);
+
+        long segment = journal.append(message(1));
+        journal.append(message(2));
+        journal.acknowledge(segment, 1);
+        assertEquals(List.of("chat-00000001.log"), segmentFiles());
+
+        // 仍有未入库的消息，关闭后保留，等待下次启动补写
+        journal.close();
+        assertEquals(List.of("chat-00000001.log"), segmentFiles());
+    }
+
+    @Test
+    void recoversUnacknowledgedMessagesAfterCrash() throws IOException {
+        ChatMessageJournal crashed = newJournal(1 << 20);
+        crashed.append(message(1));
+        crashed.append(message(2));
+        crashed.append(message(3));
+        // 模拟进程崩溃：不关闭日志，末尾留下写了一半的行
+        Files.write(dir.resolve("chat-00000001.log"), "{\"id\":4,\"sessi".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        ChatMessageJournal restarted = newJournal(1 << 20);
+        List<ChatMessage> recovered = restarted.readRecovered();
+        assertEquals(List.of(1L, 2L, 3L), recovered.stream().map(ChatMessage::getId).collect(Collectors.toList()));
+        assertEquals("消息2", recovered.get(1).getContent());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), recovered.get(1).getSentAt());
+
+        // 重启后的新消息写入新段，补写完成后只删除遗留的段
+        assertEquals(2L, restarted.append(message(5)));
+        restarted.clearRecovered();
+        assertEquals(List.of("chat-00000002.log"), segmentFiles());
+        assertTrue(restarted.readRecovered().isEmpty());
+        restarted.close();
+    }
+}
@@ -0,0 +1,194 @@
+package com.csu.unicorp.service.impl.chat;
+
+import com.csu.unicorp.common.utils.SnowflakeIdGenerator;
+import com.csu.unicorp.entity.ChatMessage;
+import com.csu.unicorp.mapper.ChatMessageMapper;
+import com.csu.unicorp.mapper.ChatSessionMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 聊天消息写入流水线测试
+ */
+public class ChatMessagePipelineTest {
+
+    @TempDir
+    Path dir;
+
+    private final ChatMessageMapper chatMessageMapper = mock(ChatMessageMapper.class);
+    private final ChatSessionMapper chatSessionMapper = mock(ChatSessionMapper.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @SuppressWarnings("unchecked")
+    private ChatMessagePipeline newPipeline(ChatMessageJournal journal, int idNode, String brokerMode) {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        ChatMessagePipeline pipeline = new ChatMessagePipeline(chatMessageMapper, chatSessionMapper, journal,
+                transactionTemplate, eventPublisher);
+        ReflectionTestUtils.setField(pipeline, "idNode", idNode);
+        ReflectionTestUtils.setField(pipeline, "brokerMode", brokerMode);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 2);
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "maxRetries", 1);
+        ReflectionTestUtils.setField(pipeline, "shutdownTimeoutMs", 5000L);
+        return pipeline;
+    }
+
+    private ChatMessageJournal newJournal() throws IOException {
+        ChatMessageJournal journal = new ChatMessageJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", 1L << 20);
+        ReflectionTestUtils.setField(journal, "fsync", false);
+        journal.init();
+        return journal;
+    }
+
+    private static ChatMessage message(long id, long sessionId) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSessionId(sessionId);
+        message.setSenderId(9L);
+        message.setContent("消息" + id);
+        message.setSentAt(LocalDateTime.now());
+        message.setIsRead(0);
+        return message;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replaysJournalSkippingPersistedMessages() throws IOException {
+        // 上次运行中消息1、3已入库，2、4、5尚未入库时进程崩溃
+        ChatMessageJournal crashed = newJournal();
+        for (long id = 1; id <= 5; id++) {
+            crashed.append(message(id, id % 2 + 1));
+        }
+        when(chatMessageMapper.selectBatchIds(anyCollection())).thenAnswer(invocation ->
+                ((List<Long>) invocation.getArgument(0)).stream()
+                        .filter(id -> id == 1L || id == 3L)
+                        .map(id -> message(id, id % 2 + 1))
+                        .collect(Collectors.toList()));
+        List<Long> inserted = new ArrayList<>();
+        when(chatMessageMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            ((List<ChatMessage>) invocation.getArgument(0)).forEach(message -> inserted.add(message.getId()));
+            return 0;
+        });
+
+        ChatMessageJournal journal = newJournal();
+        ChatMessagePipeline pipeline = newPipeline(journal, 3, "redis");
+        pipeline.start();
+        pipeline.shutdown();
+        journal.close();
+
+        assertEquals(List.of(2L, 4L, 5L), inserted);
+        assertEquals(3L, pipeline.getStatistics().get("recovered"));
+        assertEquals(0L, pipeline.getStatistics().get("failed"));
+        verify(chatSessionMapper).updateLastMessage(eq(1L), eq(4L), eq("消息4"), any());
+        verify(chatSessionMapper).updateLastMessage(eq(2L), eq(5L), eq("消息5"), any());
+        // 补写完成后遗留的段已删除
+        assertEquals(0L, segmentCount());
+    }
+
+    @Test
+    void keepsJournalWhenDatabaseIsUnavailable() throws IOException {
+        ChatMessageJournal crashed = newJournal();
+        crashed.append(message(1, 1));
+        when(chatMessageMapper.selectBatchIds(anyCollection())).thenThrow(new RuntimeException("数据库不可用"));
+
+        ChatMessageJournal journal = newJournal();
+        ChatMessagePipeline pipeline = newPipeline(journal, 3, "redis");
+        pipeline.start();
+        pipeline.shutdown();
+        journal.close();
+
+        verify(chatMessageMapper, never()).insertBatch(anyList());
+        assertEquals(1L, segmentCount());
+        assertEquals(1, newJournal().readRecovered().size());
+    }
+
+    @Test
+    void requiresExplicitIdNodeWhenDeployedOnMultipleNodes() throws IOException {
+        ChatMessageJournal journal = newJournal();
+        ChatMessagePipeline clustered = newPipeline(journal, -1, "redis");
+        IllegalStateException e = assertThrows(IllegalStateException.class, clustered::start);
+        assertTrue(e.getMessage().contains("app.chat.id-node"));
+
+        ChatMessagePipeline single = newPipeline(journal, -1, "simple");
+        single.start();
+        ChatMessage pending = message(0, 1);
+        pending.setId(null);
+        ChatMessage message = single.submit(pending);
+        single.shutdown();
+        journal.close();
+        // 单节点时节点号为0
+        assertEquals(0L, (message.getId() >> 7) & SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsMessageInJournalWhenInlineWriteFails() throws Exception {
+        ChatMessageJournal journal = newJournal();
+        ChatMessagePipeline pipeline = newPipeline(journal, 3, "redis");
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (!"chat-message-writer".equals(Thread.currentThread().getName())) {
+                throw new RuntimeException("数据库不可用");
+            }
+            writing.countDown();
+            release.await();
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        pipeline.start();
+
+        // 第一条被后台线程取走并阻塞在写入中，第二条占满队列，第三条由请求线程同步写入并失败
+        pipeline.submit(message(1, 1));
+        writing.await();
+        pipeline.submit(message(2, 1));
+        ChatMessage third = assertDoesNotThrow(() -> pipeline.submit(message(3, 1)));
+        assertEquals(3L, third.getId());
+        assertEquals(1L, pipeline.getStatistics().get("failed"));
+        assertTrue(pipeline.getInFlightMessages(1L).stream().noneMatch(message -> message.getId() == 3L));
+
+        release.countDown();
+        pipeline.shutdown();
+        journal.close();
+
+        // 重启后补写第三条消息，客户端不会因为报错而重发
+        List<Long> leftover = newJournal().readRecovered().stream()
+                .map(ChatMessage::getId).collect(Collectors.toList());
+        assertTrue(leftover.contains(3L));
+        assertEquals(2L, pipeline.getStatistics().get("written"));
+    }
+}
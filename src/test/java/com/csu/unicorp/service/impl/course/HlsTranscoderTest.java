@@ -0,0 +1,113 @@
+package com.csu.unicorp.service.impl.course;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.csu.unicorp.service.impl.course.HlsTranscoder.Rendition;
+import com.csu.unicorp.service.impl.course.HlsTranscoder.SourceInfo;
+
+/**
+ * HLS转码命令和播放列表测试
+ */
+public class HlsTranscoderTest {
+
+    private HlsTranscoder transcoder;
+
+    @BeforeEach
+    void setUp() {
+        transcoder = new HlsTranscoder();
+        ReflectionTestUtils.setField(transcoder, "ffmpegPath", "ffmpeg");
+        ReflectionTestUtils.setField(transcoder, "renditionSpec", "360:800,1080:5000,720:2800,480:1400");
+        ReflectionTestUtils.setField(transcoder, "audioBitrateKbps", 128);
+        ReflectionTestUtils.setField(transcoder, "segmentSeconds", 6);
+        ReflectionTestUtils.setField(transcoder, "preset", "veryfast");
+        transcoder.init();
+    }
+
+    @Test
+    void selectsRenditionsNotAboveSource() {
+        List<Rendition> renditions = transcoder.selectRenditions(new SourceInfo(60_000, 1280, 720, true));
+
+        assertEquals(List.of("720p", "480p", "360p"), renditions.stream().map(Rendition::getName).toList());
+    }
+
+    @Test
+    void smallSourceGetsSingleRenditionAtSourceHeight() {
+        List<Rendition> renditions = transcoder.selectRenditions(new SourceInfo(60_000, 320, 241, false));
+
+        assertEquals(1, renditions.size());
+        assertEquals(240, renditions.get(0).getHeight());
+        assertEquals(800, renditions.get(0).getVideoBitrateKbps());
+    }
+
+    @Test
+    void masterPlaylistListsVariantsWithBandwidthAndResolution() {
+        SourceInfo info = new SourceInfo(60_000, 1920, 1080, true);
+        String playlist = transcoder.masterPlaylist(info, List.of(new Rendition(720, 2800), new Rendition(360, 800)));
+
+        assertEquals("#EXTM3U\n#EXT-X-VERSION:3\n"
+                + "#EXT-X-STREAM-INF:BANDWIDTH=2928000,RESOLUTION=1280x720\n720p/index.m3u8\n"
+                + "#EXT-X-STREAM-INF:BANDWIDTH=928000,RESOLUTION=640x360\n360p/index.m3u8\n", playlist);
+    }
+
+    @Test
+    void renditionCommandAlignsKeyframesAndSkipsMissingAudio() {
+        SourceInfo silent = new SourceInfo(60_000, 1280, 720, false);
+        List<String> command = transcoder.renditionCommand(Paths.get("in.mp4"), silent,
+                new Rendition(480, 1400), Paths.get("out", "480p"));
+
+        assertTrue(command.contains("expr:gte(t,n_forced*6)"));
+        assertTrue(command.contains("scale=-2:480"));
+        assertFalse(command.contains("0:a:0"));
+        assertEquals(Paths.get("out", "480p", "index.m3u8").toString(), command.get(command.size() - 1));
+    }
+
+    @Test
+    void thumbnailTrackCoversDuration() {
+        String track = HlsTranscoder.thumbnailTrack(3, 10, 25_000);
+
+        assertEquals("WEBVTT\n"
+                + "\n00:00:00.000 --> 00:00:10.000\nthumbs/0001.jpg\n"
+                + "\n00:00:10.000 --> 00:00:20.000\nthumbs/0002.jpg\n"
+                + "\n00:00:20.000 --> 00:00:25.000\nthumbs/0003.jpg\n", track);
+    }
+
+    @Test
+    void parsesProgressOutput() {
+        assertEquals(1_500_000, HlsTranscoder.parseOutTimeMicros("out_time_us=1500000"));
+        assertEquals(1_500_000, HlsTranscoder.parseOutTimeMicros("out_time_ms=1500000"));
+        assertEquals(-1, HlsTranscoder.parseOutTimeMicros("out_time=00:00:01.500000"));
+        assertEquals(-1, HlsTranscoder.parseOutTimeMicros("out_time_us=N/A"));
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void killsHungFfmpegOnTimeout(@TempDir Path dir) throws IOException {
+        // 输出一行进度后不再输出也不退出
+        Path hung = dir.resolve("ffmpeg.sh");
+        Files.writeString(hung, "#!/bin/sh\necho out_time_us=1000000\nexec sleep 600\n");
+        assertTrue(hung.toFile().setExecutable(true));
+        ReflectionTestUtils.setField(transcoder, "ffmpegPath", hung.toString());
+        ReflectionTestUtils.setField(transcoder, "processTimeoutMinutes", 0L);
+
+        IOException e = assertThrows(IOException.class, () -> transcoder.extractCover(dir.resolve("in.mp4"),
+                new SourceInfo(60_000, 1280, 720, true), dir.resolve("cover.jpg"), null));
+        assertEquals("ffmpeg执行超时", e.getMessage());
+        transcoder.shutdown();
+    }
+}
@@ -0,0 +1,129 @@
+package com.csu.unicorp.service.impl.course;
+
+import com.csu.unicorp.entity.course.MediaTranscodeJob;
+import com.csu.unicorp.mapper.course.ChapterVideoMapper;
+import com.csu.unicorp.mapper.course.MediaTranscodeJobMapper;
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.service.impl.course.HlsTranscoder.SourceInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 章节视频转码任务队列测试
+ */
+public class MediaTranscodeQueueTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MediaTranscodeJobMapper jobMapper;
+    private ChapterVideoMapper videoMapper;
+    private HlsTranscoder transcoder;
+    private MediaTranscodeQueue queue;
+    private String workerNode;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jobMapper = mock(MediaTranscodeJobMapper.class);
+        videoMapper = mock(ChapterVideoMapper.class);
+        transcoder = mock(HlsTranscoder.class);
+        FileService fileService = mock(FileService.class);
+        Path source = Files.writeString(uploadDir.resolve("source.mp4"), "video");
+        when(fileService.resolveFile("courses/videos/source.mp4")).thenReturn(source);
+
+        queue = new MediaTranscodeQueue(jobMapper, videoMapper, transcoder, fileService,
+                mock(WatchProgressTracker.class));
+        ReflectionTestUtils.setField(queue, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(queue, "workers", 1);
+        ReflectionTestUtils.setField(queue, "maxAttempts", 2);
+        ReflectionTestUtils.setField(queue, "progressIntervalMs", 0L);
+        queue.start();
+        workerNode = (String) queue.getStatistics().get("workerNode");
+
+        MediaTranscodeJob job = new MediaTranscodeJob();
+        job.setId(1L);
+        job.setVideoId(7);
+        job.setSourcePath("courses/videos/source.mp4");
+        job.setStatus(MediaTranscodeJob.STATUS_RUNNING);
+        job.setAttempts(2);
+        when(jobMapper.selectPendingIds(1)).thenReturn(List.of(1L));
+        when(jobMapper.claim(1L, workerNode)).thenReturn(1);
+        when(jobMapper.selectById(1L)).thenReturn(job);
+        when(transcoder.probe(any())).thenReturn(new SourceInfo(10_000, 1280, 720, true));
+        when(transcoder.selectRenditions(any())).thenReturn(Collections.emptyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    private void runOneJob() throws InterruptedException {
+        queue.dispatch();
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Integer) queue.getStatistics().get("running") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, queue.getStatistics().get("running"));
+    }
+
+    @Test
+    void fencesUpdatesWithWorkerNodeAndAttempt() throws Exception {
+        when(jobMapper.updateProgress(eq(1L), anyString(), anyInt(), eq(workerNode), eq(2))).thenReturn(1);
+        when(jobMapper.finish(eq(1L), eq(MediaTranscodeJob.STATUS_SUCCEEDED), any(), isNull(), eq(workerNode), eq(2)))
+                .thenReturn(1);
+
+        runOneJob();
+
+        verify(jobMapper).finish(eq(1L), eq(MediaTranscodeJob.STATUS_SUCCEEDED), any(), isNull(), eq(workerNode), eq(2));
+        assertEquals(1L, queue.getStatistics().get("succeeded"));
+    }
+
+    @Test
+    void abortsWhenJobWasTakenOver() throws Exception {
+        // 任务已被放回并由其他节点领取，本节点的心跳不再生效
+        when(jobMapper.updateProgress(anyLong(), anyString(), anyInt(), anyString(), anyInt())).thenReturn(0);
+
+        runOneJob();
+
+        verify(transcoder, never()).probe(any());
+        verify(jobMapper, never()).finish(anyLong(), anyString(), any(), any(), anyString(), anyInt());
+        assertEquals(0L, queue.getStatistics().get("succeeded"));
+        assertEquals(0L, queue.getStatistics().get("failed"));
+    }
+
+    @Test
+    void deletesOutputsOnlyAfterCommit() throws Exception {
+        Path outputDir = Files.createDirectories(uploadDir.resolve(MediaTranscodeQueue.HLS_PATH + 7));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            queue.cancel(7);
+            assertTrue(Files.exists(outputDir));
+
+            // 回滚时保留已生成的文件
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertTrue(Files.exists(outputDir));
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertFalse(Files.exists(outputDir));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
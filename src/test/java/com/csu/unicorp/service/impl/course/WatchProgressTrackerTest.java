@@ -0,0 +1,160 @@
+package com.csu.unicorp.service.impl.course;
+
+import com.csu.unicorp.entity.course.ChapterVideo;
+import com.csu.unicorp.entity.course.VideoWatchRecord;
+import com.csu.unicorp.mapper.course.ChapterVideoMapper;
+import com.csu.unicorp.mapper.course.VideoWatchRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 观看进度写回缓冲测试
+ */
+public class WatchProgressTrackerTest {
+
+    private VideoWatchRecordMapper watchRecordMapper;
+    private ChapterVideoMapper videoMapper;
+    private WatchProgressTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        watchRecordMapper = mock(VideoWatchRecordMapper.class);
+        videoMapper = mock(ChapterVideoMapper.class);
+        tracker = new WatchProgressTracker(watchRecordMapper, videoMapper);
+        ReflectionTestUtils.setField(tracker, "durationCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(tracker, "durationCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(tracker, "maxFlushAttempts", 3);
+        tracker.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void coalescesHeartbeatsIntoOneUpsert() {
+        tracker.report(1, 10, 30, 100);
+        tracker.report(1, 10, 60, 100);
+        tracker.report(1, 10, 96, 100);
+        tracker.report(1, 10, 20, 100);
+        tracker.report(2, 10, 5, 100);
+
+        tracker.flush();
+
+        ArgumentCaptor<List<VideoWatchRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(watchRecordMapper, times(1)).upsertProgressBatch(captor.capture());
+        List<VideoWatchRecord> records = captor.getValue();
+        assertEquals(2, records.size());
+        VideoWatchRecord first = records.get(0);
+        assertEquals(1, first.getUserId());
+        assertEquals(10, first.getVideoId());
+        assertEquals(96, first.getWatchProgress());
+        assertEquals(20, first.getLastPosition());
+        assertTrue(first.getIsCompleted());
+        assertFalse(records.get(1).getIsCompleted());
+
+        // 没有新的上报时不再写数据库
+        tracker.flush();
+        verify(watchRecordMapper, times(1)).upsertProgressBatch(anyList());
+    }
+
+    @Test
+    void retriesWhenFlushFailsAndMergesPendingProgress() {
+        doThrow(new RuntimeException("db down")).doReturn(1).when(watchRecordMapper).upsertProgressBatch(anyList());
+        tracker.report(1, 10, 40, 0);
+        tracker.flush();
+
+        VideoWatchRecord persisted = new VideoWatchRecord();
+        persisted.setWatchProgress(80);
+        persisted.setLastPosition(80);
+        persisted.setIsCompleted(false);
+        VideoWatchRecord merged = tracker.merge(1, 10, persisted);
+        assertEquals(80, merged.getWatchProgress());
+        assertEquals(40, merged.getLastPosition());
+        assertFalse(merged.getIsCompleted());
+
+        tracker.flush();
+        verify(watchRecordMapper, times(2)).upsertProgressBatch(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dropsRowThatKeepsFailingAndFlushesTheRest() {
+        // 视频11的记录无法写入（如视频已被物理删除）
+        doAnswer(invocation -> {
+            List<VideoWatchRecord> records = invocation.getArgument(0);
+            if (records.stream().anyMatch(record -> record.getVideoId() == 11)) {
+                throw new DataIntegrityViolationException("foreign key");
+            }
+            return records.size();
+        }).when(watchRecordMapper).upsertProgressBatch(anyList());
+        tracker.report(1, 10, 40, 0);
+        tracker.report(1, 11, 40, 0);
+        tracker.report(2, 12, 40, 0);
+
+        tracker.flush();
+        tracker.flush();
+        assertEquals(0L, tracker.getStatistics().get("flushed"));
+
+        // 第三次失败后拆分，其余记录写回，失败的记录丢弃
+        tracker.flush();
+        assertEquals(2L, tracker.getStatistics().get("flushed"));
+        assertEquals(1L, tracker.getStatistics().get("dropped"));
+
+        clearInvocations(watchRecordMapper);
+        tracker.flush();
+        verify(watchRecordMapper, never()).upsertProgressBatch(anyList());
+    }
+
+    @Test
+    void keepsRetryingWholeBatchWhenDatabaseIsUnavailable() {
+        doThrow(new DataAccessResourceFailureException("db down")).when(watchRecordMapper).upsertProgressBatch(anyList());
+        tracker.report(1, 10, 40, 0);
+        tracker.report(2, 10, 40, 0);
+
+        for (int i = 0; i < 5; i++) {
+            tracker.flush();
+        }
+
+        verify(watchRecordMapper, times(5)).upsertProgressBatch(anyList());
+        assertEquals(0L, tracker.getStatistics().get("dropped"));
+        assertNotNull(tracker.merge(1, 10, null));
+    }
+
+    @Test
+    void removesIdleProgressAfterTwoCycles() {
+        tracker.report(1, 10, 40, 0);
+        tracker.flush();
+        tracker.flush();
+        assertNotNull(tracker.merge(1, 10, null));
+        tracker.flush();
+        assertNull(tracker.merge(1, 10, null));
+    }
+
+    @Test
+    void cachesVideoDuration() {
+        ChapterVideo video = new ChapterVideo();
+        video.setId(10);
+        video.setDuration(300);
+        video.setIsDeleted(false);
+        when(videoMapper.selectById(10)).thenReturn(video);
+
+        assertEquals(300, tracker.getDuration(10));
+        assertEquals(300, tracker.getDuration(10));
+        assertNull(tracker.getDuration(11));
+        assertNull(tracker.getDuration(11));
+        verify(videoMapper, times(1)).selectById(10);
+        verify(videoMapper, times(1)).selectById(11);
+
+        tracker.invalidateVideo(10);
+        tracker.getDuration(10);
+        verify(videoMapper, times(2)).selectById(10);
+    }
+}
@@ -0,0 +1,107 @@
+package com.csu.unicorp.service.impl.file;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.csu.unicorp.mapper.FileBlobMapper;
+
+/**
+ * 按内容寻址的文件存储测试
+ */
+public class ContentAddressedFileStoreTest {
+
+    private static final byte[] CONTENT = "same pdf uploaded by many teachers".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private FileBlobMapper blobMapper;
+    private TransactionTemplate transactionTemplate;
+    private FileCacheInvalidationRelay relay;
+    private ContentAddressedFileStore store;
+
+    @BeforeEach
+    void setUp() {
+        blobMapper = mock(FileBlobMapper.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        relay = mock(FileCacheInvalidationRelay.class);
+        store = new ContentAddressedFileStore(blobMapper, transactionTemplate, relay);
+        ReflectionTestUtils.setField(store, "blobDir", tempDir.resolve("blobs").toString());
+        ReflectionTestUtils.setField(store, "gcGraceMinutes", 60);
+    }
+
+    @Test
+    void storesNewContentOnceAndRegistersIt() throws Exception {
+        when(blobMapper.acquire(anyString())).thenReturn(0);
+
+        String contentHash = store.put(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+
+        assertEquals(64, contentHash.length());
+        assertArrayEquals(CONTENT, Files.readAllBytes(store.resolve(contentHash)));
+        verify(blobMapper).upsert(contentHash, CONTENT.length);
+    }
+
+    @Test
+    void reusesExistingContentWithoutWritingAgain() throws Exception {
+        when(blobMapper.acquire(anyString())).thenReturn(0);
+        String contentHash = store.put(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+        long modified = Files.getLastModifiedTime(store.resolve(contentHash)).toMillis();
+
+        when(blobMapper.acquire(contentHash)).thenReturn(1);
+        Path source = tempDir.resolve("upload.part");
+        Files.write(source, CONTENT);
+
+        assertEquals(contentHash, store.put(source));
+        assertFalse(Files.exists(source));
+        assertEquals(modified, Files.getLastModifiedTime(store.resolve(contentHash)).toMillis());
+        verify(blobMapper, times(1)).upsert(anyString(), anyLong());
+    }
+
+    @Test
+    void rewritesContentWhoseFileIsMissing() throws Exception {
+        when(blobMapper.acquire(anyString())).thenReturn(1);
+
+        String contentHash = store.put(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+
+        assertTrue(Files.exists(store.resolve(contentHash)));
+        verify(blobMapper, never()).upsert(anyString(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void collectsOnlyContentStillUnreferencedUnderLock() throws Exception {
+        when(blobMapper.acquire(anyString())).thenReturn(0);
+        String orphan = store.put(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+        String reacquired = store.put(new MockMultipartFile("file", "b.pdf", "application/pdf",
+                "another file".getBytes(StandardCharsets.UTF_8)));
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(blobMapper.selectCollectable(60, 200)).thenReturn(List.of(orphan, reacquired));
+        when(blobMapper.lockUnreferenced(orphan)).thenReturn(orphan);
+        when(blobMapper.lockUnreferenced(reacquired)).thenReturn(null);
+        when(blobMapper.deleteUnreferenced(orphan)).thenReturn(1);
+
+        store.collectGarbage();
+
+        assertFalse(Files.exists(store.resolve(orphan)));
+        assertTrue(Files.exists(store.resolve(reacquired)));
+        verify(blobMapper, never()).deleteUnreferenced(reacquired);
+        verify(relay).invalidate(FileCacheInvalidationRelay.CONTENT, orphan);
+        verify(relay, never()).invalidate(FileCacheInvalidationRelay.CONTENT, reacquired);
+    }
+}
@@ -0,0 +1,132 @@
+package com.csu.unicorp.service.impl.file;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 文件发送测试
+ */
+public class FileRangeSenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileRangeSender sender;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = new FileRangeSender();
+        ReflectionTestUtils.setField(sender, "sendfileMinSize", 49152L);
+        file = tempDir.resolve("video.mp4");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sender.send(request, response, file, null, null);
+        return response;
+    }
+
+    @Test
+    void returnsWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/f"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("video/mp4", response.getContentType());
+        assertNotNull(response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+    }
+
+    @Test
+    void returnsPartialContentForRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void suffixAndMultipleRangesAreResolved() {
+        assertArrayEquals(new long[] {7, 9}, FileRangeSender.resolveRange("bytes=-3", 10));
+        assertArrayEquals(new long[] {1, 8}, FileRangeSender.resolveRange("bytes=1-2,6-8", 10));
+        assertArrayEquals(new long[] {5, 9}, FileRangeSender.resolveRange("bytes=5-", 10));
+        assertArrayEquals(new long[0], FileRangeSender.resolveRange("items=1-2", 10));
+        assertNull(FileRangeSender.resolveRange("bytes=10-20", 10));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader("Range", "bytes=20-30");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void returnsNotModifiedForMatchingEtag() throws Exception {
+        String etag = send(new MockHttpServletRequest("GET", "/f")).getHeader("ETag");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeDoesNotMatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"stale\"");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void handsLargeRangesToSendfileWhenSupported() throws Exception {
+        ReflectionTestUtils.setField(sender, "sendfileMinSize", 1L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=4-");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(4L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void onlyRequestsFromStartAreInitial() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        assertTrue(sender.isInitialRequest(request));
+        request.addHeader("Range", "bytes=0-");
+        assertTrue(sender.isInitialRequest(request));
+
+        MockHttpServletRequest seek = new MockHttpServletRequest("GET", "/f");
+        seek.addHeader("Range", "bytes=1048576-");
+        assertFalse(sender.isInitialRequest(seek));
+    }
+}
@@ -0,0 +1,225 @@
+package com.csu.unicorp.service.impl.file;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.csu.unicorp.common.exception.BusinessException;
+import com.csu.unicorp.dto.FileUploadSessionDTO;
+import com.csu.unicorp.entity.FileUploadSession;
+import com.csu.unicorp.mapper.FileUploadSessionMapper;
+import com.csu.unicorp.service.FileService;
+import com.csu.unicorp.vo.FileUploadSessionVO;
+
+/**
+ * 分片上传服务测试
+ */
+public class FileUploadSessionServiceImplTest {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private FileUploadSessionMapper sessionMapper;
+    private FileService fileService;
+    private FileUploadSessionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        sessionMapper = mock(FileUploadSessionMapper.class);
+        fileService = mock(FileService.class);
+        service = new FileUploadSessionServiceImpl(sessionMapper, fileService);
+        ReflectionTestUtils.setField(service, "maxFileSize", 10L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "sessionDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "defaultChunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(service, "expireHours", 24);
+    }
+
+    private static byte[] content(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+    private static String sha256(byte[] bytes, int from, int to) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(bytes, from, to - from);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private FileUploadSession createSession(byte[] bytes) {
+        FileUploadSessionDTO dto = new FileUploadSessionDTO();
+        dto.setFileName("slides.pptx");
+        dto.setTotalSize((long) bytes.length);
+        FileUploadSessionVO vo = service.createSession(dto, "teacher1");
+
+        FileUploadSession session = new FileUploadSession();
+        session.setId(vo.getUploadId());
+        session.setOwnerAccount("teacher1");
+        session.setType("resource");
+        session.setOriginalName(vo.getFileName());
+        session.setTotalSize(vo.getTotalSize());
+        session.setChunkSize(vo.getChunkSize());
+        session.setChunkCount(vo.getChunkCount());
+        session.setStatus(FileUploadSession.STATUS_UPLOADING);
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(sessionMapper.selectById(vo.getUploadId())).thenReturn(session);
+        return session;
+    }
+
+    private void upload(FileUploadSession session, byte[] bytes, int index) throws Exception {
+        int from = index * CHUNK_SIZE;
+        int to = Math.min(bytes.length, from + CHUNK_SIZE);
+        service.uploadChunk(session.getId(), index, sha256(bytes, from, to),
+                new ByteArrayInputStream(bytes, from, to - from), "teacher1");
+    }
+
+    @Test
+    void writesChunksOutOfOrderIntoPreallocatedFile() throws Exception {
+        byte[] bytes = content(CHUNK_SIZE * 2 + 1000);
+        FileUploadSession session = createSession(bytes);
+        Path part = tempDir.resolve(session.getId() + ".part");
+
+        assertEquals(3, session.getChunkCount());
+        assertEquals(bytes.length, Files.size(part));
+
+        upload(session, bytes, 2);
+        upload(session, bytes, 0);
+        upload(session, bytes, 1);
+
+        assertArrayEquals(bytes, Files.readAllBytes(part));
+        verify(sessionMapper).upsertChunk(eq(session.getId()), eq(2), anyString());
+        verify(sessionMapper, times(3)).upsertChunk(eq(session.getId()), anyInt(), anyString());
+    }
+
+    @Test
+    void rejectsChunkWithWrongChecksumOrSize() throws Exception {
+        byte[] bytes = content(CHUNK_SIZE + 10);
+        FileUploadSession session = createSession(bytes);
+
+        assertThrows(BusinessException.class, () -> service.uploadChunk(session.getId(), 1,
+                sha256("other".getBytes(StandardCharsets.UTF_8), 0, 5),
+                new ByteArrayInputStream(bytes, CHUNK_SIZE, 10), "teacher1"));
+        assertThrows(BusinessException.class, () -> service.uploadChunk(session.getId(), 1,
+                sha256(bytes, CHUNK_SIZE, CHUNK_SIZE + 5),
+                new ByteArrayInputStream(bytes, CHUNK_SIZE, 5), "teacher1"));
+        verify(sessionMapper, never()).upsertChunk(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void failedRetryOfReceivedChunkUnrecordsIt() throws Exception {
+        byte[] bytes = content(CHUNK_SIZE + 10);
+        FileUploadSession session = createSession(bytes);
+        upload(session, bytes, 0);
+
+        // 重传已接收的分片时内容损坏，原有内容已被覆盖，分片需要重新上传
+        byte[] corrupted = bytes.clone();
+        corrupted[5] ^= 1;
+        assertThrows(BusinessException.class, () -> service.uploadChunk(session.getId(), 0,
+                sha256(bytes, 0, CHUNK_SIZE), new ByteArrayInputStream(corrupted, 0, CHUNK_SIZE), "teacher1"));
+
+        InOrder inOrder = inOrder(sessionMapper);
+        inOrder.verify(sessionMapper).deleteChunk(session.getId(), 0);
+        inOrder.verify(sessionMapper).upsertChunk(eq(session.getId()), eq(0), anyString());
+        inOrder.verify(sessionMapper).deleteChunk(session.getId(), 0);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void rejectsOtherAccountsAndIncompleteUploads() throws Exception {
+        byte[] bytes = content(CHUNK_SIZE + 10);
+        FileUploadSession session = createSession(bytes);
+
+        assertThrows(BusinessException.class, () -> service.getSession(session.getId(), "student1"));
+
+        when(sessionMapper.countChunks(session.getId())).thenReturn(1);
+        assertThrows(BusinessException.class, () -> service.completeSession(session.getId(), "teacher1"));
+        verify(sessionMapper, never()).complete(anyString(), any());
+        verifyNoInteractions(fileService);
+    }
+
+    @Test
+    void completesUploadThroughFileService() throws Exception {
+        byte[] bytes = content(100);
+        FileUploadSession session = createSession(bytes);
+        upload(session, bytes, 0);
+        when(sessionMapper.countChunks(session.getId())).thenReturn(1);
+        when(sessionMapper.complete(session.getId(), null)).thenReturn(1);
+        when(fileService.storeFile(tempDir.resolve(session.getId() + ".part"), "slides.pptx", "resource"))
+                .thenReturn("resources/abc_20250101000000.pptx");
+
+        FileUploadSessionVO vo = service.completeSession(session.getId(), "teacher1");
+
+        assertEquals(FileUploadSession.STATUS_COMPLETED, vo.getStatus());
+        assertEquals("resources/abc_20250101000000.pptx", vo.getFileUrl());
+    }
+
+    @Test
+    void restoresPartFileWhenCompletionRollsBack() throws Exception {
+        byte[] bytes = content(100);
+        FileUploadSession session = createSession(bytes);
+        upload(session, bytes, 0);
+        when(sessionMapper.countChunks(session.getId())).thenReturn(1);
+        when(sessionMapper.complete(session.getId(), null)).thenReturn(1);
+        Path part = tempDir.resolve(session.getId() + ".part");
+        Path target = tempDir.resolve("courses/resources/slides.pptx");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.completeSession(session.getId(), "teacher1", s -> target);
+            assertFalse(Files.exists(part));
+            assertArrayEquals(bytes, Files.readAllBytes(target));
+
+            // 插入资源记录失败，事务回滚后可以重新提交
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(part));
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(tempDir.resolve(session.getId() + ".part.bak")));
+    }
+
+    @Test
+    void dropsBackupWhenCompletionCommits() throws Exception {
+        byte[] bytes = content(100);
+        FileUploadSession session = createSession(bytes);
+        upload(session, bytes, 0);
+        when(sessionMapper.countChunks(session.getId())).thenReturn(1);
+        when(sessionMapper.complete(session.getId(), null)).thenReturn(1);
+        Path target = tempDir.resolve("courses/resources/slides.pptx");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.completeSession(session.getId(), "teacher1", s -> target);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+        assertFalse(Files.exists(tempDir.resolve(session.getId() + ".part")));
+        assertFalse(Files.exists(tempDir.resolve(session.getId() + ".part.bak")));
+    }
+}
@@ -0,0 +1,117 @@
+package com.csu.unicorp.service.impl.file;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 图片缩略图服务测试
+ */
+public class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileCacheInvalidationRelay relay;
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        relay = new FileCacheInvalidationRelay(null, null);
+        service = new ImageDerivativeService(relay);
+        ReflectionTestUtils.setField(service, "presetSpec", "xs:48,sm:96");
+        ReflectionTestUtils.setField(service, "cacheDir", tempDir.resolve("derivatives").toString());
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 4);
+        ReflectionTestUtils.setField(service, "waitMillis", 10_000L);
+        ReflectionTestUtils.setField(service, "maxSourcePixels", 50_000_000L);
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.85f);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private Path image(String name, int width, int height, int type, String format) throws Exception {
+        Path file = tempDir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, type), format, file.toFile());
+        return file;
+    }
+
+    @Test
+    void generatesDerivativeOnceAndReusesIt() throws Exception {
+        Path source = image("photo.png", 400, 200, BufferedImage.TYPE_INT_RGB, "png");
+
+        Path derivative = service.getDerivative(source, "sm");
+
+        assertNotNull(derivative);
+        assertTrue(derivative.toString().endsWith(".jpg"));
+        BufferedImage scaled = ImageIO.read(derivative.toFile());
+        assertEquals(96, scaled.getWidth());
+        assertEquals(48, scaled.getHeight());
+        assertEquals(derivative, service.getDerivative(source, "sm"));
+    }
+
+    @Test
+    void keepsTransparencyAsPng() throws Exception {
+        Path source = image("logo.png", 300, 300, BufferedImage.TYPE_INT_ARGB, "png");
+
+        Path derivative = service.getDerivative(source, "xs");
+
+        assertTrue(derivative.toString().endsWith(".png"));
+        assertTrue(ImageIO.read(derivative.toFile()).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void returnsSmallSourcesAndSkipsUnreadableFiles() throws Exception {
+        Path small = image("icon.png", 40, 40, BufferedImage.TYPE_INT_RGB, "png");
+        assertEquals(small, service.getDerivative(small, "sm"));
+
+        Path broken = tempDir.resolve("broken.jpg");
+        Files.write(broken, "not an image".getBytes(StandardCharsets.UTF_8));
+        assertNull(service.getDerivative(broken, "sm"));
+    }
+
+    @Test
+    void contentAddressedSourcesAreKeyedByTheirHash() throws Exception {
+        String contentHash = "ab".repeat(32);
+        assertEquals(contentHash, ImageDerivativeService.sourceDigest(
+                Files.write(tempDir.resolve(contentHash), new byte[] {1})));
+        assertEquals(Map.of("xs", 48, "sm", 96), ImageDerivativeService.parsePresets("xs:48, sm:96"));
+    }
+
+    @Test
+    void deletesDerivativesWhenContentIsCollected() throws Exception {
+        Path photo = image("photo.png", 400, 200, BufferedImage.TYPE_INT_RGB, "png");
+        String contentHash;
+        try (InputStream input = Files.newInputStream(photo)) {
+            contentHash = ContentAddressedFileStore.digest(input);
+        }
+        Path source = Files.move(photo, tempDir.resolve(contentHash));
+
+        Path derivative = service.getDerivative(source, "sm");
+        assertTrue(Files.exists(derivative));
+
+        relay.invalidate(FileCacheInvalidationRelay.CONTENT, contentHash);
+
+        assertFalse(Files.exists(derivative));
+        // 缓存的路径也已移除，重新生成
+        assertEquals(derivative, service.getDerivative(source, "sm"));
+        assertTrue(Files.exists(derivative));
+    }
+}
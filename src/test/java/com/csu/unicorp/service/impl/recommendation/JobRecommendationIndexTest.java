@@ -0,0 +1,140 @@
+package com.csu.unicorp.service.impl.recommendation;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.csu.unicorp.entity.job.Job;
+import com.csu.unicorp.entity.recommendation.JobFeature;
+import com.csu.unicorp.entity.recommendation.UserFeature;
+import com.csu.unicorp.mapper.job.JobMapper;
+import com.csu.unicorp.mapper.recommendation.JobFeatureMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 岗位推荐索引测试：索引选出的前K个岗位应与逐个岗位打分的结果一致
+ */
+public class JobRecommendationIndexTest {
+
+    private static final String[] SKILLS = {"Java", "Python", "SQL", "Spring", "Vue", "沟通能力", "团队协作", "Linux"};
+    private static final String[] KEYWORDS = {"后端开发", "前端", "数据分析", "计算机", "实习", "全职", "软件工程", "算法"};
+    private static final String[] EDUCATIONS = {"bachelor", "master", "doctorate", "any", null};
+    private static final String[] LOCATIONS = {"长沙", "北京", "上海", "湖南长沙", null};
+    private static final String[] JOB_TYPES = {"full_time", "part_time", "internship", "remote", null};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+
+    private JobFeatureMapper jobFeatureMapper;
+    private JobMapper jobMapper;
+    private JobRecommendationIndex index;
+    private List<JobFeatureVector> allVectors;
+
+    @BeforeAll
+    public static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Job.class);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<JobFeature> features = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        allVectors = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            Job job = new Job();
+            job.setId(i);
+            job.setOrganizationId(i % 7);
+            job.setTitle("岗位" + i);
+            job.setStatus("open");
+            job.setEducationRequirement(pick(EDUCATIONS));
+            job.setLocation(pick(LOCATIONS));
+            job.setJobType(pick(JOB_TYPES));
+            jobs.add(job);
+
+            JobFeature feature = new JobFeature();
+            feature.setJobId(i);
+            feature.setRequiredSkills(objectMapper.writeValueAsString(sample(SKILLS, random.nextInt(4))));
+            feature.setKeywords(objectMapper.writeValueAsString(sample(KEYWORDS, random.nextInt(5))));
+            features.add(feature);
+            allVectors.add(JobFeatureVector.of(feature, job, objectMapper));
+        }
+
+        jobFeatureMapper = mock(JobFeatureMapper.class);
+        jobMapper = mock(JobMapper.class);
+        when(jobFeatureMapper.selectAllActiveJobFeatures()).thenReturn(features);
+        when(jobMapper.selectList(any())).thenReturn(jobs);
+        index = new JobRecommendationIndex(jobFeatureMapper, jobMapper, objectMapper);
+    }
+
+    @Test
+    public void testTopKMatchesFullScan() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            UserFeature feature = new UserFeature();
+            feature.setUserId(round);
+            feature.setMajor(random.nextBoolean() ? pick(KEYWORDS).substring(0, 2) : null);
+            feature.setSkills(objectMapper.writeValueAsString(sample(SKILLS, random.nextInt(4))));
+            feature.setInterests(objectMapper.writeValueAsString(sample(KEYWORDS, random.nextInt(3))));
+            feature.setEducationLevel(pick(EDUCATIONS));
+            feature.setPreferredLocation(pick(LOCATIONS));
+            feature.setPreferredJobType(pick(JOB_TYPES));
+            UserFeatureVector user = UserFeatureVector.of(feature, objectMapper);
+
+            List<Double> expected = allVectors.stream()
+                    .map(vector -> JobMatchScorer.score(user, vector))
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .collect(Collectors.toList());
+            List<JobRecommendationIndex.ScoredJob> actual = index.topK(user, 10);
+
+            assertEquals(expected.size(), actual.size(), "返回数量应一致");
+            for (int i = 0; i < expected.size(); i++) {
+                JobRecommendationIndex.ScoredJob scoredJob = actual.get(i);
+                assertEquals(expected.get(i), scoredJob.getScore(), 1e-9, "第" + i + "个岗位分数应一致");
+                assertEquals(JobMatchScorer.score(user, scoredJob.getVector()), scoredJob.getScore(), 1e-9,
+                        "索引累加的分数应与完整评分一致");
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveJob() {
+        UserFeature feature = new UserFeature();
+        feature.setSkills("[\"Java\"]");
+        UserFeatureVector user = UserFeatureVector.of(feature, objectMapper);
+
+        Integer bestJobId = index.topK(user, 1).get(0).getJobId();
+        index.removeJob(bestJobId);
+
+        assertNull(index.get(bestJobId), "移除后索引中不应再有该岗位");
+        assertTrue(index.topK(user, 300).stream().noneMatch(job -> job.getJobId().equals(bestJobId)),
+                "移除后不应再被推荐");
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private List<String> sample(String[] values, int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String value = values[random.nextInt(values.length)];
+            if (value != null && !result.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
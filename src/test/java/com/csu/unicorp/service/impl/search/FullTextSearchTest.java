@@ -0,0 +1,50 @@
+package com.csu.unicorp.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.csu.unicorp.mapper.SearchDocumentMapper;
+
+/**
+ * 全文检索测试
+ */
+public class FullTextSearchTest {
+
+    private FullTextSearch fullTextSearch;
+
+    @BeforeEach
+    void setUp() {
+        List<SearchDocument> jobs = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            jobs.add(new SearchDocument(id, "Java开发工程师" + id, null, null));
+        }
+        SearchDocumentMapper mapper = mock(SearchDocumentMapper.class);
+        when(mapper.selectJobDocuments(null)).thenReturn(jobs);
+        fullTextSearch = new FullTextSearch(mapper);
+        ReflectionTestUtils.setField(fullTextSearch, "maxHits", 10);
+        fullTextSearch.init();
+    }
+
+    @Test
+    void filterSearchReturnsAllMatches() {
+        assertEquals(30, fullTextSearch.search(FullTextSearch.Target.JOB, "java").size());
+    }
+
+    @Test
+    void relevanceSearchIsCapped() {
+        assertEquals(10, fullTextSearch.searchRelevant(FullTextSearch.Target.JOB, "java").size());
+    }
+
+    @Test
+    void blankKeywordDoesNotFilter() {
+        assertNull(fullTextSearch.search(FullTextSearch.Target.JOB, " "));
+        assertNull(fullTextSearch.searchRelevant(FullTextSearch.Target.JOB, null));
+    }
+}
@@ -0,0 +1,75 @@
+package com.csu.unicorp.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 内存倒排索引测试
+ */
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(new SearchDocument(1L, "Java后端开发工程师", "Spring 长沙 某科技公司", "负责后端服务开发"));
+        index.put(new SearchDocument(2L, "前端开发实习生", "Vue 长沙", "参与前端页面开发，了解Java优先"));
+        index.put(new SearchDocument(3L, "数据分析师", "Python 北京", "负责业务数据分析"));
+    }
+
+    @Test
+    void chineseQueryMatchesAllBigrams() {
+        assertEquals(List.of(1L), index.search("后端开发", 10));
+        assertEquals(List.of(2L), index.search("前端", 10));
+        // 单字查询匹配单字
+        assertEquals(List.of(3L), index.search("析", 10));
+        // 二元组不全部出现时不匹配
+        assertTrue(index.search("后端分析", 10).isEmpty());
+    }
+
+    @Test
+    void titleMatchRanksFirst() {
+        assertEquals(List.of(1L, 2L), index.search("java", 10));
+    }
+
+    @Test
+    void wordsMatchByPrefixIgnoringCaseAndWidth() {
+        assertEquals(List.of(1L), index.search("SPR", 10));
+        assertEquals(List.of(2L), index.search("ｖｕｅ", 10));
+        assertEquals(List.of(2L), index.search("vue 长沙", 10));
+    }
+
+    @Test
+    void updateAndRemove() {
+        index.put(new SearchDocument(3L, "后端开发工程师", "Go 北京", null));
+        assertEquals(2, index.search("后端开发", 10).size());
+        assertTrue(index.search("python", 10).isEmpty());
+
+        index.remove(1L);
+        assertEquals(List.of(3L), index.search("后端开发", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void limitAndEmptyQuery() {
+        assertEquals(1, index.search("长沙", 1).size());
+        assertTrue(index.search("  ,. ", 10).isEmpty());
+        assertTrue(index.search("不存在的词", 10).isEmpty());
+    }
+
+    @Test
+    void unlimitedExpansionsMatchEveryPrefixedWord() {
+        InvertedIndex versions = new InvertedIndex();
+        for (long id = 100; id < 200; id++) {
+            versions.put(new SearchDocument(id, "v" + id, null, null));
+        }
+        // 默认只展开前64个词
+        assertEquals(64, versions.search("v1", Integer.MAX_VALUE).size());
+        assertEquals(100, versions.search("v1", Integer.MAX_VALUE, Integer.MAX_VALUE).size());
+    }
+}
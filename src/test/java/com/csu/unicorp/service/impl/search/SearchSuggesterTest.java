@@ -0,0 +1,72 @@
+package com.csu.unicorp.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.csu.unicorp.mapper.SuggestionSourceMapper;
+
+/**
+ * 搜索输入提示测试
+ */
+public class SearchSuggesterTest {
+
+    private SuggestionSourceMapper mapper;
+    private SearchSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(SuggestionSourceMapper.class);
+        when(mapper.selectSearchKeywords(any(), eq(3), eq(100)))
+                .thenReturn(new ArrayList<>(List.of(new Suggestion("java实习", 3L, null))));
+        suggester = new SearchSuggester(mapper);
+        ReflectionTestUtils.setField(suggester, "maxLimit", 10);
+        ReflectionTestUtils.setField(suggester, "keywordDays", 30);
+        ReflectionTestUtils.setField(suggester, "keywordMinCount", 3);
+        ReflectionTestUtils.setField(suggester, "keywordMaxSize", 100);
+        ReflectionTestUtils.setField(suggester, "keywordSearchersMaxSize", 1000L);
+        suggester.init();
+    }
+
+    @Test
+    void countsEachUserOnceForExistingKeywords() {
+        assertEquals(3L, suggester.suggest(SearchSuggester.Source.KEYWORD, "java", 5).get(0).getWeight());
+
+        suggester.recordSearch(1, "java实习");
+        suggester.recordSearch(1, "Java实习");
+        suggester.recordSearch(1, " java实习 ");
+        assertEquals(4L, suggester.suggest(SearchSuggester.Source.KEYWORD, "java", 5).get(0).getWeight());
+
+        suggester.recordSearch(2, "java实习");
+        assertEquals(5L, suggester.suggest(SearchSuggester.Source.KEYWORD, "java", 5).get(0).getWeight());
+    }
+
+    @Test
+    void doesNotAddNewKeywordsBetweenRebuilds() {
+        suggester.suggest(SearchSuggester.Source.KEYWORD, "java", 5);
+
+        for (int userId = 1; userId <= 10; userId++) {
+            suggester.recordSearch(userId, "javascript培训加微信");
+        }
+
+        List<Suggestion> suggestions = suggester.suggest(SearchSuggester.Source.KEYWORD, "javas", 5);
+        for (Suggestion suggestion : suggestions) {
+            assertNotEquals("javascript培训加微信", suggestion.getText());
+        }
+        assertEquals(1L, suggester.getStatistics().get("entriesKEYWORD"));
+    }
+
+    @Test
+    void ignoresSearchesBeforeKeywordsAreLoaded() {
+        suggester.recordSearch(1, "java实习");
+        verify(mapper, never()).selectSearchKeywords(any(), anyInt(), anyInt());
+        assertEquals(-1L, suggester.getStatistics().get("entriesKEYWORD"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.csu.unicorp.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 输入提示前缀树测试
+ */
+public class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie(5, true);
+        trie.putAll(List.of(
+                new Suggestion("Java开发工程师", 10L, null),
+                new Suggestion("Java实习生", 4L, null),
+                new Suggestion("JavaScript前端", 6L, null),
+                new Suggestion("高级Java开发工程师", 3L, null),
+                new Suggestion("数据分析师", 8L, null),
+                new Suggestion("Spring Boot", 5L, 7L)));
+    }
+
+    @Test
+    void prefixMatchesOrderedByWeight() {
+        assertEquals(List.of("Java开发工程师", "JavaScript前端", "Java实习生", "高级Java开发工程师"),
+                texts(trie.suggest("jav", 10)));
+        assertEquals(List.of("Java开发工程师", "JavaScript前端"), texts(trie.suggest("JAVA", 2)));
+        // 输入在压缩边中间结束，前缀匹配不足时其后补充纠错结果
+        List<Suggestion> javas = trie.suggest("javas", 10);
+        assertEquals("JavaScript前端", javas.get(0).getText());
+        assertEquals(0, javas.get(0).getDistance());
+        for (Suggestion suggestion : javas.subList(1, javas.size())) {
+            assertTrue(suggestion.getDistance() > 0);
+        }
+        assertEquals(List.of("数据分析师"), texts(trie.suggest("数据", 10)));
+    }
+
+    @Test
+    void matchesWordStartsInsideText() {
+        assertEquals(List.of("Java开发工程师", "高级Java开发工程师"), texts(trie.suggest("工程师", 10)));
+        List<Suggestion> boot = trie.suggest("boot", 10);
+        assertEquals(1, boot.size());
+        assertEquals("Spring Boot", boot.get(0).getText());
+        assertEquals(Long.valueOf(7L), boot.get(0).getRefId());
+        // 同一个英文单词中间不作为开头
+        for (Suggestion suggestion : trie.suggest("ava", 10)) {
+            assertTrue(suggestion.getDistance() > 0);
+        }
+    }
+
+    @Test
+    void correctsTyposWhenPrefixMatchesAreInsufficient() {
+        // 替换
+        List<Suggestion> replaced = trie.suggest("jeva", 10);
+        assertFalse(replaced.isEmpty());
+        assertEquals("Java开发工程师", replaced.get(0).getText());
+        assertEquals(1, replaced.get(0).getDistance());
+        // 相邻两字颠倒
+        assertTrue(texts(trie.suggest("sprnig", 10)).contains("Spring Boot"));
+        // 漏字
+        assertTrue(texts(trie.suggest("数据分师", 10)).contains("数据分析师"));
+        // 太短的输入不纠错
+        assertTrue(trie.suggest("jx", 10).isEmpty());
+    }
+
+    @Test
+    void incrementalUpdatesKeepRanking() {
+        trie.put("Java实习生", 20L, null);
+        assertEquals("Java实习生", trie.suggest("java", 1).get(0).getText());
+
+        trie.put("Java实习生", 1L, null);
+        assertEquals(List.of("Java开发工程师", "JavaScript前端"), texts(trie.suggest("java", 2)));
+
+        trie.adjust("Java全栈", 7);
+        assertEquals(List.of("Java开发工程师", "Java全栈"), texts(trie.suggest("java", 2)));
+
+        trie.remove("Java开发工程师");
+        assertEquals(List.of("Java全栈", "JavaScript前端", "高级Java开发工程师", "Java实习生"),
+                texts(trie.suggest("java", 10)));
+        assertEquals(List.of("高级Java开发工程师"), texts(trie.suggest("工程师", 10)));
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    void removingEverythingLeavesOnlyRoot() {
+        for (String text : List.of("Java开发工程师", "Java实习生", "JavaScript前端", "高级Java开发工程师",
+                "数据分析师", "Spring Boot")) {
+            trie.adjust(text, -100);
+        }
+        assertEquals(0, trie.size());
+        assertEquals(1, trie.nodeCount());
+        assertTrue(trie.suggest("java", 10).isEmpty());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        for (Suggestion suggestion : suggestions) {
+            texts.add(suggestion.getText());
+        }
+        return texts;
+    }
+}